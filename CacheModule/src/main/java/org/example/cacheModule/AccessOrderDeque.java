@@ -0,0 +1,70 @@
+package org.example.cacheModule;
+
+/**
+ * Doppelt verkettete Liste von {@link CacheItem}s in Zugriffsreihenfolge, die Verweise liegen in den Items selbst.
+ * Am Anfang steht das zuletzt verwendete Item. Alle Operationen sind O(1). Nicht threadsicher.
+ */
+final class AccessOrderDeque {
+    private CacheItem head;
+    private CacheItem tail;
+
+    boolean isEmpty() {
+        return head == null;
+    }
+
+    /**
+     * @param item Item
+     * @return true, wenn das Item in dieser Liste steht
+     */
+    boolean contains(CacheItem item) {
+        return item.deque == this;
+    }
+
+    void addFirst(CacheItem item) {
+        item.deque = this;
+        item.prev = null;
+        item.next = head;
+        if (head != null) head.prev = item;
+        head = item;
+        if (tail == null) tail = item;
+    }
+
+    void moveToFirst(CacheItem item) {
+        if (item == head) return;
+        remove(item);
+        addFirst(item);
+    }
+
+    void remove(CacheItem item) {
+        if (item.prev != null) item.prev.next = item.next;
+        else head = item.next;
+        if (item.next != null) item.next.prev = item.prev;
+        else tail = item.prev;
+        item.prev = null;
+        item.next = null;
+        item.deque = null;
+    }
+
+    /**
+     * @return Das am längsten nicht verwendete Item oder null
+     */
+    CacheItem peekLast() {
+        return tail;
+    }
+
+    /**
+     * Entfernt das am längsten nicht verwendete Item.
+     *
+     * @return Das entfernte Item oder null
+     */
+    CacheItem pollLast() {
+        CacheItem item = tail;
+        if (item != null) remove(item);
+        return item;
+    }
+
+    void clear() {
+        while (pollLast() != null) {
+        }
+    }
+}
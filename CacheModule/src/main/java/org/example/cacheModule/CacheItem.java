@@ -1,31 +1,104 @@
 package org.example.cacheModule;
 
-import org.example.command.Command;
+import org.example.command.CacheKey;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
- * Representiert ein Element im Cache.
+ * Representiert ein Element im Cache. Das Ergebnis liegt als String auf dem Heap, siehe {@link OffHeapCacheItem}
+ * für Ergebnisse außerhalb des Heaps. Negative Ergebnisse (z.B. unbekannter Code) liegen immer auf dem Heap und
+ * werden nicht von der Eviction verwaltet.
  */
 public class CacheItem {
-    private Command command;
-    private String result;
-    private long createdAt;
-    private long lastAccessedAt;
+    // geschätzter Speicher eines Eintrags ohne das Ergebnis (Item, Schlüssel, Eintrag der Map)
+    static final int ENTRY_OVERHEAD = 128;
+    private final CacheKey key;
+    private final String result;
+    private final int weight;
+    private final boolean negative;
+    private final long createdAt;
+    // wird von Lesern ohne Sperre gesetzt und beim Ablaufen unter der Sperre gelesen
+    private volatile long lastAccessedAt;
+    // Anzahl der Treffer für die Liste der meistverwendeten Schlüssel, ohne Sperre gezählt und daher ungenau
+    private int accessCount;
+    // Verkettung in der Zugriffsreihenfolge der Eviction (nur unter der Sperre des CacheSystems)
+    AccessOrderDeque deque;
+    CacheItem prev;
+    CacheItem next;
+    // Verkettung im Bucket des TimerWheel (nur unter der Sperre des CacheSystems)
+    CacheItem timerPrev;
+    CacheItem timerNext;
+
+    public CacheItem(CacheKey key, String result) {
+        // Ergebnisse sind ASCII, also ein Byte pro Zeichen (kompakte Strings)
+        this(key, result, ENTRY_OVERHEAD + result.length());
+    }
+
+    protected CacheItem(CacheKey key, String result, int weight) {
+        this(key, result, weight, false);
+    }
 
-    public CacheItem(Command command, String result) {
-        this.command = command;
+    /**
+     * @param negative true für ein negatives Ergebnis, siehe {@link org.example.command.Command#isNegativeResult()}
+     */
+    CacheItem(CacheKey key, String result, boolean negative) {
+        this(key, result, ENTRY_OVERHEAD + result.length(), negative);
+    }
+
+    private CacheItem(CacheKey key, String result, int weight, boolean negative) {
+        this.key = key;
         this.result = result;
+        this.weight = weight;
+        this.negative = negative;
         this.createdAt = System.currentTimeMillis();
         this.lastAccessedAt = System.currentTimeMillis();
     }
 
-    public Command getCommand() {
-        return command;
+    public CacheKey getKey() {
+        return key;
     }
 
     public String getResult() {
         return result;
     }
 
+    /**
+     * Übergibt das Ergebnis als UTF-8-Bytes an einen {@link ResultWriter}.
+     *
+     * @param writer Ziel des Ergebnisses
+     * @return false, wenn das Ergebnis nicht mehr verfügbar ist
+     * @throws IOException wenn nicht geschrieben werden konnte
+     */
+    boolean writeTo(ResultWriter writer) throws IOException {
+        writer.write(new ByteBuffer[]{StandardCharsets.UTF_8.encode(result)});
+        return true;
+    }
+
+    /**
+     * Wird aufgerufen, sobald das Item nicht mehr im Cache ist (ersetzt, abgelaufen, verdrängt oder abgelehnt).
+     */
+    void release() {
+    }
+
+    /**
+     * Gibt die geschätzte Größe des Eintrags in Bytes zurück, mit der er auf {@link Config#CACHE_MAX_BYTES}
+     * angerechnet wird.
+     *
+     * @return Größe in Bytes
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return true für ein negatives Ergebnis, das nur kurz und getrennt von den übrigen gespeichert wird
+     */
+    public boolean isNegative() {
+        return negative;
+    }
+
     public long getCreatedAt() {
         return createdAt;
     }
@@ -34,16 +107,15 @@ public class CacheItem {
         return lastAccessedAt;
     }
 
-    public void setCommand(Command command) {
-        this.command = command;
-    }
-
-    public void setResult(String result) {
-        this.result = result;
+    public int getAccessCount() {
+        return accessCount;
     }
 
-    public void setCreatedAt(long createdAt) {
-        this.createdAt = createdAt;
+    /**
+     * Zählt einen Treffer. Gleichzeitige Treffer können verloren gehen, für eine Rangfolge genügt das.
+     */
+    void recordAccess() {
+        accessCount++;
     }
 
     public void setLastAccessedAt(long lastAccessedAt) {
@@ -0,0 +1,174 @@
+package org.example.cacheModule;
+
+import org.example.command.CacheKey;
+import org.example.command.CommandType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot des Caches in einer Datei, damit ein Neustart des Servers nicht mit einem leeren Cache beginnt.
+ * <p>
+ * Format (big-endian): Kopf aus {@link #MAGIC}, {@link #VERSION} und dem Fingerabdruck des Datensatzes, danach pro
+ * Eintrag die {@link CommandType} (Ordinalzahl), die Argumente des Schlüssels und das Ergebnis als UTF-8-Bytes, am
+ * Ende die Anzahl der Einträge und eine Prüfsumme (CRC32C) über alle Bytes davor. Ein Snapshot mit anderem
+ * Fingerabdruck, anderer Version oder falscher Prüfsumme (z.B. abgebrochenes Schreiben) wird verworfen.
+ * <p>
+ * Geschrieben wird in eine temporäre Datei, die danach die alte ersetzt. Gelesen wird über
+ * {@link FileChannel#map}, die Ergebnisse werden ohne Umweg über einen String übergeben.
+ */
+final class CacheSnapshot {
+    static final int MAGIC = 0x53434348; // "SCCH"
+    // erhöhen, wenn sich das Format oder das Format der Ergebnisse ändert
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+    private static final int TRAILER_SIZE = 2 * Integer.BYTES;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Schreibt die Einträge in eine Datei.
+     *
+     * @param file        Zieldatei, wird ersetzt
+     * @param fingerprint Fingerabdruck des Datensatzes, aus dem die Ergebnisse berechnet wurden
+     * @param items       Die Einträge des Caches
+     * @return Anzahl der geschriebenen Einträge
+     * @throws IOException wenn die Datei nicht geschrieben werden konnte
+     */
+    static int write(Path file, long fingerprint, Iterable<CacheItem> items) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) Files.createDirectories(directory);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C checksum = new CRC32C();
+        int entries = 0;
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(fileOut, 64 * 1024), checksum))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            byte[] scratch = new byte[Config.CACHE_BLOCK_SIZE];
+            for (CacheItem item : items) {
+                // negative Ergebnisse laufen ohnehin nach kurzer Zeit ab
+                if (item.isNegative()) continue;
+                if (writeEntry(out, item, scratch)) entries++;
+            }
+            out.writeInt(entries);
+            out.writeInt((int) checksum.getValue());
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return entries;
+    }
+
+    /**
+     * Schreibt einen Eintrag. Das Ergebnis kommt über {@link CacheItem#writeTo(ResultWriter)}, liegt es außerhalb
+     * des Heaps, wird es also nicht dekodiert.
+     *
+     * @return false, wenn das Item inzwischen aus dem Cache entfernt wurde
+     */
+    private static boolean writeEntry(DataOutputStream out, CacheItem item, byte[] scratch) throws IOException {
+        CacheKey key = item.getKey();
+        return item.writeTo(parts -> {
+            String[] arguments = key.getArguments();
+            out.writeByte(key.getType().ordinal());
+            out.writeShort(arguments.length);
+            for (String argument : arguments) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+            int length = 0;
+            for (ByteBuffer part : parts) {
+                length += part.remaining();
+            }
+            out.writeInt(length);
+            for (ByteBuffer part : parts) {
+                while (part.hasRemaining()) {
+                    int chunk = Math.min(scratch.length, part.remaining());
+                    part.get(scratch, 0, chunk);
+                    out.write(scratch, 0, chunk);
+                }
+            }
+        });
+    }
+
+    /**
+     * Liest die Einträge einer Datei, wenn sie zum Datensatz passt.
+     *
+     * @param file        Die Datei
+     * @param fingerprint Fingerabdruck des aktuellen Datensatzes
+     * @param entrySink   Empfänger für jeden Eintrag: (Schlüssel, Ergebnis als UTF-8-Bytes)
+     * @return Anzahl der gelesenen Einträge, -1 wenn es keinen passenden, gültigen Snapshot gibt
+     * @throws IOException wenn die Datei nicht gelesen werden konnte
+     */
+    static int read(Path file, long fingerprint, BiConsumer<CacheKey, byte[]> entrySink) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                System.err.println("Cache snapshot " + file + " has an invalid size, discarded.");
+                return -1;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+        int checksumAt = buffer.limit() - Integer.BYTES;
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(0, checksumAt));
+        if ((int) checksum.getValue() != buffer.getInt(checksumAt)) {
+            System.err.println("Cache snapshot " + file + " is corrupt, discarded.");
+            return -1;
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            System.err.println("Cache snapshot " + file + " has an unknown format, discarded.");
+            return -1;
+        }
+        if (buffer.getLong() != fingerprint) {
+            System.err.println("Cache snapshot " + file + " belongs to another dataset, discarded.");
+            return -1;
+        }
+        int entries = buffer.getInt(checksumAt - Integer.BYTES);
+        CommandType[] types = CommandType.values();
+        int read = 0;
+        try {
+            for (; read < entries; read++) {
+                CommandType type = types[buffer.get()];
+                String[] arguments = new String[Short.toUnsignedInt(buffer.getShort())];
+                for (int j = 0; j < arguments.length; j++) {
+                    byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+                    buffer.get(bytes);
+                    arguments[j] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                byte[] result = new byte[buffer.getInt()];
+                buffer.get(result);
+                entrySink.accept(new CacheKey(type, arguments), result);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            // Prüfsumme stimmt, aber das Format nicht: nur möglich bei einem Fehler im Schreiben
+            System.err.println("Cache snapshot " + file + " could not be parsed: " + e);
+        }
+        return read;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.cacheModule;
+
+/**
+ * Schreibt regelmäßig einen Snapshot des Caches und die Liste der meistverwendeten Schlüssel, damit auch nach einem
+ * Absturz ein möglichst aktueller Stand geladen werden kann.
+ */
+public class CacheSnapshotTask implements Runnable {
+    private final CacheSystem cache;
+    private final long interval;
+
+    public CacheSnapshotTask(CacheSystem cache, long interval) {
+        this.cache = cache;
+        this.interval = interval;
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            cache.writeSnapshot();
+            cache.writeHotKeys();
+        }
+        System.err.println("CacheSnapshotTask shut down.");
+    }
+}
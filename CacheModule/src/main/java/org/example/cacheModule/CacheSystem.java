@@ -1,67 +1,761 @@
 package org.example.cacheModule;
 
+import org.example.command.CacheKey;
+import org.example.command.CacheStatistics;
+import org.example.command.CacheStatistics.Counter;
 import org.example.command.Command;
+import org.example.command.CommandCache;
+import org.example.command.CommandType;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 
 /**
- * Representiert die Cache-Verwaltung.
+ * Representiert die Cache-Verwaltung. Die Ergebnisse werden über {@link CacheKey} gefunden, gleiche Anfragen
+ * treffen also denselben Eintrag, auch wenn für jede Anfrage ein neuer Command erzeugt wird.
+ * <p>
+ * Der Cache ist durch eine Anzahl an Einträgen und eine Größe in Bytes begrenzt. Was bei vollem Cache passiert,
+ * bestimmt die {@link EvictionPolicy}. Suchen laufen ohne Sperre über die Map. Einfügen, Entfernen und die
+ * Buchführung der Eviction sind durch eine Sperre geschützt. Ein Treffer wird nur vermerkt, wenn die Sperre gerade
+ * frei ist: unter Last gehen einzelne Treffer für die Reihenfolge verloren, aber kein Leser wartet.
+ * <p>
+ * {@link #getOrExecute(Command)} führt gleichzeitige Misses mit gleichem Schlüssel zusammen (Single-Flight): nur
+ * die erste Anfrage führt den Command aus, die übrigen warten auf deren Ergebnis und werden als
+ * {@link #getCoalescedRequests() zusammengeführt} gezählt.
+ * <p>
+ * Mit {@link Config#CACHE_OFF_HEAP} liegen die Ergebnisse UTF-8-kodiert in einem {@link OffHeapStore} außerhalb des
+ * Heaps. {@link #write(CacheKey, ResultWriter)} gibt einen Treffer dann direkt aus diesem Speicher weiter, ohne
+ * einen String zu erzeugen.
+ * <p>
+ * Mit {@link #enableSnapshots(LongSupplier)} wird der Inhalt beim Beenden (und mit {@link Config#CACHE_SNAPSHOT_INTERVAL}
+ * regelmäßig) in einen {@link CacheSnapshot} geschrieben und beim nächsten Start wieder geladen, solange sich der
+ * Datensatz nicht geändert hat.
+ * <p>
+ * Mit {@link #enableHotKeys(Path, int)} wird zusätzlich eine Liste der {@link HotKeys meistverwendeten Schlüssel}
+ * geschrieben. Nach einem Neustart führt {@link #warmUp(List, int, long)} diese Commands parallel aus, mit einem
+ * Budget an Zeit und Threads. Das hilft auch, wenn sich der Datensatz geändert hat und der Snapshot verworfen wurde.
+ * <p>
+ * Einträge laufen ab, wenn sie länger als die Lebensdauer ihrer {@link CommandType} nicht verwendet wurden
+ * ({@link Config#CACHE_TTL_QUERY} usw.). Dafür steht jeder Eintrag in einem {@link TimerWheel}, das
+ * {@link #clean()} im Takt von {@link Config#CLEAN_UP_DELAY} und jedes Einfügen vorrückt. Abgelaufene Einträge
+ * werden bis dahin bei der Suche übergangen.
+ * <p>
+ * Negative Ergebnisse ({@link Command#isNegativeResult()}, z.B. unbekanntes Land) stehen in derselben Map, ein
+ * wiederholter ungültiger Code kostet also eine Suche. Sie zählen nicht zur Eviction, sondern zu einer eigenen
+ * Obergrenze, und laufen eine feste Zeit nach dem Einfügen ab, auch wenn sie weiter abgefragt werden.
+ * <p>
+ * Treffer, Misses, Einfügen, Ablehnen, Verdrängen, Ablaufen und die Dauer der Ausführungen werden pro
+ * {@link org.example.command.CommandType} ohne Sperre gezählt ({@link #getStatistics()}).
  */
-public class CacheSystem {
-    private ConcurrentHashMap<Command, CacheItem> cache;
+public class CacheSystem implements CommandCache {
+    private ConcurrentHashMap<CacheKey, CacheItem> cache;
     private final Thread cleanCacheTask;
+    private final EvictionPolicy evictionPolicy;
+    private final Eviction eviction;
+    private final ReentrantLock evictionLock;
+    // true, solange neue Elemente abgelehnt werden (die Meldung erscheint nur beim ersten)
+    private boolean full;
+    // Ergebnisse, die gerade berechnet werden
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<String>> inFlight;
+    private final StatsCounter stats;
+    // Lebensdauer ohne Zugriff pro CommandType in ms, 0 = kein Ablauf
+    private final long[] timeToLive;
+    private final TimerWheel timerWheel;
+    // negative Ergebnisse: Obergrenze, Lebensdauer ab dem Einfügen (0 = nicht cachen) und Anzahl (unter der Sperre)
+    private final int maxNegativeEntries;
+    private final long negativeTimeToLive;
+    private int negativeEntries;
+    // null, wenn die Ergebnisse auf dem Heap liegen
+    private final OffHeapStore offHeapStore;
+    // Snapshot, null solange keine Snapshots geschrieben werden
+    private volatile Path snapshotFile;
+    private long datasetFingerprint;
+    private Thread snapshotTask;
+    private final Object snapshotLock = new Object();
+    // Liste der meistverwendeten Schlüssel, null solange keine geschrieben wird
+    private volatile Path hotKeysFile;
+    private int hotKeyCount;
 
     public CacheSystem() {
+        this(Config.EVICTION_POLICY, Config.CACHE_SIZE, Config.CACHE_MAX_BYTES, Config.CACHE_OFF_HEAP);
+    }
+
+    public CacheSystem(EvictionPolicy evictionPolicy, int maxEntries, long maxBytes) {
+        this(evictionPolicy, maxEntries, maxBytes, false);
+    }
+
+    /**
+     * @param evictionPolicy Verhalten bei vollem Cache
+     * @param maxEntries     maximale Anzahl der Einträge
+     * @param maxBytes       maximale Größe der Einträge in Bytes (siehe {@link CacheItem#getWeight()})
+     * @param offHeap        true, um die Ergebnisse außerhalb des Heaps zu speichern
+     */
+    public CacheSystem(EvictionPolicy evictionPolicy, int maxEntries, long maxBytes, boolean offHeap) {
+        this(evictionPolicy, maxEntries, maxBytes, offHeap, configuredTimeToLive());
+    }
+
+    /**
+     * @param evictionPolicy Verhalten bei vollem Cache
+     * @param maxEntries     maximale Anzahl der Einträge
+     * @param maxBytes       maximale Größe der Einträge in Bytes (siehe {@link CacheItem#getWeight()})
+     * @param offHeap        true, um die Ergebnisse außerhalb des Heaps zu speichern
+     * @param timeToLive     Lebensdauer ohne Zugriff pro Command-Klasse in ms, 0 oder fehlend = kein Ablauf
+     */
+    public CacheSystem(EvictionPolicy evictionPolicy, int maxEntries, long maxBytes, boolean offHeap,
+                       Map<CommandType, Long> timeToLive) {
+        this(evictionPolicy, maxEntries, maxBytes, offHeap, timeToLive, Config.CACHE_NEGATIVE_SIZE,
+                Config.CACHE_NEGATIVE_TTL);
+    }
+
+    /**
+     * @param evictionPolicy     Verhalten bei vollem Cache
+     * @param maxEntries         maximale Anzahl der Einträge
+     * @param maxBytes           maximale Größe der Einträge in Bytes (siehe {@link CacheItem#getWeight()})
+     * @param offHeap            true, um die Ergebnisse außerhalb des Heaps zu speichern
+     * @param timeToLive         Lebensdauer ohne Zugriff pro Command-Klasse in ms, 0 oder fehlend = kein Ablauf
+     * @param maxNegativeEntries maximale Anzahl negativer Ergebnisse, zusätzlich zu maxEntries
+     * @param negativeTimeToLive Lebensdauer negativer Ergebnisse ab dem Einfügen in ms, 0 = nicht cachen
+     */
+    public CacheSystem(EvictionPolicy evictionPolicy, int maxEntries, long maxBytes, boolean offHeap,
+                       Map<CommandType, Long> timeToLive, int maxNegativeEntries, long negativeTimeToLive) {
+        this.maxNegativeEntries = maxNegativeEntries;
+        this.negativeTimeToLive = negativeTimeToLive;
         this.cache = new ConcurrentHashMap<>();
+        this.evictionPolicy = evictionPolicy;
+        this.stats = new StatsCounter();
+        this.timeToLive = new long[CommandType.values().length];
+        timeToLive.forEach((type, ttl) -> this.timeToLive[type.ordinal()] = ttl);
+        this.timerWheel = new TimerWheel(System.currentTimeMillis());
+        this.eviction = Eviction.create(evictionPolicy, maxEntries, maxBytes, victim -> {
+            if (cache.remove(victim.getKey(), victim)) {
+                timerWheel.deschedule(victim);
+                stats.record(Counter.EVICTIONS, victim.getKey());
+                victim.release();
+            }
+        });
+        // die Einträge bleiben durch ihr Gewicht unter maxBytes, ein Slab Reserve deckt Ergebnisse ab, die gerade
+        // eingefügt werden oder nach dem Verdrängen noch gelesen werden
+        this.offHeapStore = offHeap
+                ? new OffHeapStore(saturatedAdd(maxBytes, Config.CACHE_SLAB_SIZE), Config.CACHE_BLOCK_SIZE,
+                Config.CACHE_SLAB_SIZE)
+                : null;
+        this.evictionLock = new ReentrantLock();
+        this.inFlight = new ConcurrentHashMap<>();
         this.cleanCacheTask = new Thread(new CleanCacheTask(this), "CleanCacheTask-Thread");
         this.cleanCacheTask.start();
     }
 
+    private static Map<CommandType, Long> configuredTimeToLive() {
+        Map<CommandType, Long> timeToLive = new EnumMap<>(CommandType.class);
+        timeToLive.put(CommandType.QUERY, Config.CACHE_TTL_QUERY);
+        timeToLive.put(CommandType.REPORT, Config.CACHE_TTL_REPORT);
+        timeToLive.put(CommandType.ADMIN, Config.CACHE_TTL_ADMIN);
+        return timeToLive;
+    }
+
     /**
-     * Fügt ein Element in den Cache ein.
+     * Fügt ein Element in den Cache ein. Ein vorhandenes Element mit gleichem Schlüssel wird ersetzt. Ist der Cache
+     * voll, wird gemäß {@link EvictionPolicy} verdrängt oder das neue Element abgelehnt.
      *
-     * @param command Der Befehl
-     * @param result  Das Ergebnis zum Befehl
+     * @param key    Schlüssel des Befehls
+     * @param result Das Ergebnis zum Befehl
+     */
+    @Override
+    public void put(CacheKey key, String result) {
+        // das Kopieren in den Speicher außerhalb des Heaps braucht die Sperre nicht
+        insert(key, offHeapStore == null ? new CacheItem(key, result)
+                : OffHeapCacheItem.create(key, result, offHeapStore));
+    }
+
+    /**
+     * Fügt ein kodiertes Ergebnis ein, z.B. aus einem Snapshot. Liegen die Ergebnisse außerhalb des Heaps, werden
+     * die Bytes direkt kopiert.
+     */
+    private void put(CacheKey key, byte[] result) {
+        insert(key, offHeapStore == null ? new CacheItem(key, new String(result, StandardCharsets.UTF_8))
+                : OffHeapCacheItem.create(key, result, offHeapStore));
+    }
+
+    /**
+     * @param item Das neue Item oder null, wenn außerhalb des Heaps kein Platz war
+     */
+    private void insert(CacheKey key, CacheItem item) {
+        evictionLock.lock();
+        try {
+            if (item == null || !eviction.admit(item)) {
+                if (!full) System.err.println("Cache is full. Command can't be cached.");
+                full = true;
+                stats.record(Counter.REJECTIONS, key);
+                if (item != null) item.release();
+                return;
+            }
+            full = false;
+            stats.record(Counter.PUTS, key);
+            long now = System.currentTimeMillis();
+            advanceTimerWheel(now);
+            CacheItem previous = cache.put(key, item);
+            if (previous != null) removed(previous);
+            long ttl = timeToLive(item);
+            if (ttl > 0) timerWheel.schedule(item, now + ttl + 1);
+            eviction.onInsert(item);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Fügt ein negatives Ergebnis ein (siehe {@link Command#isNegativeResult()}). Es läuft nach der Lebensdauer für
+     * negative Ergebnisse ab und wird abgelehnt, wenn deren Obergrenze erreicht ist. Ein vorhandenes Ergebnis mit
+     * gleichem Schlüssel bleibt erhalten.
+     *
+     * @param key    Schlüssel des Befehls
+     * @param result Das negative Ergebnis
+     */
+    public void putNegative(CacheKey key, String result) {
+        if (negativeTimeToLive <= 0) return;
+        CacheItem item = new CacheItem(key, result, true);
+        evictionLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            advanceTimerWheel(now);
+            if (negativeEntries >= maxNegativeEntries) {
+                stats.record(Counter.REJECTIONS, key);
+                return;
+            }
+            if (cache.putIfAbsent(key, item) != null) return;
+            negativeEntries++;
+            stats.record(Counter.NEGATIVE_PUTS, key);
+            timerWheel.schedule(item, now + negativeTimeToLive + 1);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Räumt ein Item auf, das ersetzt wurde. Nur unter der Sperre.
+     */
+    private void removed(CacheItem item) {
+        timerWheel.deschedule(item);
+        if (item.isNegative()) {
+            negativeEntries--;
+        } else {
+            eviction.onRemove(item);
+        }
+        item.release();
+    }
+
+    /**
+     * Gibt das Ergebnis zum Schlüssel zurück. Ein Treffer kostet genau eine Suche in der Map.
+     *
+     * @param key Schlüssel des Befehls
+     * @return Das Ergebnis zum Befehl oder null
+     */
+    @Override
+    public String get(CacheKey key) {
+        String result = lookup(key);
+        stats.record(result == null ? Counter.MISSES : Counter.HITS, key);
+        return result;
+    }
+
+    /**
+     * Sucht ein Ergebnis, ohne Treffer und Misses zu zählen.
+     */
+    private String lookup(CacheKey key) {
+        CacheItem item = find(key);
+        return item == null ? null : item.getResult();
+    }
+
+    /**
+     * Sucht ein Item, das noch nicht abgelaufen ist, und vermerkt den Zugriff.
      */
-    public void put(Command command, String result) {
-        if (cache.size() <= Config.CACHE_SIZE) {
-            cache.put(command, new CacheItem(command, result));
-            return;
+    private CacheItem find(CacheKey key) {
+        CacheItem item = cache.get(key);
+        if (item == null) return null;
+        long now = System.currentTimeMillis();
+        // abgelaufen, aber noch nicht vom TimerWheel entfernt
+        if (isExpired(item, now)) return null;
+        item.setLastAccessedAt(now);
+        item.recordAccess();
+        if (!item.isNegative() && evictionLock.tryLock()) {
+            try {
+                eviction.onAccess(item);
+            } finally {
+                evictionLock.unlock();
+            }
         }
-        System.err.println("Cache is full. Command can't be cached.");
+        return item;
+    }
+
+    /**
+     * Übergibt das Ergebnis zum Schlüssel als UTF-8-Bytes an einen {@link ResultWriter}. Liegen die Ergebnisse
+     * außerhalb des Heaps, zeigen die übergebenen Puffer direkt auf diesen Speicher, es wird weder ein String noch
+     * eine Kopie auf dem Heap erzeugt. Gezählt werden nur Treffer, bei einem Miss sucht der Aufrufer anschließend mit {@link #get(CacheKey)}.
+     *
+     * @param key    Schlüssel des Befehls
+     * @param writer Ziel des Ergebnisses, z.B. die Verbindung des Clients
+     * @return true bei einem Treffer, false wenn der Schlüssel nicht im Cache ist
+     * @throws IOException wenn das Ergebnis nicht geschrieben werden konnte
+     */
+    public boolean write(CacheKey key, ResultWriter writer) throws IOException {
+        CacheItem item = find(key);
+        if (item == null || !item.writeTo(writer)) return false;
+        stats.record(Counter.HITS, key);
+        return true;
     }
 
+
     /**
-     * Gibt das Ergebnis zum Befehl zurück.
+     * Gibt das Ergebnis eines Commands aus dem Cache zurück oder führt ihn bei einem Miss aus. Läuft für denselben
+     * Schlüssel bereits eine Ausführung, wird auf deren Ergebnis gewartet, statt den Command noch einmal auszuführen.
+     * Schlägt die Ausführung fehl, erhalten alle Wartenden denselben Fehler, eingefügt wird nichts. Wurde sie nur
+     * abgebrochen (z.B. Frist der ersten Anfrage abgelaufen), versuchen es die Wartenden erneut.
+     * <p>
+     * Zählt keine Treffer und Misses, die Aufrufer suchen zuerst mit {@link #get(CacheKey)}. Gezählt werden die
+     * Ausführungen mit ihrer Dauer und die zusammengeführten Anfragen.
      *
-     * @param command Der Befehl
+     * @param command Ein Command, der gecacht werden kann
      * @return Das Ergebnis zum Befehl
+     * @throws RemoteException       wenn der Command nicht ausgeführt werden konnte
+     * @throws CancellationException wenn der wartende Thread unterbrochen wird
+     */
+    @Override
+    public String getOrExecute(Command command) throws RemoteException {
+        CacheKey key = command.getCacheKey();
+        boolean coalesced = false;
+        while (true) {
+            String cached = lookup(key);
+            if (cached != null) return cached;
+            CompletableFuture<String> flight = new CompletableFuture<>();
+            CompletableFuture<String> running = inFlight.putIfAbsent(key, flight);
+            if (running == null) return execute(command, key, flight);
+            if (!coalesced) stats.record(Counter.COALESCED, key);
+            coalesced = true;
+            try {
+                return running.get();
+            } catch (CancellationException e) {
+                // die erste Anfrage wurde abgebrochen, diese hat eine eigene Frist
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for " + key);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RemoteException remoteException) throw remoteException;
+                if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+                if (cause instanceof Error error) throw error;
+                throw new RemoteException("Error while executing " + key, cause);
+            }
+        }
+    }
+
+    /**
+     * Führt den Command als erste Anfrage für den Schlüssel aus. Das Ergebnis steht im Cache, bevor die
+     * Ausführung aus {@link #inFlight} entfernt wird, eine neue Anfrage findet also eins von beiden.
      */
-    public String get(Command command) {
-        CacheItem item = cache.get(command);
-        if (item != null) {
-            item.setLastAccessedAt(System.currentTimeMillis());
+    private String execute(Command command, CacheKey key, CompletableFuture<String> flight) throws RemoteException {
+        long start = System.nanoTime();
+        try {
+            String result = command.execute();
+            stats.recordLoad(key, System.nanoTime() - start, true);
+            if (command.isNegativeResult()) {
+                putNegative(key, result);
+            } else {
+                put(key, result);
+            }
+            flight.complete(result);
+            return result;
+        } catch (Throwable t) {
+            stats.recordLoad(key, System.nanoTime() - start, false);
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
         }
-        return item != null ? item.getResult() : null;
     }
 
     /**
-     * Löscht alle Elemente aus dem Cache, die älter als {@link Config#CLEAN_UP_INTERVAL} sind.
+     * Gibt die Anzahl der Anfragen zurück, die auf die Ausführung einer anderen Anfrage gewartet haben, statt den
+     * Command selbst auszuführen.
+     *
+     * @return Anzahl der zusammengeführten Anfragen
+     */
+    public long getCoalescedRequests() {
+        return stats.sum(Counter.COALESCED);
+    }
+
+    /**
+     * Gibt eine Momentaufnahme der Statistik zurück.
+     *
+     * @return Zähler insgesamt und pro Klasse, Anzahl und Größe der Einträge
+     */
+    public CacheStatistics getStatistics() {
+        return stats.snapshot(size(), getWeightedSize());
+    }
+
+    /**
+     * Löscht alle Elemente aus dem Cache, die länger als ihre Lebensdauer nicht verwendet wurden. Durchläuft nicht
+     * den ganzen Cache, sondern nur die fälligen Buckets des {@link TimerWheel}.
      */
     public void clean() {
-        cache.forEach((command, cachedItem) -> {
-            if (System.currentTimeMillis() - cachedItem.getLastAccessedAt() > Config.CLEAN_UP_INTERVAL) {
-                cache.remove(command);
+        evictionLock.lock();
+        try {
+            advanceTimerWheel(System.currentTimeMillis());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Entfernt die Items aus den fälligen Buckets des TimerWheel, die länger als ihre Lebensdauer nicht verwendet
+     * wurden. Items mit einem Zugriff seit dem Einplanen werden für ihre neue Ablaufzeit eingeplant. Nur unter der
+     * Sperre.
+     */
+    private void advanceTimerWheel(long now) {
+        timerWheel.advance(now, item -> {
+            if (!isExpired(item, now)) {
+                timerWheel.schedule(item, expiresAt(item) + 1);
+                return;
+            }
+            if (cache.remove(item.getKey(), item)) {
+                removed(item);
+                stats.record(Counter.EXPIRATIONS, item.getKey());
             }
         });
     }
 
+    private boolean isExpired(CacheItem item, long now) {
+        return timeToLive(item) > 0 && now > expiresAt(item);
+    }
+
+    /**
+     * Negative Ergebnisse laufen eine feste Zeit nach dem Einfügen ab, die übrigen nach ihrem letzten Zugriff.
+     */
+    private long expiresAt(CacheItem item) {
+        long since = item.isNegative() ? item.getCreatedAt() : item.getLastAccessedAt();
+        return since + timeToLive(item);
+    }
+
+    private long timeToLive(CacheItem item) {
+        return item.isNegative() ? negativeTimeToLive : timeToLive[item.getKey().getType().ordinal()];
+    }
+
+    /**
+     * Gibt die Anzahl der negativen Ergebnisse zurück, die in {@link #size()} enthalten sind.
+     *
+     * @return Anzahl der negativen Ergebnisse
+     */
+    public int getNegativeSize() {
+        evictionLock.lock();
+        try {
+            return negativeEntries;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der Einträge zurück.
+     *
+     * @return Anzahl der Einträge
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gibt die geschätzte Größe aller Einträge zurück.
+     *
+     * @return Größe in Bytes
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return eviction.getWeightedSize();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * @return true, wenn die Ergebnisse außerhalb des Heaps liegen
+     */
+    public boolean isOffHeap() {
+        return offHeapStore != null;
+    }
+
+    /**
+     * Gibt die Größe der belegten Blöcke außerhalb des Heaps zurück.
+     *
+     * @return Größe in Bytes, 0 wenn die Ergebnisse auf dem Heap liegen
+     */
+    public long getOffHeapUsedBytes() {
+        return offHeapStore == null ? 0 : offHeapStore.getUsedBytes();
+    }
+
+    /**
+     * Gibt die Größe des angelegten Speichers außerhalb des Heaps zurück.
+     *
+     * @return Größe in Bytes, 0 wenn die Ergebnisse auf dem Heap liegen
+     */
+    public long getOffHeapReservedBytes() {
+        return offHeapStore == null ? 0 : offHeapStore.getReservedBytes();
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < a ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Lädt den Snapshot aus {@link Config#CACHE_SNAPSHOT_PATH} und schreibt ihn beim Beenden neu, siehe
+     * {@link #enableSnapshots(Path, long, long)}. Ohne Pfad passiert nichts, auch der Fingerabdruck wird dann
+     * nicht abgefragt (dafür muss in der Regel der Datensatz geladen werden).
+     *
+     * @param datasetFingerprint liefert den Fingerabdruck des Datensatzes, aus dem die Ergebnisse berechnet werden
+     * @return Anzahl der geladenen Einträge
+     */
+    public int enableSnapshots(LongSupplier datasetFingerprint) {
+        if (Config.CACHE_SNAPSHOT_PATH.isEmpty()) return 0;
+        return enableSnapshots(Path.of(Config.CACHE_SNAPSHOT_PATH), datasetFingerprint.getAsLong(),
+                Config.CACHE_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Lädt einen vorhandenen Snapshot, wenn er zum Datensatz passt, und schreibt den Inhalt des Caches beim
+     * Beenden sowie alle {@code interval} ms in dieselbe Datei. Ein Snapshot eines anderen Datensatzes wird
+     * verworfen und beim nächsten Schreiben ersetzt.
+     *
+     * @param file               Datei des Snapshots
+     * @param datasetFingerprint Fingerabdruck des Datensatzes, aus dem die Ergebnisse berechnet werden
+     * @param interval           Abstand der Snapshots in ms, 0 = nur beim Beenden
+     * @return Anzahl der geladenen Einträge
+     */
+    public int enableSnapshots(Path file, long datasetFingerprint, long interval) {
+        int restored = 0;
+        long start = System.nanoTime();
+        try {
+            restored = Math.max(0, CacheSnapshot.read(file, datasetFingerprint, this::put));
+        } catch (IOException e) {
+            System.err.println("Cache snapshot " + file + " could not be read: " + e.getMessage());
+        }
+        if (restored > 0) {
+            System.err.println("Cache snapshot restored: " + restored + " entries in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        }
+        this.datasetFingerprint = datasetFingerprint;
+        this.snapshotFile = file;
+        if (interval > 0 && snapshotTask == null) {
+            snapshotTask = new Thread(new CacheSnapshotTask(this, interval), "CacheSnapshotTask-Thread");
+            snapshotTask.setDaemon(true);
+            snapshotTask.start();
+        }
+        return restored;
+    }
+
+    /**
+     * Schreibt den Inhalt des Caches in die Datei aus {@link #enableSnapshots(Path, long, long)}.
+     *
+     * @return Anzahl der geschriebenen Einträge, -1 wenn keine Snapshots aktiv sind oder das Schreiben fehlschlug
+     */
+    public int writeSnapshot() {
+        Path file = snapshotFile;
+        if (file == null) return -1;
+        synchronized (snapshotLock) {
+            try {
+                return CacheSnapshot.write(file, datasetFingerprint, cache.values());
+            } catch (IOException e) {
+                System.err.println("Cache snapshot " + file + " could not be written: " + e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Liest die Liste der meistverwendeten Schlüssel aus {@link Config#CACHE_HOT_KEYS_PATH} und schreibt sie beim
+     * Beenden neu, siehe {@link #enableHotKeys(Path, int)}. Ohne Pfad passiert nichts.
+     *
+     * @return Die Schlüssel des letzten Laufs als Anfragezeilen, der meistverwendete zuerst
+     */
+    public List<String> enableHotKeys() {
+        if (Config.CACHE_HOT_KEYS_PATH.isEmpty()) return List.of();
+        return enableHotKeys(Path.of(Config.CACHE_HOT_KEYS_PATH), Config.CACHE_HOT_KEYS);
+    }
+
+    /**
+     * Liest eine vorhandene Liste der meistverwendeten Schlüssel und schreibt die aktuelle Liste beim Beenden sowie
+     * mit jedem regelmäßigen Snapshot in dieselbe Datei.
+     *
+     * @param file  Datei der Liste
+     * @param count Anzahl der Schlüssel, die geschrieben werden
+     * @return Die Schlüssel des letzten Laufs als Anfragezeilen, der meistverwendete zuerst
+     */
+    public List<String> enableHotKeys(Path file, int count) {
+        List<String> hotKeys = List.of();
+        try {
+            hotKeys = HotKeys.read(file);
+        } catch (IOException e) {
+            System.err.println("Cache hot keys " + file + " could not be read: " + e.getMessage());
+        }
+        this.hotKeyCount = count;
+        this.hotKeysFile = file;
+        return hotKeys;
+    }
+
     /**
-     * Beendet den Cache.
+     * Gibt die Schlüssel mit den meisten Treffern zurück.
+     *
+     * @param count maximale Anzahl der Schlüssel
+     * @return Die Schlüssel, der meistverwendete zuerst
+     */
+    public List<CacheKey> getHotKeys(int count) {
+        if (count <= 0) return List.of();
+        Comparator<CacheItem> byAccessCount = Comparator.comparingInt(CacheItem::getAccessCount);
+        // die count meistverwendeten Items, das am wenigsten verwendete oben
+        PriorityQueue<CacheItem> hottest = new PriorityQueue<>(count, byAccessCount);
+        for (CacheItem item : cache.values()) {
+            if (item.isNegative()) continue;
+            if (hottest.size() < count) {
+                hottest.add(item);
+            } else if (item.getAccessCount() > hottest.peek().getAccessCount()) {
+                hottest.poll();
+                hottest.add(item);
+            }
+        }
+        List<CacheItem> items = new ArrayList<>(hottest);
+        items.sort(byAccessCount.reversed());
+        List<CacheKey> keys = new ArrayList<>(items.size());
+        for (CacheItem item : items) {
+            keys.add(item.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Schreibt die Liste der meistverwendeten Schlüssel in die Datei aus {@link #enableHotKeys(Path, int)}.
+     *
+     * @return Anzahl der geschriebenen Schlüssel, -1 wenn keine Liste geschrieben wird oder das Schreiben fehlschlug
+     */
+    public int writeHotKeys() {
+        Path file = hotKeysFile;
+        if (file == null) return -1;
+        List<CacheKey> keys = getHotKeys(hotKeyCount);
+        synchronized (snapshotLock) {
+            try {
+                HotKeys.write(file, keys);
+                return keys.size();
+            } catch (IOException e) {
+                System.err.println("Cache hot keys " + file + " could not be written: " + e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Wärmt den Cache mit {@link Config#CACHE_WARM_UP_THREADS} Threads und {@link Config#CACHE_WARM_UP_TIME} ms
+     * vor, siehe {@link #warmUp(List, int, long)}.
+     *
+     * @param commands Die Commands, der wichtigste zuerst
+     * @return Anzahl der geladenen Ergebnisse
+     */
+    public int warmUp(List<? extends Command> commands) {
+        return warmUp(commands, Config.CACHE_WARM_UP_THREADS, Config.CACHE_WARM_UP_TIME);
+    }
+
+    /**
+     * Führt Commands aus und fügt ihre Ergebnisse ein, z.B. die meistverwendeten des letzten Laufs nach einem
+     * Neustart. Die Threads arbeiten die Liste der Reihe nach ab, Schlüssel, die bereits im Cache sind (etwa aus
+     * dem Snapshot), werden übersprungen. Ist das Zeitbudget verbraucht, wird kein weiterer Command begonnen, die
+     * laufenden werden noch beendet. Gleichzeitige Anfragen von Clients werden über
+     * {@link #getOrExecute(Command)} mit dem Vorwärmen zusammengeführt. Fehlerhafte Commands werden übergangen.
+     *
+     * @param commands   Die Commands, der wichtigste zuerst. Nur Commands, die gecacht werden können, werden
+     *                   ausgeführt
+     * @param threads    Anzahl der Threads (CPU-Budget)
+     * @param timeBudget Zeitbudget in ms, 0 = nicht vorwärmen
+     * @return Anzahl der geladenen Ergebnisse
+     */
+    public int warmUp(List<? extends Command> commands, int threads, long timeBudget) {
+        if (commands.isEmpty() || threads <= 0 || timeBudget <= 0) return 0;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger loaded = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < commands.size(); i = next.getAndIncrement()) {
+                if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) return;
+                Command command = commands.get(i);
+                CacheKey key = command.getCacheKey();
+                if (!command.isCacheable() || cache.containsKey(key)) continue;
+                try {
+                    getOrExecute(command);
+                    loaded.incrementAndGet();
+                    stats.record(Counter.WARM_UPS, key);
+                } catch (RemoteException | RuntimeException e) {
+                    // als Fehler gezählt, das Ergebnis wird bei der ersten Anfrage erneut berechnet
+                }
+            }
+        };
+        Thread[] workers = new Thread[Math.min(threads, commands.size())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(worker, "CacheWarmUp-Thread-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        try {
+            for (Thread thread : workers) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread thread : workers) {
+                thread.interrupt();
+            }
+            Thread.currentThread().interrupt();
+        }
+        System.err.println("Cache warm-up: " + loaded.get() + " of " + commands.size() + " keys loaded in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return loaded.get();
+    }
+
+    /**
+     * Beendet den Cache. Sind Snapshots bzw. die Liste der meistverwendeten Schlüssel aktiv, werden sie vorher
+     * geschrieben.
      */
     public void shutdown() {
         cleanCacheTask.interrupt();
-        cache.clear();
+        if (snapshotTask != null) snapshotTask.interrupt();
+        int written = writeSnapshot();
+        if (written >= 0) System.err.println("Cache snapshot written: " + written + " entries.");
+        written = writeHotKeys();
+        if (written >= 0) System.err.println("Cache hot keys written: " + written + " keys.");
+        evictionLock.lock();
+        try {
+            cache.values().forEach(CacheItem::release);
+            cache.clear();
+            eviction.clear();
+            timerWheel.clear();
+            negativeEntries = 0;
+        } finally {
+            evictionLock.unlock();
+        }
         System.err.println("CacheSystem shut down.");
     }
 }
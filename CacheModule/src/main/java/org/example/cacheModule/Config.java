@@ -1,8 +1,43 @@
 package org.example.cacheModule;
 
 public class Config {
-    public static final int CACHE_SIZE = 1024;
+    // maximale Anzahl der Einträge
+    public static final int CACHE_SIZE = Integer.getInteger("server.cacheSize", 100_000);
+    // maximale Größe der gespeicherten Ergebnisse in Bytes (geschätzt, siehe CacheItem#getWeight)
+    public static final long CACHE_MAX_BYTES = Long.getLong("server.cacheMaxBytes", 32L * 1024 * 1024);
+    // Verhalten bei vollem Cache, wählbar über -Dserver.cacheEviction=REJECT|LRU|TINY_LFU
+    public static final EvictionPolicy EVICTION_POLICY =
+            EvictionPolicy.valueOf(System.getProperty("server.cacheEviction", "TINY_LFU").toUpperCase());
+    // Ergebnisse UTF-8-kodiert außerhalb des Heaps speichern (-Dserver.cacheOffHeap=true)
+    public static final boolean CACHE_OFF_HEAP = Boolean.getBoolean("server.cacheOffHeap");
+    // Größe eines Blocks außerhalb des Heaps, ein Ergebnis belegt ganze Blöcke
+    public static final int CACHE_BLOCK_SIZE = Integer.getInteger("server.cacheBlockSize", 256);
+    // Größe der direkten Puffer, die bei Bedarf angelegt werden
+    public static final int CACHE_SLAB_SIZE = Integer.getInteger("server.cacheSlabSize", 1024 * 1024);
+    // Snapshot des Caches für einen warmen Neustart, leer = kein Snapshot (-Dserver.cacheSnapshot=)
+    public static final String CACHE_SNAPSHOT_PATH = System.getProperty("server.cacheSnapshot", "cache.snapshot");
+    // Abstand der Snapshots in ms während der Server läuft, 0 = nur beim Beenden
+    public static final long CACHE_SNAPSHOT_INTERVAL = Long.getLong("server.cacheSnapshotInterval", 0);
+    // Liste der meistverwendeten Schlüssel zum Vorwärmen nach einem Neustart, leer = keine (-Dserver.cacheHotKeys=)
+    public static final String CACHE_HOT_KEYS_PATH = System.getProperty("server.cacheHotKeys", "cache.hotkeys");
+    // Anzahl der Schlüssel in dieser Liste
+    public static final int CACHE_HOT_KEYS = Integer.getInteger("server.cacheHotKeyCount", 500);
+    // Zeitbudget des Vorwärmens in ms, 0 = nicht vorwärmen
+    public static final long CACHE_WARM_UP_TIME = Long.getLong("server.cacheWarmUpTime", 10_000);
+    // CPU-Budget des Vorwärmens: Anzahl der Threads, die die Commands ausführen
+    public static final int CACHE_WARM_UP_THREADS = Integer.getInteger("server.cacheWarmUpThreads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    // Standard-Lebensdauer eines Eintrags ohne Zugriff in ms
     public static final long CLEAN_UP_INTERVAL = 60_000;
-    public static final long CLEAN_UP_DELAY = 10_000;
+    // Lebensdauer ohne Zugriff pro Command-Klasse in ms, 0 = kein Ablauf
+    public static final long CACHE_TTL_QUERY = Long.getLong("server.cacheTtlQuery", CLEAN_UP_INTERVAL);
+    public static final long CACHE_TTL_REPORT = Long.getLong("server.cacheTtlReport", CLEAN_UP_INTERVAL);
+    public static final long CACHE_TTL_ADMIN = Long.getLong("server.cacheTtlAdmin", 1_000);
+    // negative Ergebnisse (z.B. unbekannter Code): Lebensdauer ab dem Einfügen in ms, 0 = nicht cachen
+    public static final long CACHE_NEGATIVE_TTL = Long.getLong("server.cacheNegativeTtl", 5_000);
+    // maximale Anzahl negativer Ergebnisse, getrennt von CACHE_SIZE
+    public static final int CACHE_NEGATIVE_SIZE = Integer.getInteger("server.cacheNegativeSize", 10_000);
+    // Takt, in dem abgelaufene Einträge entfernt werden (Auflösung des TimerWheel)
+    public static final long CLEAN_UP_DELAY = 1_000;
 
 }
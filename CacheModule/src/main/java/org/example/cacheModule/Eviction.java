@@ -0,0 +1,102 @@
+package org.example.cacheModule;
+
+import java.util.function.Consumer;
+
+/**
+ * Buchführung einer {@link EvictionPolicy}: zählt Einträge und Bytes im Cache und wählt die Einträge, die
+ * verdrängt werden. Alle Methoden werden unter der Sperre des {@link CacheSystem} aufgerufen.
+ */
+abstract class Eviction {
+    protected final int maxEntries;
+    protected final long maxWeight;
+    // entfernt ein verdrängtes Item aus der Map des Caches
+    private final Consumer<CacheItem> evictor;
+    private int entries;
+    private long weightedSize;
+
+    protected Eviction(int maxEntries, long maxWeight, Consumer<CacheItem> evictor) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.evictor = evictor;
+    }
+
+    /**
+     * Erzeugt die Buchführung zu einer Policy.
+     *
+     * @param policy     Die Policy
+     * @param maxEntries maximale Anzahl der Einträge
+     * @param maxWeight  maximale Größe in Bytes
+     * @param evictor    entfernt ein verdrängtes Item aus der Map
+     * @return Die Buchführung
+     */
+    static Eviction create(EvictionPolicy policy, int maxEntries, long maxWeight, Consumer<CacheItem> evictor) {
+        return switch (policy) {
+            case REJECT -> new RejectEviction(maxEntries, maxWeight, evictor);
+            case LRU -> new LruEviction(maxEntries, maxWeight, evictor);
+            case TINY_LFU -> new TinyLfuEviction(maxEntries, maxWeight, evictor);
+        };
+    }
+
+    /**
+     * Prüft, ob ein neues Item in den Cache darf. Ein Ergebnis, das größer als der ganze Cache ist, würde alle
+     * anderen verdrängen und wird nie aufgenommen.
+     *
+     * @param item Das neue Item
+     * @return true, wenn das Item eingefügt werden darf
+     */
+    boolean admit(CacheItem item) {
+        return item.getWeight() <= maxWeight;
+    }
+
+    /**
+     * Nimmt ein eingefügtes Item auf und verdrängt danach Items, bis die Kapazität wieder eingehalten wird.
+     *
+     * @param item Das eingefügte Item
+     */
+    void onInsert(CacheItem item) {
+        entries++;
+        weightedSize += item.getWeight();
+    }
+
+    /**
+     * Vermerkt einen Treffer.
+     *
+     * @param item Das gefundene Item
+     */
+    abstract void onAccess(CacheItem item);
+
+    /**
+     * Entfernt ein Item aus der Buchführung (ersetzt, abgelaufen oder verdrängt).
+     *
+     * @param item Das entfernte Item
+     */
+    void onRemove(CacheItem item) {
+        entries--;
+        weightedSize -= item.getWeight();
+    }
+
+    void clear() {
+        entries = 0;
+        weightedSize = 0;
+    }
+
+    /**
+     * Entfernt ein Item aus dem Cache und aus der Buchführung.
+     */
+    protected void evict(CacheItem item) {
+        evictor.accept(item);
+        onRemove(item);
+    }
+
+    protected boolean isOverCapacity() {
+        return entries > maxEntries || weightedSize > maxWeight;
+    }
+
+    int getEntries() {
+        return entries;
+    }
+
+    long getWeightedSize() {
+        return weightedSize;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.cacheModule;
+
+/**
+ * Verhalten des Caches, wenn ein neues Ergebnis die Kapazität ({@link Config#CACHE_SIZE} Einträge bzw.
+ * {@link Config#CACHE_MAX_BYTES} Bytes) überschreiten würde.
+ */
+public enum EvictionPolicy {
+    // neue Ergebnisse werden abgelehnt, der Cache behält die zuerst gespeicherten (bisheriges Verhalten)
+    REJECT,
+    // das am längsten nicht verwendete Ergebnis wird verdrängt
+    LRU,
+    // Window-TinyLFU: neue Ergebnisse kommen in ein kleines LRU-Fenster und verdrängen danach nur Einträge, die
+    // seltener angefragt werden (Häufigkeit aus einer Count-Min-Sketch), ein Scan verdrängt also keine heißen Einträge
+    TINY_LFU
+}
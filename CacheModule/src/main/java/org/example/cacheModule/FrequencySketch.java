@@ -0,0 +1,82 @@
+package org.example.cacheModule;
+
+/**
+ * Count-Min-Sketch mit 4-Bit-Zählern zur Schätzung, wie oft ein Schlüssel in letzter Zeit angefragt wurde.
+ * Jeder Schlüssel zählt in vier Zählern, die Schätzung ist das Minimum. Nach {@code 10 * Breite} Erhöhungen werden
+ * alle Zähler halbiert, damit alte Häufigkeiten verblassen. Nicht threadsicher.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    // 16 Zähler pro long, beim Halbieren darf kein Bit in den Nachbarzähler wandern
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries ungefähre Anzahl der Einträge im Cache
+     */
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(16, expectedEntries) - 1) << 1;
+        table = new long[width];
+        sampleSize = 10 * width;
+    }
+
+    /**
+     * @param hash Hash des Schlüssels
+     * @return Geschätzte Häufigkeit (0 bis 15)
+     */
+    int frequency(int hash) {
+        int spread = spread(hash);
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int offset = counterOffset(spread, i);
+            frequency = Math.min(frequency, (int) ((table[indexOf(spread, i)] >>> offset) & 0xF));
+        }
+        return frequency;
+    }
+
+    /**
+     * Erhöht die Häufigkeit eines Schlüssels um eins.
+     *
+     * @param hash Hash des Schlüssels
+     */
+    void increment(int hash) {
+        int spread = spread(hash);
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(spread, i);
+            int offset = counterOffset(spread, i);
+            if (((table[index] >>> offset) & 0xF) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int spread, int i) {
+        long hash = (spread + SEEDS[i]) * SEEDS[i];
+        hash += hash >>> 32;
+        return (int) hash & (table.length - 1);
+    }
+
+    private static int counterOffset(int spread, int i) {
+        return ((spread >>> (i << 3)) & 0xF) << 2;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
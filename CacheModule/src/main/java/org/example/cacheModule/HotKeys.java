@@ -0,0 +1,69 @@
+package org.example.cacheModule;
+
+import org.example.command.CacheKey;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liste der meistverwendeten Schlüssel in einer Textdatei, mit der der Cache nach einem Neustart vorgewärmt wird.
+ * <p>
+ * Pro Zeile ein Schlüssel als Anfragezeile, also seine Argumente mit ";" getrennt (z.B. "q;DEU;SP.POP.TOTL"), der
+ * meistverwendete zuerst. Zeilen mit "#" am Anfang sind Kommentare. Anders als ein {@link CacheSnapshot} enthält die
+ * Liste keine Ergebnisse, sie bleibt also auch nach einem Wechsel des Datensatzes gültig.
+ */
+final class HotKeys {
+    private static final String COMMENT = "#";
+
+    private HotKeys() {
+    }
+
+    /**
+     * Schreibt die Schlüssel in eine Datei.
+     *
+     * @param file Zieldatei, wird ersetzt
+     * @param keys Die Schlüssel, der meistverwendete zuerst
+     * @throws IOException wenn die Datei nicht geschrieben werden konnte
+     */
+    static void write(Path file, List<CacheKey> keys) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) Files.createDirectories(directory);
+        List<String> lines = new ArrayList<>(keys.size() + 1);
+        lines.add(COMMENT + " " + keys.size() + " hot cache keys, most used first");
+        for (CacheKey key : keys) {
+            lines.add(String.join(";", key.getArguments()));
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Liest die Schlüssel einer Datei.
+     *
+     * @param file Die Datei
+     * @return Die Schlüssel als Anfragezeilen, leer, wenn es die Datei nicht gibt
+     * @throws IOException wenn die Datei nicht gelesen werden konnte
+     */
+    static List<String> read(Path file) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return List.of();
+        }
+        lines.removeIf(line -> line.isBlank() || line.startsWith(COMMENT));
+        return lines;
+    }
+}
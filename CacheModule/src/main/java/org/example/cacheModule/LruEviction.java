@@ -0,0 +1,42 @@
+package org.example.cacheModule;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link EvictionPolicy#LRU}: verdrängt das am längsten nicht verwendete Item.
+ */
+final class LruEviction extends Eviction {
+    private final AccessOrderDeque deque;
+
+    LruEviction(int maxEntries, long maxWeight, Consumer<CacheItem> evictor) {
+        super(maxEntries, maxWeight, evictor);
+        deque = new AccessOrderDeque();
+    }
+
+    @Override
+    void onInsert(CacheItem item) {
+        super.onInsert(item);
+        deque.addFirst(item);
+        while (isOverCapacity()) {
+            evict(deque.peekLast());
+        }
+    }
+
+    @Override
+    void onAccess(CacheItem item) {
+        // das Item kann seit der Suche in der Map entfernt worden sein
+        if (deque.contains(item)) deque.moveToFirst(item);
+    }
+
+    @Override
+    void onRemove(CacheItem item) {
+        super.onRemove(item);
+        deque.remove(item);
+    }
+
+    @Override
+    void clear() {
+        super.clear();
+        deque.clear();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.cacheModule;
+
+import org.example.command.CacheKey;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Element im Cache, dessen Ergebnis UTF-8-kodiert im {@link OffHeapStore} liegt. Auf dem Heap bleiben nur der
+ * Schlüssel, die Nummern der Blöcke und die Zeitstempel, lange lebende Ergebnisse belasten also nicht die Old
+ * Generation.
+ * <p>
+ * Die Blöcke werden erst freigegeben, wenn das Item aus dem Cache entfernt ist ({@link #release()}) und kein Leser
+ * sie mehr verwendet. Dafür zählt das Item seine Referenzen: eine für den Cache und eine pro laufendem Lesezugriff.
+ */
+final class OffHeapCacheItem extends CacheItem {
+    private final OffHeapStore store;
+    private final int[] blocks;
+    private final int length;
+    private final AtomicInteger references;
+
+    private OffHeapCacheItem(CacheKey key, OffHeapStore store, int[] blocks, int length) {
+        super(key, null, ENTRY_OVERHEAD + blocks.length * store.getBlockSize());
+        this.store = store;
+        this.blocks = blocks;
+        this.length = length;
+        this.references = new AtomicInteger(1);
+    }
+
+    /**
+     * Kodiert ein Ergebnis und kopiert es in den Speicher.
+     *
+     * @param key    Schlüssel des Befehls
+     * @param result Das Ergebnis zum Befehl
+     * @param store  Speicher außerhalb des Heaps
+     * @return Das Item oder null, wenn der Speicher voll ist
+     */
+    static OffHeapCacheItem create(CacheKey key, String result, OffHeapStore store) {
+        return create(key, result.getBytes(StandardCharsets.UTF_8), store);
+    }
+
+    /**
+     * Kopiert ein kodiertes Ergebnis in den Speicher.
+     *
+     * @param key   Schlüssel des Befehls
+     * @param bytes Das Ergebnis als UTF-8-Bytes
+     * @param store Speicher außerhalb des Heaps
+     * @return Das Item oder null, wenn der Speicher voll ist
+     */
+    static OffHeapCacheItem create(CacheKey key, byte[] bytes, OffHeapStore store) {
+        int[] blocks = store.write(bytes);
+        return blocks == null ? null : new OffHeapCacheItem(key, store, blocks, bytes.length);
+    }
+
+    /**
+     * Dekodiert das Ergebnis.
+     *
+     * @return Das Ergebnis oder null, wenn das Item inzwischen entfernt wurde
+     */
+    @Override
+    public String getResult() {
+        if (!retain()) return null;
+        try {
+            return new String(store.read(blocks, length), StandardCharsets.UTF_8);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Übergibt Sichten auf die Blöcke, ohne das Ergebnis auf den Heap zu kopieren. Die Blöcke bleiben während des
+     * Aufrufs belegt, auch wenn das Item gleichzeitig verdrängt wird.
+     */
+    @Override
+    boolean writeTo(ResultWriter writer) throws IOException {
+        if (!retain()) return false;
+        try {
+            writer.write(store.views(blocks, length));
+            return true;
+        } finally {
+            release();
+        }
+    }
+
+    private boolean retain() {
+        while (true) {
+            int current = references.get();
+            if (current == 0) return false;
+            if (references.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    @Override
+    void release() {
+        if (references.decrementAndGet() == 0) store.free(blocks);
+    }
+}
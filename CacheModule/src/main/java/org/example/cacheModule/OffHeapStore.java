@@ -0,0 +1,186 @@
+package org.example.cacheModule;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Speicher für Ergebnisse außerhalb des Heaps: direkte {@link ByteBuffer} (Slabs) fester Größe, aufgeteilt in
+ * Blöcke von {@link Config#CACHE_BLOCK_SIZE} Bytes. Ein Ergebnis belegt so viele Blöcke wie nötig, die nicht
+ * zusammenhängen müssen, freigegebene Blöcke werden wiederverwendet. Es gibt also keine Fragmentierung, verschenkt
+ * wird höchstens ein Teil des letzten Blocks.
+ * <p>
+ * Slabs werden erst bei Bedarf angelegt und bis zum Beenden des Caches behalten. Ein Block wird über seine Nummer
+ * adressiert (Slab * Blöcke pro Slab + Block im Slab), auf dem Heap bleibt pro Ergebnis nur das Array der Nummern.
+ * Belegen und Freigeben sind synchronisiert, gelesen und geschrieben wird ohne Sperre über absolute Zugriffe:
+ * ein Block gehört bis zur Freigabe genau einem Ergebnis.
+ */
+final class OffHeapStore {
+    private final int blockSize;
+    private final int slabSize;
+    private final int blocksPerSlab;
+    private final int maxBlocks;
+    // wird nur unter der Sperre vergrößert, Leser sehen den neuen Stand über die Map des Caches
+    private ByteBuffer[] slabs;
+    private int slabCount;
+    // Anzahl der Blöcke in den Slabs, die noch nie belegt waren, beginnen bei dieser Nummer
+    private int nextBlock;
+    private int[] freeBlocks;
+    private int freeCount;
+    private int usedBlocks;
+
+    /**
+     * @param maxBytes  maximale Größe aller Slabs
+     * @param blockSize Größe eines Blocks in Bytes
+     * @param slabSize  Größe eines Slabs in Bytes, wird auf ein Vielfaches der Blockgröße abgerundet
+     */
+    OffHeapStore(long maxBytes, int blockSize, int slabSize) {
+        if (blockSize <= 0 || slabSize < blockSize) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize + " or slab size " + slabSize);
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSlab = slabSize / blockSize;
+        this.slabSize = blocksPerSlab * blockSize;
+        this.maxBlocks = (int) Math.min(Integer.MAX_VALUE, Math.max(maxBytes / blockSize, blocksPerSlab));
+        slabs = new ByteBuffer[8];
+        freeBlocks = new int[64];
+    }
+
+    /**
+     * Gibt die Anzahl der Blöcke für ein Ergebnis zurück.
+     *
+     * @param length Länge des Ergebnisses in Bytes
+     * @return Anzahl der Blöcke (mindestens einer)
+     */
+    int blocksFor(int length) {
+        return Math.max(1, (length + blockSize - 1) / blockSize);
+    }
+
+    int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Kopiert ein Ergebnis in freie Blöcke.
+     *
+     * @param bytes Das kodierte Ergebnis
+     * @return Nummern der belegten Blöcke oder null, wenn der Speicher voll ist
+     */
+    int[] write(byte[] bytes) {
+        int[] blocks = allocate(blocksFor(bytes.length));
+        if (blocks == null) return null;
+        for (int i = 0, offset = 0; offset < bytes.length; i++, offset += blockSize) {
+            slab(blocks[i]).put(offsetOf(blocks[i]), bytes, offset, Math.min(blockSize, bytes.length - offset));
+        }
+        return blocks;
+    }
+
+    /**
+     * Liest ein Ergebnis in ein Array.
+     *
+     * @param blocks Nummern der Blöcke
+     * @param length Länge des Ergebnisses in Bytes
+     * @return Das kodierte Ergebnis
+     */
+    byte[] read(int[] blocks, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0, offset = 0; offset < length; i++, offset += blockSize) {
+            slab(blocks[i]).get(offsetOf(blocks[i]), bytes, offset, Math.min(blockSize, length - offset));
+        }
+        return bytes;
+    }
+
+    /**
+     * Gibt Sichten auf die Blöcke eines Ergebnisses zurück, z.B. für einen
+     * {@link java.nio.channels.GatheringByteChannel}. Die Sichten teilen sich den Speicher mit dem Slab und sind
+     * nur gültig, solange die Blöcke nicht freigegeben werden.
+     *
+     * @param blocks Nummern der Blöcke
+     * @param length Länge des Ergebnisses in Bytes
+     * @return Eine schreibgeschützte Sicht pro Block
+     */
+    ByteBuffer[] views(int[] blocks, int length) {
+        ByteBuffer[] views = new ByteBuffer[blocksFor(length)];
+        for (int i = 0, offset = 0; i < views.length; i++, offset += blockSize) {
+            views[i] = slab(blocks[i]).slice(offsetOf(blocks[i]), Math.min(blockSize, length - offset))
+                    .asReadOnlyBuffer();
+        }
+        return views;
+    }
+
+    /**
+     * Belegt freie Blöcke, zuerst aus der Liste der freigegebenen, dann aus den Slabs. Ein neuer Slab wird nur
+     * angelegt, wenn beides nicht reicht.
+     */
+    private synchronized int[] allocate(int count) {
+        if (usedBlocks + count > maxBlocks) return null;
+        int[] blocks = new int[count];
+        int i = 0;
+        while (i < count && freeCount > 0) {
+            blocks[i++] = freeBlocks[--freeCount];
+        }
+        while (i < count) {
+            if (nextBlock == slabCount * blocksPerSlab && !addSlab()) {
+                // bereits entnommene Blöcke zurücklegen
+                usedBlocks += i;
+                free(Arrays.copyOf(blocks, i));
+                return null;
+            }
+            blocks[i++] = nextBlock++;
+        }
+        usedBlocks += count;
+        return blocks;
+    }
+
+    private boolean addSlab() {
+        if (slabCount == slabs.length) slabs = Arrays.copyOf(slabs, slabCount * 2);
+        try {
+            slabs[slabCount] = ByteBuffer.allocateDirect(slabSize);
+        } catch (OutOfMemoryError e) {
+            // -XX:MaxDirectMemorySize erreicht
+            System.err.println("No direct memory left for the cache: " + e.getMessage());
+            return false;
+        }
+        slabCount++;
+        return true;
+    }
+
+    /**
+     * Gibt die Blöcke eines Ergebnisses frei.
+     *
+     * @param blocks Nummern der Blöcke
+     */
+    synchronized void free(int[] blocks) {
+        if (freeCount + blocks.length > freeBlocks.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, Math.max(freeBlocks.length * 2, freeCount + blocks.length));
+        }
+        System.arraycopy(blocks, 0, freeBlocks, freeCount, blocks.length);
+        freeCount += blocks.length;
+        usedBlocks -= blocks.length;
+    }
+
+    private ByteBuffer slab(int block) {
+        return slabs[block / blocksPerSlab];
+    }
+
+    private int offsetOf(int block) {
+        return (block % blocksPerSlab) * blockSize;
+    }
+
+    /**
+     * Gibt die Größe der belegten Blöcke zurück.
+     *
+     * @return Größe in Bytes
+     */
+    synchronized long getUsedBytes() {
+        return (long) usedBlocks * blockSize;
+    }
+
+    /**
+     * Gibt die Größe aller angelegten Slabs zurück.
+     *
+     * @return Größe in Bytes
+     */
+    synchronized long getReservedBytes() {
+        return (long) slabCount * slabSize;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.cacheModule;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link EvictionPolicy#REJECT}: ein voller Cache nimmt keine neuen Ergebnisse mehr auf.
+ */
+final class RejectEviction extends Eviction {
+
+    RejectEviction(int maxEntries, long maxWeight, Consumer<CacheItem> evictor) {
+        super(maxEntries, maxWeight, evictor);
+    }
+
+    @Override
+    boolean admit(CacheItem item) {
+        return getEntries() < maxEntries && getWeightedSize() + item.getWeight() <= maxWeight;
+    }
+
+    @Override
+    void onAccess(CacheItem item) {
+        // die Reihenfolge spielt keine Rolle, es wird nie verdrängt
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.cacheModule;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Schreibt ein Ergebnis aus dem Cache als UTF-8-Bytes, z.B. auf die Verbindung eines Clients
+ * (siehe {@link CacheSystem#write(org.example.command.CacheKey, ResultWriter)}).
+ */
+@FunctionalInterface
+public interface ResultWriter {
+    /**
+     * @param parts Teile des Ergebnisses in ihrer Reihenfolge. Sie können auf den Speicher des Caches zeigen und
+     *              sind nur während des Aufrufs gültig: was danach noch geschrieben werden soll, muss kopiert werden.
+     * @throws IOException wenn nicht geschrieben werden konnte
+     */
+    void write(ByteBuffer[] parts) throws IOException;
+}
@@ -0,0 +1,73 @@
+package org.example.cacheModule;
+
+import org.example.command.CacheKey;
+import org.example.command.CacheStatistics;
+import org.example.command.CacheStatistics.Counter;
+import org.example.command.CommandType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zähler des {@link CacheSystem} pro {@link CommandType}. Jeder Zähler ist ein eigener {@link LongAdder}: Threads,
+ * die gleichzeitig zählen, warten nicht aufeinander, erst das Auslesen summiert.
+ */
+final class StatsCounter {
+    private static final int COUNTERS = Counter.values().length;
+    // [CommandType.ordinal() * COUNTERS + Counter.ordinal()]
+    private final LongAdder[] adders;
+
+    StatsCounter() {
+        adders = new LongAdder[CommandType.values().length * COUNTERS];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+    }
+
+    void record(Counter counter, CacheKey key) {
+        adder(counter, key.getType()).increment();
+    }
+
+    /**
+     * Zählt eine Ausführung nach einem Miss.
+     *
+     * @param key     Schlüssel des Commands
+     * @param nanos   Dauer der Ausführung
+     * @param success false, wenn die Ausführung mit einem Fehler endete
+     */
+    void recordLoad(CacheKey key, long nanos, boolean success) {
+        adder(Counter.LOADS, key.getType()).increment();
+        adder(Counter.LOAD_TIME_NANOS, key.getType()).add(nanos);
+        if (!success) adder(Counter.LOAD_FAILURES, key.getType()).increment();
+    }
+
+    long sum(Counter counter) {
+        long sum = 0;
+        for (CommandType type : CommandType.values()) {
+            sum += adder(counter, type).sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Erstellt eine Momentaufnahme. Die Zähler werden nicht gemeinsam gesperrt, eine Aufnahme während laufender
+     * Anfragen ist also nur annähernd konsistent.
+     *
+     * @param entries      aktuelle Anzahl der Einträge
+     * @param weightedSize aktuelle geschätzte Größe in Bytes
+     * @return Die Statistik
+     */
+    CacheStatistics snapshot(int entries, long weightedSize) {
+        CommandType[] types = CommandType.values();
+        long[][] counters = new long[types.length][COUNTERS];
+        for (CommandType type : types) {
+            for (Counter counter : Counter.values()) {
+                counters[type.ordinal()][counter.ordinal()] = adder(counter, type).sum();
+            }
+        }
+        return new CacheStatistics(counters, entries, weightedSize);
+    }
+
+    private LongAdder adder(Counter counter, CommandType type) {
+        return adders[type.ordinal() * COUNTERS + counter.ordinal()];
+    }
+}
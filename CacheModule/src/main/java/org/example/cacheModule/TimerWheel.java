@@ -0,0 +1,147 @@
+package org.example.cacheModule;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchisches Zeitrad für das Ablaufen der Einträge. Jede Ebene teilt die Zeit in Buckets fester Dauer
+ * (ca. 1 s, 65 s, 70 min, 37 h, darüber ein Bucket für alles Weitere), ein Item steht in dem Bucket seiner Ablaufzeit
+ * auf der gröbsten Ebene, die noch genau genug ist. Die Buckets sind Ringlisten, deren Verweise in den Items selbst
+ * liegen: Einplanen und Entfernen sind O(1).
+ * <p>
+ * {@link #advance(long, Consumer)} arbeitet nur die Buckets ab, deren Zeit seit dem letzten Aufruf vergangen ist.
+ * Jedes Item daraus wird dem Empfänger übergeben, der es entfernt oder (z.B. nach einem Zugriff) neu einplant. Ein
+ * Bucket kann vor der genauen Ablaufzeit seiner Items fällig werden, der Empfänger muss also prüfen. Items aus
+ * gröberen Ebenen rücken so schrittweise in feinere, bis sie ablaufen. Pro Item und Ablauf fallen also höchstens
+ * so viele Schritte an, wie es Ebenen gibt.
+ * <p>
+ * Zeiten in ms (System.currentTimeMillis). Nicht threadsicher, wird unter der Sperre des {@link CacheSystem}
+ * verwendet.
+ */
+final class TimerWheel {
+    // Dauer eines Buckets pro Ebene als Zweierpotenz in ms: 1 s, 65 s, 70 min, 37 h, 25 Tage
+    private static final int[] SHIFTS = {10, 16, 22, 27, 31};
+    // Anzahl der Buckets pro Ebene, eine Ebene umfasst genau einen Bucket der nächsten
+    private static final int[] BUCKETS = {64, 64, 32, 16, 1};
+    private final CacheItem[][] wheel;
+    private long time;
+
+    TimerWheel(long now) {
+        wheel = new CacheItem[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new CacheItem[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                CacheItem sentinel = new CacheItem(null, null, 0);
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+        time = now;
+    }
+
+    /**
+     * Plant ein Item für eine Ablaufzeit ein. Ein bereits eingeplantes Item wird verschoben.
+     *
+     * @param item      Das Item
+     * @param expiresAt Zeitpunkt, zu dem das Item dem Empfänger übergeben wird
+     */
+    void schedule(CacheItem item, long expiresAt) {
+        if (item.timerNext != null) deschedule(item);
+        CacheItem sentinel = bucketFor(expiresAt);
+        item.timerNext = sentinel;
+        item.timerPrev = sentinel.timerPrev;
+        sentinel.timerPrev.timerNext = item;
+        sentinel.timerPrev = item;
+    }
+
+    /**
+     * Entfernt ein Item aus dem Zeitrad, falls es eingeplant ist.
+     *
+     * @param item Das Item
+     */
+    void deschedule(CacheItem item) {
+        if (item.timerNext == null) return;
+        item.timerPrev.timerNext = item.timerNext;
+        item.timerNext.timerPrev = item.timerPrev;
+        item.timerNext = null;
+        item.timerPrev = null;
+    }
+
+    /**
+     * Rückt die Zeit vor und übergibt alle Items aus den Buckets, deren Zeit vergangen ist. Die Items sind beim
+     * Aufruf des Empfängers bereits ausgeplant.
+     *
+     * @param now     aktuelle Zeit
+     * @param expired Empfänger der fälligen Items
+     */
+    void advance(long now, Consumer<CacheItem> expired) {
+        long previous = time;
+        if (now <= previous) return;
+        time = now;
+        for (int i = 0; i < SHIFTS.length; i++) {
+            long previousTicks = previous >>> SHIFTS[i];
+            long ticks = now >>> SHIFTS[i];
+            // gröbere Ebenen ändern sich nur, wenn sich diese geändert hat
+            if (ticks == previousTicks) break;
+            expire(i, previousTicks, ticks - previousTicks, expired);
+        }
+    }
+
+    /**
+     * Arbeitet die Buckets einer Ebene ab, vom Bucket der vorherigen Zeit bis zu dem der aktuellen.
+     */
+    private void expire(int level, long previousTicks, long elapsedTicks, Consumer<CacheItem> expired) {
+        CacheItem[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(elapsedTicks + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int j = start; j < start + steps; j++) {
+            CacheItem sentinel = buckets[j & mask];
+            // Liste abtrennen: neu eingeplante Items landen in einer leeren Liste
+            CacheItem item = sentinel.timerNext;
+            sentinel.timerPrev = sentinel;
+            sentinel.timerNext = sentinel;
+            while (item != sentinel) {
+                CacheItem next = item.timerNext;
+                item.timerNext = null;
+                item.timerPrev = null;
+                expired.accept(item);
+                item = next;
+            }
+        }
+    }
+
+    /**
+     * Wählt die gröbste Ebene, deren Buckets die Zeit bis zum Ablauf noch auflösen.
+     */
+    private CacheItem bucketFor(long expiresAt) {
+        // bereits abgelaufene Items in den aktuellen Bucket, der beim nächsten Vorrücken fällig wird
+        long at = Math.max(expiresAt, time);
+        long delay = at - time;
+        for (int i = 0; i < SHIFTS.length - 1; i++) {
+            if (delay < (1L << SHIFTS[i + 1])) {
+                return wheel[i][(int) ((at >>> SHIFTS[i]) & (BUCKETS[i] - 1))];
+            }
+        }
+        return wheel[SHIFTS.length - 1][0];
+    }
+
+    /**
+     * Entfernt alle Items aus dem Zeitrad.
+     */
+    void clear() {
+        for (CacheItem[] buckets : wheel) {
+            for (CacheItem sentinel : buckets) {
+                CacheItem item = sentinel.timerNext;
+                while (item != sentinel) {
+                    CacheItem next = item.timerNext;
+                    item.timerNext = null;
+                    item.timerPrev = null;
+                    item = next;
+                }
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+            }
+        }
+    }
+}
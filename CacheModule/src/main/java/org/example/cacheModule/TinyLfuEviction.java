@@ -0,0 +1,130 @@
+package org.example.cacheModule;
+
+import java.util.function.Consumer;
+
+/**
+ * {@link EvictionPolicy#TINY_LFU} (Window-TinyLFU): Neue Items kommen in ein LRU-Fenster mit 1% der Kapazität
+ * (in Bytes und in Einträgen).
+ * Fällt ein Item aus dem Fenster, wird es mit dem Opfer des Hauptbereichs verglichen und nur aufgenommen, wenn es
+ * laut {@link FrequencySketch} häufiger angefragt wird. Der Hauptbereich ist ein segmentiertes LRU: Items kommen
+ * zuerst in die Probation und bei einem Treffer in den geschützten Teil (80% des Hauptbereichs).
+ * <p>
+ * Einmalige Anfragen (z.B. ein Scan über viele Reports) bleiben so im Fenster bzw. in der Probation und verdrängen
+ * die häufig angefragten Ergebnisse nicht.
+ */
+final class TinyLfuEviction extends Eviction {
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+    // angenommene durchschnittliche Größe eines Ergebnisses, bestimmt die Breite der Sketch
+    private static final int AVERAGE_WEIGHT = 512;
+    private final AccessOrderDeque window;
+    private final AccessOrderDeque probation;
+    private final AccessOrderDeque protectedItems;
+    private final long windowMax;
+    private final int windowMaxEntries;
+    private final long protectedMax;
+    private final int protectedMaxEntries;
+    private final FrequencySketch sketch;
+    private long windowWeight;
+    private int windowEntries;
+    private long protectedWeight;
+    private int protectedEntries;
+
+    TinyLfuEviction(int maxEntries, long maxWeight, Consumer<CacheItem> evictor) {
+        super(maxEntries, maxWeight, evictor);
+        window = new AccessOrderDeque();
+        probation = new AccessOrderDeque();
+        protectedItems = new AccessOrderDeque();
+        windowMax = (long) (maxWeight * WINDOW_RATIO);
+        windowMaxEntries = Math.max(1, (int) (maxEntries * WINDOW_RATIO));
+        protectedMax = (long) ((maxWeight - windowMax) * PROTECTED_RATIO);
+        protectedMaxEntries = (int) ((maxEntries - windowMaxEntries) * PROTECTED_RATIO);
+        sketch = new FrequencySketch((int) Math.min(maxEntries, maxWeight / AVERAGE_WEIGHT));
+    }
+
+    @Override
+    void onInsert(CacheItem item) {
+        super.onInsert(item);
+        sketch.increment(item.getKey().hashCode());
+        window.addFirst(item);
+        windowWeight += item.getWeight();
+        windowEntries++;
+        // Items, die aus dem Fenster fallen, bewerben sich um einen Platz im Hauptbereich
+        while (!window.isEmpty()
+                && (windowWeight > windowMax || windowEntries > windowMaxEntries || isOverCapacity())) {
+            CacheItem candidate = window.pollLast();
+            windowWeight -= candidate.getWeight();
+            windowEntries--;
+            admitToMain(candidate);
+        }
+    }
+
+    /**
+     * Nimmt einen Kandidaten aus dem Fenster in die Probation auf. Ist der Cache voll, verdrängt er das Opfer (das
+     * älteste Item der Probation), solange er häufiger angefragt wurde als dieses, sonst wird er selbst verdrängt.
+     */
+    private void admitToMain(CacheItem candidate) {
+        int candidateFrequency = sketch.frequency(candidate.getKey().hashCode());
+        while (isOverCapacity()) {
+            CacheItem victim = probation.isEmpty() ? protectedItems.peekLast() : probation.peekLast();
+            if (victim == null || candidateFrequency <= sketch.frequency(victim.getKey().hashCode())) {
+                // der Kandidat ist noch in keiner Liste
+                evict(candidate);
+                return;
+            }
+            evict(victim);
+        }
+        probation.addFirst(candidate);
+    }
+
+    @Override
+    void onAccess(CacheItem item) {
+        sketch.increment(item.getKey().hashCode());
+        if (window.contains(item)) {
+            window.moveToFirst(item);
+        } else if (probation.contains(item)) {
+            probation.remove(item);
+            protectedItems.addFirst(item);
+            protectedWeight += item.getWeight();
+            protectedEntries++;
+            // geschützter Teil zu groß: die ältesten Items zurück in die Probation
+            while (protectedWeight > protectedMax || protectedEntries > protectedMaxEntries) {
+                CacheItem demoted = protectedItems.pollLast();
+                protectedWeight -= demoted.getWeight();
+                protectedEntries--;
+                probation.addFirst(demoted);
+            }
+        } else if (protectedItems.contains(item)) {
+            protectedItems.moveToFirst(item);
+        }
+        // sonst wurde das Item seit der Suche in der Map entfernt
+    }
+
+    @Override
+    void onRemove(CacheItem item) {
+        super.onRemove(item);
+        if (window.contains(item)) {
+            windowWeight -= item.getWeight();
+            windowEntries--;
+            window.remove(item);
+        } else if (protectedItems.contains(item)) {
+            protectedWeight -= item.getWeight();
+            protectedEntries--;
+            protectedItems.remove(item);
+        } else if (probation.contains(item)) {
+            probation.remove(item);
+        }
+    }
+
+    @Override
+    void clear() {
+        super.clear();
+        window.clear();
+        probation.clear();
+        protectedItems.clear();
+        windowWeight = 0;
+        windowEntries = 0;
+        protectedWeight = 0;
+        protectedEntries = 0;
+    }
+}
@@ -1,11 +1,35 @@
 package org.example.cacheModule;
 
+import org.example.command.CacheKey;
+import org.example.command.CacheStatistics;
+import org.example.command.CacheStatistics.Counter;
 import org.example.command.Command;
+import org.example.command.CommandType;
 import org.example.command.FakeCommand;
+import org.example.command.QueryCommand;
+import org.example.command.ReportCommand;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CacheSystemTest {
@@ -28,8 +52,8 @@ class CacheSystemTest {
         String result = "testResult";
 
         // When
-        cacheSystem.put(command, result);
-        String cachedResult = cacheSystem.get(command);
+        cacheSystem.put(command.getCacheKey(), result);
+        String cachedResult = cacheSystem.get(command.getCacheKey());
 
         // Then
         assertEquals(result, cachedResult, "Der gecachte Wert sollte dem ursprünglichen Wert entsprechen");
@@ -39,7 +63,7 @@ class CacheSystemTest {
     void testGetNonExistentItem() {
         // When
         Command command = new FakeCommand("nichtExistierenderBefehl");
-        String result = cacheSystem.get(command);
+        String result = cacheSystem.get(command.getCacheKey());
 
         // Then
         assertNull(result, "Nicht existierende Items sollten null zurückgeben");
@@ -49,13 +73,13 @@ class CacheSystemTest {
     void testCleanRemovesOldItems() throws InterruptedException {
         // Given
         Command command = new FakeCommand("command1");
-        cacheSystem.put(command, "result1");
+        cacheSystem.put(command.getCacheKey(), "result1");
 
         // When
         // Warte länger als das Clean-Up-Interval
         Thread.sleep(Config.CLEAN_UP_INTERVAL + 100);
         // Then
-        assertNull(cacheSystem.get(command), "Alte Items sollten nach dem Cleanup nicht mehr im Cache sein");
+        assertNull(cacheSystem.get(command.getCacheKey()), "Alte Items sollten nach dem Cleanup nicht mehr im Cache sein");
     }
 
     @Test
@@ -66,12 +90,588 @@ class CacheSystemTest {
         // When
         for (int i = 0; i <= maxSize + 1; i++) {
             Command command = new FakeCommand("command" + i);
-            cacheSystem.put(command, "result" + i);
+            cacheSystem.put(command.getCacheKey(), "result" + i);
+        }
+
+        // Then
+        assertTrue(cacheSystem.size() <= maxSize, "Der Cache sollte nicht über das Größenlimit wachsen");
+    }
+
+    @Test
+    void testRejectPolicyRefusesWhenFull() {
+        // Given
+        int maxSize = 100;
+        CacheSystem rejecting = new CacheSystem(EvictionPolicy.REJECT, maxSize, Long.MAX_VALUE);
+        try {
+            // When
+            for (int i = 0; i <= maxSize + 1; i++) {
+                rejecting.put(new FakeCommand("command" + i).getCacheKey(), "result" + i);
+            }
+
+            // Then
+            assertNotNull(rejecting.get(new FakeCommand("command0").getCacheKey()),
+                    "Die zuerst gespeicherten Elemente sollten im Cache bleiben");
+            assertNull(rejecting.get(new FakeCommand("command" + (maxSize + 1)).getCacheKey()),
+                    "Element über dem Größenlimit sollte nicht gecacht werden");
+        } finally {
+            rejecting.shutdown();
+        }
+    }
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        // Given
+        CacheSystem lru = new CacheSystem(EvictionPolicy.LRU, 3, Long.MAX_VALUE);
+        try {
+            lru.put(key("a"), "1");
+            lru.put(key("b"), "2");
+            lru.put(key("c"), "3");
+            lru.get(key("a"));
+
+            // When
+            lru.put(key("d"), "4");
+
+            // Then
+            assertNull(lru.get(key("b")), "Das am längsten nicht verwendete Element sollte verdrängt werden");
+            assertNotNull(lru.get(key("a")), "Ein zuletzt gelesenes Element sollte bleiben");
+            assertNotNull(lru.get(key("d")), "Das neue Element sollte gecacht werden");
+            assertEquals(3, lru.size());
+        } finally {
+            lru.shutdown();
+        }
+    }
+
+    @Test
+    void testByteLimitCountsResultSize() {
+        // Given: Platz für 10 kleine Ergebnisse
+        String small = "x".repeat(100);
+        String large = "x".repeat(2_000);
+        long maxBytes = 10L * (CacheItem.ENTRY_OVERHEAD + small.length());
+        CacheSystem lru = new CacheSystem(EvictionPolicy.LRU, Integer.MAX_VALUE, maxBytes);
+        try {
+            for (int i = 0; i < 10; i++) {
+                lru.put(key("query" + i), small);
+            }
+
+            // When: ein großer Report braucht den Platz mehrerer Queries
+            lru.put(key("report"), large);
+
+            // Then
+            assertNotNull(lru.get(key("report")), "Der Report sollte gecacht werden");
+            assertTrue(lru.size() < 10, "Der Report sollte mehrere kleine Ergebnisse verdrängen");
+            assertTrue(lru.getWeightedSize() <= maxBytes, "Die Größe in Bytes sollte das Limit einhalten");
+        } finally {
+            lru.shutdown();
+        }
+    }
+
+    @Test
+    void testOffHeapPutAndGet() {
+        // Given: Ergebnisse über mehrere Blöcke, auch mit Zeichen außerhalb von ASCII
+        CacheSystem offHeap = new CacheSystem(EvictionPolicy.LRU, 100, 1024 * 1024, true);
+        String report = "Köln;1.5\n".repeat(200);
+        try {
+            // When
+            offHeap.put(key("report"), report);
+            offHeap.put(key("empty"), "");
+
+            // Then
+            assertTrue(offHeap.isOffHeap());
+            assertEquals(report, offHeap.get(key("report")));
+            assertEquals("", offHeap.get(key("empty")));
+            assertNull(offHeap.get(key("missing")));
+            assertTrue(offHeap.getOffHeapUsedBytes() >= report.getBytes(StandardCharsets.UTF_8).length,
+                    "Das Ergebnis sollte außerhalb des Heaps liegen");
+        } finally {
+            offHeap.shutdown();
+        }
+    }
+
+    @Test
+    void testOffHeapWriteReturnsUtf8Bytes() throws Exception {
+        // Given
+        CacheSystem offHeap = new CacheSystem(EvictionPolicy.LRU, 100, 1024 * 1024, true);
+        String report = "Zürich;42.0\n".repeat(100);
+        try {
+            offHeap.put(key("report"), report);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            boolean hit = offHeap.write(key("report"), parts -> {
+                for (ByteBuffer part : parts) {
+                    assertTrue(part.isDirect(), "Die Bytes sollten nicht auf den Heap kopiert werden");
+                    byte[] bytes = new byte[part.remaining()];
+                    part.get(bytes);
+                    out.write(bytes);
+                }
+            });
+
+            // Then
+            assertTrue(hit);
+            assertEquals(report, out.toString(StandardCharsets.UTF_8));
+            assertFalse(offHeap.write(key("missing"), parts -> fail("Ein Miss sollte nichts schreiben")));
+        } finally {
+            offHeap.shutdown();
+        }
+    }
+
+    @Test
+    void testOffHeapEvictionReusesBlocks() {
+        // Given: Platz für wenige Ergebnisse
+        long maxBytes = 64 * 1024;
+        CacheSystem offHeap = new CacheSystem(EvictionPolicy.LRU, Integer.MAX_VALUE, maxBytes, true);
+        try {
+            // When: ein Vielfaches der Kapazität wird eingefügt
+            for (int i = 0; i < 2_000; i++) {
+                offHeap.put(key("result" + i), Integer.toString(i).repeat(100));
+            }
+
+            // Then: die verbliebenen Ergebnisse sind unverändert, der Speicher wächst nicht mit
+            int found = 0;
+            for (int i = 0; i < 2_000; i++) {
+                String result = offHeap.get(key("result" + i));
+                if (result == null) continue;
+                found++;
+                assertEquals(Integer.toString(i).repeat(100), result);
+            }
+            assertTrue(found > 0);
+            assertTrue(offHeap.getOffHeapUsedBytes() <= maxBytes, "Verdrängte Blöcke sollten freigegeben werden");
+            assertTrue(offHeap.getOffHeapReservedBytes() <= maxBytes + Config.CACHE_SLAB_SIZE);
+        } finally {
+            offHeap.shutdown();
+        }
+    }
+
+    @Test
+    void testOffHeapResultStaysValidWhileWritten() throws Exception {
+        // Given
+        CacheSystem offHeap = new CacheSystem(EvictionPolicy.LRU, 1, 1024 * 1024, true);
+        String first = "a".repeat(1_000);
+        try {
+            offHeap.put(key("first"), first);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When: das Ergebnis wird während des Schreibens verdrängt und seine Blöcke neu belegt
+            offHeap.write(key("first"), parts -> {
+                offHeap.put(key("second"), "b".repeat(1_000));
+                offHeap.put(key("third"), "c".repeat(1_000));
+                for (ByteBuffer part : parts) {
+                    byte[] bytes = new byte[part.remaining()];
+                    part.get(bytes);
+                    out.write(bytes);
+                }
+            });
+
+            // Then
+            assertEquals(first, out.toString(StandardCharsets.UTF_8), "Gelesene Blöcke dürfen nicht neu belegt werden");
+            assertNull(offHeap.get(key("first")));
+            assertEquals("c".repeat(1_000), offHeap.get(key("third")));
+        } finally {
+            offHeap.shutdown();
+        }
+    }
+
+    @Test
+    void testNegativeResultsAreCachedOnce() throws Exception {
+        // Given: ein Client fragt wiederholt einen unbekannten Code ab
+        AtomicInteger executions = new AtomicInteger();
+        Callable<Command> unknownCountry = () -> new NegativeCommand("XXX", executions);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Unknown country XXX", cacheSystem.getOrExecute(unknownCountry.call()));
+        }
+
+        // Then: nur die erste Anfrage wurde ausgeführt, das Ergebnis zählt zu den negativen
+        assertEquals(1, executions.get());
+        assertEquals(1, cacheSystem.getNegativeSize());
+        assertEquals(1, cacheSystem.getStatistics().get(Counter.NEGATIVE_PUTS));
+        assertEquals("Unknown country XXX", cacheSystem.get(unknownCountry.call().getCacheKey()));
+    }
+
+    @Test
+    void testNegativeResultsExpireAfterInsertion() throws InterruptedException {
+        // Given: positive Ergebnisse laufen nicht ab, negative 200 ms nach dem Einfügen
+        CacheSystem cache = new CacheSystem(EvictionPolicy.LRU, 100, Long.MAX_VALUE, false, timeToLive(0, 0),
+                100, 200);
+        try {
+            cache.putNegative(key("XXX"), "Unknown country XXX");
+            cache.put(key("DEU"), "DEU");
+
+            // When: das negative Ergebnis wird weiter abgefragt
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Unknown country XXX", cache.get(key("XXX")));
+                Thread.sleep(50);
+            }
+            Thread.sleep(1_300);
+
+            // Then: trotz der Zugriffe abgelaufen
+            assertNull(cache.get(key("XXX")));
+            cache.clean();
+            assertEquals(0, cache.getNegativeSize());
+            assertEquals(1, cache.size());
+            assertEquals("DEU", cache.get(key("DEU")));
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void testNegativeResultsHaveTheirOwnLimit() {
+        // Given: Platz für zwei positive und drei negative Ergebnisse
+        CacheSystem cache = new CacheSystem(EvictionPolicy.LRU, 2, Long.MAX_VALUE, false, timeToLive(0, 0), 3,
+                60_000);
+        try {
+            cache.put(key("DEU"), "DEU");
+            cache.put(key("FRA"), "FRA");
+
+            // When: viele ungültige Codes
+            for (int i = 0; i < 5; i++) {
+                cache.putNegative(key("X" + i), "Unknown country X" + i);
+            }
+
+            // Then: die positiven Ergebnisse werden nicht verdrängt, überzählige negative abgelehnt
+            assertEquals("DEU", cache.get(key("DEU")));
+            assertEquals("FRA", cache.get(key("FRA")));
+            assertEquals(3, cache.getNegativeSize());
+            assertEquals(5, cache.size());
+            assertEquals(2, cache.getStatistics().get(Counter.REJECTIONS));
+
+            // ein positives Ergebnis ersetzt ein negatives
+            cache.put(key("X0"), "X0");
+            assertEquals("X0", cache.get(key("X0")));
+            assertEquals(2, cache.getNegativeSize());
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void testHotKeysAreWrittenMostUsedFirst() throws Exception {
+        // Given
+        Path file = Files.createTempFile("cache", ".hotkeys");
+        Files.delete(file);
+        try {
+            CacheSystem before = new CacheSystem(EvictionPolicy.LRU, 100, Long.MAX_VALUE);
+            assertTrue(before.enableHotKeys(file, 2).isEmpty());
+            before.put(key("cold"), "cold");
+            before.put(key("warm"), "warm");
+            before.put(key("hot"), "hot");
+            for (int i = 0; i < 5; i++) before.get(key("hot"));
+            for (int i = 0; i < 2; i++) before.get(key("warm"));
+            before.get(key("cold"));
+
+            // When
+            before.shutdown();
+
+            // Then: die zwei meistverwendeten Schlüssel als Anfragezeilen
+            CacheSystem after = new CacheSystem(EvictionPolicy.LRU, 100, Long.MAX_VALUE);
+            try {
+                assertEquals(List.of("q;hot", "q;warm"), after.enableHotKeys(file, 2));
+            } finally {
+                after.shutdown();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testWarmUpLoadsMissingKeys() {
+        // Given: ein Schlüssel ist bereits im Cache (z.B. aus dem Snapshot)
+        AtomicInteger executions = new AtomicInteger();
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String indicator = "IND." + i;
+            commands.add(new LoadingCommand(indicator, () -> {
+                executions.incrementAndGet();
+                return "result " + indicator;
+            }));
         }
+        cacheSystem.put(commands.get(0).getCacheKey(), "restored");
+
+        // When
+        int loaded = cacheSystem.warmUp(commands, 4, 10_000);
 
         // Then
-        assertNull(cacheSystem.get(new FakeCommand("command" + (maxSize + 1))),
-                "Element über dem Größenlimit sollte nicht gecacht werden");
+        assertEquals(19, loaded);
+        assertEquals(19, executions.get());
+        assertEquals("restored", cacheSystem.get(commands.get(0).getCacheKey()));
+        assertEquals("result IND.7", cacheSystem.get(commands.get(7).getCacheKey()));
+        assertEquals(19, cacheSystem.getStatistics().get(Counter.WARM_UPS));
+    }
+
+    @Test
+    void testWarmUpStopsWhenTimeBudgetIsUsed() {
+        // Given: langsame Commands, die im Budget nicht alle ausgeführt werden können
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            commands.add(new LoadingCommand("SLOW." + i, () -> {
+                Thread.sleep(100);
+                return "slow";
+            }));
+        }
+
+        // When
+        long start = System.nanoTime();
+        int loaded = cacheSystem.warmUp(commands, 2, 250);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then: nach dem Budget wird nichts Neues begonnen, laufende Commands werden beendet
+        assertTrue(loaded >= 2 && loaded < 20, "Geladen: " + loaded);
+        assertTrue(elapsed < 1_000, "Das Vorwärmen sollte das Zeitbudget einhalten, dauerte " + elapsed + " ms");
+        assertEquals(loaded, cacheSystem.size());
+    }
+
+    @Test
+    void testSnapshotRestoresEntriesAfterRestart() throws Exception {
+        // Given: ein Cache, der beim Beenden einen Snapshot schreibt
+        Path file = Files.createTempFile("cache", ".snapshot");
+        Files.delete(file);
+        String report = "Köln;1.5;".repeat(300);
+        try {
+            CacheSystem before = new CacheSystem(EvictionPolicy.TINY_LFU, 100, 1024 * 1024, true);
+            assertEquals(0, before.enableSnapshots(file, 42L, 0));
+            before.put(key("report"), report);
+            before.put(new CacheKey(CommandType.QUERY, "q", "DEU", "SP.POP.TOTL"), "DEU;SP.POP.TOTL;1.0");
+            before.shutdown();
+
+            // When: Neustart mit demselben Datensatz, diesmal mit Ergebnissen auf dem Heap
+            CacheSystem after = new CacheSystem(EvictionPolicy.TINY_LFU, 100, 1024 * 1024, false);
+            try {
+                int restored = after.enableSnapshots(file, 42L, 0);
+
+                // Then
+                assertEquals(2, restored);
+                assertEquals(report, after.get(key("report")));
+                assertEquals("DEU;SP.POP.TOTL;1.0",
+                        after.get(new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL"}).getCacheKey()));
+            } finally {
+                after.shutdown();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testSnapshotOfOtherDatasetIsDiscarded() throws Exception {
+        // Given
+        Path file = Files.createTempFile("cache", ".snapshot");
+        try {
+            CacheSystem before = new CacheSystem(EvictionPolicy.LRU, 100, 1024 * 1024);
+            before.enableSnapshots(file, 1L, 0);
+            before.put(key("report"), "old");
+            before.shutdown();
+
+            // When: der Datensatz hat sich geändert
+            CacheSystem after = new CacheSystem(EvictionPolicy.LRU, 100, 1024 * 1024);
+            try {
+                int restored = after.enableSnapshots(file, 2L, 0);
+
+                // Then
+                assertEquals(0, restored);
+                assertNull(after.get(key("report")), "Ergebnisse eines anderen Datensatzes sind nicht mehr gültig");
+            } finally {
+                after.shutdown();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testCorruptSnapshotIsDiscarded() throws Exception {
+        // Given: ein Snapshot, dessen Schreiben abgebrochen wurde
+        Path file = Files.createTempFile("cache", ".snapshot");
+        try {
+            CacheSystem before = new CacheSystem(EvictionPolicy.LRU, 100, 1024 * 1024);
+            before.enableSnapshots(file, 1L, 0);
+            for (int i = 0; i < 10; i++) {
+                before.put(key("report" + i), "x".repeat(100));
+            }
+            before.shutdown();
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+            // When
+            CacheSystem after = new CacheSystem(EvictionPolicy.LRU, 100, 1024 * 1024);
+            try {
+                // Then
+                assertEquals(0, after.enableSnapshots(file, 1L, 0));
+                assertEquals(0, after.size());
+            } finally {
+                after.shutdown();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testStatisticsCountHitsMissesAndLoads() throws Exception {
+        // Given
+        LoadingCommand report = new LoadingCommand("IND.3", () -> "report");
+
+        // When: Miss mit Ausführung, danach zwei Treffer
+        assertNull(cacheSystem.get(report.getCacheKey()));
+        cacheSystem.getOrExecute(report);
+        cacheSystem.get(report.getCacheKey());
+        cacheSystem.get(report.getCacheKey());
+
+        // Then
+        CacheStatistics statistics = cacheSystem.getStatistics();
+        assertEquals(2, statistics.get(Counter.HITS));
+        assertEquals(1, statistics.get(Counter.MISSES));
+        assertEquals(1, statistics.get(Counter.PUTS));
+        assertEquals(1, statistics.get(Counter.LOADS, CommandType.REPORT));
+        assertEquals(0, statistics.get(Counter.LOADS, CommandType.QUERY));
+        assertEquals(2.0 / 3, statistics.getHitRatio(), 1e-9);
+        assertEquals(1, statistics.getEntries());
+        assertEquals(cacheSystem.getWeightedSize(), statistics.getWeightedSize());
+    }
+
+    @Test
+    void testStatisticsCountEvictionsAndRejections() {
+        // Given
+        CacheSystem lru = new CacheSystem(EvictionPolicy.LRU, 2, Long.MAX_VALUE);
+        CacheSystem reject = new CacheSystem(EvictionPolicy.REJECT, 2, Long.MAX_VALUE);
+        try {
+            // When
+            for (int i = 0; i < 5; i++) {
+                lru.put(key("query" + i), "result");
+                reject.put(key("query" + i), "result");
+            }
+
+            // Then
+            assertEquals(3, lru.getStatistics().get(Counter.EVICTIONS));
+            assertEquals(0, lru.getStatistics().get(Counter.REJECTIONS));
+            assertEquals(5, lru.getStatistics().get(Counter.PUTS));
+            assertEquals(3, reject.getStatistics().get(Counter.REJECTIONS, CommandType.QUERY));
+            assertEquals(2, reject.getStatistics().get(Counter.PUTS));
+        } finally {
+            lru.shutdown();
+            reject.shutdown();
+        }
+    }
+
+    @Test
+    void testTimeToLivePerCommandType() throws InterruptedException {
+        // Given: Queries laufen nie ab, Reports nach 200 ms ohne Zugriff
+        CacheSystem cache = new CacheSystem(EvictionPolicy.LRU, 100, Long.MAX_VALUE, false,
+                timeToLive(0, 200));
+        CacheKey query = key("query");
+        CacheKey report = new CacheKey(CommandType.REPORT, "r", "IND.1");
+        try {
+            cache.put(query, "query");
+            cache.put(report, "report");
+
+            // When: länger als ein Bucket des Zeitrads (ca. 1 s)
+            Thread.sleep(1_300);
+
+            // Then: abgelaufene Einträge werden schon vor dem Aufräumen nicht mehr gefunden
+            assertNull(cache.get(report), "Der Report sollte abgelaufen sein");
+            assertEquals("query", cache.get(query), "Queries sollten nicht ablaufen");
+            cache.clean();
+            assertEquals(1, cache.size());
+            assertEquals(1, cache.getStatistics().get(Counter.EXPIRATIONS, CommandType.REPORT));
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void testAccessExtendsTimeToLive() throws InterruptedException {
+        // Given
+        CacheSystem cache = new CacheSystem(EvictionPolicy.LRU, 100, Long.MAX_VALUE, false,
+                timeToLive(300, 300));
+        try {
+            cache.put(key("query"), "query");
+
+            // When: regelmäßige Zugriffe über die Lebensdauer hinaus
+            for (int i = 0; i < 6; i++) {
+                Thread.sleep(100);
+                assertEquals("query", cache.get(key("query")));
+                cache.clean();
+            }
+            assertEquals(1, cache.size(), "Verwendete Einträge sollten nicht ablaufen");
+            Thread.sleep(1_500);
+            cache.clean();
+
+            // Then
+            assertEquals(0, cache.size(), "Ohne Zugriff sollte der Eintrag ablaufen");
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void testTimerWheelHandsOutItemsAtTheirExpiry() {
+        // Given: Ablaufzeiten auf allen Ebenen des Zeitrads
+        long start = 1_000_000_000L;
+        long[] delays = {50, 900, 5_000, 70_000, 3_600_000, 50L * 3_600_000, 40L * 24 * 3_600_000};
+        TimerWheel wheel = new TimerWheel(start);
+        long[] expiresAt = new long[delays.length];
+        long[] expiredAt = new long[delays.length];
+        CacheItem[] items = new CacheItem[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            items[i] = new CacheItem(key("item" + i), "result");
+            expiresAt[i] = start + delays[i];
+            wheel.schedule(items[i], expiresAt[i]);
+        }
+
+        // When: die Zeit rückt in Schritten von 500 ms bis 1 min vor
+        long now = start;
+        while (now < start + delays[delays.length - 1] + 120_000) {
+            now += now - start < 100_000 ? 500 : 60_000;
+            long time = now;
+            wheel.advance(now, item -> {
+                int i = Arrays.asList(items).indexOf(item);
+                // wie im Cache: zu früh übergebene Items werden neu eingeplant
+                if (time < expiresAt[i]) {
+                    wheel.schedule(item, expiresAt[i]);
+                } else {
+                    expiredAt[i] = time;
+                }
+            });
+        }
+
+        // Then: jedes Item läuft ab, spätestens einen Schritt (bzw. einen Bucket) nach seiner Ablaufzeit
+        for (int i = 0; i < delays.length; i++) {
+            assertTrue(expiredAt[i] >= expiresAt[i], "Item " + i + " sollte nicht vor seiner Ablaufzeit ablaufen");
+            long step = delays[i] < 100_000 ? 500 : 60_000;
+            assertTrue(expiredAt[i] - expiresAt[i] <= step + 1_024, "Item " + i + " sollte rechtzeitig ablaufen");
+        }
+    }
+
+    @Test
+    void testTinyLfuKeepsFrequentEntriesDuringScan() {
+        // Given: ein Scan über 20.000 einmalige Anfragen, dazwischen immer wieder 50 häufige Anfragen, deren Abstand
+        // (etwa 500 Anfragen) größer ist als der Cache (200 Einträge)
+        // When
+        double lru = hotHitRatioDuringScan(EvictionPolicy.LRU);
+        double tinyLfu = hotHitRatioDuringScan(EvictionPolicy.TINY_LFU);
+
+        // Then
+        assertTrue(lru < 0.1, "LRU sollte die häufigen Ergebnisse durch den Scan verlieren");
+        assertTrue(tinyLfu > 0.9, "Ein Scan sollte bei TinyLFU häufig angefragte Ergebnisse nicht verdrängen");
+    }
+
+    @Test
+    void testSkewedWorkloadHitRatio() {
+        // Given: Zipf-verteilte Anfragen auf 20.000 Queries und Reports, deren Popularität sich nach der Hälfte
+        // ändert, dazu regelmäßige Scans über einmalige Reports; der Cache fasst etwa 10% der Daten
+        long maxBytes = 1024 * 1024;
+
+        // When
+        double reject = hitRatio(EvictionPolicy.REJECT, maxBytes);
+        double lru = hitRatio(EvictionPolicy.LRU, maxBytes);
+        double tinyLfu = hitRatio(EvictionPolicy.TINY_LFU, maxBytes);
+        System.err.printf("Hit ratio REJECT=%.3f LRU=%.3f TINY_LFU=%.3f%n", reject, lru, tinyLfu);
+
+        // Then
+        assertTrue(lru > reject, "Verdrängen sollte mehr Treffer bringen als ein volles Cache, das ablehnt");
+        assertTrue(tinyLfu > lru, "TinyLFU sollte bei schiefer Verteilung mehr Treffer bringen als LRU");
     }
 
     @Test
@@ -79,13 +679,13 @@ class CacheSystemTest {
         // Given
         FakeCommand command = new FakeCommand("testCommand");
         String result = "testResult";
-        cacheSystem.put(command, result);
+        cacheSystem.put(command.getCacheKey(), result);
 
         // When
         Thread.sleep(Config.CLEAN_UP_INTERVAL / 2);
-        cacheSystem.get(command); // First access
+        cacheSystem.get(command.getCacheKey()); // First access
         Thread.sleep(Config.CLEAN_UP_INTERVAL / 2);
-        String secondAccess = cacheSystem.get(command);
+        String secondAccess = cacheSystem.get(command.getCacheKey());
         Thread.sleep(10_000);
         // Then
         assertNotNull(secondAccess,
@@ -93,4 +693,262 @@ class CacheSystemTest {
         assertEquals(result, secondAccess,
                 "Der Wert sollte sich nach mehrmaligem Zugriff nicht ändern");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEqualCommandsShareEntry() {
+        // Given: für jede Anfrage wird ein neuer Command erzeugt
+        Command first = new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL"});
+        Command second = new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL"});
+        cacheSystem.put(first.getCacheKey(), "result");
+
+        // When
+        String cachedResult = cacheSystem.get(second.getCacheKey());
+
+        // Then
+        assertEquals(first.getCacheKey(), second.getCacheKey(), "Gleiche Argumente sollten gleiche Schlüssel ergeben");
+        assertEquals(first.getCacheKey().hashCode(), second.getCacheKey().hashCode());
+        assertEquals("result", cachedResult, "Ein neuer Command mit gleichen Argumenten sollte den Eintrag treffen");
+    }
+
+    @Test
+    void testDifferentCommandsMiss() {
+        // Given
+        cacheSystem.put(new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL"}).getCacheKey(), "result");
+
+        // Then
+        assertNull(cacheSystem.get(new QueryCommand(new String[]{"q", "FRA", "SP.POP.TOTL"}).getCacheKey()),
+                "Andere Argumente sollten den Eintrag nicht treffen");
+        assertNull(cacheSystem.get(new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL", "2000"}).getCacheKey()),
+                "Eine Query mit Jahr sollte den Eintrag ohne Jahr nicht treffen");
+        assertNull(cacheSystem.get(new CacheKey(CommandType.REPORT, "q", "DEU", "SP.POP.TOTL")),
+                "Gleiche Argumente einer anderen Command-Klasse sollten den Eintrag nicht treffen");
+    }
+
+    @Test
+    void testHitRatioForRepeatedRequests() {
+        // Given: 1000 Anfragen auf 100 verschiedene Queries und Reports, jede mit neuem Command
+        int requests = 1000;
+        int distinct = 100;
+        int hits = 0;
+
+        // When: wie im Server erst suchen, bei einem Miss ausführen und einfügen
+        for (int i = 0; i < requests; i++) {
+            int id = i % distinct;
+            Command command = id % 10 == 0
+                    ? new ReportCommand(new String[]{"r", "IND." + id})
+                    : new QueryCommand(new String[]{"q", "C" + id, "IND." + id});
+            if (cacheSystem.get(command.getCacheKey()) != null) {
+                hits++;
+            } else {
+                cacheSystem.put(command.getCacheKey(), "result" + id);
+            }
+        }
+
+        // Then: nur der erste Zugriff auf jede Anfrage ist ein Miss
+        double hitRatio = (double) hits / requests;
+        assertEquals(0.9, hitRatio, 1e-9, "Wiederholte Anfragen sollten aus dem Cache beantwortet werden");
+    }
+
+    @Test
+    void testHitReturnsLatestResult() {
+        // Given
+        Command command = new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL"});
+        cacheSystem.put(command.getCacheKey(), "old");
+
+        // When
+        cacheSystem.put(new QueryCommand(new String[]{"q", "DEU", "SP.POP.TOTL"}).getCacheKey(), "new");
+
+        // Then
+        assertEquals("new", cacheSystem.get(command.getCacheKey()), "Ein gleicher Schlüssel sollte den Eintrag ersetzen");
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        // Given: ein langsamer Command, der erst fertig wird, wenn alle anderen Anfragen auf ihn warten
+        int requests = 8;
+        AtomicInteger executions = new AtomicInteger();
+        Callable<String> slowReport = () -> {
+            executions.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cacheSystem.getCoalescedRequests() < requests - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            return "report";
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            // When: jede Anfrage erzeugt ihren eigenen Command
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> cacheSystem.getOrExecute(new LoadingCommand("IND.1", slowReport))));
+            }
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("report", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get(), "Gleichzeitige Misses sollten den Command nur einmal ausführen");
+        assertEquals(requests - 1, cacheSystem.getCoalescedRequests(), "Die wartenden Anfragen sollten gezählt werden");
+        assertEquals("report", cacheSystem.get(new LoadingCommand("IND.1", slowReport).getCacheKey()),
+                "Das Ergebnis sollte im Cache stehen");
+    }
+
+    @Test
+    void testFailedExecutionIsNotCached() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        Callable<String> failing = () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("dataset not loaded");
+        };
+
+        // When
+        assertThrows(IllegalStateException.class, () -> cacheSystem.getOrExecute(new LoadingCommand("IND.2", failing)));
+        String result = cacheSystem.getOrExecute(new LoadingCommand("IND.2", () -> "report"));
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals("report", result, "Nach einem Fehler sollte der Command erneut ausgeführt werden");
+    }
+
+    private static Map<CommandType, Long> timeToLive(long query, long report) {
+        Map<CommandType, Long> timeToLive = new EnumMap<>(CommandType.class);
+        timeToLive.put(CommandType.QUERY, query);
+        timeToLive.put(CommandType.REPORT, report);
+        return timeToLive;
+    }
+
+    private static CacheKey key(String name) {
+        return new CacheKey(CommandType.QUERY, "q", name);
+    }
+
+    private static double hotHitRatioDuringScan(EvictionPolicy policy) {
+        CacheSystem cache = new CacheSystem(policy, 200, Long.MAX_VALUE);
+        try {
+            int hotHits = 0;
+            int hotRequests = 0;
+            for (int i = 0; i < 20_000; i++) {
+                cache.put(key("scan" + i), "result");
+                if (i % 10 != 0) continue;
+                CacheKey hot = key("hot" + (i / 10) % 50);
+                boolean hit = cache.get(hot) != null;
+                if (!hit) cache.put(hot, "result");
+                // die erste Hälfte wärmt den Cache auf
+                if (i < 10_000) continue;
+                hotRequests++;
+                if (hit) hotHits++;
+            }
+            return (double) hotHits / hotRequests;
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    /**
+     * Spielt eine schiefe Last gegen ein Cache ab und gibt den Anteil der Treffer zurück.
+     */
+    private static double hitRatio(EvictionPolicy policy, long maxBytes) {
+        int keys = 20_000;
+        int requests = 200_000;
+        double exponent = 0.9;
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(42);
+        int[] firstRanking = shuffledIds(keys, random);
+        int[] secondRanking = shuffledIds(keys, random);
+        String query = "x".repeat(700);
+        String report = "x".repeat(1_400);
+
+        CacheSystem cache = new CacheSystem(policy, Integer.MAX_VALUE, maxBytes);
+        try {
+            int hits = 0;
+            int total = 0;
+            int scanned = 0;
+            for (int i = 0; i < requests; i++) {
+                if (i % 10_000 == 0) {
+                    for (int j = 0; j < 500; j++, total++) {
+                        CacheKey scanKey = new CacheKey(CommandType.REPORT, "r", "SCAN." + scanned++);
+                        if (cache.get(scanKey) != null) hits++;
+                        else cache.put(scanKey, report);
+                    }
+                }
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                if (rank < 0) rank = -rank - 1;
+                int id = (i < requests / 2 ? firstRanking : secondRanking)[rank];
+                boolean isReport = id % 20 == 0;
+                CacheKey key = isReport
+                        ? new CacheKey(CommandType.REPORT, "r", "IND." + id)
+                        : new CacheKey(CommandType.QUERY, "q", "C" + id, "IND." + id);
+                total++;
+                if (cache.get(key) != null) hits++;
+                else cache.put(key, isReport ? report : query);
+            }
+            return (double) hits / total;
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    private static int[] shuffledIds(int size, Random random) {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    /**
+     * Command, der gecacht werden kann und sein Ergebnis von einem Callable bezieht.
+     */
+    private static class NegativeCommand extends Command {
+        private final AtomicInteger executions;
+
+        NegativeCommand(String country, AtomicInteger executions) {
+            super(new String[]{"q", country, "SP.POP.TOTL"});
+            this.executions = executions;
+            cacheable = true;
+        }
+
+        @Override
+        public String execute() {
+            executions.incrementAndGet();
+            negativeResult = true;
+            return "Unknown country " + arguments[1];
+        }
+    }
+
+    private static class LoadingCommand extends Command {
+        private final Callable<String> loader;
+
+        LoadingCommand(String indicator, Callable<String> loader) {
+            super(new String[]{"r", indicator});
+            this.loader = loader;
+            cacheable = true;
+            type = CommandType.REPORT;
+        }
+
+        @Override
+        public String execute() {
+            try {
+                return loader.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.benchmark;
+
+import org.example.client.ConnectionPool;
+import org.example.command.BatchCommand;
+import org.example.dataLoader.DAO;
+import org.example.helper.Config;
+import org.example.wdi.WDI;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht den Durchsatz von {@code batchSize} Queries als einzelne Anfragen mit einer einzigen Batch-Anfrage
+ * ({@link BatchCommand}). Der Server muss laufen (ServerClient:runServer). Die Queries werden einmal pro Trial
+ * zufällig gewählt, nach der ersten Iteration kommen also beide Varianten aus dem Server-Cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class BatchBenchmark {
+
+    @Param({"50", "500"})
+    private int batchSize;
+
+    private List<String> queries;
+    private String batch;
+
+    @Setup
+    public void setup() {
+        List<WDI> data = DAO.getDao().getDataset();
+        Random random = new Random(42);
+        queries = new ArrayList<>(batchSize);
+        StringBuilder batchBuilder = new StringBuilder("b");
+        for (int i = 0; i < batchSize; i++) {
+            WDI wdi = data.get(random.nextInt(data.size()));
+            queries.add("q;" + wdi.getCountryCode() + ";" + wdi.getIndicatorCode());
+            batchBuilder.append(';').append(wdi.getCountryCode())
+                    .append(BatchCommand.QUERY_SEPARATOR).append(wdi.getIndicatorCode());
+        }
+        batch = batchBuilder.toString();
+    }
+
+    @Benchmark
+    public void singleQueries(Blackhole blackhole) throws IOException {
+        for (String query : queries) {
+            blackhole.consume(send(query));
+        }
+    }
+
+    @Benchmark
+    public void batchQuery(Blackhole blackhole) throws IOException {
+        blackhole.consume(send(batch));
+    }
+
+    /**
+     * Sendet einen Befehl wie der Client: im Keep-Alive-Modus über den {@link ConnectionPool}, sonst über eine
+     * neue Verbindung.
+     */
+    private static String send(String command) throws IOException {
+        if (Config.KEEP_ALIVE) {
+            return ConnectionPool.getPool().execute(command);
+        }
+        try (Socket socket = new Socket("localhost", Config.PARALLEL_PORT);
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+            out.println(command);
+            return in.readLine();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.benchmark;
+
+import org.example.cacheModule.CacheSystem;
+import org.example.cacheModule.EvictionPolicy;
+import org.example.command.CacheKey;
+import org.example.command.CommandType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Eviction-Policies des {@link CacheSystem} auf einer schiefen Last: Zipf-verteilte Anfragen auf
+ * 20.000 Queries (700 Bytes) und Reports (1.400 Bytes), deren Popularität sich nach der Hälfte ändert, dazu alle
+ * 10.000 Anfragen ein Scan über 500 einmalige Reports. Gemessen wird der Durchsatz von Suche und Einfügen bei einem
+ * Miss, die Treffer und Misses werden als zusätzliche Zähler ausgegeben (Trefferquote = hits / (hits + misses)).
+ * {@link EvictionPolicy#REJECT} entspricht dem bisherigen Verhalten (volles Cache lehnt ab).
+ * Benötigt keinen laufenden Server.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class CacheEvictionBenchmark {
+    private static final int KEYS = 20_000;
+    private static final int TRACE_LENGTH = 200_000;
+    private static final double ZIPF_EXPONENT = 0.9;
+
+    @Param({"REJECT", "LRU", "TINY_LFU"})
+    private EvictionPolicy policy;
+
+    // Kapazität in KiB, etwa 3%, 10% und 40% der Daten
+    @Param({"256", "1024", "4096"})
+    private int capacityKib;
+
+    private CacheKey[] trace;
+    private String[] results;
+    private CacheSystem cache;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        double[] cumulative = new double[KEYS];
+        double sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(42);
+        int[] firstRanking = shuffledIds(random);
+        int[] secondRanking = shuffledIds(random);
+        String query = "x".repeat(700);
+        String report = "x".repeat(1_400);
+
+        trace = new CacheKey[TRACE_LENGTH + TRACE_LENGTH / 20];
+        results = new String[trace.length];
+        int scanned = 0;
+        int length = 0;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            if (i % 10_000 == 0) {
+                for (int j = 0; j < 500; j++, length++) {
+                    trace[length] = new CacheKey(CommandType.REPORT, "r", "SCAN." + scanned++);
+                    results[length] = report;
+                }
+            }
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            if (rank < 0) rank = -rank - 1;
+            int id = (i < TRACE_LENGTH / 2 ? firstRanking : secondRanking)[rank];
+            boolean isReport = id % 20 == 0;
+            trace[length] = isReport
+                    ? new CacheKey(CommandType.REPORT, "r", "IND." + id)
+                    : new CacheKey(CommandType.QUERY, "q", "C" + id, "IND." + id);
+            results[length] = isReport ? report : query;
+            length++;
+        }
+        trace = Arrays.copyOf(trace, length);
+        cache = new CacheSystem(policy, Integer.MAX_VALUE, capacityKib * 1024L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    /**
+     * Treffer und Misses einer Iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HitCounters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Benchmark
+    public String getOrPut(HitCounters counters) {
+        int index = position;
+        position = index + 1 == trace.length ? 0 : index + 1;
+        CacheKey key = trace[index];
+        String result = cache.get(key);
+        if (result != null) {
+            counters.hits++;
+            return result;
+        }
+        counters.misses++;
+        cache.put(key, results[index]);
+        return results[index];
+    }
+
+    private static int[] shuffledIds(Random random) {
+        int[] ids = new int[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            ids[i] = i;
+        }
+        for (int i = KEYS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.benchmark;
+
+import org.example.dataLoader.Config;
+import org.example.dataLoader.DatasetLoader;
+import org.example.dataLoader.WdiTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht das Laden der CSV-Datei ({@link Config#DATASET_PATH}) mit dem bisherigen zeilenweisen Parser
+ * ({@link DatasetLoader#loadCsvLines(String)}) und dem parallelen Parser auf den Bytes
+ * ({@link DatasetLoader#loadCsv(String)}). Die binäre Datei des Datensatzes wird dabei nicht verwendet. Benötigt
+ * keinen laufenden Server, aber die CSV-Datei im Klassenpfad.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class DatasetLoaderBenchmark {
+
+    @Benchmark
+    public WdiTable loadLines() {
+        return new DatasetLoader().loadCsvLines(Config.DATASET_PATH);
+    }
+
+    @Benchmark
+    public WdiTable loadParallel() {
+        return new DatasetLoader().loadCsv(Config.DATASET_PATH);
+    }
+}
@@ -88,8 +88,9 @@ public class ServerBenchmark {
 
     @TearDown
     public void teardown() {
-        // Cleanup - Server herunterfahren
+        // Cleanup - Server herunterfahren, vorher die Statistik des Caches ausgeben
         try {
+            System.out.println(server.getCacheStatistics());
             Client shutdownClient = new Client(server, dao, true);
             shutdownClient.run();
         } catch (Exception e) {
@@ -0,0 +1,157 @@
+package org.example.client;
+
+import org.example.helper.BinaryProtocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verbindung zum Server im binären Protokoll ({@link BinaryProtocol}). Beim Aufbau wird das Wörterbuch der Länder-
+ * und Indikator-Codes abgerufen, danach werden Anfragen mit Integer-IDs gesendet und die Werte als Doubles gelesen.
+ * Nicht threadsicher, jeder Client verwendet eine eigene Verbindung.
+ */
+public class BinaryConnection implements Closeable {
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final Map<String, Integer> countryIds;
+    private final Map<String, Integer> indicatorIds;
+    private String[] countryCodes;
+    private int nextRequestId;
+
+    public BinaryConnection(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new BufferedOutputStream(socket.getOutputStream());
+        out.write(BinaryProtocol.MAGIC);
+        countryIds = new HashMap<>();
+        indicatorIds = new HashMap<>();
+        loadDictionary();
+    }
+
+    private void loadDictionary() throws IOException {
+        ByteBuffer response = send(BinaryProtocol.allocateFrame(0, nextRequestId++, BinaryProtocol.OP_DICTIONARY));
+        countryCodes = new String[response.getInt()];
+        for (int id = 0; id < countryCodes.length; id++) {
+            countryCodes[id] = BinaryProtocol.getString(response);
+            countryIds.put(countryCodes[id], id);
+        }
+        int indicators = response.getInt();
+        for (int id = 0; id < indicators; id++) {
+            indicatorIds.put(BinaryProtocol.getString(response), id);
+        }
+    }
+
+    /**
+     * Fragt alle Werte zu einem Land und einem Indikator ab.
+     *
+     * @param countryCode   Länder-Code
+     * @param indicatorCode Indikator-Code
+     * @return Werte aller Jahre
+     * @throws IOException bei Verbindungsfehlern oder wenn der Server mit einem Fehler antwortet
+     */
+    public double[] query(String countryCode, String indicatorCode) throws IOException {
+        ByteBuffer request = BinaryProtocol.allocateFrame(2 * Integer.BYTES, nextRequestId++, BinaryProtocol.OP_QUERY);
+        request.putInt(getId(countryIds, countryCode));
+        request.putInt(getId(indicatorIds, indicatorCode));
+        ByteBuffer response = send(request);
+        response.getInt();
+        response.getInt();
+        double[] values = new double[response.getInt()];
+        response.asDoubleBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * Fragt den Wert zu einem Land und einem Indikator für ein Jahr ab.
+     *
+     * @param countryCode   Länder-Code
+     * @param indicatorCode Indikator-Code
+     * @param year          Jahr
+     * @return Wert des Jahres
+     * @throws IOException bei Verbindungsfehlern oder wenn der Server mit einem Fehler antwortet
+     */
+    public double query(String countryCode, String indicatorCode, short year) throws IOException {
+        ByteBuffer request = BinaryProtocol.allocateFrame(2 * Integer.BYTES + Short.BYTES, nextRequestId++,
+                BinaryProtocol.OP_QUERY_YEAR);
+        request.putInt(getId(countryIds, countryCode));
+        request.putInt(getId(indicatorIds, indicatorCode));
+        request.putShort(year);
+        ByteBuffer response = send(request);
+        response.position(response.position() + 2 * Integer.BYTES + Short.BYTES);
+        return response.getDouble();
+    }
+
+    /**
+     * Fragt den Bericht (Mittelwert pro Land) zu einem Indikator ab.
+     *
+     * @param indicatorCode Indikator-Code
+     * @return Mittelwerte nach Länder-Code, in der Reihenfolge des Datensatzes
+     * @throws IOException bei Verbindungsfehlern oder wenn der Server mit einem Fehler antwortet
+     */
+    public Map<String, Double> report(String indicatorCode) throws IOException {
+        ByteBuffer request = BinaryProtocol.allocateFrame(Integer.BYTES, nextRequestId++, BinaryProtocol.OP_REPORT);
+        request.putInt(getId(indicatorIds, indicatorCode));
+        ByteBuffer response = send(request);
+        response.getInt();
+        int rows = response.getInt();
+        Map<String, Double> means = new LinkedHashMap<>(rows * 2);
+        for (int i = 0; i < rows; i++) {
+            means.put(countryCodes[response.getInt()], response.getDouble());
+        }
+        return means;
+    }
+
+    /**
+     * Fragt den Status des Servers ab.
+     *
+     * @return Status des Servers
+     * @throws IOException bei Verbindungsfehlern
+     */
+    public String status() throws IOException {
+        return BinaryProtocol.getString(send(BinaryProtocol.allocateFrame(0, nextRequestId++, BinaryProtocol.OP_STATUS)));
+    }
+
+    private static int getId(Map<String, Integer> ids, String code) throws IOException {
+        Integer id = ids.get(code);
+        if (id == null) throw new IOException("Unknown code: " + code);
+        return id;
+    }
+
+    /**
+     * Sendet einen Frame und liest die Antwort.
+     *
+     * @param request Frame, dessen Payload vollständig geschrieben ist
+     * @return Payload der Antwort
+     */
+    private ByteBuffer send(ByteBuffer request) throws IOException {
+        out.write(request.array(), 0, request.position());
+        out.flush();
+        byte[] frame = new byte[in.readInt()];
+        in.readFully(frame);
+        ByteBuffer response = ByteBuffer.wrap(frame);
+        response.getInt();
+        if (response.get() == BinaryProtocol.OP_ERROR) {
+            throw new IOException("Server error: " + BinaryProtocol.getString(response));
+        }
+        return response;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.client;
 
+import org.example.command.BatchCommand;
 import org.example.dataLoader.DAO;
 import org.example.helper.Config;
 import org.example.loggerModule.LoggerClass;
@@ -12,8 +13,14 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Klasse zur Implementierung des seriellen Clients.
@@ -29,6 +36,10 @@ public class Client implements Runnable {
     private final Random random;
     private boolean shutdownServer;
     private final LoggerClass logger;
+    // nur im Pipelining-Modus: Verbindung für die Query-Batches dieses Clients
+    private PipelinedConnection pipelinedConnection;
+    // nur im binären Modus: Verbindung für Queries und Reports dieses Clients
+    private BinaryConnection binaryConnection;
 
 
     public Client(ServerRemote server, DAO daoToset, boolean shutdownServer) {
@@ -53,6 +64,8 @@ public class Client implements Runnable {
                 executeServerState();
                 executeReportQuery(data);
             }
+            if (pipelinedConnection != null) pipelinedConnection.close();
+            if (binaryConnection != null) binaryConnection.close();
             return;
         }
         executeServerState();
@@ -76,27 +89,46 @@ public class Client implements Runnable {
         return String.format("q;%s;%s", wdi.getCountryCode(), wdi.getIndicatorCode());
     }
 
+    /**
+     * Fasst die Queries eines Durchlaufs zu einem Befehl im Format "b;Land,Indikator;..." zusammen.
+     *
+     * @param data Liste von WDI-Objekten
+     * @return Batch-Befehl
+     */
+    private String buildBatchCommand(List<WDI> data) {
+        StringBuilder command = new StringBuilder("b");
+        for (int j = 0; j < QUERIES_PER_ITERATION; j++) {
+            WDI randomWdi = getRandomWDI(data);
+            command.append(';').append(randomWdi.getCountryCode())
+                    .append(BatchCommand.QUERY_SEPARATOR).append(randomWdi.getIndicatorCode());
+        }
+        return command.toString();
+    }
+
     private String buildReportCommand(WDI wdi) {
         return String.format("r;%s", wdi.getIndicatorCode());
     }
 
+    private String buildStreamingReportCommand(WDI wdi) {
+        return String.format("rs;%s", wdi.getIndicatorCode());
+    }
+
     private String buildShutdownCommand() {
         return "z";
     }
 
     /**
-     * Führt einen Befehl auf dem Server aus.
+     * Führt einen Befehl auf dem Server aus. Mit {@link Config#NEAR_CACHE} werden Queries und Reports zuerst im
+     * {@link NearCache} gesucht.
      *
      * @param command Befehl
      */
     private void executeCommand(String command) {
         try {
             if (server.isRunning()) {
-                try (Socket socket = new Socket("localhost", Config.PARALLEL_PORT);
-                     PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-                     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
-                    out.println(command);
-                    String response = in.readLine();
+                try {
+                    String response = Config.NEAR_CACHE ? NearCache.getCache().execute(command, this::send)
+                            : send(command);
                     System.out.println("Server response: " + response);
                 } catch (IOException e) {
                     logger.logWarning("Error while executing command: " + command);
@@ -110,12 +142,42 @@ public class Client implements Runnable {
         logger.logWarning("Server is not running." + command + " cannot be executed");
     }
 
+    /**
+     * Sendet einen Befehl an den Server. Im Keep-Alive-Modus wird eine Verbindung aus dem {@link ConnectionPool}
+     * verwendet, sonst eine neue Verbindung pro Befehl.
+     *
+     * @param command Befehl
+     * @return Antwort des Servers
+     * @throws IOException wenn der Befehl nicht gesendet werden konnte
+     */
+    private String send(String command) throws IOException {
+        if (Config.KEEP_ALIVE) return ConnectionPool.getPool().execute(command);
+        try (Socket socket = new Socket("localhost", Config.PARALLEL_PORT);
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+            out.println(command);
+            return in.readLine();
+        }
+    }
+
     /**
      * Führt eine Batch von Query-Befehlen auf dem Server aus.
      *
      * @param data Liste von WDI-Objekten
      */
     private void executeQueryBatch(List<WDI> data) {
+        if (Config.BINARY_PROTOCOL) {
+            executeQueryBatchBinary(data);
+            return;
+        }
+        if (Config.BATCH_QUERIES) {
+            executeCommand(buildBatchCommand(data));
+            return;
+        }
+        if (Config.KEEP_ALIVE && Config.PIPELINING) {
+            executeQueryBatchPipelined(data);
+            return;
+        }
         for (int j = 0; j < QUERIES_PER_ITERATION; j++) {
             WDI randomWdi = getRandomWDI(data);
             String command = buildQueryCommand(randomWdi);
@@ -123,6 +185,62 @@ public class Client implements Runnable {
         }
     }
 
+    /**
+     * Sendet alle Query-Befehle einer Batch mit Request-IDs über eine Verbindung und wartet danach auf alle Antworten.
+     *
+     * @param data Liste von WDI-Objekten
+     */
+    private void executeQueryBatchPipelined(List<WDI> data) {
+        List<String> commands = new ArrayList<>(QUERIES_PER_ITERATION);
+        for (int j = 0; j < QUERIES_PER_ITERATION; j++) {
+            commands.add(buildQueryCommand(getRandomWDI(data)));
+        }
+        try {
+            if (pipelinedConnection == null || !pipelinedConnection.canAccept(commands.size())) {
+                if (pipelinedConnection != null) pipelinedConnection.close();
+                pipelinedConnection = new PipelinedConnection("localhost", Config.PARALLEL_PORT);
+            }
+            for (CompletableFuture<String> response : pipelinedConnection.submitAll(commands)) {
+                System.out.println("Server response: " + response.get());
+            }
+        } catch (IOException | ExecutionException e) {
+            logger.logWarning("Error while executing pipelined queries: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Führt die Query-Befehle einer Batch im binären Protokoll aus.
+     *
+     * @param data Liste von WDI-Objekten
+     */
+    private void executeQueryBatchBinary(List<WDI> data) {
+        try {
+            BinaryConnection connection = getBinaryConnection();
+            for (int j = 0; j < QUERIES_PER_ITERATION; j++) {
+                WDI randomWdi = getRandomWDI(data);
+                double[] values = connection.query(randomWdi.getCountryCode(), randomWdi.getIndicatorCode());
+                System.out.println("Server response: " + Arrays.toString(values));
+            }
+        } catch (IOException e) {
+            logger.logWarning("Error while executing binary queries: " + e.getMessage());
+            closeBinaryConnection();
+        }
+    }
+
+    private BinaryConnection getBinaryConnection() throws IOException {
+        if (binaryConnection == null) {
+            binaryConnection = new BinaryConnection("localhost", Config.PARALLEL_PORT);
+        }
+        return binaryConnection;
+    }
+
+    private void closeBinaryConnection() {
+        if (binaryConnection != null) binaryConnection.close();
+        binaryConnection = null;
+    }
+
     /**
      * Führt den Shutdown-Befehl auf dem Server aus.
      */
@@ -139,7 +257,52 @@ public class Client implements Runnable {
      */
     private void executeReportQuery(List<WDI> data) {
         WDI randomWdi = getRandomWDI(data);
+        if (Config.BINARY_PROTOCOL) {
+            try {
+                Map<String, Double> means = getBinaryConnection().report(randomWdi.getIndicatorCode());
+                System.out.println("Server response: " + means);
+            } catch (IOException e) {
+                logger.logWarning("Error while executing binary report: " + e.getMessage());
+                closeBinaryConnection();
+            }
+            return;
+        }
+        if (Config.STREAM_REPORTS) {
+            executeStreamingCommand(buildStreamingReportCommand(randomWdi));
+            return;
+        }
         String command = buildReportCommand(randomWdi);
         executeCommand(command);
     }
+
+    /**
+     * Führt einen Befehl mit gestreamter Antwort aus und verarbeitet die Zeilen, sobald sie ankommen. Ausgegeben
+     * werden die erste Zeile und die Anzahl der Zeilen.
+     *
+     * @param command Befehl
+     */
+    private void executeStreamingCommand(String command) {
+        List<String> header = new ArrayList<>(1);
+        int[] lines = new int[1];
+        Consumer<String> lineSink = line -> {
+            if (lines[0]++ == 0) header.add(line);
+        };
+        try {
+            String end;
+            if (Config.KEEP_ALIVE) {
+                end = ConnectionPool.getPool().stream(command, lineSink);
+            } else {
+                try (Socket socket = new Socket("localhost", Config.PARALLEL_PORT);
+                     PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                     BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+                    out.println(command);
+                    end = PooledConnection.readStream(in, lineSink);
+                }
+            }
+            System.out.println("Server response: " + header + " " + lines[0] + " lines, end: " + end);
+        } catch (IOException e) {
+            logger.logWarning("Error while executing command: " + command);
+            logger.logWarning("Error message: " + e.getMessage());
+        }
+    }
 }
@@ -45,6 +45,7 @@ public class ClientMain {
                 }
             }
 
+            if (Config.NEAR_CACHE) logger.logInfo(NearCache.getCache().getState());
             Thread tShutDown = new Thread(new Client(serverRemote, dao, true));
             tShutDown.setName("Client-Shutdown-Thread");
             logger.logInfo("Client sendet den Shutdown-Befehl an Server");
@@ -0,0 +1,135 @@
+package org.example.client;
+
+import org.example.helper.Config;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+
+/**
+ * Pool von Keep-Alive-Verbindungen zum Server, der von allen Clients einer JVM gemeinsam verwendet wird.
+ * Verbindungen werden nur wiederverwendet, solange der Server sie noch offen hält, d.h. unterhalb von
+ * {@link Config#MAX_REQUESTS_PER_CONNECTION} und deutlich innerhalb von {@link Config#IDLE_TIMEOUT}.
+ */
+public class ConnectionPool {
+    private static ConnectionPool pool;
+    private final String host;
+    private final int port;
+    // LIFO, damit die zuletzt benutzten (und damit sicher noch offenen) Verbindungen zuerst verwendet werden
+    private final LinkedBlockingDeque<PooledConnection> idleConnections;
+
+    public ConnectionPool(String host, int port, int maxIdleConnections) {
+        this.host = host;
+        this.port = port;
+        idleConnections = new LinkedBlockingDeque<>(maxIdleConnections);
+    }
+
+    /**
+     * Gibt den gemeinsamen Pool für den lokalen Server zurück.
+     *
+     * @return Der Connection-Pool
+     */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool("localhost", Config.PARALLEL_PORT, Config.CLIENT_POOL_SIZE);
+        }
+        return pool;
+    }
+
+    /**
+     * Sendet einen Befehl über eine Verbindung aus dem Pool. Schlägt das Senden über eine wiederverwendete
+     * Verbindung fehl (z.B. weil der Server sie inzwischen geschlossen hat), wird einmal mit einer neuen
+     * Verbindung wiederholt.
+     *
+     * @param command Befehl
+     * @return Antwort des Servers
+     * @throws IOException wenn der Befehl nicht gesendet werden konnte
+     */
+    public String execute(String command) throws IOException {
+        PooledConnection connection = idleConnections.pollFirst();
+        while (connection != null && isExpired(connection)) {
+            connection.close();
+            connection = idleConnections.pollFirst();
+        }
+        if (connection != null) {
+            try {
+                String response = connection.send(command);
+                release(connection);
+                return response;
+            } catch (IOException e) {
+                connection.close();
+            }
+        }
+        connection = new PooledConnection(host, port);
+        try {
+            String response = connection.send(command);
+            release(connection);
+            return response;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sendet einen Befehl mit gestreamter Antwort über eine Verbindung aus dem Pool. Wiederholt wird nur, wenn eine
+     * wiederverwendete Verbindung vor der ersten Zeile geschlossen wurde, sonst kämen Zeilen doppelt an.
+     *
+     * @param command  Befehl
+     * @param lineSink Empfänger der Zeilen
+     * @return Die letzte Zeile ({@link org.example.helper.Protocol#STREAM_END} oder Fehlerzeile)
+     * @throws IOException wenn der Befehl nicht gesendet oder die Antwort nicht vollständig gelesen werden konnte
+     */
+    public String stream(String command, Consumer<String> lineSink) throws IOException {
+        PooledConnection connection = idleConnections.pollFirst();
+        while (connection != null && isExpired(connection)) {
+            connection.close();
+            connection = idleConnections.pollFirst();
+        }
+        if (connection != null) {
+            try {
+                String end = connection.stream(command, lineSink);
+                release(connection);
+                return end;
+            } catch (EOFException e) {
+                connection.close();
+            } catch (IOException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        connection = new PooledConnection(host, port);
+        try {
+            String end = connection.stream(command, lineSink);
+            release(connection);
+            return end;
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private boolean isExpired(PooledConnection connection) {
+        return connection.isClosed()
+                || System.currentTimeMillis() - connection.getLastUsed() > Config.IDLE_TIMEOUT / 2;
+    }
+
+    private void release(PooledConnection connection) {
+        // der Server schließt die Verbindung nach der letzten erlaubten Anfrage
+        if (connection.getSentRequests() >= Config.MAX_REQUESTS_PER_CONNECTION
+                || !idleConnections.offerFirst(connection)) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Schließt alle unbenutzten Verbindungen.
+     */
+    public void close() {
+        PooledConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.client;
+
+import org.example.command.CacheKey;
+import org.example.command.CommandType;
+import org.example.command.VersionCommand;
+import org.example.helper.Config;
+import org.example.helper.Protocol;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache im Client für die Antworten auf Queries und Reports, der von allen Clients einer JVM gemeinsam verwendet
+ * wird (-Dserver.nearCache=true). Die Schlüssel werden wie im Server-Cache als {@link CacheKey} aus der Anfragezeile
+ * gebildet.
+ * <p>
+ * Die Antworten hängen nur vom Datensatz ab. Deshalb gilt für den ganzen Cache eine Version des Datensatzes
+ * ({@link VersionCommand}), statt jeden Eintrag einzeln zu prüfen. Spätestens alle
+ * {@link Config#NEAR_CACHE_VALIDATION_INTERVAL} ms fragt der Cache mit "v;Version" beim Server nach. Antwortet der
+ * Server mit {@link VersionCommand#NOT_MODIFIED}, bleiben alle Einträge gültig, sonst werden alle verworfen und die
+ * neue Version übernommen. Schlägt die Prüfung fehl, werden die Einträge ebenfalls verworfen. Ein Treffer kostet
+ * also keinen Round-Trip, höchstens einmal pro Intervall fällt eine kurze Prüfung an.
+ * <p>
+ * Ist der Cache voll ({@link Config#NEAR_CACHE_SIZE}), werden neue Antworten nicht mehr gespeichert. Antworten, die
+ * nur den Zustand des Servers betreffen (überlastet, Frist abgelaufen, abgebrochen), werden nie gespeichert.
+ */
+public class NearCache {
+    private static NearCache cache;
+    private final ConcurrentHashMap<CacheKey, String> entries;
+    private final int maxEntries;
+    private final long validationInterval;
+    // Version des Datensatzes, zu der die Einträge gehören, null solange sie unbekannt ist
+    private volatile String version;
+    // wird bei jedem Verwerfen erhöht: Antworten, die davor angefragt wurden, werden nicht mehr gespeichert
+    private volatile long generation;
+    private volatile long validatedAt;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Schnittstelle, über die der Cache Anfragen an den Server sendet.
+     */
+    @FunctionalInterface
+    public interface Transport {
+        /**
+         * @param command Anfragezeile
+         * @return Antwort des Servers
+         * @throws IOException wenn die Anfrage nicht gesendet werden konnte
+         */
+        String send(String command) throws IOException;
+    }
+
+    /**
+     * @param maxEntries         maximale Anzahl der Einträge
+     * @param validationInterval Abstand der Prüfungen der Version in ms
+     */
+    public NearCache(int maxEntries, long validationInterval) {
+        this.entries = new ConcurrentHashMap<>();
+        this.maxEntries = maxEntries;
+        this.validationInterval = validationInterval;
+    }
+
+    /**
+     * Gibt den gemeinsamen Cache zurück.
+     *
+     * @return Der Near-Cache
+     */
+    public static synchronized NearCache getCache() {
+        if (cache == null) {
+            cache = new NearCache(Config.NEAR_CACHE_SIZE, Config.NEAR_CACHE_VALIDATION_INTERVAL);
+        }
+        return cache;
+    }
+
+    /**
+     * Beantwortet eine Anfrage aus dem Cache oder sendet sie an den Server und speichert die Antwort. Anfragen, die
+     * keine Query oder kein Report sind, werden immer gesendet.
+     *
+     * @param command   Anfragezeile
+     * @param transport Verbindung zum Server
+     * @return Die Antwort
+     * @throws IOException wenn die Anfrage nicht gesendet werden konnte
+     */
+    public String execute(String command, Transport transport) throws IOException {
+        CacheKey key = toKey(command);
+        if (key == null) return transport.send(command);
+        validate(transport);
+        String cached = entries.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long requestedIn = generation;
+        String response = transport.send(command);
+        if (version != null && requestedIn == generation && isCacheable(response) && entries.size() < maxEntries) {
+            entries.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Prüft die Version, wenn die letzte Prüfung länger als das Intervall zurückliegt. Nur ein Thread prüft, die
+     * übrigen verwenden so lange die bisherigen Einträge.
+     */
+    private void validate(Transport transport) {
+        long now = System.currentTimeMillis();
+        if (now - validatedAt < validationInterval) return;
+        synchronized (this) {
+            if (now - validatedAt < validationInterval) return;
+            validations.increment();
+            String current = version;
+            String reply;
+            try {
+                reply = transport.send(current == null ? "v" : "v;" + current);
+            } catch (IOException e) {
+                reply = null;
+            }
+            if (reply != null && reply.equals(VersionCommand.NOT_MODIFIED) && current != null) {
+                validatedAt = now;
+                return;
+            }
+            invalidate();
+            // ohne gültige Antwort (Server nicht erreichbar oder überlastet) wird beim nächsten Mal erneut geprüft
+            if (isVersion(reply)) {
+                version = reply;
+                validatedAt = now;
+            }
+        }
+    }
+
+    /**
+     * Verwirft alle Einträge.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        if (version != null) invalidations.increment();
+        version = null;
+        entries.clear();
+    }
+
+    /**
+     * Bildet den Schlüssel wie der Server aus Klasse und Argumenten.
+     *
+     * @return Der Schlüssel oder null für Anfragen, die nicht gecacht werden
+     */
+    private static CacheKey toKey(String command) {
+        if (command.startsWith("q;")) return new CacheKey(CommandType.QUERY, command.split(";"));
+        if (command.startsWith("r;")) return new CacheKey(CommandType.REPORT, command.split(";"));
+        return null;
+    }
+
+    private static boolean isCacheable(String response) {
+        return response != null && !response.equals(Protocol.SERVER_BUSY)
+                && !response.equals(Protocol.REQUEST_TIMEOUT) && !response.equals(Protocol.REQUEST_CANCELLED);
+    }
+
+    /**
+     * Versionen sind Hexadezimalzahlen, siehe {@link org.example.dataLoader.DAO#getVersion()}.
+     */
+    private static boolean isVersion(String reply) {
+        if (reply == null || reply.isEmpty() || reply.length() > 16) return false;
+        for (int i = 0; i < reply.length(); i++) {
+            if (Character.digit(reply.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gibt die Zähler des Caches im Format der Statuszeilen des Servers zurück.
+     *
+     * @return "Name: Wert;" pro Zähler
+     */
+    public String getState() {
+        return "Near cache entries: " + entries.size() + ";"
+                + "Near cache hits/misses: " + hits.sum() + "/" + misses.sum() + ";"
+                + "Near cache validations/invalidations: " + validations.sum() + "/" + invalidations.sum() + ";"
+                + "Dataset version: " + version + ";";
+    }
+}
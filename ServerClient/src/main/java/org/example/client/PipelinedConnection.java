@@ -0,0 +1,122 @@
+package org.example.client;
+
+import org.example.helper.Config;
+import org.example.helper.Protocol;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keep-Alive-Verbindung, über die mehrere Befehle mit Request-ID ({@link Protocol}) gesendet werden, ohne auf die
+ * Antworten zu warten. Ein eigener Lese-Thread ordnet die Antworten, die in beliebiger Reihenfolge eintreffen
+ * können, anhand der ID den wartenden {@link CompletableFuture}s zu.
+ */
+public class PipelinedConnection implements Closeable {
+    private final Socket socket;
+    private final PrintWriter out;
+    private final BufferedReader in;
+    private final AtomicLong nextId;
+    private final ConcurrentHashMap<Long, CompletableFuture<String>> pendingRequests;
+    private final Thread readerThread;
+    private volatile boolean closed;
+
+    public PipelinedConnection(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        out = new PrintWriter(socket.getOutputStream(), false);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        nextId = new AtomicLong();
+        pendingRequests = new ConcurrentHashMap<>();
+        readerThread = new Thread(this::readResponses, "PipelinedConnection-Reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Sendet einen Befehl, ohne auf die Antwort zu warten.
+     *
+     * @param command Befehl
+     * @return Future, das mit der Antwort des Servers (ohne Request-ID) abgeschlossen wird
+     */
+    public CompletableFuture<String> submit(String command) {
+        return submitAll(List.of(command)).get(0);
+    }
+
+    /**
+     * Sendet mehrere Befehle auf einmal, ohne auf die Antworten zu warten.
+     *
+     * @param commands Befehle
+     * @return Futures in der Reihenfolge der Befehle
+     */
+    public List<CompletableFuture<String>> submitAll(List<String> commands) {
+        List<CompletableFuture<String>> responses = new ArrayList<>(commands.size());
+        synchronized (out) {
+            for (String command : commands) {
+                long id = nextId.getAndIncrement();
+                CompletableFuture<String> response = new CompletableFuture<>();
+                pendingRequests.put(id, response);
+                responses.add(response);
+                out.println(Protocol.tag(id, command));
+            }
+            out.flush();
+        }
+        // Verbindung wurde währenddessen geschlossen: das Future des Lese-Threads wurde eventuell verpasst
+        if (closed) failPending(new EOFException("Connection closed"));
+        return responses;
+    }
+
+    /**
+     * Gibt an, ob über die Verbindung noch die angegebene Anzahl an Befehlen gesendet werden kann, bevor der Server
+     * sie wegen {@link Config#MAX_REQUESTS_PER_CONNECTION} schließt.
+     *
+     * @param requests Anzahl der zu sendenden Befehle
+     * @return true, wenn die Verbindung offen ist und die Befehle noch angenommen werden
+     */
+    public boolean canAccept(int requests) {
+        return !closed && nextId.get() + requests <= Config.MAX_REQUESTS_PER_CONNECTION;
+    }
+
+    private void readResponses() {
+        Exception cause;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!Protocol.isTagged(line)) continue;
+                CompletableFuture<String> response = pendingRequests.remove(Protocol.getId(line));
+                if (response != null) response.complete(Protocol.untag(line));
+            }
+            cause = new EOFException("Connection closed by server");
+        } catch (IOException | NumberFormatException e) {
+            cause = e;
+        }
+        // erst schließen, dann ausstehende Futures abbrechen (siehe submitAll)
+        closed = true;
+        failPending(cause);
+    }
+
+    private void failPending(Exception cause) {
+        for (Long id : pendingRequests.keySet()) {
+            CompletableFuture<String> response = pendingRequests.remove(id);
+            if (response != null) response.completeExceptionally(cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.client;
+
+import org.example.helper.Protocol;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.function.Consumer;
+
+/**
+ * Eine Keep-Alive-Verbindung zum Server, über die nacheinander mehrere Befehle gesendet werden.
+ * Wird von {@link ConnectionPool} verwaltet und ist nicht threadsicher.
+ */
+public class PooledConnection implements Closeable {
+    private final Socket socket;
+    private final PrintWriter out;
+    private final BufferedReader in;
+    private int sentRequests;
+    private long lastUsed;
+
+    PooledConnection(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        out = new PrintWriter(socket.getOutputStream(), true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Sendet einen Befehl und wartet auf die Antwortzeile.
+     *
+     * @param command Befehl
+     * @return Antwort des Servers
+     * @throws IOException wenn der Server die Verbindung geschlossen hat
+     */
+    String send(String command) throws IOException {
+        sentRequests++;
+        lastUsed = System.currentTimeMillis();
+        out.println(command);
+        String response = in.readLine();
+        if (response == null) throw new EOFException("Connection closed by server");
+        return response;
+    }
+
+    /**
+     * Sendet einen Befehl mit gestreamter Antwort und übergibt die Zeilen bis zum Ende der Antwort dem Empfänger.
+     *
+     * @param command  Befehl
+     * @param lineSink Empfänger der Zeilen
+     * @return Die letzte Zeile ({@link Protocol#STREAM_END} oder Fehlerzeile)
+     * @throws EOFException wenn der Server die Verbindung vor der ersten Zeile geschlossen hat
+     * @throws IOException  wenn die Antwort unvollständig ist
+     */
+    String stream(String command, Consumer<String> lineSink) throws IOException {
+        sentRequests++;
+        lastUsed = System.currentTimeMillis();
+        out.println(command);
+        return readStream(in, lineSink);
+    }
+
+    /**
+     * Liest eine gestreamte Antwort.
+     *
+     * @param in       Die Verbindung
+     * @param lineSink Empfänger der Zeilen
+     * @return Die letzte Zeile ({@link Protocol#STREAM_END} oder Fehlerzeile)
+     * @throws EOFException wenn der Server die Verbindung vor der ersten Zeile geschlossen hat
+     * @throws IOException  wenn die Antwort unvollständig ist
+     */
+    static String readStream(BufferedReader in, Consumer<String> lineSink) throws IOException {
+        String line = in.readLine();
+        if (line == null) throw new EOFException("Connection closed by server");
+        while (!Protocol.isStreamEnd(line)) {
+            lineSink.accept(line);
+            line = in.readLine();
+            if (line == null) throw new IOException("Streamed response ended without terminator");
+        }
+        return line;
+    }
+
+    int getSentRequests() {
+        return sentRequests;
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
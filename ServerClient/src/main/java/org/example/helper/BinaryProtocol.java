@@ -0,0 +1,109 @@
+package org.example.helper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Konstanten und Hilfsfunktionen für das binäre Protokoll zwischen Client und Server.
+ * <p>
+ * Ein Client wählt das Protokoll pro Verbindung, indem er als erstes Byte {@link #MAGIC} sendet (Textanfragen
+ * beginnen immer mit einem ASCII-Zeichen). Danach werden in beide Richtungen Frames übertragen:
+ * <pre>
+ * int  length     Anzahl der folgenden Bytes
+ * int  requestId  wird in der Antwort unverändert zurückgegeben
+ * byte opcode     Befehl bzw. {@link #OP_ERROR}
+ * ...  payload
+ * </pre>
+ * Länder und Indikatoren werden über Integer-IDs angesprochen, die der Client einmalig mit {@link #OP_DICTIONARY}
+ * abruft. Werte werden als IEEE-754 Doubles übertragen. Alle Zahlen sind big-endian.
+ */
+public final class BinaryProtocol {
+    public static final byte MAGIC = (byte) 0xB1;
+    // Bytes nach dem Längenfeld: requestId + opcode
+    public static final int HEADER_SIZE = 5;
+
+    /**
+     * Anfrage ohne Payload. Antwort: int n, n Länder-Codes, int m, m Indikator-Codes (jeweils als String).
+     */
+    public static final byte OP_DICTIONARY = 1;
+    /**
+     * Anfrage: int countryId, int indicatorId. Antwort: int countryId, int indicatorId, int n, n Doubles.
+     */
+    public static final byte OP_QUERY = 2;
+    /**
+     * Anfrage: int countryId, int indicatorId, short year. Antwort: int countryId, int indicatorId, short year, double.
+     */
+    public static final byte OP_QUERY_YEAR = 3;
+    /**
+     * Anfrage: int indicatorId. Antwort: int indicatorId, int n, n mal (int countryId, double mean).
+     */
+    public static final byte OP_REPORT = 4;
+    /**
+     * Anfrage ohne Payload. Antwort: Status des Servers als String.
+     */
+    public static final byte OP_STATUS = 5;
+    /**
+     * Antwort bei Fehlern: Fehlermeldung als String.
+     */
+    public static final byte OP_ERROR = (byte) 0xFF;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Legt einen Frame an und schreibt Länge, Request-ID und Opcode.
+     *
+     * @param payloadSize Größe der Payload in Bytes
+     * @param requestId   Request-ID
+     * @param opcode      Opcode
+     * @return Buffer, in den die Payload geschrieben werden kann
+     */
+    public static ByteBuffer allocateFrame(int payloadSize, int requestId, byte opcode) {
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + HEADER_SIZE + payloadSize);
+        frame.putInt(HEADER_SIZE + payloadSize);
+        frame.putInt(requestId);
+        frame.put(opcode);
+        return frame;
+    }
+
+    /**
+     * Anzahl der Bytes, die {@link #putString(ByteBuffer, byte[])} für einen String benötigt.
+     *
+     * @param utf8 UTF-8 kodierter String
+     * @return Größe in Bytes
+     */
+    public static int stringSize(byte[] utf8) {
+        return Integer.BYTES + utf8.length;
+    }
+
+    /**
+     * Schreibt einen String als Länge und UTF-8 Bytes.
+     */
+    public static void putString(ByteBuffer buffer, byte[] utf8) {
+        buffer.putInt(utf8.length);
+        buffer.put(utf8);
+    }
+
+    /**
+     * Liest einen mit {@link #putString(ByteBuffer, byte[])} geschriebenen String.
+     */
+    public static String getString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[buffer.getInt()];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Erzeugt einen Fehler-Frame.
+     *
+     * @param requestId Request-ID der Anfrage
+     * @param message   Fehlermeldung
+     * @return Frame, bereit zum Schreiben
+     */
+    public static ByteBuffer errorFrame(int requestId, String message) {
+        byte[] utf8 = message.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = allocateFrame(stringSize(utf8), requestId, OP_ERROR);
+        putString(frame, utf8);
+        return frame.flip();
+    }
+}
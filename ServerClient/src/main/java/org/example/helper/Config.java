@@ -1,5 +1,9 @@
 package org.example.helper;
 
+import org.example.server.ExecutorMode;
+import org.example.server.RejectionPolicy;
+import org.example.server.TransportMode;
+
 public class Config {
     public static final int SERIAL_PORT = 2223;
     public static final int PARALLEL_PORT = 2244;
@@ -7,4 +11,64 @@ public class Config {
 
     public static final int SERVER_SLEEP_TIME = 1_000;
     public static long getMaxTimeForExecutorTermination = 10;
+
+    // Transport, wählbar über -Dserver.transport=BLOCKING|NIO
+    public static final TransportMode TRANSPORT_MODE =
+            TransportMode.valueOf(System.getProperty("server.transport", "BLOCKING").toUpperCase());
+    // Länge der Accept-Queue des Server-Sockets
+    public static final int ACCEPT_BACKLOG = Integer.getInteger("server.backlog", 1024);
+    // Anzahl der IO-Threads (Selector-Loops) im NIO-Modus
+    public static final int NIO_IO_THREADS = Integer.getInteger("server.ioThreads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    // Ausführung der Aufgaben, wählbar über -Dserver.executor=FIXED_POOL|VIRTUAL
+    public static final ExecutorMode EXECUTOR_MODE =
+            ExecutorMode.valueOf(System.getProperty("server.executor", "FIXED_POOL").toUpperCase());
+    // Größe des Thread-Pools im Modus FIXED_POOL
+    public static final int WORKER_THREADS = Integer.getInteger("server.workerThreads",
+            Runtime.getRuntime().availableProcessors());
+    // maximale Anzahl wartender Aufgaben (FIXED_POOL) bzw. gleichzeitig laufender Aufgaben (VIRTUAL)
+    public static final int QUEUE_CAPACITY = Integer.getInteger("server.queueCapacity", 1024);
+    // Verhalten bei voller Warteschlange, wählbar über -Dserver.rejectionPolicy=BUSY|CALLER_RUNS|SHED_OLDEST
+    public static final RejectionPolicy REJECTION_POLICY =
+            RejectionPolicy.valueOf(System.getProperty("server.rejectionPolicy", "BUSY").toUpperCase());
+    // getrennte Thread-Pools für Queries, Reports und Verwaltung (-Dserver.bulkheads=true)
+    public static final boolean BULKHEADS = Boolean.getBoolean("server.bulkheads");
+    // Größe der Pools für Queries und Reports, der Pool für Verwaltungs-Commands hat ADMIN_THREADS Threads
+    public static final int QUERY_THREADS = Integer.getInteger("server.queryThreads",
+            Runtime.getRuntime().availableProcessors());
+    public static final int REPORT_THREADS = Integer.getInteger("server.reportThreads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    public static final int ADMIN_THREADS = 1;
+    // Frist in ms für jede Anfrage ohne eigene Frist ("@ms;"), 0 = keine Frist
+    public static final int REQUEST_TIMEOUT = Integer.getInteger("server.requestTimeout", 10_000);
+    // Keep-Alive: Verbindung bleibt für mehrere Anfragen offen (-Dserver.keepAlive=true), gilt für Server und Client
+    public static final boolean KEEP_ALIVE = Boolean.getBoolean("server.keepAlive");
+    // Zeit in ms, nach der eine Keep-Alive-Verbindung ohne Anfrage vom Server geschlossen wird
+    public static final int IDLE_TIMEOUT = Integer.getInteger("server.idleTimeout", 30_000);
+    // maximale Anzahl an Anfragen pro Keep-Alive-Verbindung
+    public static final int MAX_REQUESTS_PER_CONNECTION = Integer.getInteger("server.maxRequestsPerConnection", 1_000);
+    // maximale Anzahl gleichzeitig ausgeführter Anfragen mit Request-ID pro Verbindung (NIO)
+    public static final int MAX_PIPELINED_REQUESTS = Integer.getInteger("server.maxPipelinedRequests", 128);
+    // Client sendet die Queries eines Durchlaufs mit Request-IDs über eine Verbindung (setzt Keep-Alive voraus)
+    public static final boolean PIPELINING = Boolean.getBoolean("server.pipelining");
+    // Client sendet Queries und Reports im binären Protokoll (-Dserver.binary=true)
+    public static final boolean BINARY_PROTOCOL = Boolean.getBoolean("server.binary");
+    // Client sendet die Queries eines Durchlaufs als ein Batch-Befehl (-Dserver.batch=true)
+    public static final boolean BATCH_QUERIES = Boolean.getBoolean("server.batch");
+    // maximale Anzahl offener, unbenutzter Verbindungen im Connection-Pool des Clients
+    public static final int CLIENT_POOL_SIZE = Integer.getInteger("server.clientPoolSize", 16);
+    // Client beantwortet wiederholte Queries und Reports aus einem eigenen Cache (-Dserver.nearCache=true)
+    public static final boolean NEAR_CACHE = Boolean.getBoolean("server.nearCache");
+    // maximale Anzahl der Einträge im Cache des Clients
+    public static final int NEAR_CACHE_SIZE = Integer.getInteger("server.nearCacheSize", 10_000);
+    // Abstand in ms, in dem der Client die Version des Datensatzes beim Server prüft
+    public static final long NEAR_CACHE_VALIDATION_INTERVAL = Long.getLong("server.nearCacheValidation", 1_000);
+    // Client fordert Reports als gestreamte Antwort an ("rs;...", -Dserver.streamReports=true)
+    public static final boolean STREAM_REPORTS = Boolean.getBoolean("server.streamReports");
+    // Größe eines Blocks einer gestreamten Antwort in Zeichen, der Server hält pro Antwort höchstens einen Block
+    public static final int STREAM_CHUNK_SIZE = Integer.getInteger("server.streamChunkSize", 8 * 1024);
+    // maximale Anzahl noch nicht geschriebener Blöcke pro gestreamter Antwort (NIO), danach wartet der Worker
+    public static final int MAX_PENDING_CHUNKS = 4;
+    // maximale Länge einer Anfragezeile in Bytes
+    public static final int MAX_REQUEST_LENGTH = 64 * 1024;
 }
@@ -0,0 +1,134 @@
+package org.example.helper;
+
+/**
+ * Hilfsfunktionen für das zeilenbasierte Protokoll zwischen Client und Server.
+ * <p>
+ * Eine Anfragezeile kann mit einer Request-ID versehen werden: {@code #<id>;<befehl>}, z.B. {@code #17;q;DEU;SP.POP.TOTL}.
+ * Der Server beantwortet solche Anfragen mit derselben ID ({@code #17;<ergebnis>}), so dass ein Client mehrere
+ * Anfragen über eine Verbindung senden kann, ohne auf die Antworten zu warten (Pipelining). Die Antworten können
+ * in beliebiger Reihenfolge eintreffen.
+ * <p>
+ * Nach der Request-ID kann eine Frist in Millisekunden folgen: {@code @<ms>;<befehl>}, z.B.
+ * {@code #17;@250;r;SP.POP.TOTL}. Ist sie abgelaufen, bevor der Command fertig ist, antwortet der Server mit
+ * {@link #REQUEST_TIMEOUT}.
+ * <p>
+ * Gestreamte Antworten (z.B. {@code rs;SP.POP.TOTL}) bestehen aus mehreren Zeilen und enden mit der Zeile
+ * {@link #STREAM_END} oder, wenn der Command abgebrochen wurde oder fehlschlug, mit {@link #STREAM_ERROR_PREFIX}
+ * gefolgt von der Fehlermeldung. Anfragen mit Request-ID werden nicht gestreamt, sondern in einer Zeile beantwortet.
+ */
+public final class Protocol {
+    public static final char REQUEST_ID_PREFIX = '#';
+    public static final char SEPARATOR = ';';
+    public static final char DEADLINE_PREFIX = '@';
+    // Antwort, wenn der Server überlastet ist und die Anfrage nicht annimmt
+    public static final String SERVER_BUSY = "Server busy, try again later";
+    // Antwort, wenn die Frist der Anfrage abgelaufen ist
+    public static final String REQUEST_TIMEOUT = "Request timed out";
+    // Antwort, wenn die Anfrage abgebrochen wurde (z.B. weil der Client die Verbindung geschlossen hat)
+    public static final String REQUEST_CANCELLED = "Request cancelled";
+    // letzte Zeile einer vollständigen gestreamten Antwort
+    public static final String STREAM_END = ".";
+    // Präfix der letzten Zeile einer abgebrochenen gestreamten Antwort
+    public static final char STREAM_ERROR_PREFIX = '!';
+
+    private Protocol() {
+    }
+
+    /**
+     * Prüft, ob die Zeile eine Request-ID trägt.
+     *
+     * @param line Anfrage- oder Antwortzeile
+     * @return true, wenn die Zeile mit "#id;" beginnt
+     */
+    public static boolean isTagged(String line) {
+        return !line.isEmpty() && line.charAt(0) == REQUEST_ID_PREFIX && line.indexOf(SEPARATOR) > 1;
+    }
+
+    /**
+     * Gibt den Präfix "#id;" einer Zeile zurück.
+     *
+     * @param line Zeile mit Request-ID
+     * @return Präfix inklusive Trennzeichen
+     */
+    public static String getTag(String line) {
+        return line.substring(0, line.indexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * Entfernt den Präfix "#id;" einer Zeile.
+     *
+     * @param line Zeile mit Request-ID
+     * @return Zeile ohne Request-ID
+     */
+    public static String untag(String line) {
+        return line.substring(line.indexOf(SEPARATOR) + 1);
+    }
+
+    /**
+     * Versieht eine Zeile mit einer Request-ID.
+     *
+     * @param id   Request-ID
+     * @param line Anfrage- oder Antwortzeile
+     * @return "#id;line"
+     */
+    public static String tag(long id, String line) {
+        return REQUEST_ID_PREFIX + Long.toString(id) + SEPARATOR + line;
+    }
+
+    /**
+     * Liest die numerische Request-ID einer Zeile.
+     *
+     * @param line Zeile mit Request-ID
+     * @return Request-ID
+     * @throws NumberFormatException wenn die ID nicht numerisch ist
+     */
+    public static long getId(String line) {
+        return Long.parseLong(line, 1, line.indexOf(SEPARATOR), 10);
+    }
+
+    /**
+     * Prüft, ob die Zeile (ohne Request-ID) mit einer Frist "@ms;" beginnt.
+     *
+     * @param line Anfragezeile ohne Request-ID
+     * @return true, wenn die Zeile mit "@" gefolgt von Ziffern und ";" beginnt
+     */
+    public static boolean hasDeadline(String line) {
+        int end = line.indexOf(SEPARATOR);
+        if (line.isEmpty() || line.charAt(0) != DEADLINE_PREFIX || end < 2 || end > 19) return false;
+        for (int i = 1; i < end; i++) {
+            if (!Character.isDigit(line.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Liest die Frist einer Zeile.
+     *
+     * @param line Anfragezeile mit Frist
+     * @return Frist in Millisekunden
+     */
+    public static long getTimeout(String line) {
+        return Long.parseLong(line, 1, line.indexOf(SEPARATOR), 10);
+    }
+
+    /**
+     * Versieht eine Anfragezeile mit einer Frist. Bei Pipelining steht die Request-ID davor.
+     *
+     * @param timeoutMillis Frist in Millisekunden
+     * @param line          Anfragezeile
+     * @return "@ms;line"
+     */
+    public static String withDeadline(long timeoutMillis, String line) {
+        return DEADLINE_PREFIX + Long.toString(timeoutMillis) + SEPARATOR + line;
+    }
+
+    /**
+     * Prüft, ob eine Zeile eine gestreamte Antwort beendet.
+     *
+     * @param line Antwortzeile
+     * @return true bei {@link #STREAM_END} oder einer Fehlerzeile
+     */
+    public static boolean isStreamEnd(String line) {
+        return line.equals(STREAM_END) || (!line.isEmpty() && line.charAt(0) == STREAM_ERROR_PREFIX);
+    }
+}
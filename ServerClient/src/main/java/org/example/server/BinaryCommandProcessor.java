@@ -0,0 +1,197 @@
+package org.example.server;
+
+import org.example.command.CommandType;
+import org.example.dataLoader.CodeDictionary;
+import org.example.dataLoader.DAO;
+import org.example.helper.BinaryProtocol;
+import org.example.helper.Config;
+import org.example.helper.Protocol;
+import org.example.wdi.WDI;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Verarbeitet Frames des binären Protokolls ({@link BinaryProtocol}). Die Ergebnisse werden direkt aus den Daten
+ * des {@link DAO} in den Antwort-Buffer geschrieben, ohne Strings zu erzeugen oder Zahlen zu formatieren.
+ * Die Ergebnisse werden nicht im Server-Cache abgelegt, da dieser formatierte Text-Antworten enthält.
+ */
+public class BinaryCommandProcessor {
+    private final ThreadedServer server;
+    // Wörterbuch-Antwort, wird beim ersten Abruf erzeugt und danach wiederverwendet
+    private volatile ByteBuffer dictionaryPayload;
+
+    public BinaryCommandProcessor(ThreadedServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Verarbeitet einen Frame und gibt den Antwort-Frame zurück. Mit Bulkheads wird der Frame in der Lane seiner
+     * Command-Klasse ausgeführt und der aufrufende Thread wartet auf das Ergebnis.
+     *
+     * @param request  Frame ohne Längenfeld (Request-ID, Opcode und Payload)
+     * @param deadline Frist der Anfrage, {@link Config#REQUEST_TIMEOUT} ab dem Empfang des Frames
+     * @return Antwort-Frame inklusive Längenfeld, bereit zum Schreiben
+     */
+    public ByteBuffer process(ByteBuffer request, Deadline deadline) {
+        Bulkheads bulkheads = server.getBulkheads();
+        if (bulkheads == null) return execute(request, deadline);
+        int requestId = request.getInt(0);
+        try {
+            return bulkheads.call(getType(request), () -> execute(request, deadline),
+                    () -> BinaryProtocol.errorFrame(requestId, Protocol.SERVER_BUSY));
+        } catch (RemoteException e) {
+            return BinaryProtocol.errorFrame(requestId, "Error while executing the command");
+        }
+    }
+
+    /**
+     * Bestimmt die Command-Klasse eines Frames anhand des Opcodes.
+     *
+     * @param request Frame ohne Längenfeld
+     * @return Klasse des Commands
+     */
+    public static CommandType getType(ByteBuffer request) {
+        return switch (request.get(Integer.BYTES)) {
+            case BinaryProtocol.OP_REPORT -> CommandType.REPORT;
+            case BinaryProtocol.OP_STATUS -> CommandType.ADMIN;
+            default -> CommandType.QUERY;
+        };
+    }
+
+    /**
+     * Verarbeitet einen Frame im aufrufenden Thread und gibt den Antwort-Frame zurück. Läuft die Frist ab oder wird
+     * die Anfrage abgebrochen, ist die Antwort ein Fehler-Frame.
+     *
+     * @param request  Frame ohne Längenfeld (Request-ID, Opcode und Payload)
+     * @param deadline Frist der Anfrage
+     * @return Antwort-Frame inklusive Längenfeld, bereit zum Schreiben
+     */
+    public ByteBuffer execute(ByteBuffer request, Deadline deadline) {
+        try {
+            deadline.begin();
+            try {
+                return execute(request);
+            } finally {
+                deadline.end();
+            }
+        } catch (CancellationException e) {
+            return BinaryProtocol.errorFrame(request.getInt(0), server.recordAbandoned(deadline));
+        }
+    }
+
+    private ByteBuffer execute(ByteBuffer request) {
+        int requestId = request.getInt();
+        byte opcode = request.get();
+        try {
+            return switch (opcode) {
+                case BinaryProtocol.OP_DICTIONARY -> dictionary(requestId);
+                case BinaryProtocol.OP_QUERY -> query(requestId, request.getInt(), request.getInt());
+                case BinaryProtocol.OP_QUERY_YEAR ->
+                        queryYear(requestId, request.getInt(), request.getInt(), request.getShort());
+                case BinaryProtocol.OP_REPORT -> report(requestId, request.getInt());
+                case BinaryProtocol.OP_STATUS -> status(requestId);
+                default -> BinaryProtocol.errorFrame(requestId, "Unknown opcode " + opcode);
+            };
+        } catch (BufferUnderflowException | BufferOverflowException e) {
+            return BinaryProtocol.errorFrame(requestId, "Bad arguments");
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return BinaryProtocol.errorFrame(requestId, e.getMessage());
+        } catch (RemoteException e) {
+            return BinaryProtocol.errorFrame(requestId, "Error while executing the command");
+        }
+    }
+
+    private ByteBuffer dictionary(int requestId) {
+        ByteBuffer payload = dictionaryPayload;
+        if (payload == null) {
+            DAO dao = DAO.getDao();
+            List<byte[]> countries = encode(dao.getCountries());
+            List<byte[]> indicators = encode(dao.getIndicators());
+            int size = 2 * Integer.BYTES;
+            for (byte[] code : countries) size += BinaryProtocol.stringSize(code);
+            for (byte[] code : indicators) size += BinaryProtocol.stringSize(code);
+            payload = ByteBuffer.allocate(size);
+            payload.putInt(countries.size());
+            for (byte[] code : countries) BinaryProtocol.putString(payload, code);
+            payload.putInt(indicators.size());
+            for (byte[] code : indicators) BinaryProtocol.putString(payload, code);
+            dictionaryPayload = payload.flip();
+        }
+        ByteBuffer frame = BinaryProtocol.allocateFrame(payload.remaining(), requestId, BinaryProtocol.OP_DICTIONARY);
+        frame.put(payload.duplicate());
+        return frame.flip();
+    }
+
+    private static List<byte[]> encode(CodeDictionary dictionary) {
+        List<byte[]> codes = new ArrayList<>(dictionary.size());
+        for (String code : dictionary.getCodes()) {
+            codes.add(code.getBytes(StandardCharsets.UTF_8));
+        }
+        return codes;
+    }
+
+    private ByteBuffer query(int requestId, int countryId, int indicatorId) {
+        WDI wdi = find(countryId, indicatorId);
+        if (wdi == null) return BinaryProtocol.errorFrame(requestId, "No data for country/indicator");
+        ByteBuffer frame = BinaryProtocol.allocateFrame(3 * Integer.BYTES + WDI.YEARS * Double.BYTES, requestId,
+                BinaryProtocol.OP_QUERY);
+        frame.putInt(countryId);
+        frame.putInt(indicatorId);
+        frame.putInt(WDI.YEARS);
+        for (int i = 0; i < WDI.YEARS; i++) {
+            frame.putDouble(wdi.getValueAt(i));
+        }
+        return frame.flip();
+    }
+
+    private ByteBuffer queryYear(int requestId, int countryId, int indicatorId, short year) {
+        WDI wdi = find(countryId, indicatorId);
+        if (wdi == null) return BinaryProtocol.errorFrame(requestId, "No data for country/indicator");
+        double value = wdi.getValue(year);
+        ByteBuffer frame = BinaryProtocol.allocateFrame(2 * Integer.BYTES + Short.BYTES + Double.BYTES, requestId,
+                BinaryProtocol.OP_QUERY_YEAR);
+        frame.putInt(countryId);
+        frame.putInt(indicatorId);
+        frame.putShort(year);
+        frame.putDouble(value);
+        return frame.flip();
+    }
+
+    private WDI find(int countryId, int indicatorId) {
+        return DAO.getDao().find(countryId, indicatorId);
+    }
+
+    private ByteBuffer report(int requestId, int indicatorId) {
+        DAO dao = DAO.getDao();
+        CodeDictionary countries = dao.getCountries();
+        // ein Eintrag pro Zeile des Indikators, doppelte Zeilen eines Landes eingeschlossen
+        int count = dao.getIndicatorIndex().getRows(indicatorId).length;
+        ByteBuffer rows = ByteBuffer.allocate(count * (Integer.BYTES + Double.BYTES));
+        dao.report(dao.getIndicators().getCode(indicatorId), (countryCode, mean) -> {
+            rows.putInt(countries.getId(countryCode));
+            rows.putDouble(mean);
+        });
+        rows.flip();
+        ByteBuffer frame = BinaryProtocol.allocateFrame(2 * Integer.BYTES + rows.remaining(), requestId,
+                BinaryProtocol.OP_REPORT);
+        frame.putInt(indicatorId);
+        frame.putInt(rows.remaining() / (Integer.BYTES + Double.BYTES));
+        frame.put(rows);
+        return frame.flip();
+    }
+
+    private ByteBuffer status(int requestId) throws RemoteException {
+        byte[] state = server.getState().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = BinaryProtocol.allocateFrame(BinaryProtocol.stringSize(state), requestId,
+                BinaryProtocol.OP_STATUS);
+        BinaryProtocol.putString(frame, state);
+        return frame.flip();
+    }
+}
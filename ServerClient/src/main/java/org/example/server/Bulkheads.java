@@ -0,0 +1,129 @@
+package org.example.server;
+
+import org.example.command.CommandType;
+import org.example.helper.Config;
+
+import java.io.StringWriter;
+import java.rmi.RemoteException;
+import java.util.EnumMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Getrennte Thread-Pools (Lanes) pro {@link CommandType}, damit eine Welle teurer Reports weder die Queries noch
+ * Status und Shutdown blockiert. Die Lanes sind immer Thread-Pools fester Größe, da die Commands rechenintensiv
+ * sind. Der {@link WorkerPool} des Servers liest weiterhin die Anfragen (Modus BLOCKING) bzw. wird im Modus NIO
+ * nicht mehr für Commands verwendet.
+ * <p>
+ * Query- und Report-Lane lehnen bei voller Warteschlange gemäß {@link Config#REJECTION_POLICY} ab, die Admin-Lane
+ * führt Commands dann im aufrufenden Thread aus, Verwaltungs-Commands kommen also immer durch. Im Modus
+ * {@link TransportMode#NIO} führen IO-Threads nie Commands aus, dort antwortet auch die Admin-Lane erst bei
+ * {@link Config#QUEUE_CAPACITY} wartenden Verwaltungs-Commands mit "Server busy".
+ */
+public class Bulkheads {
+    private final EnumMap<CommandType, WorkerPool> lanes;
+
+    public Bulkheads() {
+        lanes = new EnumMap<>(CommandType.class);
+        lanes.put(CommandType.QUERY, new WorkerPool(ExecutorMode.FIXED_POOL, Config.QUERY_THREADS,
+                Config.QUEUE_CAPACITY, Config.REJECTION_POLICY.forTransport(Config.TRANSPORT_MODE)));
+        lanes.put(CommandType.REPORT, new WorkerPool(ExecutorMode.FIXED_POOL, Config.REPORT_THREADS,
+                Config.QUEUE_CAPACITY, Config.REJECTION_POLICY.forTransport(Config.TRANSPORT_MODE)));
+        lanes.put(CommandType.ADMIN, new WorkerPool(ExecutorMode.FIXED_POOL, Config.ADMIN_THREADS,
+                Config.QUEUE_CAPACITY, RejectionPolicy.CALLER_RUNS.forTransport(Config.TRANSPORT_MODE)));
+    }
+
+    /**
+     * Gibt den Thread-Pool für eine Klasse von Commands zurück.
+     *
+     * @param type Klasse des Commands
+     * @return Der Thread-Pool der Lane
+     */
+    public WorkerPool getLane(CommandType type) {
+        return lanes.get(type);
+    }
+
+    /**
+     * Führt eine Aufgabe in der Lane aus und wartet auf das Ergebnis. Wird die Aufgabe wegen Überlast abgelehnt,
+     * wird stattdessen die Antwort des busy-Lieferanten zurückgegeben.
+     *
+     * @param type Klasse des Commands
+     * @param task Die Aufgabe
+     * @param busy Liefert die Antwort bei Überlast
+     * @return Ergebnis der Aufgabe
+     * @throws RemoteException wenn die Aufgabe fehlschlägt oder der wartende Thread unterbrochen wird
+     */
+    public <T> T call(CommandType type, Callable<T> task, Supplier<T> busy) throws RemoteException {
+        LaneTask<T> laneTask = new LaneTask<>(task, busy);
+        try {
+            getLane(type).execute(laneTask);
+        } catch (RejectedExecutionException e) {
+            // Lane wird gerade beendet
+            return busy.get();
+        }
+        try {
+            return laneTask.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrupted while waiting for the " + type + " lane", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RemoteException remoteException) throw remoteException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new RemoteException("Error while executing the command", e.getCause());
+        }
+    }
+
+    /**
+     * Gibt den Zustand aller Lanes zurück.
+     *
+     * @return Zustand in der Form "LANE lane: Kennzahl: Wert;..."
+     */
+    public String getState() {
+        StringWriter writer = new StringWriter();
+        lanes.forEach((type, lane) -> {
+            writer.write(type.name());
+            writer.write(" lane: ");
+            writer.write(lane.getState());
+        });
+        return writer.toString();
+    }
+
+    /**
+     * Nimmt keine weiteren Aufgaben an, laufende Aufgaben werden noch beendet.
+     */
+    public void shutdown() {
+        lanes.values().forEach(WorkerPool::shutdown);
+    }
+
+    /**
+     * Aufgabe, deren Ergebnis der Thread der Verbindung abwartet.
+     */
+    private static class LaneTask<T> implements RejectableTask {
+        private final Callable<T> task;
+        private final Supplier<T> busy;
+        private final CompletableFuture<T> result;
+
+        LaneTask(Callable<T> task, Supplier<T> busy) {
+            this.task = task;
+            this.busy = busy;
+            result = new CompletableFuture<>();
+        }
+
+        @Override
+        public void run() {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public void reject() {
+            result.complete(busy.get());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.server;
+
+import org.example.helper.Config;
+import org.example.helper.Protocol;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Gestreamte Antwort: sammelt die Zeilen eines {@link org.example.command.StreamingCommand} in einem Block von
+ * {@link Config#STREAM_CHUNK_SIZE} Zeichen und übergibt ihn dem Transport, sobald er voll ist. Der Speicher pro
+ * Antwort ist damit unabhängig von der Größe des Ergebnisses. Die Antwort endet mit {@link Protocol#STREAM_END}
+ * ({@link #finish()}) oder einer Fehlerzeile ({@link #fail(String)}).
+ * <p>
+ * Fehler beim Schreiben werden als {@link UncheckedIOException} weitergegeben, da die Zeilen aus Lambdas des
+ * Commands kommen. Nicht threadsicher.
+ */
+public class ChunkedResponse implements Consumer<CharSequence> {
+    private final ChunkWriter writer;
+    private final StringBuilder chunk;
+    private boolean finished;
+
+    public ChunkedResponse(ChunkWriter writer) {
+        this.writer = writer;
+        chunk = new StringBuilder(Config.STREAM_CHUNK_SIZE + 128);
+    }
+
+    /**
+     * Hängt eine Zeile an den aktuellen Block an und schreibt ihn, wenn er voll ist.
+     *
+     * @param line Zeile ohne Zeilenumbruch
+     */
+    @Override
+    public void accept(CharSequence line) {
+        chunk.append(line).append(System.lineSeparator());
+        if (chunk.length() >= Config.STREAM_CHUNK_SIZE) flush();
+    }
+
+    /**
+     * Schließt die Antwort mit {@link Protocol#STREAM_END} ab.
+     */
+    public void finish() {
+        end(Protocol.STREAM_END);
+    }
+
+    /**
+     * Schließt eine abgebrochene Antwort mit einer Fehlerzeile ab. Bereits geschriebene Zeilen bleiben gültig.
+     *
+     * @param message Fehlermeldung, z.B. {@link Protocol#REQUEST_TIMEOUT}
+     */
+    public void fail(String message) {
+        end(Protocol.STREAM_ERROR_PREFIX + message);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private void end(String lastLine) {
+        if (finished) return;
+        finished = true;
+        chunk.append(lastLine).append(System.lineSeparator());
+        flush();
+    }
+
+    private void flush() {
+        if (chunk.isEmpty()) return;
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(chunk));
+        chunk.setLength(0);
+        try {
+            writer.write(bytes);
+        } catch (IOException e) {
+            finished = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Schreibt einen Block auf die Verbindung des Clients.
+     */
+    @FunctionalInterface
+    public interface ChunkWriter {
+        /**
+         * @param chunk Kodierter Block, gehört danach dem Transport
+         * @throws IOException wenn die Verbindung nicht mehr beschrieben werden kann
+         */
+        void write(ByteBuffer chunk) throws IOException;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.server;
+
+import org.example.command.Command;
+
+/**
+ * Eine geparste Anfragezeile: Request-ID, Command und Frist.
+ */
+public class ClientRequest {
+    // "#id;" oder leer
+    private final String tag;
+    // Anfragezeile ohne Request-ID und Frist
+    private final String line;
+    private final Command command;
+    private final Deadline deadline;
+
+    public ClientRequest(String tag, String line, Command command, Deadline deadline) {
+        this.tag = tag;
+        this.line = line;
+        this.command = command;
+        this.deadline = deadline;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+}
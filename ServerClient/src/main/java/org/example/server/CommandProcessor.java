@@ -0,0 +1,254 @@
+package org.example.server;
+
+import org.example.cacheModule.CacheSystem;
+import org.example.cacheModule.ResultWriter;
+import org.example.command.*;
+import org.example.helper.Config;
+import org.example.helper.Protocol;
+import org.example.loggerModule.LoggerClass;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.rmi.RemoteException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Klasse zur Verarbeitung einer Anfragezeile: Parsen des Commands, Suche im Server-Cache und Ausführung.
+ * Wird von allen Transport-Modi des Servers gemeinsam verwendet.
+ */
+public class CommandProcessor {
+    private static final ByteBuffer LINE_SEPARATOR =
+            ByteBuffer.wrap(System.lineSeparator().getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    private final ThreadedServer server;
+    private final LoggerClass logger;
+
+    public CommandProcessor(ThreadedServer server) {
+        this.server = server;
+        logger = ServerMain.getLogger(this.getClass().getName());
+    }
+
+    /**
+     * Erzeugt aus einer Anfragezeile den passenden Command. Wird im Modus {@link TransportMode#NIO} im Thread der
+     * Event-Loop aufgerufen und gibt daher nichts auf der Konsole aus.
+     *
+     * @param line Anfragezeile im Format "befehl;arg1;arg2;..."
+     * @return Der Command zur Anfrage
+     */
+    public Command parse(String line) {
+        String[] commandData = line.split(";");
+        return switch (commandData[0]) {
+            case "q" -> new QueryCommand(commandData);
+            case "r" -> new ReportCommand(commandData);
+            case "rs" -> new StreamingReportCommand(commandData);
+            case "b" -> {
+                WorkerPool executor = server.getExecutor(CommandType.REPORT);
+                yield new BatchCommand(commandData, server.getServerCache(), executor, executor.getParallelism());
+            }
+            case "v" -> new VersionCommand(commandData);
+            case "s" -> new ServerStatusCommand(commandData, server);
+            case "z" -> new ShutdownCommand(commandData, server);
+            default -> new ErrorCommand(commandData);
+        };
+    }
+
+    /**
+     * Zerlegt eine Anfragezeile in Request-ID, Frist und Command.
+     *
+     * @param rawLine    Anfragezeile, ggf. mit "#id;" und "@ms;"
+     * @param receivedAt Empfang der Anfrage (System.nanoTime), Beginn der Frist
+     * @return Die geparste Anfrage
+     */
+    public ClientRequest parseRequest(String rawLine, long receivedAt) {
+        String tag = "";
+        String line = rawLine;
+        if (Protocol.isTagged(line)) {
+            tag = Protocol.getTag(line);
+            line = Protocol.untag(line);
+        }
+        long timeout = Config.REQUEST_TIMEOUT;
+        if (Protocol.hasDeadline(line)) {
+            timeout = Protocol.getTimeout(line);
+            line = line.substring(line.indexOf(Protocol.SEPARATOR) + 1);
+        }
+        return new ClientRequest(tag, line, parse(line), Deadline.after(receivedAt, timeout));
+    }
+
+    /**
+     * Verarbeitet eine Anfragezeile und gibt die Antwort für den Client zurück.
+     * Trägt die Anfrage eine Request-ID, wird die Antwort mit derselben ID versehen. Mit Bulkheads wird der Command
+     * in der Lane seiner Klasse ausgeführt und der aufrufende Thread wartet auf das Ergebnis.
+     *
+     * @param line       Anfragezeile
+     * @param receivedAt Empfang der Anfrage (System.nanoTime), Beginn der Frist
+     * @return Antwort des Servers
+     * @throws RemoteException wenn der Command nicht ausgeführt werden konnte
+     */
+    public String process(String line, long receivedAt) throws RemoteException {
+        return process(parseRequest(line, receivedAt));
+    }
+
+    /**
+     * Verarbeitet eine geparste Anfrage wie {@link #process(String, long)}.
+     *
+     * @param request Die geparste Anfrage
+     * @return Antwort des Servers
+     * @throws RemoteException wenn der Command nicht ausgeführt werden konnte
+     */
+    public String process(ClientRequest request) throws RemoteException {
+        Bulkheads bulkheads = server.getBulkheads();
+        if (bulkheads == null) return execute(request);
+        return bulkheads.call(request.getCommand().getType(), () -> execute(request),
+                () -> request.getTag() + Protocol.SERVER_BUSY);
+    }
+
+    /**
+     * Beantwortet eine Anfrage direkt aus dem Server-Cache, wenn dieser die Ergebnisse außerhalb des Heaps speichert
+     * ({@link CacheSystem#isOffHeap()}). Die Antwortzeile (Request-ID, Ergebnis, Zeilenumbruch) wird als UTF-8-Bytes
+     * an den Transport übergeben, ohne einen String zu erzeugen. Ein Treffer ist sofort beantwortet und belegt
+     * daher keine Lane der Bulkheads.
+     *
+     * @param request Die geparste Anfrage
+     * @param writer  schreibt die Teile der Antwortzeile auf die Verbindung des Clients
+     * @return true, wenn die Anfrage beantwortet wurde, false bei einem Miss (Anfrage mit {@link #process} ausführen)
+     * @throws IOException wenn die Antwort nicht geschrieben werden konnte
+     */
+    public boolean writeCached(ClientRequest request, ResultWriter writer) throws IOException {
+        CacheSystem cache = server.getServerCache();
+        Command command = request.getCommand();
+        if (!cache.isOffHeap() || !command.isCacheable()) return false;
+        ByteBuffer tag = request.getTag().isEmpty() ? null
+                : ByteBuffer.wrap(request.getTag().getBytes(StandardCharsets.UTF_8));
+        boolean hit = cache.write(command.getCacheKey(), parts -> writer.write(toLine(tag, parts)));
+        if (hit) logger.logInfo("**** Cache hit for command: " + request.getLine() + " ****");
+        return hit;
+    }
+
+    private static ByteBuffer[] toLine(ByteBuffer tag, ByteBuffer[] parts) {
+        int offset = tag == null ? 0 : 1;
+        ByteBuffer[] line = new ByteBuffer[parts.length + offset + 1];
+        if (tag != null) line[0] = tag;
+        System.arraycopy(parts, 0, line, offset, parts.length);
+        line[line.length - 1] = LINE_SEPARATOR.duplicate();
+        return line;
+    }
+
+    /**
+     * Prüft, ob die Antwort auf eine Anfrage gestreamt wird. Anfragen mit Request-ID werden immer in einer Zeile
+     * beantwortet, da sich sonst die Zeilen mehrerer Antworten vermischen.
+     *
+     * @param request Die geparste Anfrage
+     * @return true für einen {@link StreamingCommand} ohne Request-ID
+     */
+    public boolean isStreaming(ClientRequest request) {
+        return request.getCommand() instanceof StreamingCommand && request.getTag().isEmpty();
+    }
+
+    /**
+     * Verarbeitet eine Anfrage mit gestreamter Antwort, mit Bulkheads in der Lane ihrer Klasse.
+     *
+     * @param request  Die geparste Anfrage, siehe {@link #isStreaming(ClientRequest)}
+     * @param response Die Antwort, in die die Zeilen geschrieben werden
+     * @throws IOException wenn die Antwort nicht geschrieben werden konnte
+     */
+    public void processStreaming(ClientRequest request, ChunkedResponse response) throws IOException {
+        Bulkheads bulkheads = server.getBulkheads();
+        if (bulkheads == null) {
+            executeStreaming(request, response);
+            return;
+        }
+        try {
+            bulkheads.call(request.getCommand().getType(), () -> stream(request, response), () -> {
+                response.fail(Protocol.SERVER_BUSY);
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Führt einen {@link StreamingCommand} im aufrufenden Thread aus. Die Frist gilt wie bei
+     * {@link #execute(ClientRequest)}, bei Abbruch oder Fehler endet die Antwort mit einer Fehlerzeile.
+     *
+     * @param request  Die geparste Anfrage, siehe {@link #isStreaming(ClientRequest)}
+     * @param response Die Antwort, in die die Zeilen geschrieben werden
+     * @throws IOException wenn die Antwort nicht geschrieben werden konnte
+     */
+    public void executeStreaming(ClientRequest request, ChunkedResponse response) throws IOException {
+        try {
+            stream(request, response);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Führt eine Anfrage im aufrufenden Thread aus, das Ergebnis kommt wenn möglich aus dem Server-Cache.
+     * Läuft die Frist ab oder wird die Anfrage abgebrochen, wird der Command unterbrochen und die Antwort lautet
+     * {@link Protocol#REQUEST_TIMEOUT} bzw. {@link Protocol#REQUEST_CANCELLED}.
+     *
+     * @param request Die geparste Anfrage
+     * @return Antwort des Servers, mit Request-ID falls vorhanden
+     * @throws RemoteException wenn der Command nicht ausgeführt werden konnte
+     */
+    public String execute(ClientRequest request) throws RemoteException {
+        Deadline deadline = request.getDeadline();
+        try {
+            deadline.begin();
+            try {
+                return request.getTag() + execute(request.getCommand(), request.getLine());
+            } finally {
+                deadline.end();
+            }
+        } catch (CancellationException e) {
+            logger.logInfo("Request abandoned: " + request.getLine());
+            return request.getTag() + server.recordAbandoned(deadline);
+        }
+    }
+
+    /**
+     * Streamt das Ergebnis eines Commands innerhalb seiner Frist.
+     *
+     * @return immer null (für {@link Bulkheads#call})
+     * @throws UncheckedIOException wenn die Antwort nicht geschrieben werden konnte
+     */
+    private Void stream(ClientRequest request, ChunkedResponse response) {
+        Deadline deadline = request.getDeadline();
+        try {
+            deadline.begin();
+            try {
+                ((StreamingCommand) request.getCommand()).stream(response);
+            } finally {
+                deadline.end();
+            }
+        } catch (CancellationException e) {
+            logger.logInfo("Request abandoned: " + request.getLine());
+            response.fail(server.recordAbandoned(deadline));
+            return null;
+        } catch (UncheckedIOException e) {
+            // Client ist weg, es gibt niemanden mehr, dem ein Fehler gemeldet werden kann
+            throw e;
+        } catch (RuntimeException e) {
+            logger.logWarning("Error while streaming the response: " + e.getMessage());
+            response.fail("Error");
+            return null;
+        }
+        response.finish();
+        return null;
+    }
+
+    private String execute(Command command, String line) throws RemoteException {
+        // wenn der Command nicht zum Zwischenspeichern geeignet ist (Serverstatus oder Shutdown)
+        if (!command.isCacheable()) return command.execute();
+        // ServerCache wird zuerst gesucht-> Cache-Hit
+        String cached = server.getServerCache().get(command.getCacheKey());
+        if (cached != null) {
+            logger.logInfo("**** Cache hit for command: " + line + " ****");
+            return cached;
+        }
+        // bei einem Miss wird der Command für gleichzeitige gleiche Anfragen nur einmal ausgeführt
+        return server.getServerCache().getOrExecute(command);
+    }
+}
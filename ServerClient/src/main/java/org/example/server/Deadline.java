@@ -0,0 +1,126 @@
+package org.example.server;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frist einer Anfrage. Während ein Command ausgeführt wird ({@link #begin()} bis {@link #end()}), unterbricht ein
+ * Timer den ausführenden Thread, sobald die Frist abläuft. Ebenso unterbricht {@link #cancel()} die Ausführung,
+ * z.B. wenn der Client die Verbindung schließt. Lange laufende Commands wie der Report prüfen den Interrupt-Status
+ * und brechen mit einer {@link CancellationException} ab.
+ * <p>
+ * Ein Interrupt schließt einen {@link java.nio.channels.InterruptibleChannel}, in den der Thread gerade schreibt.
+ * Schreibt ein Command während der Ausführung (gestreamte Antworten), geschieht das daher zwischen {@link #mask()}
+ * und {@link #unmask()}: ein Abbruch wird erst danach als Interrupt zugestellt und zwischen zwei Zeilen bemerkt.
+ */
+public class Deadline {
+    private static final ScheduledExecutorService TIMER = createTimer();
+    // Zeitpunkt (System.nanoTime) des Ablaufs, nur gültig wenn bounded
+    private final long expiresAt;
+    private final boolean bounded;
+    // die folgenden Felder sind durch this geschützt
+    private Thread executingThread;
+    private ScheduledFuture<?> timer;
+    private boolean finished;
+    private boolean masked;
+    private volatile boolean cancelled;
+    private volatile boolean expired;
+
+    private Deadline(long expiresAt, boolean bounded) {
+        this.expiresAt = expiresAt;
+        this.bounded = bounded;
+    }
+
+    /**
+     * Erzeugt eine Frist ab einem Zeitpunkt.
+     *
+     * @param startNanos    Beginn (System.nanoTime), z.B. Empfang der Anfrage
+     * @param timeoutMillis Frist in Millisekunden, 0 oder negativ für keine Frist
+     * @return Die Frist
+     */
+    public static Deadline after(long startNanos, long timeoutMillis) {
+        if (timeoutMillis <= 0) return new Deadline(0, false);
+        return new Deadline(startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), true);
+    }
+
+    private static ScheduledExecutorService createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Deadline-Timer-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // erledigte Anfragen sollen keine Timer in der Warteschlange hinterlassen
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Beginnt die Ausführung im aufrufenden Thread.
+     *
+     * @throws CancellationException wenn die Anfrage bereits abgebrochen oder die Frist abgelaufen ist
+     */
+    public synchronized void begin() {
+        if (!expired && bounded && System.nanoTime() - expiresAt >= 0) expired = true;
+        if (cancelled || expired) throw new CancellationException("Request abandoned before execution");
+        executingThread = Thread.currentThread();
+        if (bounded) {
+            timer = TIMER.schedule(this::expire, expiresAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Beendet die Ausführung. Danach wird der Thread nicht mehr unterbrochen, ein Interrupt durch diese Frist wird
+     * zurückgesetzt, damit der Thread des Pools die nächste Aufgabe normal ausführt.
+     */
+    public void end() {
+        synchronized (this) {
+            finished = true;
+            executingThread = null;
+            if (timer != null) timer.cancel(false);
+        }
+        if (cancelled) Thread.interrupted();
+    }
+
+    /**
+     * Bricht die Anfrage ab. Kann von jedem Thread aufgerufen werden.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (executingThread != null && !finished && !masked) executingThread.interrupt();
+    }
+
+    /**
+     * Unterbricht den ausführenden Thread bis {@link #unmask()} nicht mehr. Ein bereits zugestellter Interrupt dieser
+     * Frist wird zurückgesetzt. Nur vom ausführenden Thread aufzurufen.
+     */
+    public synchronized void mask() {
+        masked = true;
+        if (cancelled) Thread.interrupted();
+    }
+
+    /**
+     * Hebt {@link #mask()} auf. Wurde die Anfrage inzwischen abgebrochen, wird der Interrupt jetzt nachgeholt.
+     */
+    public synchronized void unmask() {
+        masked = false;
+        if (cancelled && executingThread != null && !finished) executingThread.interrupt();
+    }
+
+    private void expire() {
+        expired = true;
+        cancel();
+    }
+
+    /**
+     * Prüft, ob die Frist abgelaufen ist.
+     *
+     * @return true, wenn die Anfrage wegen Zeitüberschreitung abgebrochen wurde oder würde
+     */
+    public boolean isExpired() {
+        return expired || (bounded && System.nanoTime() - expiresAt >= 0);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.server;
+
+/**
+ * Ausführungs-Modus der Worker des Servers.
+ */
+public enum ExecutorMode {
+    /**
+     * Thread-Pool mit fester Größe ({@link org.example.helper.Config#WORKER_THREADS}).
+     */
+    FIXED_POOL,
+    /**
+     * Jede Aufgabe läuft in einem eigenen virtuellen Thread. Blockierende Socket-Zugriffe belegen dabei keinen
+     * Plattform-Thread, die Anzahl gleichzeitiger Verbindungen ist nicht mehr durch die Kernanzahl begrenzt.
+     */
+    VIRTUAL
+}
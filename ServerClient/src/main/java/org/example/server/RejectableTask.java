@@ -0,0 +1,12 @@
+package org.example.server;
+
+/**
+ * Aufgabe, die bei Überlast des {@link WorkerPool} eine Antwort an den Client senden kann, statt ausgeführt zu werden.
+ */
+public interface RejectableTask extends Runnable {
+    /**
+     * Beantwortet die Anfrage mit {@link org.example.helper.Protocol#SERVER_BUSY}. Wird im Thread aufgerufen, der
+     * die Aufgabe abgelehnt hat, und darf daher nicht blockieren.
+     */
+    void reject();
+}
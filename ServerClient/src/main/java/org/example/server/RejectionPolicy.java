@@ -0,0 +1,39 @@
+package org.example.server;
+
+/**
+ * Verhalten des {@link WorkerPool}, wenn die Warteschlange voll ist ({@link org.example.helper.Config#QUEUE_CAPACITY}).
+ * Aufgaben, die nicht {@link RejectableTask} implementieren (z.B. Teil-Queries einer Batch), werden in diesem Fall
+ * immer vom aufrufenden Thread ausgeführt, damit keine Antwort verloren geht. Sie werden nur von Workern eingereicht,
+ * nie von Acceptor- oder IO-Threads.
+ */
+public enum RejectionPolicy {
+    /**
+     * Die neue Anfrage wird sofort mit {@link org.example.helper.Protocol#SERVER_BUSY} beantwortet.
+     */
+    BUSY,
+    /**
+     * Der aufrufende Thread (Acceptor im Modus {@link TransportMode#BLOCKING}) führt die Anfrage selbst aus und nimmt
+     * solange keine neuen Verbindungen an. Im Modus {@link TransportMode#NIO} wie {@link #BUSY}, siehe
+     * {@link #forTransport(TransportMode)}.
+     */
+    CALLER_RUNS,
+    /**
+     * Die älteste wartende Anfrage wird mit {@link org.example.helper.Protocol#SERVER_BUSY} beantwortet und die neue
+     * eingereiht. Wartende Teil-Queries werden nicht verdrängt, die Batch führt sie ohnehin selbst aus, wenn kein
+     * Worker sie übernimmt. Im Modus {@link ExecutorMode#VIRTUAL} gibt es keine Warteschlange, dort wie {@link #BUSY}.
+     */
+    SHED_OLDEST;
+
+    /**
+     * Gibt die Policy zurück, die im Transport-Modus tatsächlich gilt. Im Modus {@link TransportMode#NIO} reichen die
+     * IO-Threads die Anfragen ein; sie dürfen nie selbst Commands ausführen, sonst steht die Loop still und ein Worker,
+     * der auf Platz in der Schreib-Warteschlange dieser Loop wartet, blockiert für immer. Dort gilt daher
+     * {@link #CALLER_RUNS} als {@link #BUSY}.
+     *
+     * @param transport Der Transport-Modus des Servers
+     * @return Die wirksame Policy
+     */
+    public RejectionPolicy forTransport(TransportMode transport) {
+        return this == CALLER_RUNS && transport == TransportMode.NIO ? BUSY : this;
+    }
+}
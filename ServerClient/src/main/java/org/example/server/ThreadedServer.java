@@ -1,8 +1,14 @@
 package org.example.server;
 
 import org.example.cacheModule.CacheSystem;
+import org.example.command.CacheStatistics;
+import org.example.command.Command;
+import org.example.command.CommandType;
+import org.example.dataLoader.DAO;
 import org.example.helper.Config;
+import org.example.helper.Protocol;
 import org.example.loggerModule.LoggerClass;
+import org.example.server.nio.NioTransport;
 import org.example.server.task.ServerExecuteCommandTask;
 import org.example.server.task.ServerHandleRequestTask;
 
@@ -11,8 +17,9 @@ import java.io.StringWriter;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Klasse zur Implementierung des Multithreaded Servers
@@ -22,16 +29,46 @@ public class ThreadedServer implements ServerRemote {
     private static ThreadedServer server;
     // Server kann von verschiedenen Threads gestoppt werden, deswegen volatile
     private volatile boolean stopServer;
-    private ThreadPoolExecutor executor;
+    private WorkerPool executor;
+    // nur mit Config.BULKHEADS gesetzt
+    private Bulkheads bulkheads;
     private ServerSocket serverSocket;
+    // nur im Transport-Modus NIO gesetzt
+    private NioTransport nioTransport;
+    private CommandProcessor commandProcessor;
+    private BinaryCommandProcessor binaryCommandProcessor;
     private CacheSystem serverCache;
+    // meistverwendete Schlüssel des letzten Laufs, mit denen der Cache nach dem Start vorgewärmt wird
+    private List<String> hotKeys;
+    // Anfragen, die wegen abgelaufener Frist bzw. geschlossener Verbindung abgebrochen wurden
+    private final LongAdder timedOutRequests = new LongAdder();
+    private final LongAdder cancelledRequests = new LongAdder();
     private Thread handleRequestTask;
     private LoggerClass logger;
 
-    public ThreadPoolExecutor getExecutor() {
+    public WorkerPool getExecutor() {
         return executor;
     }
 
+    /**
+     * Gibt den Thread-Pool zurück, in dem Commands der angegebenen Klasse ausgeführt werden.
+     *
+     * @param type Klasse des Commands
+     * @return Die Lane der Klasse oder, ohne Bulkheads, der gemeinsame Executor
+     */
+    public WorkerPool getExecutor(CommandType type) {
+        return bulkheads != null ? bulkheads.getLane(type) : executor;
+    }
+
+    /**
+     * Gibt die getrennten Thread-Pools pro Command-Klasse zurück.
+     *
+     * @return Die Bulkheads oder null, wenn {@link Config#BULKHEADS} nicht gesetzt ist
+     */
+    public Bulkheads getBulkheads() {
+        return bulkheads;
+    }
+
     private ThreadedServer() {
         name = "Singleton multithreaded server";
         init();
@@ -54,16 +91,29 @@ public class ThreadedServer implements ServerRemote {
         logger = ServerMain.getLogger(this.getClass().getName());
         logger.logInfo("Initialization started.");
         stopServer = true;
-        executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        executor = new WorkerPool(Config.EXECUTOR_MODE, Config.WORKER_THREADS, Config.QUEUE_CAPACITY,
+                Config.REJECTION_POLICY.forTransport(Config.TRANSPORT_MODE));
+        if (Config.BULKHEADS) bulkheads = new Bulkheads();
         serverCache = new CacheSystem();
+        // Ergebnisse des letzten Laufs übernehmen, solange der Datensatz derselbe ist
+        serverCache.enableSnapshots(() -> DAO.getDao().getFingerprint());
+        hotKeys = serverCache.enableHotKeys();
+        commandProcessor = new CommandProcessor(this);
+        binaryCommandProcessor = new BinaryCommandProcessor(this);
         try {
-            serverSocket = new ServerSocket(Config.PARALLEL_PORT, 50, InetAddress.getByName("127.0.0.1"));
+            if (Config.TRANSPORT_MODE == TransportMode.NIO) {
+                nioTransport = new NioTransport(this);
+            } else {
+                serverSocket = new ServerSocket(Config.PARALLEL_PORT, Config.ACCEPT_BACKLOG,
+                        InetAddress.getByName("127.0.0.1"));
+            }
         } catch (IOException e) {
             System.err.println("Error while creating the server socket.");
             System.err.println(e.getMessage());
             return;
         }
-        logger.logInfo("Initialization completed.");
+        logger.logInfo("Initialization completed (transport: " + Config.TRANSPORT_MODE
+                + ", executor: " + Config.EXECUTOR_MODE + ", bulkheads: " + Config.BULKHEADS + ").");
     }
 
     /**
@@ -75,6 +125,24 @@ public class ThreadedServer implements ServerRemote {
         return serverCache;
     }
 
+    /**
+     * Gibt den Prozessor zurück, der Anfragezeilen parst und ausführt.
+     *
+     * @return Der Command-Prozessor
+     */
+    public CommandProcessor getCommandProcessor() {
+        return commandProcessor;
+    }
+
+    /**
+     * Gibt den Prozessor für Anfragen im binären Protokoll zurück.
+     *
+     * @return Der Prozessor für binäre Frames
+     */
+    public BinaryCommandProcessor getBinaryCommandProcessor() {
+        return binaryCommandProcessor;
+    }
+
     @Override
     public void run() {
         if (!isRunning()) {
@@ -84,26 +152,58 @@ public class ThreadedServer implements ServerRemote {
             handleRequestTask.start();
             stopServer = false;
             logger.logInfo("Server is running and can receives client requests.");
+            startCacheWarmUp();
             return;
         }
         logger.logInfo("Server is already running.");
     }
 
+    /**
+     * Wärmt den Cache im Hintergrund mit den meistverwendeten Queries und Reports des letzten Laufs vor, während der
+     * Server bereits Anfragen annimmt. Zeit- und CPU-Budget siehe {@link CacheSystem#warmUp(List)}.
+     */
+    private void startCacheWarmUp() {
+        if (hotKeys.isEmpty()) return;
+        List<String> lines = hotKeys;
+        hotKeys = List.of();
+        Thread warmUpTask = new Thread(() -> {
+            List<Command> commands = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                Command command = commandProcessor.parse(line);
+                if (command.isCacheable() && command.getType() != CommandType.ADMIN) commands.add(command);
+            }
+            int loaded = serverCache.warmUp(commands);
+            logger.logInfo("Cache warm-up loaded " + loaded + " of " + commands.size() + " hot keys.");
+        }, "CacheWarmUpTask-Thread");
+        warmUpTask.setDaemon(true);
+        warmUpTask.start();
+    }
+
     public void handleRequests() {
         logger.logInfo("In request handling loop.");
+        if (nioTransport != null) {
+            nioTransport.acceptConnections();
+        } else {
+            acceptBlocking();
+        }
+        logger.logInfo("Server prepared for shutdown.");
+        logger.logInfo("Server can't response to any client");
+    }
+
+    /**
+     * Nimmt im Modus {@link TransportMode#BLOCKING} Verbindungen an und übergibt sie dem Thread-Pool.
+     */
+    private void acceptBlocking() {
         do {
             try {
                 Socket clientSocket = serverSocket.accept();
-                Thread delegatedTask = new Thread(new ServerExecuteCommandTask(clientSocket, server));
-                executor.execute(delegatedTask);
+                executor.execute(new ServerExecuteCommandTask(clientSocket, server, System.nanoTime()));
             } catch (IOException e) {
                 logger.logWarning("Error while accepting a client connection.");
                 logger.logWarning(e.getMessage());
                 e.getStackTrace();
             }
         } while (isRunning());
-        logger.logInfo("Server prepared for shutdown.");
-        logger.logInfo("Server can't response to any client");
     }
 
     /**
@@ -115,8 +215,12 @@ public class ThreadedServer implements ServerRemote {
         if (isRunning()) {
             stopServer = true;
             try {
-                // ServerSocket schließen damit serverSocket.accept() beendet wird
-                serverSocket.close();
+                // ServerSocket schließen damit serverSocket.accept() bzw. der Selector beendet wird
+                if (nioTransport != null) {
+                    nioTransport.close();
+                } else {
+                    serverSocket.close();
+                }
                 logger.logInfo("Server Socket closed.");
 
             } catch (Exception e) {
@@ -126,6 +230,7 @@ public class ThreadedServer implements ServerRemote {
             }
             // keine weiteren Anfragen annehmen
             executor.shutdown();
+            if (bulkheads != null) bulkheads.shutdown();
             serverCache.shutdown();
             logger.logInfo("Server components stopped.");
             // ServerHandleRequestTask beenden
@@ -135,6 +240,21 @@ public class ThreadedServer implements ServerRemote {
         return Thread.currentThread().getName() + " : Server already closed!";
     }
 
+    /**
+     * Zählt eine abgebrochene Anfrage und gibt die passende Antwort für den Client zurück.
+     *
+     * @param deadline Frist der Anfrage
+     * @return {@link Protocol#REQUEST_TIMEOUT} oder {@link Protocol#REQUEST_CANCELLED}
+     */
+    public String recordAbandoned(Deadline deadline) {
+        if (deadline.isExpired()) {
+            timedOutRequests.increment();
+            return Protocol.REQUEST_TIMEOUT;
+        }
+        cancelledRequests.increment();
+        return Protocol.REQUEST_CANCELLED;
+    }
+
     @Override
     public boolean isRunning() {
         return !stopServer;
@@ -145,26 +265,31 @@ public class ThreadedServer implements ServerRemote {
         StringWriter writer = new StringWriter();
         writer.write(name);
         writer.write(" --> ");
-        int numberOfThreads = getExecutor().getPoolSize();
-        int load = (int) (1.0 * getExecutor().getActiveCount() / numberOfThreads * 100);
-        writer.write("Number of Threads in the ThreadPool: ");
-        writer.write(Integer.toString(numberOfThreads));
-        writer.write(";");
-        writer.write("Load of the ThreadPool: ");
-        writer.write(Integer.toString(load) + " %");
+        writer.write(getExecutor().getState());
+        writer.write("Number of timed out requests: ");
+        writer.write(Long.toString(timedOutRequests.sum()));
         writer.write(";");
-        writer.write("Number of successfully executed tasks: ");
-        writer.write(Integer.toString((int) getExecutor().getCompletedTaskCount()));
+        writer.write("Number of cancelled requests: ");
+        writer.write(Long.toString(cancelledRequests.sum()));
         writer.write(";");
-        writer.write("Number of all tasks: ");
-        writer.write(Integer.toString((int) getExecutor().getTaskCount()));
-        writer.write(";");
-        writer.write("Current size of queue: ");
-        writer.write(Integer.toString((int) getExecutor().getQueue().size()));
+        writer.write(serverCache.getStatistics().toString());
+        writer.write("Cache negative entries: ");
+        writer.write(Integer.toString(serverCache.getNegativeSize()));
         writer.write(";");
+        if (serverCache.isOffHeap()) {
+            writer.write("Off-heap cache bytes (used/reserved): ");
+            writer.write(serverCache.getOffHeapUsedBytes() + "/" + serverCache.getOffHeapReservedBytes());
+            writer.write(";");
+        }
+        if (bulkheads != null) writer.write(bulkheads.getState());
         return writer.toString();
     }
 
+    @Override
+    public CacheStatistics getCacheStatistics() {
+        return serverCache.getStatistics();
+    }
+
     @Override
     public String getName() {
         return name;
@@ -0,0 +1,17 @@
+package org.example.server;
+
+/**
+ * Transport-Modus des Servers.
+ */
+public enum TransportMode {
+    /**
+     * Klassischer Modus: ein Thread blockiert in {@code accept()} und jede Verbindung wird von einem Worker des
+     * Thread-Pools blockierend gelesen und beantwortet.
+     */
+    BLOCKING,
+    /**
+     * Nicht-blockierender Modus auf Basis von {@link java.nio.channels.Selector}: Acceptor- und IO-Threads lesen die
+     * Anfragen, nur die Ausführung der Commands wird an den Thread-Pool delegiert.
+     */
+    NIO
+}
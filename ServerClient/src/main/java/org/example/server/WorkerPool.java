@@ -0,0 +1,275 @@
+package org.example.server;
+
+import java.io.StringWriter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor des Servers, der je nach {@link ExecutorMode} einen Thread-Pool fester Größe oder virtuelle Threads
+ * verwendet. Da die Statistiken von {@link ThreadPoolExecutor} für virtuelle Threads nicht existieren, zählt die
+ * Klasse laufende und abgeschlossene Aufgaben selbst.
+ * <p>
+ * Die Anzahl angenommener Aufgaben ist begrenzt: beim Thread-Pool durch eine Warteschlange mit fester Kapazität,
+ * bei virtuellen Threads durch die Anzahl gleichzeitig laufender Aufgaben. Ist die Grenze erreicht, entscheidet die
+ * {@link RejectionPolicy}. Abgelehnte, selbst ausgeführte und verdrängte Aufgaben werden im Status gezählt.
+ */
+public class WorkerPool implements Executor {
+    private final ExecutorMode mode;
+    private final RejectionPolicy policy;
+    private final int queueCapacity;
+    private final int threads;
+    private final ExecutorService executor;
+    // nur im Modus VIRTUAL: Erlaubnisse für gleichzeitig laufende Aufgaben
+    private final Semaphore admission;
+    private final AtomicInteger activeTasks;
+    private final AtomicInteger peakActiveTasks;
+    private final LongAdder submittedTasks;
+    private final LongAdder completedTasks;
+    private final LongAdder rejectedTasks;
+    private final LongAdder callerRunsTasks;
+    private final LongAdder shedTasks;
+
+    public WorkerPool(ExecutorMode mode, int threads, int queueCapacity, RejectionPolicy policy) {
+        this.mode = mode;
+        this.policy = policy;
+        this.queueCapacity = queueCapacity;
+        this.threads = threads;
+        executor = switch (mode) {
+            case FIXED_POOL -> new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), this::onQueueFull);
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-vthread-", 0).factory());
+        };
+        admission = mode == ExecutorMode.VIRTUAL ? new Semaphore(queueCapacity) : null;
+        activeTasks = new AtomicInteger();
+        peakActiveTasks = new AtomicInteger();
+        submittedTasks = new LongAdder();
+        completedTasks = new LongAdder();
+        rejectedTasks = new LongAdder();
+        callerRunsTasks = new LongAdder();
+        shedTasks = new LongAdder();
+    }
+
+    /**
+     * Führt eine Aufgabe asynchron aus. Ist die Grenze für angenommene Aufgaben erreicht, wird die Aufgabe gemäß
+     * der {@link RejectionPolicy} abgelehnt oder im aufrufenden Thread ausgeführt.
+     *
+     * @param task Die Aufgabe
+     * @throws RejectedExecutionException wenn der Executor bereits beendet ist
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (admission == null) {
+            executor.execute(new TrackedTask(task, false));
+            submittedTasks.increment();
+            return;
+        }
+        if (!admission.tryAcquire()) {
+            refuse(task);
+            return;
+        }
+        try {
+            executor.execute(new TrackedTask(task, true));
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            throw e;
+        }
+        submittedTasks.increment();
+    }
+
+    /**
+     * Wird vom Thread-Pool aufgerufen, wenn die Warteschlange voll ist.
+     */
+    private void onQueueFull(Runnable runnable, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) throw new RejectedExecutionException("Executor is shut down");
+        if (policy == RejectionPolicy.SHED_OLDEST && shedOldest(pool)) {
+            pool.execute(runnable);
+            return;
+        }
+        refuse(((TrackedTask) runnable).task);
+    }
+
+    /**
+     * Entfernt die älteste wartende {@link RejectableTask} aus der Warteschlange und beantwortet sie mit
+     * "Server busy". Sie wird nie ausgeführt, denn der aufrufende Thread kann ein IO-Thread sein.
+     *
+     * @return false, wenn keine solche Aufgabe wartet
+     */
+    private boolean shedOldest(ThreadPoolExecutor pool) {
+        for (Runnable queued : pool.getQueue()) {
+            // Teil-Queries bleiben eingereiht, ein Worker hat sie eventuell gerade übernommen
+            if (((TrackedTask) queued).task instanceof RejectableTask rejectable && pool.getQueue().remove(queued)) {
+                shedTasks.increment();
+                rejectedTasks.increment();
+                rejectable.reject();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Beantwortet eine nicht angenommene Aufgabe mit "Server busy" oder führt sie im aufrufenden Thread aus.
+     * Nur Aufgaben ohne eigene Antwort und bei {@link RejectionPolicy#CALLER_RUNS} laufen im aufrufenden Thread,
+     * beides kommt im Modus {@link TransportMode#NIO} nie in einem IO-Thread vor
+     * ({@link RejectionPolicy#forTransport(TransportMode)}).
+     */
+    private void refuse(Runnable task) {
+        if (policy != RejectionPolicy.CALLER_RUNS && task instanceof RejectableTask rejectable) {
+            rejectedTasks.increment();
+            rejectable.reject();
+            return;
+        }
+        // Aufgaben ohne eigene Antwort an den Client (z.B. Teil-Queries) dürfen nicht verloren gehen
+        callerRunsTasks.increment();
+        new TrackedTask(task, false).run();
+    }
+
+    public ExecutorMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gibt die Anzahl der Aufgaben zurück, die tatsächlich gleichzeitig rechnen: die Threads des Pools bzw. im Modus
+     * VIRTUAL die Carrier-Threads.
+     *
+     * @return Anzahl paralleler Threads
+     */
+    public int getParallelism() {
+        return mode == ExecutorMode.FIXED_POOL ? threads : carrierThreads();
+    }
+
+    private static int carrierThreads() {
+        return Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Prüft, ob Aufgaben in der Warteschlange auf einen freien Thread warten (nur im Modus FIXED_POOL).
+     *
+     * @return true, wenn mindestens eine Aufgabe wartet
+     */
+    public boolean hasQueuedTasks() {
+        return executor instanceof ThreadPoolExecutor pool && !pool.getQueue().isEmpty();
+    }
+
+    /**
+     * Gibt die Anzahl der gerade laufenden Aufgaben zurück.
+     *
+     * @return Anzahl laufender Aufgaben
+     */
+    public int getActiveCount() {
+        return activeTasks.get();
+    }
+
+    /**
+     * Gibt den aktuellen Zustand des Executors in der Form "Kennzahl: Wert;..." zurück.
+     *
+     * @return Zustand des Executors
+     */
+    public String getState() {
+        StringWriter writer = new StringWriter();
+        if (executor instanceof ThreadPoolExecutor pool) {
+            int numberOfThreads = pool.getPoolSize();
+            int load = (int) (1.0 * pool.getActiveCount() / numberOfThreads * 100);
+            writer.write("Number of Threads in the ThreadPool: ");
+            writer.write(Integer.toString(numberOfThreads));
+            writer.write(";");
+            writer.write("Load of the ThreadPool: ");
+            writer.write(Integer.toString(load) + " %");
+            writer.write(";");
+            writer.write("Number of successfully executed tasks: ");
+            writer.write(Integer.toString((int) pool.getCompletedTaskCount()));
+            writer.write(";");
+            writer.write("Number of all tasks: ");
+            writer.write(Integer.toString((int) pool.getTaskCount()));
+            writer.write(";");
+            writer.write("Current size of queue: ");
+            writer.write(Integer.toString(pool.getQueue().size()));
+            writer.write(";");
+            writeOverloadState(writer);
+            return writer.toString();
+        }
+        // virtuelle Threads: Last als laufende Aufgaben pro Carrier-Thread (über 100 % = mehr Aufgaben als Kerne)
+        int carrierThreads = carrierThreads();
+        int active = activeTasks.get();
+        writer.write("Number of active virtual threads: ");
+        writer.write(Integer.toString(active));
+        writer.write(";");
+        writer.write("Peak number of active virtual threads: ");
+        writer.write(Integer.toString(peakActiveTasks.get()));
+        writer.write(";");
+        writer.write("Number of carrier threads: ");
+        writer.write(Integer.toString(carrierThreads));
+        writer.write(";");
+        writer.write("Load of the carrier threads: ");
+        writer.write((int) (100.0 * active / carrierThreads) + " %");
+        writer.write(";");
+        writer.write("Number of successfully executed tasks: ");
+        writer.write(Long.toString(completedTasks.sum()));
+        writer.write(";");
+        writer.write("Number of all tasks: ");
+        writer.write(Long.toString(submittedTasks.sum()));
+        writer.write(";");
+        writeOverloadState(writer);
+        return writer.toString();
+    }
+
+    private void writeOverloadState(StringWriter writer) {
+        writer.write(mode == ExecutorMode.FIXED_POOL ? "Capacity of queue: " : "Maximum number of active tasks: ");
+        writer.write(Integer.toString(queueCapacity));
+        writer.write(";");
+        writer.write("Rejection policy: ");
+        writer.write(policy.name());
+        writer.write(";");
+        writer.write("Number of rejected tasks (busy): ");
+        writer.write(Long.toString(rejectedTasks.sum()));
+        writer.write(";");
+        writer.write("Number of caller-runs tasks: ");
+        writer.write(Long.toString(callerRunsTasks.sum()));
+        writer.write(";");
+        writer.write("Number of shed tasks: ");
+        writer.write(Long.toString(shedTasks.sum()));
+        writer.write(";");
+    }
+
+    /**
+     * Nimmt keine weiteren Aufgaben an, laufende Aufgaben werden noch beendet.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Zählt laufende und abgeschlossene Aufgaben und gibt die Erlaubnis im Modus VIRTUAL wieder frei.
+     */
+    private class TrackedTask implements Runnable {
+        private final Runnable task;
+        private final boolean admitted;
+
+        TrackedTask(Runnable task, boolean admitted) {
+            this.task = task;
+            this.admitted = admitted;
+        }
+
+        @Override
+        public void run() {
+            int active = activeTasks.incrementAndGet();
+            peakActiveTasks.accumulateAndGet(active, Math::max);
+            try {
+                task.run();
+            } finally {
+                activeTasks.decrementAndGet();
+                completedTasks.increment();
+                if (admitted) admission.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package org.example.server.nio;
+
+import org.example.command.CommandType;
+import org.example.helper.BinaryProtocol;
+import org.example.helper.Config;
+import org.example.helper.Protocol;
+import org.example.loggerModule.LoggerClass;
+import org.example.server.BinaryCommandProcessor;
+import org.example.server.ChunkedResponse;
+import org.example.server.ClientRequest;
+import org.example.server.Deadline;
+import org.example.server.RejectableTask;
+import org.example.server.ServerMain;
+import org.example.server.ThreadedServer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zustand einer Client-Verbindung im NIO-Modus. Lese-Zugriffe und Änderungen am {@link SelectionKey} erfolgen im
+ * Thread der {@link NioEventLoop}, die Antworten werden vom Worker direkt in den Channel geschrieben. Nur wenn der
+ * Socket-Puffer voll ist, landen sie in einer Warteschlange, die die Loop über {@link SelectionKey#OP_WRITE} leert.
+ * <p>
+ * Im Keep-Alive-Modus wird nach jeder Antwort die nächste Anfrage gelesen. Anfragen mit Request-ID
+ * ({@link Protocol}) werden sofort an den Executor übergeben, ohne auf vorherige Antworten zu warten, bis zu
+ * {@link Config#MAX_PIPELINED_REQUESTS} gleichzeitig. Das gilt auch für Frames des binären Protokolls
+ * ({@link BinaryProtocol}), das anhand des ersten Bytes der Verbindung erkannt wird.
+ * Gestreamte Antworten werden blockweise geschrieben, der Worker wartet, wenn der Client nicht schnell genug liest.
+ * Treffer im Cache außerhalb des Heaps werden direkt aus dessen Speicher in den Channel geschrieben.
+ * Jede Anfrage wird im Thread der Loop geparst und an den Thread-Pool ihrer Command-Klasse übergeben
+ * ({@link ThreadedServer#getExecutor(CommandType)}).
+ */
+class NioConnection {
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private final NioEventLoop loop;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ThreadedServer server;
+    private final LoggerClass logger;
+    private ByteBuffer readBuffer;
+    // Antworten, die nicht direkt geschrieben werden konnten, geschützt durch writeQueue selbst
+    private final ArrayDeque<ByteBuffer> writeQueue;
+    // laufende Anfragen, werden abgebrochen wenn die Verbindung geschlossen wird (zurückgesetzt oder Schreiben
+    // fehlgeschlagen), da niemand mehr auf ihre Antwort wartet
+    private final Set<Request> activeRequests;
+    // die folgenden Felder werden nur im Thread der Loop verwendet
+    // true, solange eine Anfrage ohne Request-ID ausgeführt wird (deren Antwort wird abgewartet)
+    private boolean processing;
+    private int inFlight;
+    private int handledRequests;
+    private boolean inputClosed;
+    private boolean negotiated;
+    private long lastActivity;
+    // wird beim ersten Byte festgelegt und danach auch von Workern gelesen
+    private volatile boolean binary;
+    private volatile boolean closed;
+
+    NioConnection(NioEventLoop loop, SocketChannel channel, SelectionKey key) {
+        this.loop = loop;
+        this.channel = channel;
+        this.key = key;
+        this.server = loop.getServer();
+        logger = ServerMain.getLogger(this.getClass().getName());
+        readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        writeQueue = new ArrayDeque<>();
+        activeRequests = ConcurrentHashMap.newKeySet();
+        lastActivity = System.nanoTime();
+    }
+
+    /**
+     * Liest verfügbare Bytes und übergibt vollständige Anfragen an den Executor.
+     */
+    void onReadable() {
+        try {
+            if (channel.read(readBuffer) < 0) {
+                // Client sendet nichts mehr, wartet aber eventuell noch auf Antworten (halb geschlossene
+                // Verbindung): laufende Anfragen werden beendet und beantwortet
+                inputClosed = true;
+                if (!closeIfDone()) updateInterest();
+                return;
+            }
+        } catch (IOException e) {
+            // Verbindung zurückgesetzt: close() bricht die laufenden Anfragen ab
+            close();
+            return;
+        }
+        lastActivity = System.nanoTime();
+        dispatchRequests();
+        // nur vergrößern, wenn eine unvollständige Anfrage gelesen werden muss
+        if (!closed && !readBuffer.hasRemaining() && canDispatch()) growReadBuffer();
+        updateInterest();
+    }
+
+    /**
+     * Schreibt die Antworten, die der Worker nicht direkt schreiben konnte.
+     */
+    void onWritable() {
+        synchronized (writeQueue) {
+            try {
+                while (!writeQueue.isEmpty()) {
+                    ByteBuffer buffer = writeQueue.peek();
+                    channel.write(buffer);
+                    if (buffer.hasRemaining()) break;
+                    writeQueue.poll();
+                }
+                // Worker mit gestreamten Antworten warten auf Platz
+                writeQueue.notifyAll();
+            } catch (IOException e) {
+                close();
+                return;
+            }
+        }
+        lastActivity = System.nanoTime();
+        closeIfDone();
+        updateInterest();
+    }
+
+    /**
+     * Übergibt alle vollständigen Zeilen aus dem Lese-Puffer an den Executor, solange die Verbindung weitere
+     * Anfragen annehmen darf.
+     */
+    private void dispatchRequests() {
+        if (!negotiated) {
+            if (readBuffer.position() == 0) return;
+            negotiated = true;
+            if (readBuffer.get(0) == BinaryProtocol.MAGIC) {
+                binary = true;
+                consume(1);
+            }
+        }
+        while (canDispatch()) {
+            if (binary) {
+                ByteBuffer frame = nextFrame();
+                if (frame == null) return;
+                handledRequests++;
+                inFlight++;
+                Request request = new Request(null, frame, Deadline.after(System.nanoTime(), Config.REQUEST_TIMEOUT));
+                activeRequests.add(request);
+                try {
+                    server.getExecutor(BinaryCommandProcessor.getType(frame)).execute(request);
+                } catch (RejectedExecutionException e) {
+                    logger.logWarning("Request rejected, executor is shut down.");
+                    close();
+                    return;
+                }
+                continue;
+            }
+            String line = nextLine();
+            if (line == null) return;
+            ClientRequest clientRequest = server.getCommandProcessor().parseRequest(line, System.nanoTime());
+            Request request = new Request(clientRequest, null, clientRequest.getDeadline());
+            handledRequests++;
+            inFlight++;
+            if (!request.isPipelined()) processing = true;
+            activeRequests.add(request);
+            try {
+                server.getExecutor(clientRequest.getCommand().getType()).execute(request);
+            } catch (RejectedExecutionException e) {
+                logger.logWarning("Request rejected, executor is shut down.");
+                close();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Binäre Verbindungen bleiben immer für mehrere Anfragen offen, Text-Verbindungen nur im Keep-Alive-Modus.
+     */
+    private boolean isPersistent() {
+        return Config.KEEP_ALIVE || binary;
+    }
+
+    private boolean canDispatch() {
+        int maxRequests = isPersistent() ? Config.MAX_REQUESTS_PER_CONNECTION : 1;
+        return !closed && !processing && inFlight < Config.MAX_PIPELINED_REQUESTS && handledRequests < maxRequests;
+    }
+
+    /**
+     * Führt den Command im Worker-Thread aus und schreibt die Antwort.
+     */
+    private void process(Request request) {
+        if (server.getCommandProcessor().isStreaming(request.clientRequest)) {
+            stream(request);
+            return;
+        }
+        String result;
+        try {
+            if (server.getCommandProcessor().writeCached(request.clientRequest, this::sendParts)) {
+                responseSent(!hasPendingWrites(), request);
+                return;
+            }
+            result = server.getCommandProcessor().execute(request.clientRequest);
+        } catch (Exception e) {
+            logger.logWarning("Error while processing the client request.");
+            logger.logWarning(e.getMessage());
+            close();
+            return;
+        }
+        responseSent(send(StandardCharsets.UTF_8.encode(result + System.lineSeparator())), request);
+    }
+
+    /**
+     * Führt einen Command mit gestreamter Antwort im Worker-Thread aus. Die Blöcke werden wie andere Antworten
+     * geschrieben, höchstens {@link Config#MAX_PENDING_CHUNKS} warten auf den Client.
+     */
+    private void stream(Request request) {
+        try {
+            server.getCommandProcessor().executeStreaming(request.clientRequest,
+                    new ChunkedResponse(chunk -> sendChunk(chunk, request.deadline)));
+        } catch (IOException e) {
+            logger.logWarning("Error while streaming the response: " + e.getMessage());
+            close();
+            return;
+        }
+        responseSent(!hasPendingWrites(), request);
+    }
+
+    /**
+     * Schreibt einen Block einer gestreamten Antwort. Warten bereits {@link Config#MAX_PENDING_CHUNKS} Blöcke,
+     * wartet der Worker, bis die Loop den Client beliefert hat, höchstens aber {@link Config#IDLE_TIMEOUT}. Das Warten
+     * bricht die Frist ab, das Schreiben nicht: ein Interrupt würde den Channel schließen und die Antwort endete ohne
+     * Fehlerzeile.
+     *
+     * @param chunk    Der kodierte Block
+     * @param deadline Frist der Anfrage
+     * @throws IOException wenn die Verbindung geschlossen ist oder der Client nicht mehr liest
+     */
+    private void sendChunk(ByteBuffer chunk, Deadline deadline) throws IOException {
+        synchronized (writeQueue) {
+            long waitUntil = System.nanoTime() + Config.IDLE_TIMEOUT * 1_000_000L;
+            while (!closed && writeQueue.size() >= Config.MAX_PENDING_CHUNKS) {
+                long remaining = waitUntil - System.nanoTime();
+                if (remaining <= 0) throw new IOException("Client does not read the streamed response");
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(writeQueue, remaining);
+                } catch (InterruptedException e) {
+                    // Frist abgelaufen oder Client weg
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for the client");
+                }
+            }
+            if (closed) throw new ClosedChannelException();
+            deadline.mask();
+            try {
+                if (send(chunk)) return;
+            } finally {
+                deadline.unmask();
+            }
+            if (closed) throw new ClosedChannelException();
+        }
+        // Block ist eingereiht: die Loop muss auf OP_WRITE warten
+        loop.execute(this::updateInterest);
+    }
+
+    /**
+     * Verarbeitet einen binären Frame im Worker-Thread und schreibt die Antwort.
+     */
+    private void processBinary(Request request) {
+        responseSent(send(server.getBinaryCommandProcessor().execute(request.frame, request.deadline)), request);
+    }
+
+    /**
+     * Meldet der Loop, dass die Antwort einer Anfrage geschrieben oder eingereiht ist. Kann von jedem Thread
+     * aufgerufen werden.
+     */
+    private void responseSent(boolean written, Request request) {
+        // ohne Keep-Alive ist die Verbindung nach der ersten Antwort fertig, die Loop muss nicht geweckt werden
+        // (beim Herunterfahren läuft sie eventuell nicht mehr)
+        if (written && (!isPersistent() || !server.isRunning())) {
+            close();
+            return;
+        }
+        loop.execute(() -> requestCompleted(request));
+    }
+
+    /**
+     * Schreibt eine Antwort direkt in den Channel oder reiht sie ein, falls noch Antworten ausstehen oder der
+     * Socket-Puffer voll ist. Kann von jedem Thread aufgerufen werden.
+     *
+     * @param response Die kodierte Antwort
+     * @return true, wenn die Antwort vollständig geschrieben wurde
+     */
+    private boolean send(ByteBuffer response) {
+        synchronized (writeQueue) {
+            if (writeQueue.isEmpty()) {
+                try {
+                    channel.write(response);
+                } catch (IOException e) {
+                    close();
+                    return false;
+                }
+                if (!response.hasRemaining()) return true;
+            }
+            writeQueue.add(response);
+            return false;
+        }
+    }
+
+    /**
+     * Schreibt die Teile einer Antwort mit einem Aufruf in den Channel. Die Teile sind nur während des Aufrufs
+     * gültig ({@link org.example.cacheModule.ResultWriter}), was nicht sofort geschrieben werden kann, wird daher
+     * in einen eigenen Puffer kopiert und eingereiht. Die Loop bemerkt das über {@link #responseSent}.
+     */
+    private void sendParts(ByteBuffer[] parts) {
+        synchronized (writeQueue) {
+            if (writeQueue.isEmpty()) {
+                try {
+                    channel.write(parts);
+                } catch (IOException e) {
+                    close();
+                    return;
+                }
+            }
+            int remaining = 0;
+            for (ByteBuffer part : parts) {
+                remaining += part.remaining();
+            }
+            if (remaining == 0) return;
+            ByteBuffer copy = ByteBuffer.allocate(remaining);
+            for (ByteBuffer part : parts) {
+                copy.put(part);
+            }
+            writeQueue.add(copy.flip());
+        }
+    }
+
+    /**
+     * Wird im Thread der Loop aufgerufen, sobald die Antwort einer Anfrage geschrieben oder eingereiht ist.
+     */
+    private void requestCompleted(Request request) {
+        if (closed) return;
+        inFlight--;
+        activeRequests.remove(request);
+        if (!request.isPipelined()) processing = false;
+        lastActivity = System.nanoTime();
+        if (closeIfDone()) return;
+        // der Client kann bereits weitere Anfragen gesendet haben
+        dispatchRequests();
+        updateInterest();
+    }
+
+    /**
+     * Schließt die Verbindung, wenn keine Anfrage mehr aussteht, alle Antworten geschrieben sind und keine weiteren
+     * Anfragen mehr gelesen werden.
+     *
+     * @return true, wenn die Verbindung geschlossen wurde
+     */
+    private boolean closeIfDone() {
+        if (closed) return true;
+        if (inFlight > 0 || hasPendingWrites()) return false;
+        int maxRequests = isPersistent() ? Config.MAX_REQUESTS_PER_CONNECTION : 1;
+        if (inputClosed || handledRequests >= maxRequests || !server.isRunning()) {
+            close();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean hasPendingWrites() {
+        synchronized (writeQueue) {
+            return !writeQueue.isEmpty();
+        }
+    }
+
+    /**
+     * Setzt die Events, auf die der Selector für diese Verbindung wartet.
+     */
+    private void updateInterest() {
+        if (closed || !key.isValid()) return;
+        int ops = 0;
+        // auch während eine Anfrage läuft wird gelesen (solange Platz ist), um das Schließen durch den Client
+        // zu bemerken
+        if (!inputClosed && (canDispatch() || readBuffer.hasRemaining())) ops |= SelectionKey.OP_READ;
+        if (hasPendingWrites()) ops |= SelectionKey.OP_WRITE;
+        try {
+            key.interestOps(ops);
+        } catch (CancelledKeyException e) {
+            // ein Worker hat die Verbindung seit der Prüfung oben geschlossen
+        }
+    }
+
+    /**
+     * Sucht das Zeilenende im Lese-Puffer.
+     *
+     * @return Die erste vollständige Zeile ohne Zeilenumbruch oder null
+     */
+    private String nextLine() {
+        for (int i = 0; i < readBuffer.position(); i++) {
+            if (readBuffer.get(i) == '\n') {
+                int end = (i > 0 && readBuffer.get(i - 1) == '\r') ? i - 1 : i;
+                String line = new String(readBuffer.array(), 0, end, StandardCharsets.UTF_8);
+                // Rest (falls vorhanden) an den Anfang verschieben
+                consume(i + 1);
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Entnimmt den nächsten vollständigen binären Frame aus dem Lese-Puffer.
+     *
+     * @return Frame ohne Längenfeld oder null, wenn noch nicht alle Bytes gelesen wurden
+     */
+    private ByteBuffer nextFrame() {
+        if (readBuffer.position() < Integer.BYTES) return null;
+        int length = readBuffer.getInt(0);
+        if (length < BinaryProtocol.HEADER_SIZE || length > Config.MAX_REQUEST_LENGTH - Integer.BYTES) {
+            logger.logWarning("Invalid binary frame length " + length + ", connection closed.");
+            close();
+            return null;
+        }
+        if (readBuffer.position() < Integer.BYTES + length) return null;
+        ByteBuffer frame = ByteBuffer.allocate(length);
+        frame.put(0, readBuffer, Integer.BYTES, length);
+        consume(Integer.BYTES + length);
+        return frame;
+    }
+
+    /**
+     * Entfernt die ersten Bytes aus dem Lese-Puffer.
+     */
+    private void consume(int bytes) {
+        readBuffer.flip();
+        readBuffer.position(bytes);
+        readBuffer.compact();
+    }
+
+    private void growReadBuffer() {
+        if (readBuffer.capacity() >= Config.MAX_REQUEST_LENGTH) {
+            logger.logWarning("Request exceeds " + Config.MAX_REQUEST_LENGTH + " bytes, connection closed.");
+            close();
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2, Config.MAX_REQUEST_LENGTH));
+        readBuffer.flip();
+        larger.put(readBuffer);
+        readBuffer = larger;
+    }
+
+    /**
+     * Schließt die Verbindung, wenn seit {@link Config#IDLE_TIMEOUT} keine Anfrage kam.
+     *
+     * @param now aktuelle Zeit in ns
+     */
+    void closeIfExpired(long now) {
+        if (inFlight == 0 && !hasPendingWrites() && now - lastActivity > Config.IDLE_TIMEOUT * 1_000_000L) {
+            logger.logInfo("Idle connection closed after " + Config.IDLE_TIMEOUT + " ms.");
+            close();
+        }
+    }
+
+    /**
+     * Schließt die Verbindung, wenn gerade kein Command für sie ausgeführt wird.
+     */
+    void closeIfIdle() {
+        if (inFlight == 0) close();
+    }
+
+    void close() {
+        closed = true;
+        activeRequests.forEach(Request::cancel);
+        synchronized (writeQueue) {
+            writeQueue.notifyAll();
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.logWarning("Error while closing the client channel.");
+            logger.logWarning(e.getMessage());
+        }
+    }
+
+    /**
+     * Eine gelesene Anfrage (Textzeile oder binärer Frame), die bei Überlast mit
+     * {@link Protocol#SERVER_BUSY} beantwortet und über ihre Frist abgebrochen werden kann.
+     */
+    private class Request implements RejectableTask {
+        private final ClientRequest clientRequest;
+        private final ByteBuffer frame;
+        private final Deadline deadline;
+
+        Request(ClientRequest clientRequest, ByteBuffer frame, Deadline deadline) {
+            this.clientRequest = clientRequest;
+            this.frame = frame;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Binäre Frames und Zeilen mit Request-ID werden ausgeführt, ohne auf vorherige Antworten zu warten.
+         */
+        boolean isPipelined() {
+            return frame != null || !clientRequest.getTag().isEmpty();
+        }
+
+        void cancel() {
+            deadline.cancel();
+        }
+
+        @Override
+        public void run() {
+            if (frame != null) {
+                processBinary(this);
+            } else {
+                process(this);
+            }
+        }
+
+        @Override
+        public void reject() {
+            ByteBuffer response;
+            if (frame != null) {
+                response = BinaryProtocol.errorFrame(frame.getInt(0), Protocol.SERVER_BUSY);
+            } else {
+                response = StandardCharsets.UTF_8.encode(
+                        clientRequest.getTag() + Protocol.SERVER_BUSY + System.lineSeparator());
+            }
+            responseSent(send(response), this);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.server.nio;
+
+import org.example.helper.Config;
+import org.example.loggerModule.LoggerClass;
+import org.example.server.ServerMain;
+import org.example.server.ThreadedServer;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Event-Loop eines IO-Threads. Jede Loop besitzt einen eigenen {@link Selector} und bedient die ihr zugewiesenen
+ * Verbindungen. Andere Threads dürfen den Selector nicht direkt verändern, sondern reichen Aufgaben über
+ * {@link #execute(Runnable)} ein.
+ */
+public class NioEventLoop implements Runnable {
+    private final ThreadedServer server;
+    private final Selector selector;
+    private final Queue<Runnable> pendingTasks;
+    private final LoggerClass logger;
+    // wird von anderen Threads gesetzt, deswegen volatile
+    private volatile boolean running;
+    private long lastIdleCheck;
+
+    public NioEventLoop(ThreadedServer server) throws IOException {
+        this.server = server;
+        selector = Selector.open();
+        pendingTasks = new ConcurrentLinkedQueue<>();
+        logger = ServerMain.getLogger(this.getClass().getName());
+        running = true;
+    }
+
+    ThreadedServer getServer() {
+        return server;
+    }
+
+    /**
+     * Übergibt eine neu angenommene Verbindung an diese Loop.
+     *
+     * @param channel Die Verbindung zum Client
+     */
+    public void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                // gestreamte Antworten bestehen aus mehreren Blöcken, die nicht auf das ACK des vorherigen warten sollen
+                channel.socket().setTcpNoDelay(true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new NioConnection(this, channel, key));
+            } catch (IOException e) {
+                logger.logWarning("Error while registering a client connection.");
+                logger.logWarning(e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+    }
+
+    /**
+     * Führt eine Aufgabe im Thread dieser Loop aus.
+     *
+     * @param task Die Aufgabe
+     */
+    void execute(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        // Intervall, in dem Keep-Alive-Verbindungen auf Zeitüberschreitung geprüft werden
+        long idleCheckInterval = Math.max(1, Math.min(1_000, Config.IDLE_TIMEOUT / 2));
+        while (running) {
+            try {
+                selector.select(Config.KEEP_ALIVE ? idleCheckInterval : 0);
+                runPendingTasks();
+                if (Config.KEEP_ALIVE) closeIdleConnections(idleCheckInterval);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    NioConnection connection = (NioConnection) key.attachment();
+                    try {
+                        if (key.isValid() && key.isReadable()) connection.onReadable();
+                        if (key.isValid() && key.isWritable()) connection.onWritable();
+                    } catch (CancelledKeyException e) {
+                        // Verbindung wurde zwischenzeitlich von einem Worker geschlossen
+                    }
+                }
+            } catch (IOException e) {
+                logger.logWarning("Error in NIO event loop.");
+                logger.logWarning(e.getMessage());
+            }
+        }
+        // Verbindungen ohne laufenden Command schließen, die übrigen schließt der Worker nach der Antwort
+        for (SelectionKey key : selector.keys()) {
+            NioConnection connection = (NioConnection) key.attachment();
+            if (connection != null) connection.closeIfIdle();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.logWarning("Error while closing the selector.");
+        }
+        logger.logInfo(Thread.currentThread().getName() + " stopped.");
+    }
+
+    private void closeIdleConnections(long idleCheckInterval) {
+        long now = System.nanoTime();
+        if (now - lastIdleCheck < idleCheckInterval * 1_000_000L) return;
+        lastIdleCheck = now;
+        for (SelectionKey key : selector.keys()) {
+            NioConnection connection = (NioConnection) key.attachment();
+            if (connection != null && key.isValid()) connection.closeIfExpired(now);
+        }
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Beendet die Loop.
+     */
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+}
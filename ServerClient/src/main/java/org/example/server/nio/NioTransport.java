@@ -0,0 +1,99 @@
+package org.example.server.nio;
+
+import org.example.helper.Config;
+import org.example.loggerModule.LoggerClass;
+import org.example.server.ServerMain;
+import org.example.server.ThreadedServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Nicht-blockierender Transport des Servers. Ein Acceptor-Thread nimmt Verbindungen über einen {@link Selector}
+ * entgegen und verteilt sie reihum auf {@link Config#NIO_IO_THREADS} IO-Threads ({@link NioEventLoop}).
+ * Die IO-Threads lesen die Anfragen und übergeben nur die Ausführung der Commands an den Executor des Servers.
+ */
+public class NioTransport {
+    private final ThreadedServer server;
+    private final LoggerClass logger;
+    private final ServerSocketChannel serverChannel;
+    private final Selector acceptSelector;
+    private final NioEventLoop[] eventLoops;
+    private final Thread[] eventLoopThreads;
+    private int nextLoop;
+
+    public NioTransport(ThreadedServer server) throws IOException {
+        this.server = server;
+        logger = ServerMain.getLogger(this.getClass().getName());
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), Config.PARALLEL_PORT),
+                Config.ACCEPT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        acceptSelector = Selector.open();
+        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        eventLoops = new NioEventLoop[Config.NIO_IO_THREADS];
+        eventLoopThreads = new Thread[eventLoops.length];
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new NioEventLoop(server);
+            eventLoopThreads[i] = new Thread(eventLoops[i], "NioEventLoop-Thread-" + i);
+        }
+    }
+
+    /**
+     * Startet die IO-Threads und nimmt Verbindungen entgegen, bis der Transport geschlossen wird.
+     * Die Methode blockiert im aufrufenden Thread (Acceptor-Thread).
+     */
+    public void acceptConnections() {
+        for (Thread thread : eventLoopThreads) {
+            thread.start();
+        }
+        logger.logInfo("NIO transport started with " + eventLoops.length + " IO threads.");
+        // der Selector wird erst beim Herunterfahren geschlossen
+        while (acceptSelector.isOpen()) {
+            try {
+                acceptSelector.select();
+                Iterator<SelectionKey> keys = acceptSelector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) acceptPending();
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                logger.logWarning("Error while accepting a client connection.");
+                logger.logWarning(e.getMessage());
+            }
+        }
+        logger.logInfo("NIO acceptor stopped.");
+    }
+
+    /**
+     * Nimmt alle wartenden Verbindungen an und übergibt sie den IO-Threads.
+     */
+    private void acceptPending() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            eventLoops[nextLoop].register(channel);
+            nextLoop = (nextLoop + 1) % eventLoops.length;
+        }
+    }
+
+    /**
+     * Schließt den Server-Channel und beendet Acceptor- und IO-Threads.
+     */
+    public void close() throws IOException {
+        serverChannel.close();
+        acceptSelector.close();
+        for (NioEventLoop loop : eventLoops) {
+            loop.shutdown();
+        }
+    }
+}
@@ -1,27 +1,76 @@
 package org.example.server.task;
 
-import org.example.command.*;
+import org.example.command.CommandType;
+import org.example.helper.BinaryProtocol;
+import org.example.helper.Config;
+import org.example.helper.Protocol;
 import org.example.loggerModule.LoggerClass;
+import org.example.server.BinaryCommandProcessor;
+import org.example.server.ChunkedResponse;
+import org.example.server.ClientRequest;
+import org.example.server.CommandProcessor;
+import org.example.server.Deadline;
+import org.example.server.ExecutorMode;
+import org.example.server.RejectableTask;
 import org.example.server.ServerMain;
 import org.example.server.ThreadedServer;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Klasse zur Ausführung von Commands, die aus Clients-Anfrage kommen.
+ * Im Keep-Alive-Modus ({@link Config#KEEP_ALIVE}) werden mehrere Anfragen über dieselbe Verbindung beantwortet,
+ * bis der Client sie schließt, {@link Config#IDLE_TIMEOUT} überschritten oder
+ * {@link Config#MAX_REQUESTS_PER_CONNECTION} erreicht ist. Im Modus {@link ExecutorMode#FIXED_POOL} belegt eine
+ * offene Verbindung einen Worker; wartet zwischen zwei Anfragen eine andere Aufgabe auf einen Worker, wird die
+ * untätige Verbindung daher geschlossen (der Connection-Pool des Clients öffnet dann eine neue).
+ * Anfragen mit Request-ID ({@link Protocol}) werden im Modus {@link ExecutorMode#VIRTUAL} jeweils in einem eigenen
+ * virtuellen Thread ausgeführt, während die nächste Anfrage gelesen wird. Bei einem Thread-Pool fester Größe werden
+ * sie der Reihe nach beantwortet, da die lesenden Tasks selbst Worker des Pools belegen.
+ * Beginnt die Verbindung mit {@link BinaryProtocol#MAGIC}, werden Frames des binären Protokolls verarbeitet.
+ * Gestreamte Antworten ({@link CommandProcessor#isStreaming(ClientRequest)}) werden blockweise direkt auf den
+ * Socket geschrieben. Liegt das Ergebnis außerhalb des Heaps im Cache, wird es als Bytes direkt auf den Socket
+ * geschrieben ({@link CommandProcessor#writeCached}).
+ * Bei Überlast des Servers wird die Verbindung ohne Ausführung mit {@link Protocol#SERVER_BUSY} beantwortet.
+ * Wird die Verbindung zurückgesetzt, werden ihre laufenden Anfragen abgebrochen: Anfragen mit Request-ID, sobald der
+ * Thread der Verbindung den Fehler liest, Reports und Batches ohne Request-ID über eine {@link ConnectionWatch}.
+ * Die Frist der ersten Anfrage beginnt mit der Annahme der Verbindung, die Wartezeit im Pool zählt also mit.
  */
-public class ServerExecuteCommandTask implements Runnable {
+public class ServerExecuteCommandTask implements RejectableTask {
+    // Intervall in ms, in dem eine untätige Verbindung prüft, ob andere Aufgaben auf ihren Worker warten
+    private static final int IDLE_CHECK_INTERVAL = 100;
     private final Socket clientSocket;
     private final ThreadedServer server;
+    // Annahme der Verbindung (System.nanoTime)
+    private final long acceptedAt;
+    // alle Schreibzugriffe auf die Verbindung, damit sich die Antworten gleichzeitig ausgeführter Anfragen nicht
+    // vermischen (ReentrantLock statt synchronized, damit wartende virtuelle Threads ihren Träger freigeben)
+    private final ReentrantLock writeLock;
     private LoggerClass logger;
 
-    public ServerExecuteCommandTask(Socket clientSocket, ThreadedServer server) {
+    public ServerExecuteCommandTask(Socket clientSocket, ThreadedServer server, long acceptedAt) {
         this.clientSocket = clientSocket;
         this.server = server;
+        this.acceptedAt = acceptedAt;
+        writeLock = new ReentrantLock();
         logger = ServerMain.getLogger(this.getClass().getName());
 
     }
@@ -30,56 +79,70 @@ public class ServerExecuteCommandTask implements Runnable {
     public void run() {
         PrintWriter out = null;
         BufferedReader in = null;
+        // wartet beim Schließen auf noch laufende Anfragen mit Request-ID
+        Phaser pendingRequests = new Phaser(1);
+        // Fristen der laufenden Anfragen mit Request-ID, werden abgebrochen wenn die Verbindung zurückgesetzt wird
+        Set<Deadline> pendingDeadlines = ConcurrentHashMap.newKeySet();
+        boolean concurrent = server.getExecutor().getMode() == ExecutorMode.VIRTUAL;
 
         try {
+            // auch ohne Keep-Alive darf ein Client, der nichts sendet, keinen Thread dauerhaft belegen
+            clientSocket.setSoTimeout(Config.IDLE_TIMEOUT);
+            // gestreamte Antworten bestehen aus mehreren Blöcken, die nicht auf das ACK des vorherigen warten sollen
+            clientSocket.setTcpNoDelay(true);
+            int maxRequests = Config.KEEP_ALIVE ? Config.MAX_REQUESTS_PER_CONNECTION : 1;
+            // Protokoll anhand des ersten Bytes erkennen
+            InputStream input = new BufferedInputStream(clientSocket.getInputStream());
+            input.mark(1);
+            if (input.read() == (BinaryProtocol.MAGIC & 0xFF)) {
+                handleBinaryRequests(input);
+                return;
+            }
+            input.reset();
             out = new PrintWriter(clientSocket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-            String line = in.readLine();
-            Command command;
-            String[] commandData = line.split(";");
-            System.err.println("Command: " + commandData[0]);
-            // Command nicht vorhanden in Cache
-            command = switch (commandData[0]) {
-                case "q" -> {
-                    System.err.println("Query");
-                    yield new QueryCommand(commandData);
-                }
-                case "r" -> {
-                    System.err.println("Report");
-                    yield new ReportCommand(commandData);
-                }
-                case "s" -> {
-                    System.err.println("Status");
-                    yield new ServerStatusCommand(commandData, server);
-                }
-                case "z" -> {
-                    System.err.println("Stop");
-                    yield new ShutdownCommand(commandData, server);
+            in = new BufferedReader(new InputStreamReader(input));
+            for (int handled = 0; handled < maxRequests && server.isRunning(); handled++) {
+                if (handled > 0 && !concurrent && !in.ready() && !awaitRequest(input)) return;
+                String line = in.readLine();
+                // Client hat die Verbindung geschlossen
+                if (line == null) return;
+                long receivedAt = handled == 0 ? acceptedAt : System.nanoTime();
+                if (concurrent && Protocol.isTagged(line)) {
+                    executeConcurrently(line, receivedAt, out, pendingRequests, pendingDeadlines);
+                    continue;
                 }
-                default -> {
-                    System.err.println("Error");
-                    yield new ErrorCommand(commandData);
+                ClientRequest request = server.getCommandProcessor().parseRequest(line, receivedAt);
+                boolean streaming = server.getCommandProcessor().isStreaming(request);
+                // der PrintWriter ist nach jeder Antwort geleert, ein Treffer kann direkt auf den Socket
+                if (!streaming && server.getCommandProcessor().writeCached(request, this::writeParts)) continue;
+                // zwischen den Blöcken darf keine Antwort mit Request-ID landen: laufende Anfragen mit Request-ID
+                // zuerst beenden, neue werden erst nach dem Stream gelesen
+                if (streaming && concurrent) pendingRequests.arriveAndAwaitAdvance();
+                ConnectionWatch watch = watch(request.getCommand().getType(), request.getDeadline(), input, in.ready());
+                try {
+                    if (streaming) {
+                        // die Blöcke gehen direkt auf den Socket, der PrintWriter ist nach jeder Antwort geleert
+                        OutputStream socketOut = clientSocket.getOutputStream();
+                        server.getCommandProcessor().processStreaming(request, new ChunkedResponse(chunk ->
+                                writeChunk(socketOut, chunk, request.getDeadline())));
+                    } else {
+                        writeLine(out, server.getCommandProcessor().process(request));
+                    }
+                } finally {
+                    if (watch != null) watch.stop(handled + 1 < maxRequests);
                 }
-            };
-            // ServerCache wird zuerst gesucht-> Cache-Hit
-            String result = server.getServerCache().get(command);
-            if (result != null) {
-                out.println(server.getServerCache().get(command));
-                logger.logInfo("**** Cache hit for command: " + line + " ****");
-                return;
             }
-
-            result = command.execute();
-            // wenn der Command zum Zwischenspeichern geeignet ist (Serverstatus oder Shutdown sind nicht!)
-            if (command.isCacheable()) server.getServerCache().put(command, result);
-            System.out.println(result); // Ausgabe in der Konsole nur für Testzwecke
-            out.println(result);
+        } catch (SocketTimeoutException e) {
+            logger.logInfo("Idle connection closed after " + Config.IDLE_TIMEOUT + " ms.");
         } catch (IOException e) {
+            // Verbindung zurückgesetzt oder Schreiben fehlgeschlagen: niemand wartet mehr auf die Antworten
+            pendingDeadlines.forEach(Deadline::cancel);
             logger.logWarning("Error while processing the client request.");
             logger.logWarning(e.getMessage());
         }
-        // ClientSocket schließen, finally-block wegen 'return' in 'Cache-hit' Fall notwendig
+        // ClientSocket schließen, finally-block wegen 'return' notwendig
         finally {
+            pendingRequests.arriveAndAwaitAdvance();
             try {
                 clientSocket.close();
                 if (out != null) out.close();
@@ -90,4 +153,246 @@ public class ServerExecuteCommandTask implements Runnable {
             }
         }
     }
+
+    /**
+     * Schreibt eine Antwortzeile. {@link PrintWriter#println(String)} schreibt lange Zeilen in mehreren Teilen auf den
+     * Socket, die Zeile wird daher unter writeLock geschrieben, wie alle anderen Antworten der Verbindung.
+     */
+    private void writeLine(PrintWriter out, String line) {
+        writeLock.lock();
+        try {
+            out.println(line);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Schreibt die Teile einer Antwortzeile mit einem Aufruf auf den Socket (mit TCP_NODELAY wäre sonst jeder Teil
+     * ein eigenes Paket).
+     */
+    private void writeParts(ByteBuffer[] parts) throws IOException {
+        int length = 0;
+        for (ByteBuffer part : parts) {
+            length += part.remaining();
+        }
+        byte[] line = new byte[length];
+        for (int i = 0, offset = 0; i < parts.length; offset += parts[i].remaining(), i++) {
+            parts[i].get(parts[i].position(), line, offset, parts[i].remaining());
+        }
+        writeLock.lock();
+        try {
+            clientSocket.getOutputStream().write(line);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Beantwortet die Verbindung mit {@link Protocol#SERVER_BUSY} und schließt sie, ohne die Anfrage zu lesen.
+     */
+    @Override
+    public void reject() {
+        try (PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
+            out.println(Protocol.SERVER_BUSY);
+        } catch (IOException e) {
+            logger.logWarning("Error while rejecting the client request.");
+            logger.logWarning(e.getMessage());
+        } finally {
+            try {
+                clientSocket.close();
+            } catch (IOException e) {
+                logger.logWarning("Error while closing the client socket.");
+            }
+        }
+    }
+
+    /**
+     * Beantwortet Frames des binären Protokolls der Reihe nach. Binäre Verbindungen bleiben immer für mehrere
+     * Anfragen offen, es gelten {@link Config#IDLE_TIMEOUT} und {@link Config#MAX_REQUESTS_PER_CONNECTION}.
+     */
+    private void handleBinaryRequests(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        OutputStream out = new BufferedOutputStream(clientSocket.getOutputStream());
+        boolean concurrent = server.getExecutor().getMode() == ExecutorMode.VIRTUAL;
+        for (int handled = 0; handled < Config.MAX_REQUESTS_PER_CONNECTION && server.isRunning(); handled++) {
+            if (handled > 0 && !concurrent && !awaitRequest(input)) return;
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            if (length < BinaryProtocol.HEADER_SIZE || length > Config.MAX_REQUEST_LENGTH) {
+                logger.logWarning("Invalid binary frame length " + length + ", connection closed.");
+                return;
+            }
+            byte[] frame = new byte[length];
+            in.readFully(frame);
+            long receivedAt = handled == 0 ? acceptedAt : System.nanoTime();
+            ByteBuffer request = ByteBuffer.wrap(frame);
+            Deadline deadline = Deadline.after(receivedAt, Config.REQUEST_TIMEOUT);
+            ConnectionWatch watch = watch(BinaryCommandProcessor.getType(request), deadline, input, false);
+            ByteBuffer response;
+            try {
+                response = server.getBinaryCommandProcessor().process(request, deadline);
+            } finally {
+                if (watch != null) watch.stop(handled + 1 < Config.MAX_REQUESTS_PER_CONNECTION);
+            }
+            out.write(response.array(), response.arrayOffset() + response.position(), response.remaining());
+            out.flush();
+        }
+    }
+
+    /**
+     * Wartet zwischen zwei Anfragen einer Keep-Alive-Verbindung auf die nächste, höchstens {@link Config#IDLE_TIMEOUT}.
+     * Warten inzwischen andere Aufgaben auf einen Worker des Pools, gibt die Verbindung ihren Worker frei.
+     *
+     * @param input Der gepufferte Eingabestrom der Verbindung, es wird nichts daraus entnommen
+     * @return false, wenn die Verbindung geschlossen werden soll, damit der Worker frei wird
+     * @throws SocketTimeoutException wenn innerhalb von {@link Config#IDLE_TIMEOUT} keine Anfrage kommt
+     */
+    private boolean awaitRequest(InputStream input) throws IOException {
+        if (input.available() > 0) return true;
+        long idleSince = System.nanoTime();
+        clientSocket.setSoTimeout(Math.min(IDLE_CHECK_INTERVAL, Config.IDLE_TIMEOUT));
+        try {
+            while (true) {
+                input.mark(1);
+                try {
+                    // Ende des Streams wird beim Lesen der Anfrage erkannt
+                    if (input.read() >= 0) input.reset();
+                    return true;
+                } catch (SocketTimeoutException e) {
+                    if (System.nanoTime() - idleSince >= Config.IDLE_TIMEOUT * 1_000_000L) throw e;
+                    if (server.getExecutor().hasQueuedTasks()) {
+                        logger.logInfo("Idle connection closed, its worker is needed for queued requests.");
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            clientSocket.setSoTimeout(Config.IDLE_TIMEOUT);
+        }
+    }
+
+    /**
+     * Schreibt einen Block einer gestreamten Antwort auf den Socket. Ein Interrupt durch die Frist würde den Socket
+     * eines virtuellen Threads schließen, er wird daher erst nach dem Schreiben zugestellt.
+     */
+    private void writeChunk(OutputStream socketOut, ByteBuffer chunk, Deadline deadline) throws IOException {
+        writeLock.lock();
+        deadline.mask();
+        try {
+            socketOut.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        } finally {
+            deadline.unmask();
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Führt eine Anfrage mit Request-ID asynchron aus. Die Antwort wird mit {@link #writeLine} geschrieben, die
+     * Antwortzeilen mehrerer Anfragen vermischen sich also nicht.
+     */
+    private void executeConcurrently(String line, long receivedAt, PrintWriter out, Phaser pendingRequests,
+                                     Set<Deadline> pendingDeadlines) throws IOException {
+        ClientRequest request = server.getCommandProcessor().parseRequest(line, receivedAt);
+        pendingRequests.register();
+        pendingDeadlines.add(request.getDeadline());
+        try {
+            server.getExecutor().execute(() -> {
+                try {
+                    writeLine(out, server.getCommandProcessor().process(request));
+                } catch (IOException e) {
+                    logger.logWarning("Error while processing the client request.");
+                    logger.logWarning(e.getMessage());
+                } finally {
+                    pendingDeadlines.remove(request.getDeadline());
+                    pendingRequests.arriveAndDeregister();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Executor wird gerade beendet: Anfrage noch selbst beantworten
+            pendingDeadlines.remove(request.getDeadline());
+            pendingRequests.arriveAndDeregister();
+            writeLine(out, server.getCommandProcessor().process(request));
+        }
+    }
+
+    /**
+     * Beobachtet die Verbindung, während ein Report oder Batch ohne Request-ID ausgeführt wird (der Thread der
+     * Verbindung liest währenddessen nicht). Wird die Verbindung zurückgesetzt, wartet niemand mehr auf die Antwort,
+     * die Anfrage wird dann über ihre Frist abgebrochen. Schließt der Client nur seine Senderichtung (EOF), wartet er
+     * eventuell noch auf die Antwort, die Anfrage läuft dann weiter.
+     *
+     * @param type     Klasse des Commands, nur {@link CommandType#REPORT} wird beobachtet
+     * @param deadline Frist der Anfrage
+     * @param input    Der gepufferte Eingabestrom der Verbindung, es wird nichts daraus entnommen
+     * @param buffered true, wenn weitere Anfragen bereits gelesen wurden (der Client ist also noch da)
+     * @return Die laufende Beobachtung oder null
+     */
+    private ConnectionWatch watch(CommandType type, Deadline deadline, InputStream input, boolean buffered)
+            throws IOException {
+        if (type != CommandType.REPORT || buffered || input.available() > 0) return null;
+        clientSocket.setSoTimeout(IDLE_CHECK_INTERVAL);
+        ConnectionWatch watch = new ConnectionWatch(input, deadline);
+        watch.thread.start();
+        return watch;
+    }
+
+    /**
+     * Liest in einem virtuellen Thread mit kurzem SO_TIMEOUT von der Verbindung, bis Daten kommen, der Client die
+     * Verbindung schließt oder zurücksetzt oder die Anfrage beendet ist.
+     */
+    private final class ConnectionWatch implements Runnable {
+        private final InputStream input;
+        private final Deadline deadline;
+        private final Thread thread;
+        private volatile boolean done;
+
+        ConnectionWatch(InputStream input, Deadline deadline) {
+            this.input = input;
+            this.deadline = deadline;
+            thread = Thread.ofVirtual().name("Connection-Watch-Thread").unstarted(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!done) {
+                    input.mark(1);
+                    try {
+                        // nächste Anfrage oder EOF: der Client ist noch da bzw. wartet eventuell noch auf die Antwort
+                        if (input.read() >= 0) input.reset();
+                        return;
+                    } catch (SocketTimeoutException e) {
+                        // weiter beobachten
+                    }
+                }
+            } catch (IOException e) {
+                // nach stop() schließt eventuell der Thread der Verbindung den Socket
+                if (!done) deadline.cancel();
+            }
+        }
+
+        /**
+         * Beendet die Beobachtung.
+         *
+         * @param await true, wenn danach weiter von der Verbindung gelesen wird: dann wird auf das Ende des
+         *              lesenden Threads gewartet (höchstens IDLE_CHECK_INTERVAL ms, in denen sonst auf die nächste
+         *              Anfrage gewartet würde)
+         */
+        void stop(boolean await) throws IOException {
+            done = true;
+            if (!await) return;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while stopping the connection watch");
+            }
+            clientSocket.setSoTimeout(Config.IDLE_TIMEOUT);
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package org.example.client;
+
+import org.example.command.VersionCommand;
+import org.example.helper.Protocol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+    private FakeServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeServer();
+    }
+
+    @Test
+    void testHitAnswersWithoutServer() throws IOException {
+        // Given: jede Anfrage prüft die Version (Intervall 0)
+        NearCache cache = new NearCache(10, 0);
+        cache.execute("q;DEU;POP", server);
+
+        // When
+        server.sent.clear();
+        String response = cache.execute("q;DEU;POP", server);
+
+        // Then
+        assertEquals("q;DEU;POP@a1", response);
+        assertEquals(List.of("v;a1"), server.sent, "Ein Treffer sollte nur die Version prüfen");
+        assertEquals("a1", cache.getVersion());
+    }
+
+    @Test
+    void testVersionChangeInvalidatesEntries() throws IOException {
+        // Given
+        NearCache cache = new NearCache(10, 0);
+        cache.execute("q;DEU;POP", server);
+        cache.execute("r;POP", server);
+        assertEquals(2, cache.size());
+
+        // When: neuer Datensatz auf dem Server
+        server.version = "b2";
+        server.sent.clear();
+        String response = cache.execute("q;DEU;POP", server);
+
+        // Then
+        assertEquals("q;DEU;POP@b2", response, "Nach einer neuen Version sollte der Server gefragt werden");
+        assertEquals(List.of("v;a1", "q;DEU;POP"), server.sent);
+        assertEquals("b2", cache.getVersion());
+        assertEquals(1, cache.size(), "Die Einträge der alten Version sollten verworfen sein");
+        assertTrue(cache.getState().contains("Near cache validations/invalidations: 3/1;"), cache.getState());
+    }
+
+    @Test
+    void testFailedValidationDropsEntries() throws IOException {
+        // Given
+        NearCache cache = new NearCache(10, 0);
+        cache.execute("q;DEU;POP", server);
+
+        // When: der Server ist bei der Prüfung nicht erreichbar
+        server.failVersion = true;
+        server.sent.clear();
+        cache.execute("q;DEU;POP", server);
+
+        // Then: ohne bekannte Version wird nichts gespeichert
+        assertEquals(List.of("v;a1", "q;DEU;POP"), server.sent);
+        assertNull(cache.getVersion());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testValidationOncePerInterval() throws IOException {
+        // Given
+        NearCache cache = new NearCache(10, 60_000);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            cache.execute("q;DEU;POP", server);
+        }
+
+        // Then
+        assertEquals(List.of("v", "q;DEU;POP"), server.sent,
+                "Innerhalb des Intervalls sollte nur einmal geprüft werden");
+    }
+
+    @Test
+    void testSizeIsBounded() throws IOException {
+        // Given
+        NearCache cache = new NearCache(3, 60_000);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            cache.execute("q;C" + i + ";POP", server);
+        }
+        server.sent.clear();
+        for (int i = 0; i < 5; i++) {
+            cache.execute("q;C" + i + ";POP", server);
+        }
+
+        // Then
+        assertEquals(3, cache.size(), "Der Cache sollte nicht über seine Größe wachsen");
+        assertEquals(List.of("q;C3;POP", "q;C4;POP"), server.sent,
+                "Nur die ersten Antworten sollten gespeichert sein");
+    }
+
+    @Test
+    void testServerStateAndOtherCommandsAreNotCached() throws IOException {
+        // Given
+        NearCache cache = new NearCache(10, 60_000);
+        server.busy = true;
+
+        // When
+        cache.execute("q;DEU;POP", server);
+        server.busy = false;
+        cache.execute("q;DEU;POP", server);
+        cache.execute("s", server);
+        cache.execute("s", server);
+
+        // Then
+        assertEquals(List.of("v", "q;DEU;POP", "q;DEU;POP", "s", "s"), server.sent);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testResponseRequestedBeforeInvalidationIsNotStored() throws IOException {
+        // Given
+        NearCache cache = new NearCache(10, 60_000);
+        cache.execute("q;DEU;POP", server);
+
+        // When: während die Anfrage läuft, wird der Cache verworfen
+        String response = cache.execute("q;FRA;POP", command -> {
+            String reply = server.send(command);
+            cache.invalidate();
+            return reply;
+        });
+
+        // Then
+        assertEquals("q;FRA;POP@a1", response);
+        assertEquals(0, cache.size(), "Eine Antwort zu einer verworfenen Version sollte nicht gespeichert werden");
+    }
+
+    /**
+     * Antwortet auf "v" und "v;Version" wie {@link VersionCommand}, auf alle anderen Anfragen mit "Anfrage@Version".
+     */
+    private static class FakeServer implements NearCache.Transport {
+        private final List<String> sent = new ArrayList<>();
+        private String version = "a1";
+        private boolean failVersion;
+        private boolean busy;
+
+        @Override
+        public String send(String command) throws IOException {
+            sent.add(command);
+            if (command.equals("v") || command.startsWith("v;")) {
+                if (failVersion) throw new IOException("Connection refused");
+                return command.equals("v;" + version) ? VersionCommand.NOT_MODIFIED : version;
+            }
+            return busy ? Protocol.SERVER_BUSY : command + "@" + version;
+        }
+    }
+}
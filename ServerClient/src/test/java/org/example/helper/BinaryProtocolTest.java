@@ -0,0 +1,104 @@
+package org.example.helper;
+
+import org.example.command.CommandType;
+import org.example.server.BinaryCommandProcessor;
+import org.example.server.Deadline;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+
+    @Test
+    void testMagicByteIsNoAsciiCharacter() {
+        // Textanfragen beginnen immer mit einem ASCII-Zeichen, das erste Byte unterscheidet also die Protokolle
+        assertTrue((BinaryProtocol.MAGIC & 0xFF) > 0x7F, "Das Magic-Byte sollte kein ASCII-Zeichen sein");
+        for (String command : new String[]{"q", "r", "rs", "b", "v", "s", "z", "#", "@"}) {
+            assertNotEquals(BinaryProtocol.MAGIC, command.getBytes(StandardCharsets.US_ASCII)[0]);
+        }
+    }
+
+    @Test
+    void testFrameLayout() {
+        // When
+        ByteBuffer frame = BinaryProtocol.allocateFrame(Integer.BYTES + Short.BYTES, 0x01020304,
+                BinaryProtocol.OP_QUERY_YEAR);
+        frame.putInt(7).putShort((short) 2000).flip();
+
+        // Then: int length, int requestId, byte opcode, payload, big-endian
+        assertEquals(ByteOrder.BIG_ENDIAN, frame.order());
+        assertEquals(Integer.BYTES + BinaryProtocol.HEADER_SIZE + 6, frame.remaining());
+        assertEquals(BinaryProtocol.HEADER_SIZE + 6, frame.getInt(),
+                "Die Länge sollte die Bytes nach dem Längenfeld zählen");
+        assertEquals(1, frame.get(Integer.BYTES), "Die Request-ID sollte big-endian geschrieben werden");
+        assertEquals(0x01020304, frame.getInt());
+        assertEquals(BinaryProtocol.OP_QUERY_YEAR, frame.get());
+        assertEquals(7, frame.getInt());
+        assertEquals(2000, frame.getShort());
+        assertFalse(frame.hasRemaining());
+    }
+
+    @Test
+    void testStringAndErrorFrameRoundTrip() {
+        // Given
+        String message = "Côte d'Ivoire; 東京 – Server busy";
+
+        // When
+        ByteBuffer frame = BinaryProtocol.errorFrame(-42, message);
+
+        // Then
+        int length = frame.getInt();
+        assertEquals(frame.remaining(), length, "Das Längenfeld sollte zum Frame passen");
+        assertEquals(-42, frame.getInt(), "Die Request-ID sollte unverändert zurückkommen");
+        assertEquals(BinaryProtocol.OP_ERROR, frame.get());
+        assertEquals(message, BinaryProtocol.getString(frame), "Der String sollte als UTF-8 erhalten bleiben");
+        assertFalse(frame.hasRemaining());
+
+        byte[] empty = new byte[0];
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.stringSize(empty));
+        BinaryProtocol.putString(buffer, empty);
+        assertEquals("", BinaryProtocol.getString(buffer.flip()));
+    }
+
+    @Test
+    void testTruncatedFramesAreAnsweredWithError() {
+        // Given: die Argumente werden vor dem Zugriff auf den Datensatz gelesen, der Server wird nicht gebraucht
+        BinaryCommandProcessor processor = new BinaryCommandProcessor(null);
+
+        // When / Then
+        assertError(processor, request(1, BinaryProtocol.OP_QUERY, 4), 1, "Bad arguments");
+        assertError(processor, request(2, BinaryProtocol.OP_QUERY_YEAR, 9), 2, "Bad arguments");
+        assertError(processor, request(3, BinaryProtocol.OP_REPORT, 0), 3, "Bad arguments");
+        assertError(processor, request(4, (byte) 42, 0), 4, "Unknown opcode 42");
+    }
+
+    @Test
+    void testOpcodeSelectsLane() {
+        assertEquals(CommandType.QUERY, BinaryCommandProcessor.getType(request(1, BinaryProtocol.OP_QUERY, 8)));
+        assertEquals(CommandType.QUERY, BinaryCommandProcessor.getType(request(1, BinaryProtocol.OP_QUERY_YEAR, 10)));
+        assertEquals(CommandType.QUERY, BinaryCommandProcessor.getType(request(1, BinaryProtocol.OP_DICTIONARY, 0)));
+        assertEquals(CommandType.REPORT, BinaryCommandProcessor.getType(request(1, BinaryProtocol.OP_REPORT, 4)));
+        assertEquals(CommandType.ADMIN, BinaryCommandProcessor.getType(request(1, BinaryProtocol.OP_STATUS, 0)));
+    }
+
+    /**
+     * Frame ohne Längenfeld, wie ihn der Server an den {@link BinaryCommandProcessor} übergibt.
+     */
+    private static ByteBuffer request(int requestId, byte opcode, int payloadSize) {
+        ByteBuffer frame = BinaryProtocol.allocateFrame(payloadSize, requestId, opcode);
+        return frame.position(Integer.BYTES).slice();
+    }
+
+    private static void assertError(BinaryCommandProcessor processor, ByteBuffer request, int requestId,
+                                    String message) {
+        ByteBuffer response = processor.execute(request, Deadline.after(System.nanoTime(), 0));
+        assertEquals(response.remaining() - Integer.BYTES, response.getInt());
+        assertEquals(requestId, response.getInt());
+        assertEquals(BinaryProtocol.OP_ERROR, response.get(), "Die Antwort sollte ein Fehler-Frame sein");
+        assertEquals(message, BinaryProtocol.getString(response));
+    }
+}
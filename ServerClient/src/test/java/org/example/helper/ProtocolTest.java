@@ -0,0 +1,119 @@
+package org.example.helper;
+
+import org.example.command.ErrorCommand;
+import org.example.command.QueryCommand;
+import org.example.server.ClientRequest;
+import org.example.server.CommandProcessor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProtocolTest {
+
+    @Test
+    void testTagRoundTrip() {
+        // Given
+        String line = Protocol.tag(17, "q;DEU;SP.POP.TOTL");
+
+        // When / Then
+        assertEquals("#17;q;DEU;SP.POP.TOTL", line);
+        assertTrue(Protocol.isTagged(line));
+        assertEquals("#17;", Protocol.getTag(line));
+        assertEquals("q;DEU;SP.POP.TOTL", Protocol.untag(line));
+        assertEquals(17, Protocol.getId(line));
+        assertEquals(Long.MAX_VALUE, Protocol.getId(Protocol.tag(Long.MAX_VALUE, "s")));
+    }
+
+    @Test
+    void testMalformedTags() {
+        // ohne ID oder ohne Trennzeichen ist die Zeile nicht markiert
+        assertFalse(Protocol.isTagged(""));
+        assertFalse(Protocol.isTagged("#"));
+        assertFalse(Protocol.isTagged("#;q;DEU;SP.POP.TOTL"), "Eine leere ID sollte keine Request-ID sein");
+        assertFalse(Protocol.isTagged("#17"), "Ohne ';' sollte es keine Request-ID geben");
+        assertFalse(Protocol.isTagged("q;#17;DEU"));
+
+        // nicht numerische IDs werden unverändert zurückgegeben, nur getId schlägt fehl
+        assertTrue(Protocol.isTagged("#abc;q;DEU;SP.POP.TOTL"));
+        assertEquals("#abc;", Protocol.getTag("#abc;q;DEU;SP.POP.TOTL"));
+        assertThrows(NumberFormatException.class, () -> Protocol.getId("#abc;q"));
+        assertThrows(NumberFormatException.class, () -> Protocol.getId("#99999999999999999999;q"));
+
+        // eine negative ID ist syntaktisch gültig
+        assertTrue(Protocol.isTagged("#-5;q"));
+        assertEquals(-5, Protocol.getId("#-5;q"));
+    }
+
+    @Test
+    void testDeadlineRoundTrip() {
+        // Given
+        String line = Protocol.withDeadline(250, "r;SP.POP.TOTL");
+
+        // When / Then
+        assertEquals("@250;r;SP.POP.TOTL", line);
+        assertTrue(Protocol.hasDeadline(line));
+        assertEquals(250, Protocol.getTimeout(line));
+        assertTrue(Protocol.hasDeadline("@0;q"), "Eine Frist von 0 ms sollte erkannt werden");
+        assertEquals(0, Protocol.getTimeout("@0;q"));
+
+        // Request-ID und Frist zusammen: die Frist steht nach der ID
+        String tagged = Protocol.tag(17, line);
+        assertEquals("#17;@250;r;SP.POP.TOTL", tagged);
+        assertFalse(Protocol.hasDeadline(tagged), "Die Frist sollte erst nach der Request-ID gesucht werden");
+        assertTrue(Protocol.hasDeadline(Protocol.untag(tagged)));
+    }
+
+    @Test
+    void testMalformedAndNegativeDeadlines() {
+        // negative Fristen und andere Zeichen als Ziffern sind keine Frist, die Zeile bleibt ein (unbekannter) Befehl
+        assertFalse(Protocol.hasDeadline("@-5;q"), "Eine negative Frist sollte nicht erkannt werden");
+        assertFalse(Protocol.hasDeadline("@+5;q"));
+        assertFalse(Protocol.hasDeadline("@1.5;q"));
+        assertFalse(Protocol.hasDeadline("@ 5;q"));
+        assertFalse(Protocol.hasDeadline("@abc;q"));
+        assertFalse(Protocol.hasDeadline("@;q"), "Eine leere Frist sollte nicht erkannt werden");
+        assertFalse(Protocol.hasDeadline("@250"), "Ohne ';' sollte es keine Frist geben");
+        assertFalse(Protocol.hasDeadline(""));
+        assertFalse(Protocol.hasDeadline("q;@250;DEU"));
+
+        // höchstens 18 Ziffern, damit die Frist immer in ein long passt
+        String longest = "@" + "9".repeat(18) + ";q";
+        assertTrue(Protocol.hasDeadline(longest));
+        assertEquals(999_999_999_999_999_999L, Protocol.getTimeout(longest));
+        assertFalse(Protocol.hasDeadline("@" + "9".repeat(19) + ";q"),
+                "Eine zu lange Frist sollte nicht erkannt werden");
+    }
+
+    @Test
+    void testParseRequestWithTagAndDeadline() {
+        // Given: parseRequest braucht den Server nur für Batch, Status und Shutdown
+        CommandProcessor processor = new CommandProcessor(null);
+        long now = System.nanoTime();
+
+        // When
+        ClientRequest request = processor.parseRequest("#17;@250;q;DEU;SP.POP.TOTL", now);
+        ClientRequest expired = processor.parseRequest("@0;q;DEU;SP.POP.TOTL", now - 1_000_000_000L);
+        ClientRequest late = processor.parseRequest("@1;q;DEU;SP.POP.TOTL", now - 1_000_000_000L);
+        ClientRequest negative = processor.parseRequest("#3;@-5;q;DEU;SP.POP.TOTL", now);
+
+        // Then
+        assertEquals("#17;", request.getTag());
+        assertEquals("q;DEU;SP.POP.TOTL", request.getLine());
+        assertInstanceOf(QueryCommand.class, request.getCommand());
+        assertFalse(request.getDeadline().isExpired());
+        assertFalse(expired.getDeadline().isExpired(), "Eine Frist von 0 ms sollte keine Frist sein");
+        assertTrue(late.getDeadline().isExpired(), "Die Frist sollte ab dem Empfang zählen");
+        assertEquals("#3;", negative.getTag());
+        assertEquals("@-5;q;DEU;SP.POP.TOTL", negative.getLine(), "Eine negative Frist sollte Teil der Zeile bleiben");
+        assertInstanceOf(ErrorCommand.class, negative.getCommand());
+    }
+
+    @Test
+    void testStreamEnd() {
+        assertTrue(Protocol.isStreamEnd(Protocol.STREAM_END));
+        assertTrue(Protocol.isStreamEnd(Protocol.STREAM_ERROR_PREFIX + Protocol.REQUEST_TIMEOUT));
+        assertFalse(Protocol.isStreamEnd(""));
+        assertFalse(Protocol.isStreamEnd("DEU;123.5"));
+        assertFalse(Protocol.isStreamEnd(".."));
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.server;
+
+import org.example.command.CommandType;
+import org.example.helper.Config;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadsTest {
+    private static final String BUSY = "busy";
+    private Bulkheads bulkheads;
+    // hält die Threads der Report-Lane fest, bis der Test sie freigibt
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        bulkheads = new Bulkheads();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkheads.shutdown();
+    }
+
+    @Test
+    void testAdminLaneAnswersWhileReportLaneIsSaturated() throws Exception {
+        // Given: alle Threads der Report-Lane rechnen, ihre Warteschlange ist voll
+        saturateReportLane();
+
+        // When
+        String report = bulkheads.call(CommandType.REPORT, () -> "report", () -> BUSY);
+        String status = bulkheads.call(CommandType.ADMIN, () -> "status", () -> BUSY);
+        String query = bulkheads.call(CommandType.QUERY, () -> "query", () -> BUSY);
+
+        // Then
+        assertEquals(BUSY, report, "Die volle Report-Lane sollte mit busy antworten");
+        assertEquals("status", status, "Die Admin-Lane sollte trotz voller Report-Lane antworten");
+        assertEquals("query", query, "Die Query-Lane sollte trotz voller Report-Lane antworten");
+        String state = bulkheads.getState();
+        String reportLane = state.substring(state.indexOf("REPORT lane: "), state.indexOf("ADMIN lane: "));
+        assertTrue(reportLane.contains("Number of rejected tasks (busy): 1;"), state);
+        assertTrue(state.substring(state.indexOf("ADMIN lane: ")).contains("Number of rejected tasks (busy): 0;"),
+                state);
+    }
+
+    @Test
+    void testCallRethrowsErrorsOfTheTask() {
+        // When / Then
+        RemoteException remote = assertThrows(RemoteException.class, () -> bulkheads.call(CommandType.QUERY,
+                () -> {
+                    throw new RemoteException("failed");
+                }, () -> BUSY));
+        assertEquals("failed", remote.getMessage());
+        assertThrows(IllegalStateException.class, () -> bulkheads.call(CommandType.QUERY,
+                () -> {
+                    throw new IllegalStateException();
+                }, () -> BUSY), "Laufzeitfehler sollten unverändert weitergegeben werden");
+    }
+
+    @Test
+    void testCallRunsInTheLane() throws Exception {
+        // When
+        Thread laneThread = bulkheads.call(CommandType.REPORT, Thread::currentThread, () -> null);
+
+        // Then
+        assertNotSame(Thread.currentThread(), laneThread, "Der Command sollte in der Lane ausgeführt werden");
+    }
+
+    @Test
+    void testShutdownLaneAnswersBusy() throws Exception {
+        // Given
+        bulkheads.shutdown();
+
+        // When / Then
+        assertEquals(BUSY, bulkheads.call(CommandType.QUERY, () -> "query", () -> BUSY),
+                "Eine beendete Lane sollte mit busy antworten");
+    }
+
+    private void saturateReportLane() throws InterruptedException {
+        WorkerPool lane = bulkheads.getLane(CommandType.REPORT);
+        CountDownLatch started = new CountDownLatch(Config.REPORT_THREADS);
+        for (int i = 0; i < Config.REPORT_THREADS; i++) {
+            lane.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Alle Threads der Report-Lane sollten belegt sein");
+        for (int i = 0; i < Config.QUEUE_CAPACITY; i++) {
+            lane.execute(new RejectableTask() {
+                @Override
+                public void run() {
+                }
+
+                @Override
+                public void reject() {
+                    fail("Die Warteschlange sollte noch Platz haben");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineTest {
+
+    @AfterEach
+    void tearDown() {
+        // ein fehlgeschlagener Test soll den Thread von JUnit nicht unterbrochen hinterlassen
+        Thread.interrupted();
+    }
+
+    @Test
+    void testExpiryInterruptsExecutingThread() {
+        // Given
+        Deadline deadline = Deadline.after(System.nanoTime(), 50);
+
+        // When
+        deadline.begin();
+        boolean interrupted = awaitInterrupt(TimeUnit.SECONDS.toNanos(5));
+        deadline.end();
+
+        // Then
+        assertTrue(interrupted, "Der ausführende Thread sollte nach Ablauf der Frist unterbrochen werden");
+        assertTrue(deadline.isExpired());
+        assertFalse(Thread.currentThread().isInterrupted(), "end() sollte den Interrupt der Frist zurücksetzen");
+    }
+
+    @Test
+    void testCancelWhileMaskedIsDeferred() throws InterruptedException {
+        // Given
+        Deadline deadline = Deadline.after(System.nanoTime(), 0);
+        deadline.begin();
+        deadline.mask();
+
+        // When
+        Thread canceller = new Thread(deadline::cancel);
+        canceller.start();
+        canceller.join();
+
+        // Then
+        assertFalse(Thread.currentThread().isInterrupted(), "Während mask() sollte nicht unterbrochen werden");
+        deadline.unmask();
+        assertTrue(Thread.currentThread().isInterrupted(), "unmask() sollte den Abbruch als Interrupt nachholen");
+        assertFalse(deadline.isExpired(), "Ein Abbruch ist keine abgelaufene Frist");
+        deadline.end();
+        assertFalse(Thread.currentThread().isInterrupted(), "end() sollte den Interrupt des Abbruchs zurücksetzen");
+    }
+
+    @Test
+    void testMaskClearsDeliveredInterrupt() {
+        // Given
+        Deadline deadline = Deadline.after(System.nanoTime(), 0);
+        deadline.begin();
+        deadline.cancel();
+        assertTrue(Thread.currentThread().isInterrupted());
+
+        // When
+        deadline.mask();
+
+        // Then
+        assertFalse(Thread.currentThread().isInterrupted(), "mask() sollte einen zugestellten Abbruch zurücksetzen");
+        deadline.unmask();
+        assertTrue(Thread.currentThread().isInterrupted());
+        deadline.end();
+    }
+
+    @Test
+    void testAbandonedBeforeExecution() {
+        // Given
+        Deadline expired = Deadline.after(System.nanoTime() - TimeUnit.SECONDS.toNanos(1), 10);
+        Deadline cancelled = Deadline.after(System.nanoTime(), 0);
+        cancelled.cancel();
+
+        // When / Then
+        assertTrue(expired.isExpired());
+        assertThrows(CancellationException.class, expired::begin, "Eine abgelaufene Frist sollte nicht beginnen");
+        assertThrows(CancellationException.class, cancelled::begin, "Eine abgebrochene Anfrage sollte nicht beginnen");
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testNoInterruptAfterEnd() throws InterruptedException {
+        // Given
+        Deadline deadline = Deadline.after(System.nanoTime(), 20);
+        deadline.begin();
+        deadline.end();
+
+        // When: die Frist läuft erst nach dem Ende ab, ein Abbruch kommt noch später
+        TimeUnit.MILLISECONDS.sleep(100);
+        deadline.cancel();
+
+        // Then
+        assertFalse(Thread.currentThread().isInterrupted(), "Nach end() sollte der Thread nicht unterbrochen werden");
+    }
+
+    private static boolean awaitInterrupt(long timeoutNanos) {
+        long start = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            if (System.nanoTime() - start > timeoutNanos) return false;
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+}
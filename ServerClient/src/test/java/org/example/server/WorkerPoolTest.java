@@ -0,0 +1,194 @@
+package org.example.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerPoolTest {
+    private final List<WorkerPool> pools = new ArrayList<>();
+    // hält die erste Aufgabe jedes Pools fest, bis der Test sie freigibt
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        pools.forEach(WorkerPool::shutdown);
+    }
+
+    @Test
+    void testBusyRejectsWhenQueueIsFull() throws InterruptedException {
+        // Given: 1 Thread belegt, 1 Aufgabe wartet
+        WorkerPool pool = saturatedPool(ExecutorMode.FIXED_POOL, RejectionPolicy.BUSY);
+        Probe queued = new Probe();
+        pool.execute(queued);
+        Probe refused = new Probe();
+
+        // When
+        pool.execute(refused);
+
+        // Then
+        assertTrue(refused.rejected, "Bei voller Warteschlange sollte die neue Aufgabe abgelehnt werden");
+        assertNull(refused.runThread, "Eine abgelehnte Aufgabe sollte nicht ausgeführt werden");
+        assertTrue(pool.hasQueuedTasks());
+        assertTrue(pool.getState().contains("Number of rejected tasks (busy): 1;"), pool.getState());
+        assertTrue(pool.getState().contains("Rejection policy: BUSY;"), pool.getState());
+        release.countDown();
+        assertTrue(queued.done.await(5, TimeUnit.SECONDS), "Die wartende Aufgabe sollte noch ausgeführt werden");
+        assertFalse(queued.rejected);
+    }
+
+    @Test
+    void testCallerRunsExecutesInCallingThread() throws InterruptedException {
+        // Given
+        WorkerPool pool = saturatedPool(ExecutorMode.FIXED_POOL, RejectionPolicy.CALLER_RUNS);
+        pool.execute(new Probe());
+        Probe overflow = new Probe();
+
+        // When
+        pool.execute(overflow);
+
+        // Then
+        assertSame(Thread.currentThread(), overflow.runThread, "Die Aufgabe sollte im aufrufenden Thread laufen");
+        assertFalse(overflow.rejected);
+        assertTrue(pool.getState().contains("Number of caller-runs tasks: 1;"), pool.getState());
+        assertTrue(pool.getState().contains("Number of rejected tasks (busy): 0;"), pool.getState());
+    }
+
+    @Test
+    void testShedOldestRejectsQueuedTask() throws InterruptedException {
+        // Given
+        WorkerPool pool = saturatedPool(ExecutorMode.FIXED_POOL, RejectionPolicy.SHED_OLDEST);
+        Probe oldest = new Probe();
+        pool.execute(oldest);
+        Probe newest = new Probe();
+
+        // When
+        pool.execute(newest);
+
+        // Then
+        assertTrue(oldest.rejected, "Die älteste wartende Aufgabe sollte mit busy beantwortet werden");
+        assertNull(oldest.runThread, "Eine verdrängte Aufgabe sollte nie ausgeführt werden");
+        assertTrue(pool.getState().contains("Number of shed tasks: 1;"), pool.getState());
+        assertTrue(pool.getState().contains("Number of rejected tasks (busy): 1;"), pool.getState());
+        release.countDown();
+        assertTrue(newest.done.await(5, TimeUnit.SECONDS));
+        assertFalse(newest.rejected, "Die neue Aufgabe sollte eingereiht und ausgeführt werden");
+        assertNotSame(Thread.currentThread(), newest.runThread);
+    }
+
+    @Test
+    void testShedOldestKeepsTasksWithoutResponse() throws InterruptedException {
+        // Given: es wartet nur eine Teil-Query ohne eigene Antwort an den Client
+        WorkerPool pool = saturatedPool(ExecutorMode.FIXED_POOL, RejectionPolicy.SHED_OLDEST);
+        CountDownLatch subQuery = new CountDownLatch(1);
+        pool.execute(subQuery::countDown);
+        Probe newest = new Probe();
+
+        // When
+        pool.execute(newest);
+
+        // Then
+        assertTrue(newest.rejected, "Ohne verdrängbare Aufgabe sollte die neue abgelehnt werden");
+        assertTrue(pool.getState().contains("Number of shed tasks: 0;"), pool.getState());
+        release.countDown();
+        assertTrue(subQuery.await(5, TimeUnit.SECONDS), "Die Teil-Query sollte eingereiht bleiben");
+    }
+
+    @Test
+    void testTaskWithoutResponseRunsInCallingThread() throws InterruptedException {
+        // Given
+        WorkerPool pool = saturatedPool(ExecutorMode.FIXED_POOL, RejectionPolicy.BUSY);
+        pool.execute(new Probe());
+        Thread[] runThread = new Thread[1];
+
+        // When
+        pool.execute(() -> runThread[0] = Thread.currentThread());
+
+        // Then
+        assertSame(Thread.currentThread(), runThread[0], "Eine Teil-Query sollte nie verloren gehen");
+        assertTrue(pool.getState().contains("Number of caller-runs tasks: 1;"), pool.getState());
+    }
+
+    @Test
+    void testVirtualModeBoundsActiveTasks() throws InterruptedException {
+        // Given: die einzige Erlaubnis ist belegt
+        WorkerPool pool = saturatedPool(ExecutorMode.VIRTUAL, RejectionPolicy.BUSY);
+        Probe refused = new Probe();
+
+        // When
+        pool.execute(refused);
+
+        // Then
+        assertTrue(refused.rejected, "Über der Kapazität sollte eine Aufgabe abgelehnt werden");
+        assertTrue(pool.getState().contains("Maximum number of active tasks: 1;"), pool.getState());
+        assertTrue(pool.getState().contains("Number of rejected tasks (busy): 1;"), pool.getState());
+        release.countDown();
+        // die Erlaubnis wird frei, sobald die erste Aufgabe beendet ist
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Probe admitted;
+        do {
+            admitted = new Probe();
+            pool.execute(admitted);
+            assertTrue(admitted.done.await(5, TimeUnit.SECONDS));
+        } while (admitted.rejected && System.nanoTime() < deadline);
+        assertFalse(admitted.rejected, "Nach dem Ende der ersten Aufgabe sollte wieder eine angenommen werden");
+        assertTrue(admitted.runThread.isVirtual());
+    }
+
+    @Test
+    void testCallerRunsIsBusyForNio() {
+        assertEquals(RejectionPolicy.BUSY, RejectionPolicy.CALLER_RUNS.forTransport(TransportMode.NIO),
+                "IO-Threads sollten nie selbst Commands ausführen");
+        assertEquals(RejectionPolicy.CALLER_RUNS, RejectionPolicy.CALLER_RUNS.forTransport(TransportMode.BLOCKING));
+        for (RejectionPolicy policy : List.of(RejectionPolicy.BUSY, RejectionPolicy.SHED_OLDEST)) {
+            assertEquals(policy, policy.forTransport(TransportMode.NIO));
+            assertEquals(policy, policy.forTransport(TransportMode.BLOCKING));
+        }
+    }
+
+    /**
+     * Pool mit einem Thread und Platz für eine Aufgabe, dessen Thread (bzw. einzige Erlaubnis) belegt ist.
+     */
+    private WorkerPool saturatedPool(ExecutorMode mode, RejectionPolicy policy) throws InterruptedException {
+        WorkerPool pool = new WorkerPool(mode, 1, 1, policy);
+        pools.add(pool);
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS), "Die erste Aufgabe sollte sofort laufen");
+        return pool;
+    }
+
+    /**
+     * Anfrage, die sich merkt, ob und in welchem Thread sie ausgeführt oder abgelehnt wurde.
+     */
+    private static class Probe implements RejectableTask {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Thread runThread;
+        private volatile boolean rejected;
+
+        @Override
+        public void run() {
+            runThread = Thread.currentThread();
+            done.countDown();
+        }
+
+        @Override
+        public void reject() {
+            rejected = true;
+            done.countDown();
+        }
+    }
+}
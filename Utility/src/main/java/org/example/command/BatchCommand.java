@@ -0,0 +1,142 @@
+package org.example.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Klasse zur Implementierung des Befehls "Batch": mehrere Queries in einer Anfrage.
+ * <p>
+ * Format: "b;Land,Indikator[,Jahr];Land,Indikator[,Jahr];...". Die Ergebnisse der Queries werden in derselben
+ * Reihenfolge mit {@link #RESULT_SEPARATOR} getrennt zurückgegeben; '|' und '\' in einem Ergebnis werden mit
+ * {@link #ESCAPE} maskiert. Jede Query wird zuerst im Cache gesucht, die übrigen werden über
+ * {@link CommandCache#getOrExecute(Command)} ausgeführt und dabei in den Cache eingefügt: höchstens window von ihnen
+ * gleichzeitig auf dem Executor des Servers, die Batch selbst arbeitet die Queries der Reihe nach ab und führt aus,
+ * was noch kein Worker übernommen hat.
+ */
+public class BatchCommand extends Command {
+    public static final String RESULT_SEPARATOR = "|";
+    public static final char ESCAPE = '\\';
+    public static final String QUERY_SEPARATOR = ",";
+    public static final int MAX_BATCH_SIZE = 1000;
+    private final CommandCache cache;
+    private final Executor executor;
+    // maximale Anzahl gleichzeitig an den Executor übergebener Queries
+    private final int window;
+
+    /**
+     * @param argument Die Argumente der Anfrage
+     * @param cache    Cache des Servers
+     * @param executor Executor für die Queries, die nicht im Cache sind
+     * @param window   Anzahl der Queries, die gleichzeitig auf dem Executor laufen dürfen (z.B. seine Threads), damit
+     *                 eine Batch nicht die ganze Warteschlange belegt
+     */
+    public BatchCommand(String[] argument, CommandCache cache, Executor executor, int window) {
+        super(argument);
+        // die einzelnen Queries werden gecacht, nicht die ganze Batch
+        cacheable = false;
+        type = CommandType.REPORT;
+        this.cache = cache;
+        this.executor = executor;
+        this.window = Math.max(1, window);
+    }
+
+    @Override
+    public String execute() {
+        int size = arguments.length - 1;
+        if (size < 1) return " Bad arguments";
+        if (size > MAX_BATCH_SIZE) return "Batch exceeds " + MAX_BATCH_SIZE + " queries";
+
+        String[] results = new String[size];
+        List<Integer> misses = new ArrayList<>();
+        List<FutureTask<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            QueryCommand query = toQuery(arguments[i + 1]);
+            results[i] = cache.get(query.getCacheKey());
+            if (results[i] != null) continue;
+            // gleiche Queries (in dieser oder einer anderen Anfrage) werden nur einmal ausgeführt
+            misses.add(i);
+            tasks.add(new FutureTask<>(() -> cache.getOrExecute(query)));
+        }
+
+        // höchstens window Queries gleichzeitig beim Executor, jede übernommene gibt ihren Platz wieder frei
+        Semaphore slots = new Semaphore(window);
+        int next = 0;
+        for (int j = 0; j < tasks.size(); j++) {
+            int index = misses.get(j);
+            FutureTask<String> task = tasks.get(j);
+            for (next = Math.max(next, j + 1); next < tasks.size() && slots.tryAcquire(); next++) {
+                submit(tasks.get(next), slots);
+            }
+            // Aufgaben, die noch kein Worker übernommen hat, führt die Batch selbst aus. So wartet sie nie auf
+            // einen Worker, den sie (bei einem Pool fester Größe) eventuell selbst belegt.
+            if (!Thread.currentThread().isInterrupted()) task.run();
+            try {
+                results[index] = task.get();
+            } catch (ExecutionException e) {
+                // eine fehlerhafte Query bricht die übrigen nicht ab
+                results[index] = "Error";
+            } catch (InterruptedException e) {
+                // Anfrage wurde abgebrochen (Frist abgelaufen oder Client weg): übrige Queries verwerfen
+                for (int k = j; k < tasks.size(); k++) {
+                    tasks.get(k).cancel(false);
+                }
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Batch cancelled");
+            }
+        }
+
+        StringJoiner joiner = new StringJoiner(RESULT_SEPARATOR);
+        for (String result : results) {
+            joiner.add(escape(result));
+        }
+        return joiner.toString();
+    }
+
+    private void submit(FutureTask<String> task, Semaphore slots) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // wird in der Schleife im aufrufenden Thread ausgeführt
+            slots.release();
+        }
+    }
+
+    /**
+     * Maskiert {@link #RESULT_SEPARATOR} und {@link #ESCAPE} in einem Ergebnis mit {@link #ESCAPE}.
+     */
+    static String escape(String result) {
+        if (result.indexOf(RESULT_SEPARATOR.charAt(0)) < 0 && result.indexOf(ESCAPE) < 0) return result;
+        StringBuilder sb = new StringBuilder(result.length() + 8);
+        for (int i = 0; i < result.length(); i++) {
+            char c = result.charAt(i);
+            if (c == RESULT_SEPARATOR.charAt(0) || c == ESCAPE) sb.append(ESCAPE);
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Erzeugt aus "Land,Indikator[,Jahr]" denselben Command wie die einzelne Anfrage "q;Land;Indikator[;Jahr]",
+     * damit sich Batch und einzelne Queries die Einträge im Cache teilen.
+     */
+    private QueryCommand toQuery(String query) {
+        String[] fields = query.split(QUERY_SEPARATOR);
+        String[] argument = new String[fields.length + 1];
+        argument[0] = "q";
+        System.arraycopy(fields, 0, argument, 1, fields.length);
+        return new QueryCommand(argument);
+    }
+}
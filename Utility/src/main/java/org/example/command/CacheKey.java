@@ -0,0 +1,52 @@
+package org.example.command;
+
+import java.util.Arrays;
+
+/**
+ * Schlüssel eines Ergebnisses im Cache, abgeleitet aus der Klasse und den Argumenten eines Commands (inklusive des
+ * Befehls selbst, z.B. {"q", "DEU", "SP.POP.TOTL"}). Zwei Anfragen mit denselben Argumenten ergeben gleiche
+ * Schlüssel, auch wenn für jede Anfrage ein neuer Command erzeugt wird.
+ * <p>
+ * Der Hash wird einmal beim Erzeugen berechnet, {@link #equals(Object)} vergleicht zuerst den Hash und nur bei
+ * Gleichheit die Argumente. Unveränderlich.
+ */
+public final class CacheKey {
+    private final CommandType type;
+    private final String[] arguments;
+    private final int hash;
+
+    public CacheKey(CommandType type, String... arguments) {
+        this.type = type;
+        // Kopie, damit spätere Änderungen am Command den Schlüssel im Cache nicht verändern
+        this.arguments = arguments.clone();
+        hash = 31 * type.hashCode() + Arrays.hashCode(this.arguments);
+    }
+
+    public CommandType getType() {
+        return type;
+    }
+
+    /**
+     * @return Kopie der Argumente
+     */
+    public String[] getArguments() {
+        return arguments.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey other)) return false;
+        return hash == other.hash && type == other.type && Arrays.equals(arguments, other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + String.join(";", arguments);
+    }
+}
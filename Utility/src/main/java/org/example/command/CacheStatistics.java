@@ -0,0 +1,156 @@
+package org.example.command;
+
+import java.io.Serializable;
+import java.io.StringWriter;
+
+/**
+ * Momentaufnahme der Statistik eines {@link CommandCache}, insgesamt und pro {@link CommandType}. Wird über den
+ * Status-Befehl und per RMI ({@link org.example.server.ServerRemote#getCacheStatistics()}) ausgegeben.
+ * Unveränderlich.
+ */
+public final class CacheStatistics implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Gezählte Ereignisse.
+     */
+    public enum Counter {
+        /**
+         * Suche mit Ergebnis.
+         */
+        HITS,
+        /**
+         * Suche ohne Ergebnis.
+         */
+        MISSES,
+        /**
+         * Eingefügte Ergebnisse (auch ersetzte).
+         */
+        PUTS,
+        /**
+         * Ergebnisse, die nicht eingefügt wurden (zu groß oder Cache voll).
+         */
+        REJECTIONS,
+        /**
+         * Einträge, die für neue verdrängt wurden.
+         */
+        EVICTIONS,
+        /**
+         * Einträge, die wegen ihres Alters entfernt wurden.
+         */
+        EXPIRATIONS,
+        /**
+         * Ausführungen eines Commands nach einem Miss.
+         */
+        LOADS,
+        /**
+         * Ausführungen, die mit einem Fehler endeten.
+         */
+        LOAD_FAILURES,
+        /**
+         * Summe der Dauer aller Ausführungen in ns.
+         */
+        LOAD_TIME_NANOS,
+        /**
+         * Misses, die auf die Ausführung einer anderen Anfrage gewartet haben.
+         */
+        COALESCED,
+        /**
+         * Ergebnisse, die beim Vorwärmen nach einem Neustart geladen wurden (auch als {@link #LOADS} gezählt).
+         */
+        WARM_UPS,
+        /**
+         * Eingefügte negative Ergebnisse (z.B. unbekannter Code), siehe {@link Command#isNegativeResult()}.
+         */
+        NEGATIVE_PUTS
+    }
+
+    private static final CommandType[] TYPES = CommandType.values();
+    private static final Counter[] COUNTERS = Counter.values();
+    // [CommandType][Counter]
+    private final long[][] counters;
+    private final int entries;
+    private final long weightedSize;
+
+    /**
+     * @param counters     Zähler pro Klasse: counters[CommandType.ordinal()][Counter.ordinal()]
+     * @param entries      aktuelle Anzahl der Einträge
+     * @param weightedSize aktuelle geschätzte Größe der Einträge in Bytes
+     */
+    public CacheStatistics(long[][] counters, int entries, long weightedSize) {
+        this.counters = new long[TYPES.length][];
+        for (int i = 0; i < TYPES.length; i++) {
+            this.counters[i] = counters[i].clone();
+        }
+        this.entries = entries;
+        this.weightedSize = weightedSize;
+    }
+
+    /**
+     * @param counter Das Ereignis
+     * @return Anzahl über alle Klassen
+     */
+    public long get(Counter counter) {
+        long sum = 0;
+        for (long[] typeCounters : counters) {
+            sum += typeCounters[counter.ordinal()];
+        }
+        return sum;
+    }
+
+    /**
+     * @param counter Das Ereignis
+     * @param type    Klasse der Commands
+     * @return Anzahl für die Klasse
+     */
+    public long get(Counter counter, CommandType type) {
+        return counters[type.ordinal()][counter.ordinal()];
+    }
+
+    /**
+     * @return Anteil der Treffer an allen Suchen, 0 ohne Suchen
+     */
+    public double getHitRatio() {
+        long requests = get(Counter.HITS) + get(Counter.MISSES);
+        return requests == 0 ? 0 : (double) get(Counter.HITS) / requests;
+    }
+
+    /**
+     * @param type Klasse der Commands
+     * @return mittlere Dauer einer Ausführung nach einem Miss in ms, 0 ohne Ausführungen
+     */
+    public double getAverageLoadTime(CommandType type) {
+        long loads = get(Counter.LOADS, type);
+        return loads == 0 ? 0 : get(Counter.LOAD_TIME_NANOS, type) / 1e6 / loads;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * Formatiert die Statistik wie die übrigen Zeilen des Serverstatus: "Name: Wert;".
+     */
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        writer.write("Cache entries: " + entries + ";");
+        writer.write("Cache bytes: " + weightedSize + ";");
+        writer.write(String.format("Cache hit ratio: %.3f;", getHitRatio()));
+        for (Counter counter : COUNTERS) {
+            if (counter == Counter.LOAD_TIME_NANOS) continue;
+            writer.write("Cache " + counter.name().toLowerCase().replace('_', ' ') + ": " + get(counter) + ";");
+        }
+        for (CommandType type : TYPES) {
+            if (get(Counter.HITS, type) + get(Counter.MISSES, type) == 0) continue;
+            writer.write(String.format("Cache %s hits/misses/loads: %d/%d/%d, avg load %.3f ms;", type,
+                    get(Counter.HITS, type), get(Counter.MISSES, type), get(Counter.LOADS, type),
+                    getAverageLoadTime(type)));
+        }
+        return writer.toString();
+    }
+}
@@ -8,10 +8,16 @@ import java.rmi.RemoteException;
 public abstract class Command {
     protected String[] arguments;
     protected boolean cacheable;
+    protected CommandType type;
+    // wird von execute() gesetzt, wenn das Ergebnis negativ ist (z.B. unbekannter Code)
+    protected boolean negativeResult;
+    // wird beim ersten Zugriff erzeugt (Suche und Einfügen im Cache verwenden denselben Schlüssel)
+    private CacheKey cacheKey;
 
     public Command(String[] argument) {
         this.arguments = argument;
         cacheable = false;
+        type = CommandType.QUERY;
     }
 
     /**
@@ -38,4 +44,34 @@ public abstract class Command {
     public boolean isCacheable() {
         return cacheable;
     }
+
+    /**
+     * Gibt an, ob die letzte Ausführung ein negatives Ergebnis geliefert hat: die Anfrage war gültig, aber es gibt
+     * keine passenden Daten (z.B. unbekanntes Land). Ein Cache speichert solche Ergebnisse getrennt und nur kurz.
+     *
+     * @return true für ein negatives Ergebnis
+     */
+    public boolean isNegativeResult() {
+        return negativeResult;
+    }
+
+    /**
+     * Gibt den Schlüssel des Ergebnisses im Cache zurück. Befehle gleicher Klasse mit gleichen Argumenten haben
+     * gleiche Schlüssel.
+     *
+     * @return Schlüssel aus Klasse und Argumenten
+     */
+    public CacheKey getCacheKey() {
+        if (cacheKey == null) cacheKey = new CacheKey(type, arguments);
+        return cacheKey;
+    }
+
+    /**
+     * Gibt die Klasse des Befehls zurück, nach der der Server den Thread-Pool wählt.
+     *
+     * @return Klasse des Befehls
+     */
+    public CommandType getType() {
+        return type;
+    }
 }
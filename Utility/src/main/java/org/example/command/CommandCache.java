@@ -0,0 +1,36 @@
+package org.example.command;
+
+import java.rmi.RemoteException;
+
+/**
+ * Cache für die Ergebnisse von Commands. Ermöglicht Commands wie {@link BatchCommand}, Teilergebnisse im Cache des
+ * Servers zu suchen, ohne vom CacheModule abzuhängen.
+ */
+public interface CommandCache {
+    /**
+     * Gibt das Ergebnis zum Schlüssel zurück.
+     *
+     * @param key Schlüssel des Befehls
+     * @return Das Ergebnis oder null, wenn der Befehl nicht im Cache ist
+     */
+    String get(CacheKey key);
+
+    /**
+     * Fügt ein Ergebnis in den Cache ein.
+     *
+     * @param key    Schlüssel des Befehls
+     * @param result Das Ergebnis zum Befehl
+     */
+    void put(CacheKey key, String result);
+
+    /**
+     * Gibt das Ergebnis eines Commands aus dem Cache zurück oder führt ihn bei einem Miss aus und fügt das Ergebnis
+     * ein. Gleichzeitige Misses mit gleichem Schlüssel führen den Command nur einmal aus, die übrigen warten auf
+     * dessen Ergebnis.
+     *
+     * @param command Ein Command, der gecacht werden kann
+     * @return Das Ergebnis zum Befehl
+     * @throws RemoteException wenn der Command nicht ausgeführt werden konnte
+     */
+    String getOrExecute(Command command) throws RemoteException;
+}
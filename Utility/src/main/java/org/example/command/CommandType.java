@@ -0,0 +1,20 @@
+package org.example.command;
+
+/**
+ * Klasse eines Commands nach Kosten und Dringlichkeit. Der Server kann die Klassen in getrennten Thread-Pools
+ * ausführen, damit teure Commands die günstigen nicht verdrängen.
+ */
+public enum CommandType {
+    /**
+     * Punktabfragen, z.B. {@link QueryCommand}.
+     */
+    QUERY,
+    /**
+     * Commands, die den ganzen Datensatz durchlaufen oder viele Queries ausführen, z.B. {@link ReportCommand}.
+     */
+    REPORT,
+    /**
+     * Verwaltung des Servers, z.B. {@link ServerStatusCommand} und {@link ShutdownCommand}.
+     */
+    ADMIN
+}
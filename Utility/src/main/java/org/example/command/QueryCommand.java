@@ -3,7 +3,8 @@ package org.example.command;
 import org.example.dataLoader.DAO;
 
 /**
- * Klasse zur Implementierung des Befehls "Query"
+ * Klasse zur Implementierung des Befehls "Query". Für unbekannte Codes ist das Ergebnis
+ * {@link #isNegativeResult() negativ}.
  */
 public class QueryCommand extends Command {
     public QueryCommand(String[] argument) {
@@ -15,11 +16,15 @@ public class QueryCommand extends Command {
     public String execute() {
         DAO dao = DAO.getDao();
         if (arguments.length == 3) {
-            return dao.query(arguments[1], arguments[2]);
+            String result = dao.query(arguments[1], arguments[2]);
+            negativeResult = DAO.isNegativeResult(result);
+            return result;
         }
         if (arguments.length == 4) {
             try {
-                return dao.query(arguments[1], arguments[2], Short.parseShort(arguments[3]));
+                String result = dao.query(arguments[1], arguments[2], Short.parseShort(arguments[3]));
+                negativeResult = DAO.isNegativeResult(result);
+                return result;
             } catch (IllegalArgumentException e) {
                 return "Year must be a number " + e.getMessage();
             }
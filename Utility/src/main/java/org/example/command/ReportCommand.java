@@ -3,19 +3,23 @@ package org.example.command;
 import org.example.dataLoader.DAO;
 
 /**
- * Klasse zur Implementierung des Befehls "Report"
+ * Klasse zur Implementierung des Befehls "Report". Für einen unbekannten Indikator ist das Ergebnis
+ * {@link #isNegativeResult() negativ}.
  */
 public class ReportCommand extends Command {
     public ReportCommand(String[] argument) {
         super(argument);
         cacheable = true;
+        type = CommandType.REPORT;
     }
 
     @Override
     public String execute() {
         DAO dao = DAO.getDao();
         if (arguments.length == 2) {
-            return dao.report(arguments[1]);
+            String result = dao.report(arguments[1]);
+            negativeResult = DAO.isNegativeResult(result);
+            return result;
         }
         return " Bad arguments";
     }
@@ -14,6 +14,7 @@ public class ServerStatusCommand extends Command {
     public ServerStatusCommand(String[] argument, ServerRemote server) {
         super(argument);
         this.server = server;
+        type = CommandType.ADMIN;
     }
 
     @Override
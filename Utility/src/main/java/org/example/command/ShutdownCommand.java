@@ -13,6 +13,7 @@ public class ShutdownCommand extends Command {
     public ShutdownCommand(String[] argument, ServerRemote server) {
         super(argument);
         this.server = server;
+        type = CommandType.ADMIN;
     }
 
     @Override
@@ -0,0 +1,18 @@
+package org.example.command;
+
+import java.util.function.Consumer;
+
+/**
+ * Command, dessen Ergebnis zeilenweise erzeugt und übertragen werden kann, ohne es vorher als Ganzes aufzubauen.
+ * Der Server schreibt die Zeilen in Blöcken auf den Socket, sobald sie berechnet sind. {@link Command#execute()}
+ * liefert weiterhin das ganze Ergebnis für Wege, die nur eine Antwortzeile kennen (z.B. Pipelining).
+ */
+public interface StreamingCommand {
+    /**
+     * Erzeugt das Ergebnis Zeile für Zeile. Die übergebene Zeile ist nur während des Aufrufs gültig, der Empfänger
+     * muss sie also kopieren oder sofort schreiben.
+     *
+     * @param lineSink Empfänger der Zeilen (ohne Zeilenumbruch)
+     */
+    void stream(Consumer<CharSequence> lineSink);
+}
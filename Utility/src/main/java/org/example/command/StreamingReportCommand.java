@@ -0,0 +1,34 @@
+package org.example.command;
+
+import org.example.dataLoader.DAO;
+
+import java.util.function.Consumer;
+
+/**
+ * Klasse zur Implementierung des Befehls "Report" mit gestreamter Antwort ("rs;Indikator").
+ * Die erste Zeile enthält den Indikator, danach folgt eine Zeile "countryCode;meanValue" pro Land. Die Zeilen
+ * werden geschrieben, während der Bericht berechnet wird, und nicht im Cache gespeichert.
+ */
+public class StreamingReportCommand extends ReportCommand implements StreamingCommand {
+    public StreamingReportCommand(String[] argument) {
+        super(argument);
+        // der Bericht wird nicht als String aufgebaut, es gibt also nichts zu cachen
+        cacheable = false;
+    }
+
+    @Override
+    public void stream(Consumer<CharSequence> lineSink) {
+        if (arguments.length != 2) {
+            lineSink.accept(" Bad arguments");
+            return;
+        }
+        lineSink.accept(arguments[1]);
+        // eine Zeile wird für alle Länder wiederverwendet
+        StringBuilder row = new StringBuilder(64);
+        DAO.getDao().report(arguments[1], (countryCode, mean) -> {
+            row.setLength(0);
+            row.append(countryCode).append(';').append(mean);
+            lineSink.accept(row);
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.command;
+
+import org.example.dataLoader.DAO;
+
+/**
+ * Klasse zur Implementierung des Befehls "Version": gibt die Version (ETag) des Datensatzes zurück, mit der Clients
+ * zwischengespeicherte Ergebnisse prüfen.
+ * <p>
+ * Format: "v" liefert die aktuelle Version. "v;Version" liefert {@link #NOT_MODIFIED}, wenn die Version noch gilt,
+ * sonst die neue Version. Die Version ändert sich nur mit dem Datensatz, siehe {@link DAO#getVersion()}.
+ */
+public class VersionCommand extends Command {
+    public static final String NOT_MODIFIED = "Not modified";
+
+    public VersionCommand(String[] argument) {
+        super(argument);
+    }
+
+    @Override
+    public String execute() {
+        String version = DAO.getDao().getVersion();
+        if (arguments.length == 2 && arguments[1].equals(version)) return NOT_MODIFIED;
+        return version;
+    }
+}
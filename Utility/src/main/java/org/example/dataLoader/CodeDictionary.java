@@ -0,0 +1,69 @@
+package org.example.dataLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wörterbuch, das Codes (z.B. Länder- oder Indikator-Codes) auf fortlaufende Integer-IDs abbildet.
+ * Die IDs entsprechen der Reihenfolge, in der die Codes zum ersten Mal eingefügt wurden.
+ */
+public class CodeDictionary {
+    private final Map<String, Integer> ids;
+    private final List<String> codes;
+
+    public CodeDictionary() {
+        ids = new HashMap<>();
+        codes = new ArrayList<>();
+    }
+
+    /**
+     * Gibt die ID eines Codes zurück und fügt ihn hinzu, falls er noch nicht vorhanden ist.
+     *
+     * @param code Der Code
+     * @return ID des Codes
+     */
+    public int intern(String code) {
+        Integer id = ids.get(code);
+        if (id != null) return id;
+        ids.put(code, codes.size());
+        codes.add(code);
+        return codes.size() - 1;
+    }
+
+    /**
+     * Gibt die ID eines Codes zurück.
+     *
+     * @param code Der Code
+     * @return ID des Codes oder -1, wenn der Code unbekannt ist
+     */
+    public int getId(String code) {
+        Integer id = ids.get(code);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gibt den Code zu einer ID zurück.
+     *
+     * @param id ID des Codes
+     * @return Der Code
+     */
+    public String getCode(int id) {
+        return codes.get(id);
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * Gibt alle Codes in der Reihenfolge ihrer IDs zurück.
+     *
+     * @return Nicht veränderbare Liste der Codes
+     */
+    public List<String> getCodes() {
+        return Collections.unmodifiableList(codes);
+    }
+}
@@ -2,5 +2,9 @@ package org.example.dataLoader;
 
 public class Config {
     public static final String DATASET_PATH = "data/WDICSV.csv";
+    // binäre Kopie des Datensatzes (siehe DatasetFile), leer zum Abschalten (-Dserver.datasetFile=)
+    public static final String DATASET_FILE = System.getProperty("server.datasetFile", "wdi.bin");
+    // alle Berichte beim Laden parallel berechnen und als fertige Strings halten (-Dserver.precomputeReports=true)
+    public static final boolean PRECOMPUTE_REPORTS = Boolean.getBoolean("server.precomputeReports");
 
 }
@@ -0,0 +1,302 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parser für die CSV-Datei des Datensatzes, der direkt auf den Bytes arbeitet (z.B. einer über
+ * {@link java.nio.channels.FileChannel#map} gelesenen Datei). Die Eingabe wird an Zeilengrenzen in Abschnitte geteilt,
+ * die parallel im {@link ForkJoinPool#commonPool()} geparst und danach in ihrer Reihenfolge in die {@link WdiTable}
+ * übernommen werden.
+ * <p>
+ * Pro Zelle wird nur in einen wiederverwendeten Puffer kopiert: Zahlen werden ohne String geparst, Codes und Namen
+ * pro Abschnitt nur einmal als String erzeugt. Nur Zahlen mit Mantissen über 2^53 oder in ungewöhnlicher Schreibweise
+ * gehen über {@link Double#parseDouble(String)}.
+ * <p>
+ * Das Ergebnis entspricht dem bisherigen zeilenweisen Parser: '"' wird entfernt, ',' trennt nur außerhalb von
+ * Anführungszeichen, eine Zelle endet mit ','; was nach dem letzten ',' einer Zeile steht, wird ignoriert. Hat eine
+ * Zeile nicht 4 + {@link WDI#YEARS} Zellen oder ist eine Zahl ungültig, endet der Datensatz vor dieser Zeile.
+ */
+final class CsvParser {
+    private static final int CELLS = 4 + WDI.YEARS;
+    // kleinere Abschnitte lohnen die Aufteilung nicht
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    // Zehnerpotenzen, die als double exakt sind
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private final ByteBuffer input;
+
+    /**
+     * @param input Die CSV-Datei, wird nur über absolute Zugriffe gelesen und nicht verändert
+     */
+    CsvParser(ByteBuffer input) {
+        this.input = input;
+    }
+
+    /**
+     * Parst alle Zeilen nach der Kopfzeile in die Tabelle.
+     *
+     * @param table Die Tabelle
+     * @return false, wenn der Datensatz vor einer ungültigen Zeile endet
+     */
+    boolean parseInto(WdiTable table) {
+        int size = input.limit() - nextLine(0);
+        return parseInto(table, (int) Math.min(ForkJoinPool.getCommonPoolParallelism() * 4L,
+                Math.max(1, size / MIN_CHUNK_BYTES)));
+    }
+
+    /**
+     * Parst alle Zeilen nach der Kopfzeile in die Tabelle.
+     *
+     * @param table  Die Tabelle
+     * @param chunks Anzahl der Abschnitte, die Grenzen werden auf das nächste Zeilenende verschoben
+     * @return false, wenn der Datensatz vor einer ungültigen Zeile endet
+     */
+    boolean parseInto(WdiTable table, int chunks) {
+        int start = nextLine(0);
+        int end = input.limit();
+        List<ChunkTask> tasks = new ArrayList<>(chunks);
+        int from = start;
+        for (int i = 1; i <= chunks && from < end; i++) {
+            int to = i == chunks ? end : nextLine(start + (int) ((long) (end - start) * i / chunks));
+            if (to > from) tasks.add(new ChunkTask(input, from, to));
+            from = to;
+        }
+        ForkJoinTask.invokeAll(tasks);
+        int rows = table.size();
+        for (ChunkTask task : tasks) {
+            rows += task.join().rows;
+        }
+        table.ensureCapacity(rows);
+        for (ChunkTask task : tasks) {
+            Chunk chunk = task.join();
+            for (int row = 0; row < chunk.rows; row++) {
+                int t = row * 4;
+                int added = table.addRow(chunk.texts[t], chunk.texts[t + 1], chunk.texts[t + 2], chunk.texts[t + 3]);
+                table.setValues(added, chunk.values, row * WDI.YEARS);
+            }
+            if (chunk.error != null) {
+                System.err.println("Dataset ends before row " + (table.size() + 1) + ": " + chunk.error);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Position nach dem nächsten Zeilenende ab position oder das Ende der Eingabe
+     */
+    private int nextLine(int position) {
+        int end = input.limit();
+        while (position < end && input.get(position) != '\n') position++;
+        return Math.min(position + 1, end);
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+        // wird nie serialisiert, nur zwischen Threads des Pools übergeben
+        private final transient ByteBuffer input;
+        private final int from;
+        private final int to;
+
+        ChunkTask(ByteBuffer input, int from, int to) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            Chunk chunk = new Chunk((to - from) / 256 + 16);
+            Strings strings = new Strings();
+            byte[] cell = new byte[256];
+            String[] texts = new String[4];
+            double[] values = new double[WDI.YEARS];
+            int position = from;
+            while (position < to) {
+                int cells = 0;
+                int length = 0;
+                boolean quoted = false;
+                String error = null;
+                for (; position < to; position++) {
+                    byte b = input.get(position);
+                    if (b == '\n' || b == '\r') {
+                        if (b == '\r' && position + 1 < to && input.get(position + 1) == '\n') position++;
+                        position++;
+                        break;
+                    }
+                    if (b == '"') {
+                        quoted = !quoted;
+                    } else if (b == ',' && !quoted) {
+                        if (error == null) {
+                            if (cells < 4) {
+                                texts[cells] = strings.get(cell, length);
+                            } else if (cells < CELLS) {
+                                try {
+                                    values[cells - 4] = parseNumber(cell, length);
+                                } catch (NumberFormatException e) {
+                                    error = e.toString();
+                                }
+                            }
+                        }
+                        cells++;
+                        length = 0;
+                    } else {
+                        if (length == cell.length) cell = Arrays.copyOf(cell, length * 2);
+                        cell[length++] = b;
+                    }
+                }
+                if (error == null && cells != CELLS) error = "Data length is not correct: " + cells;
+                if (error != null) {
+                    chunk.error = error;
+                    return chunk;
+                }
+                chunk.add(texts, values);
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Parst eine Zahl wie {@link Double#parseDouble(String)}, eine leere Zelle ist 0.0. Ganzzahlige Mantissen bis
+     * 2^53 mit Zehnerexponenten bis 22 werden direkt berechnet: Mantisse und Zehnerpotenz sind als double exakt, das
+     * Ergebnis einer Multiplikation oder Division also korrekt gerundet.
+     *
+     * @throws NumberFormatException wenn die Zelle keine Zahl ist
+     */
+    static double parseNumber(byte[] cell, int length) {
+        int from = 0;
+        int to = length;
+        while (from < to && cell[from] <= ' ') from++;
+        while (to > from && cell[to - 1] <= ' ') to--;
+        if (from == to) return 0.0d;
+        int i = from;
+        boolean negative = cell[i] == '-';
+        if (negative || cell[i] == '+') i++;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        boolean fast = true;
+        for (; i < to; i++) {
+            byte b = cell[i];
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (mantissa > (Long.MAX_VALUE - 9) / 10) {
+                    fast = false;
+                    break;
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) exponent--;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (fast && digits > 0 && i < to && (cell[i] == 'e' || cell[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < to && cell[i] == '-';
+            if (i < to && (cell[i] == '-' || cell[i] == '+')) i++;
+            int start = i;
+            int value = 0;
+            for (; i < to && cell[i] >= '0' && cell[i] <= '9' && value < 10_000; i++) {
+                value = value * 10 + (cell[i] - '0');
+            }
+            if (i == start) fast = false;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (fast && digits > 0 && i == to && mantissa <= (1L << 53)
+                && exponent >= -22 && exponent <= 22) {
+            double value = mantissa == 0 ? 0.0d : exponent < 0
+                    ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(cell, 0, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Geparste Zeilen eines Abschnitts: 4 Strings und {@link WDI#YEARS} Werte pro Zeile.
+     */
+    private static final class Chunk {
+        private String[] texts;
+        private double[] values;
+        private int rows;
+        // Grund, warum der Abschnitt vorzeitig endet
+        private String error;
+
+        Chunk(int expectedRows) {
+            texts = new String[expectedRows * 4];
+            values = new double[expectedRows * WDI.YEARS];
+        }
+
+        void add(String[] rowTexts, double[] rowValues) {
+            if (rows * 4 == texts.length) {
+                texts = Arrays.copyOf(texts, texts.length * 2);
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            System.arraycopy(rowTexts, 0, texts, rows * 4, 4);
+            System.arraycopy(rowValues, 0, values, rows * WDI.YEARS, WDI.YEARS);
+            rows++;
+        }
+    }
+
+    /**
+     * Strings eines Abschnitts, nach ihren UTF-8-Bytes gesucht (offene Adressierung), damit jeder Code und Name nur
+     * einmal dekodiert wird.
+     */
+    private static final class Strings {
+        private byte[][] keys = new byte[256][];
+        private String[] values = new String[256];
+        private int size;
+
+        String get(byte[] bytes, int length) {
+            int mask = keys.length - 1;
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            for (int slot = (hash ^ (hash >>> 16)) & mask; ; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (key == null) {
+                    String value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                    keys[slot] = Arrays.copyOf(bytes, length);
+                    values[slot] = value;
+                    if (++size * 2 > keys.length) grow();
+                    return value;
+                }
+                if (Arrays.equals(key, 0, key.length, bytes, 0, length)) return values[slot];
+            }
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                byte[] key = oldKeys[i];
+                if (key == null) continue;
+                int hash = 1;
+                for (byte b : key) {
+                    hash = 31 * hash + b;
+                }
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (keys[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
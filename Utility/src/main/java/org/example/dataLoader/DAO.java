@@ -4,28 +4,99 @@ import org.example.wdi.WDI;
 
 import java.io.StringWriter;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.IntStream;
 
 /**
- * Klasse zur Verwaltung von Daten. Diese Klasse ist als Singleton implementiert
+ * Klasse zur Verwaltung von Daten. Diese Klasse ist als Singleton implementiert.
+ * <p>
+ * Der Datensatz liegt spaltenweise in einer {@link WdiTable}, Länder- und Indikator-Codes in deren
+ * {@link CodeDictionary}s. Beim Laden wird ein {@link RowIndex}
+ * von (Land, Indikator) auf die Zeile aufgebaut. Punktabfragen durchlaufen den Datensatz also nicht mehr, sondern
+ * kosten zwei Suchen in den Wörterbüchern und eine im Index. Für Berichte gibt es einen {@link IndicatorIndex}
+ * mit den Zeilen jedes Indikators und den beim Laden berechneten Mittelwerten. Mit
+ * {@link Config#PRECOMPUTE_REPORTS} werden zusätzlich alle Berichte beim Laden parallel formatiert.
  */
 public class DAO {
 
+    // Antworten auf gültige Anfragen, zu denen es keine Daten gibt (siehe isNegativeResult)
+    public static final String UNKNOWN_COUNTRY = "Unknown country ";
+    public static final String UNKNOWN_INDICATOR = "Unknown indicator ";
+    public static final String NO_DATA = "No data for ";
+    // der Interrupt-Status wird alle 256 Zeilen geprüft
+    private static final int CANCELLATION_CHECK_MASK = 0xFF;
     private static DAO dao;
-    private List<WDI> dataset;
+    private final WdiTable dataset;
+    private final CodeDictionary countries;
+    private final CodeDictionary indicators;
+    private final RowIndex rowIndex;
+    private final IndicatorIndex indicatorIndex;
+    // [Indikator-ID] -> fertiger Bericht, null ohne Config.PRECOMPUTE_REPORTS
+    private final String[] reports;
+    private final long fingerprint;
 
-    private DAO(String path) {
+    private static DAO load(String path) {
         DatasetLoader datasetLoader = new DatasetLoader();
-        dataset = datasetLoader.loadDataset(path);
+        long start = System.nanoTime();
+        WdiTable dataset = datasetLoader.loadTable(path);
+        System.err.println("Dataset: " + dataset.size() + " rows loaded in " + (System.nanoTime() - start) / 1_000_000
+                + " ms, " + dataset.getMemoryBytes() / 1024 + " KiB of columns.");
+        return new DAO(dataset, datasetLoader.getFingerprint());
     }
 
     /**
-     * Funktion zur Rückgabe des DAO-Objekts
+     * Baut die Indizes zu einem geladenen Datensatz auf (auch für Tests ohne CSV-Datei).
+     *
+     * @param dataset     Der Datensatz
+     * @param fingerprint Fingerabdruck des Datensatzes
+     */
+    DAO(WdiTable dataset, long fingerprint) {
+        this.dataset = dataset;
+        this.fingerprint = fingerprint;
+        countries = dataset.getCountries();
+        indicators = dataset.getIndicators();
+        long start = System.nanoTime();
+        rowIndex = new RowIndex(dataset.size());
+        for (int row = 0; row < dataset.size(); row++) {
+            rowIndex.put(dataset.getCountryId(row), dataset.getIndicatorId(row), row);
+        }
+        System.err.println("Row index: " + rowIndex.size() + " rows indexed in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms, " + rowIndex.getMemoryBytes() / 1024 + " KiB.");
+        start = System.nanoTime();
+        indicatorIndex = new IndicatorIndex(dataset);
+        System.err.println("Indicator index: " + indicators.size() + " indicators in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms, " + indicatorIndex.getMemoryBytes() / 1024
+                + " KiB.");
+        reports = Config.PRECOMPUTE_REPORTS ? precomputeReports() : null;
+    }
+
+    /**
+     * Formatiert die Berichte aller Indikatoren parallel (ForkJoinPool.commonPool()).
+     */
+    private String[] precomputeReports() {
+        long start = System.nanoTime();
+        String[] all = new String[indicators.size()];
+        IntStream.range(0, all.length).parallel().forEach(id -> all[id] = formatReport(indicators.getCode(id)));
+        long bytes = 0;
+        for (String report : all) {
+            // ASCII, also ein Byte pro Zeichen (kompakte Strings), dazu String und Array
+            bytes += report.length() + 56;
+        }
+        System.err.println("Reports precomputed: " + all.length + " indicators in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms, " + bytes / 1024 + " KiB.");
+        return all;
+    }
+
+    /**
+     * Funktion zur Rückgabe des DAO-Objekts. Synchronisiert, damit der Datensatz auch bei gleichzeitigen ersten
+     * Anfragen (z.B. vom Aufwärmen des Caches) nur einmal geladen wird.
      *
      * @return DAO-Objekt
      */
-    public static DAO getDao() {
+    public static synchronized DAO getDao() {
         if (dao == null) {
-            dao = new DAO(Config.DATASET_PATH);
+            dao = load(Config.DATASET_PATH);
         }
         return dao;
     }
@@ -33,36 +104,121 @@ public class DAO {
     /**
      * Funktion zur Rückgabe des Datensatzes
      *
-     * @return Liste von WDI-Objekten
+     * @return Liste von WDI-Objekten, die Sichten auf die Zeilen werden erst beim Zugriff erzeugt
      */
     public List<WDI> getDataset() {
+        return dataset.asList();
+    }
+
+    /**
+     * Gibt den spaltenweise gespeicherten Datensatz zurück.
+     *
+     * @return Die Tabelle
+     */
+    public WdiTable getTable() {
         return dataset;
     }
 
+    /**
+     * Gibt den Fingerabdruck des Datensatzes zurück. Ergebnisse, die mit demselben Fingerabdruck berechnet wurden,
+     * sind weiterhin gültig.
+     *
+     * @return Fingerabdruck, siehe {@link DatasetLoader#getFingerprint()}
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gibt die Version des Datensatzes zurück, mit der Clients ihre zwischengespeicherten Ergebnisse prüfen (ETag).
+     *
+     * @return Der {@link #getFingerprint() Fingerabdruck} hexadezimal
+     */
+    public String getVersion() {
+        return Long.toHexString(fingerprint);
+    }
+
+    /**
+     * Gibt das Wörterbuch der Länder-Codes zurück.
+     *
+     * @return Länder-Codes mit ihren IDs
+     */
+    public CodeDictionary getCountries() {
+        return countries;
+    }
+
+    /**
+     * Gibt das Wörterbuch der Indikator-Codes zurück.
+     *
+     * @return Indikator-Codes mit ihren IDs
+     */
+    public CodeDictionary getIndicators() {
+        return indicators;
+    }
+
+    /**
+     * Gibt den Index von (Land, Indikator) auf die Zeilen zurück.
+     *
+     * @return Der Index, u.a. mit seinem Speicherbedarf
+     */
+    public RowIndex getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * Gibt den Index von Indikator auf seine Zeilen mit den Kennzahlen der Zeilen zurück.
+     *
+     * @return Der Index, u.a. mit seinem Speicherbedarf
+     */
+    public IndicatorIndex getIndicatorIndex() {
+        return indicatorIndex;
+    }
+
+    /**
+     * Funktion zur Suche der Zeile zu einem Land und einem Indikator über den {@link RowIndex}
+     *
+     * @param codCountry
+     * @param codIndicator
+     * @return WDI-Objekt oder null, wenn es keine Zeile zu Land und Indikator gibt
+     */
+    public WDI find(String codCountry, String codIndicator) {
+        return find(countries.getId(codCountry), indicators.getId(codIndicator));
+    }
+
+    /**
+     * Funktion zur Suche der Zeile zu den IDs eines Landes und eines Indikators, siehe {@link #getCountries()} und
+     * {@link #getIndicators()}
+     *
+     * @param countryId   ID des Landes, negativ für unbekannt
+     * @param indicatorId ID des Indikators, negativ für unbekannt
+     * @return WDI-Objekt oder null, wenn es keine Zeile zu Land und Indikator gibt
+     */
+    public WDI find(int countryId, int indicatorId) {
+        int row = rowIndex.get(countryId, indicatorId);
+        return row < 0 ? null : dataset.getRow(row);
+    }
+
     /**
      * Funktion zur Abfrage von allen vorhandenen Daten zu einem Land und einem Indikator
      *
      * @param codCountry
      * @param codIndicator
-     * @return String mit allen Daten in Form von "Land;Indikator;Wert1;Wert2;...;Wert63"
+     * @return String mit allen Daten in Form von "Land;Indikator;Wert1;Wert2;...;Wert63" oder ein
+     * {@link #isNegativeResult(String) negatives Ergebnis}, wenn es keine Zeile zu Land und Indikator gibt
      */
     public String query(String codCountry, String codIndicator) {
-        WDI wdi = null;
-        for (WDI sample : dataset) {
-            if (sample == null) continue;
-            wdi = sample;
-            if ((wdi.getCountryCode().equals(codCountry)) && (wdi.getIndicatorCode().equals(codIndicator)))
-                break;
-        }
+        String unknown = validate(codCountry, codIndicator);
+        if (unknown != null) return unknown;
+        WDI wdi = find(codCountry, codIndicator);
+        if (wdi == null) return NO_DATA + codCountry + ";" + codIndicator;
         StringWriter writer = new StringWriter();
         writer.write(codCountry);
         writer.write(";");
         writer.write(codIndicator);
         writer.write(";");
-        Double[] years = wdi.getValues();
-        for (int i = 0; i < years.length; i++) {
-            writer.write(years[i].toString());
-            if (i < years.length - 1) {
+        for (int i = 0; i < WDI.YEARS; i++) {
+            writer.write(Double.toString(wdi.getValueAt(i)));
+            if (i < WDI.YEARS - 1) {
                 writer.write(";");
             }
         }
@@ -75,18 +231,15 @@ public class DAO {
      * @param codCountry
      * @param codIndicator
      * @param year
-     * @return String mit den Daten in Form von "Land;Indikator;Jahr;Wert"
-     * @throws Exception
+     * @return String mit den Daten in Form von "Land;Indikator;Jahr;Wert" oder ein
+     * {@link #isNegativeResult(String) negatives Ergebnis}, wenn es keine Zeile zu Land und Indikator gibt
+     * @throws IllegalArgumentException wenn es das Jahr im Datensatz nicht gibt
      */
     public String query(String codCountry, String codIndicator, short year) throws IllegalArgumentException {
-        WDI wdi = null;
-        for (WDI sample : dataset) {
-            if (sample == null) continue;
-            wdi = sample;
-            if ((wdi.getCountryCode().equals(codCountry)) && (wdi.getIndicatorCode().equals(codIndicator))) {
-                break;
-            }
-        }
+        String unknown = validate(codCountry, codIndicator);
+        if (unknown != null) return unknown;
+        WDI wdi = find(codCountry, codIndicator);
+        if (wdi == null) return NO_DATA + codCountry + ";" + codIndicator;
         StringWriter writer = new StringWriter();
         writer.write(codCountry);
         writer.write(";");
@@ -94,40 +247,80 @@ public class DAO {
         writer.write(";");
         writer.write("" + year);
         writer.write(";");
-        writer.write(wdi.getValue(year).toString());
+        writer.write(Double.toString(wdi.getValue(year)));
         return writer.toString();
     }
 
+    /**
+     * Prüft die Codes einer Anfrage über die Wörterbücher, ohne den Datensatz zu durchlaufen.
+     *
+     * @return Das negative Ergebnis für einen unbekannten Code oder null, wenn beide bekannt sind
+     */
+    private String validate(String codCountry, String codIndicator) {
+        if (countries.getId(codCountry) < 0) return UNKNOWN_COUNTRY + codCountry;
+        if (indicators.getId(codIndicator) < 0) return UNKNOWN_INDICATOR + codIndicator;
+        return null;
+    }
+
+    /**
+     * Gibt an, ob ein Ergebnis von {@link #query(String, String)} oder {@link #report(String)} ein negatives
+     * Ergebnis ist: die Anfrage war gültig, aber zu Land oder Indikator gibt es keine Daten. Solche Ergebnisse
+     * ändern sich erst mit einem neuen Datensatz und dürfen zwischengespeichert werden.
+     *
+     * @param result Das Ergebnis
+     * @return true für ein negatives Ergebnis
+     */
+    public static boolean isNegativeResult(String result) {
+        return result.startsWith(UNKNOWN_COUNTRY) || result.startsWith(UNKNOWN_INDICATOR)
+                || result.startsWith(NO_DATA);
+    }
+
     /**
      * Funktion zur Erstellung eines Berichts für mit dem Mittelwert eines Indikators für alle Länder über alle Jahre
      *
      * @param codIndicator
-     * @return String mit den Daten in Form von "codeIndicator; countryCode; meanValue"
+     * @return String mit den Daten in Form von "codeIndicator; countryCode; meanValue" oder ein
+     * {@link #isNegativeResult(String) negatives Ergebnis}, wenn der Indikator unbekannt ist
      */
     public String report(String codIndicator) {
+        int indicatorId = indicators.getId(codIndicator);
+        if (indicatorId < 0) return UNKNOWN_INDICATOR + codIndicator;
+        if (reports != null) return reports[indicatorId];
+        return formatReport(codIndicator);
+    }
 
+    private String formatReport(String codIndicator) {
         StringWriter writer = new StringWriter();
         writer.write(codIndicator);
         writer.write(";");
-        for (WDI wdi : dataset) {
-            if (wdi == null) continue;
-            if (wdi.getIndicatorCode().equals(codIndicator)) {
-                Double[] ValueOfyears = wdi.getValues();
-                // ohne stream API und mit for-loop, ist es bei serial version effizienter
-                double sum = 0;
-                int nonZeroEntry = 0;
-                for (Double value : ValueOfyears) {
-                    sum += value;
-                    if (value != 0.0d) nonZeroEntry++;
-                }
-                double mean = sum / nonZeroEntry;
-                writer.write(wdi.getCountryCode());
-                writer.write(";");
-                writer.write("" + mean);
-                writer.write(";");
+        report(codIndicator, (countryCode, mean) -> {
+            writer.write(countryCode);
+            writer.write(";");
+            writer.write("" + mean);
+            writer.write(";");
+        });
+        return writer.toString();
+    }
+
+    /**
+     * Funktion zur Berechnung des Mittelwerts eines Indikators für alle Länder über alle Jahre. Die Ergebnisse werden
+     * ohne Formatierung an den Empfänger übergeben. Der Bericht durchläuft nur die Zeilen des Indikators aus dem
+     * {@link IndicatorIndex} und liest deren beim Laden berechnete Mittelwerte. Er prüft weiterhin regelmäßig, ob der
+     * Thread unterbrochen wurde (z.B. wegen einer abgelaufenen Frist der Anfrage). Für einen unbekannten Indikator
+     * wird nichts übergeben.
+     *
+     * @param codIndicator
+     * @param rowSink      Empfänger für jedes Land: (countryCode, meanValue)
+     * @throws CancellationException wenn der Thread während des Berichts unterbrochen wird
+     */
+    public void report(String codIndicator, ObjDoubleConsumer<String> rowSink) {
+        int[] rows = indicatorIndex.getRows(indicators.getId(codIndicator));
+        for (int i = 0; i < rows.length; i++) {
+            if (((i + 1) & CANCELLATION_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Report for " + codIndicator + " cancelled");
             }
+            rowSink.accept(dataset.getCountryCode(rows[i]), indicatorIndex.getMean(rows[i]));
         }
-        return writer.toString();
     }
 
 }
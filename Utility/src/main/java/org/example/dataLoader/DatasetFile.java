@@ -0,0 +1,281 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binäre, spaltenweise Kopie des Datensatzes, damit der Server beim Start nicht die CSV-Datei parsen muss. Gelesen
+ * wird über {@link FileChannel#map}: die Spalten werden mit je einer Massenkopie in die Arrays der {@link WdiTable}
+ * übernommen, der Start kostet also im Wesentlichen die Seitenfehler beim Lesen der Datei.
+ * <p>
+ * Format (little-endian, damit die Kopie auf üblichen CPUs ohne Umordnen der Bytes auskommt): Kopf aus
+ * {@link #MAGIC}, {@link #VERSION}, dem Fingerabdruck des Datensatzes, Größe und Änderungszeit der CSV-Datei, der
+ * Anzahl der Zeilen, Jahre, Länder und Indikatoren. Danach Code und Name jedes Landes und jedes Indikators als
+ * UTF-8-Bytes, aufgefüllt auf 8 Bytes, dann die Spalten Länder-ID und Indikator-ID (int) und die Werte (double, ein
+ * Block von {@link WDI#YEARS} pro Zeile). Am Ende eine Prüfsumme (CRC32C) über alle Bytes davor.
+ * <p>
+ * Eine Datei mit anderer Version, anderer Anzahl an Jahren, falscher Prüfsumme oder zu einer geänderten CSV-Datei
+ * wird verworfen, es wird dann wie bisher die CSV-Datei geladen. Lassen sich Größe und Änderungszeit der CSV-Datei
+ * nicht bestimmen, gilt jede Datei als veraltet. Geschrieben wird in eine eigene temporäre Datei pro Aufruf, die danach
+ * die alte ersetzt; mehrere Prozesse oder Threads, die gleichzeitig schreiben, stören sich also nicht. Mit
+ * {@link #main(String[])} lässt sich die Datei auch vorab erzeugen.
+ */
+public final class DatasetFile {
+    static final int MAGIC = 0x57444942; // "WDIB"
+    // erhöhen, wenn sich das Format ändert
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 3 * Long.BYTES + 4 * Integer.BYTES;
+    private final Path file;
+    private long fingerprint;
+
+    /**
+     * @param file Pfad der Datei
+     */
+    public DatasetFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Erzeugt die Datei aus der CSV-Datei.
+     *
+     * @param args optional Pfad der CSV-Datei im Klassenpfad und Pfad der Datei, sonst die Werte aus {@link Config}
+     */
+    public static void main(String[] args) throws IOException {
+        String csv = args.length > 0 ? args[0] : Config.DATASET_PATH;
+        String target = args.length > 1 ? args[1] : Config.DATASET_FILE;
+        DatasetLoader loader = new DatasetLoader();
+        long start = System.nanoTime();
+        WdiTable table = loader.loadCsv(csv);
+        long loaded = System.nanoTime();
+        long[] source = loader.getSource(csv);
+        if (!loader.isComplete() || !isKnown(source)) {
+            String reason = loader.isComplete() ? " cannot be identified" : " is incomplete";
+            throw new IOException("CSV file " + csv + reason + ", dataset file not written");
+        }
+        DatasetFile datasetFile = new DatasetFile(Paths.get(target));
+        long bytes = datasetFile.write(table, loader.getFingerprint(), source);
+        System.err.println("Dataset file " + target + ": " + table.size() + " rows, " + bytes / 1024
+                + " KiB, CSV parsed in " + (loaded - start) / 1_000_000 + " ms, written in "
+                + (System.nanoTime() - loaded) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Schreibt die Tabelle in die Datei.
+     *
+     * @param table       Die Tabelle
+     * @param fingerprint Fingerabdruck des Datensatzes, siehe {@link DatasetLoader#getFingerprint()}
+     * @param source      Größe und Änderungszeit der CSV-Datei, siehe {@link DatasetLoader#getSource(String)}
+     * @return Größe der Datei in Bytes
+     * @throws IOException wenn die Datei nicht geschrieben werden konnte oder die CSV-Datei unbekannt ist
+     */
+    public long write(WdiTable table, long fingerprint, long[] source) throws IOException {
+        if (!isKnown(source)) throw new IOException("Unknown CSV file, the dataset file could never be read");
+        int rows = table.size();
+        CodeDictionary countries = table.getCountries();
+        CodeDictionary indicators = table.getIndicators();
+        List<byte[]> strings = new ArrayList<>();
+        for (int id = 0; id < countries.size(); id++) {
+            strings.add(countries.getCode(id).getBytes(StandardCharsets.UTF_8));
+            strings.add(table.getCountryName(id).getBytes(StandardCharsets.UTF_8));
+        }
+        for (int id = 0; id < indicators.size(); id++) {
+            strings.add(indicators.getCode(id).getBytes(StandardCharsets.UTF_8));
+            strings.add(table.getIndicatorName(id).getBytes(StandardCharsets.UTF_8));
+        }
+        long size = HEADER_SIZE;
+        for (byte[] string : strings) {
+            size += Short.BYTES + string.length;
+        }
+        size = align(size);
+        long columnsAt = size;
+        size += (long) rows * 2 * Integer.BYTES + (long) rows * WDI.YEARS * Double.BYTES + Integer.BYTES;
+        if (size > Integer.MAX_VALUE) throw new IOException("Dataset too large for one file mapping: " + size);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        // eindeutiger Name: eine gemeinsame temporäre Datei würde von einem zweiten Schreiber unter der Abbildung des
+        // ersten gekürzt (SIGBUS oder eine kaputte Datei, die danach verschoben wird)
+        Path temp = Files.createTempFile(directory, file.getFileName() + ".", ".tmp");
+        try {
+            writeTo(temp, size, columnsAt, table, fingerprint, source, strings);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return size;
+    }
+
+    private static void writeTo(Path temp, long size, long columnsAt, WdiTable table, long fingerprint, long[] source,
+                                List<byte[]> strings) throws IOException {
+        int rows = table.size();
+        CodeDictionary countries = table.getCountries();
+        CodeDictionary indicators = table.getIndicators();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putLong(fingerprint);
+            buffer.putLong(source[0]);
+            buffer.putLong(source[1]);
+            buffer.putInt(rows);
+            buffer.putInt(WDI.YEARS);
+            buffer.putInt(countries.size());
+            buffer.putInt(indicators.size());
+            for (byte[] string : strings) {
+                if (string.length > 0xFFFF) throw new IOException("Name too long: " + string.length + " bytes");
+                buffer.putShort((short) string.length);
+                buffer.put(string);
+            }
+            buffer.position((int) columnsAt);
+            buffer.asIntBuffer().put(table.countryIdColumn(), 0, rows);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asIntBuffer().put(table.indicatorIdColumn(), 0, rows);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asDoubleBuffer().put(table.valueColumn(), 0, rows * WDI.YEARS);
+            int checksumAt = (int) size - Integer.BYTES;
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice(0, checksumAt));
+            buffer.putInt(checksumAt, (int) checksum.getValue());
+            buffer.force();
+        }
+    }
+
+    /**
+     * Liest die Tabelle aus der Datei, wenn sie zur CSV-Datei passt.
+     *
+     * @param source Größe und Änderungszeit der CSV-Datei, siehe {@link DatasetLoader#getSource(String)}
+     * @return Die Tabelle oder null, wenn es keine passende, gültige Datei gibt
+     * @throws IOException wenn die Datei nicht gelesen werden konnte
+     */
+    public WdiTable read(long[] source) throws IOException {
+        if (!isKnown(source)) {
+            System.err.println("Dataset file " + file + " cannot be checked against an unknown CSV file, ignored.");
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Integer.BYTES || size > Integer.MAX_VALUE) {
+                System.err.println("Dataset file " + file + " has an invalid size, discarded.");
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            System.err.println("Dataset file " + file + " has an unknown format, discarded.");
+            return null;
+        }
+        long storedFingerprint = buffer.getLong();
+        if (buffer.getLong() != source[0] || buffer.getLong() != source[1]) {
+            System.err.println("Dataset file " + file + " belongs to another CSV file, discarded.");
+            return null;
+        }
+        int checksumAt = buffer.limit() - Integer.BYTES;
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(0, checksumAt));
+        if ((int) checksum.getValue() != buffer.getInt(checksumAt)) {
+            System.err.println("Dataset file " + file + " is corrupt, discarded.");
+            return null;
+        }
+        try {
+            int rows = buffer.getInt();
+            if (buffer.getInt() != WDI.YEARS) {
+                System.err.println("Dataset file " + file + " has another number of years, discarded.");
+                return null;
+            }
+            int countryCount = buffer.getInt();
+            int indicatorCount = buffer.getInt();
+            List<String> countryCodes = new ArrayList<>(countryCount);
+            List<String> countryNames = new ArrayList<>(countryCount);
+            for (int id = 0; id < countryCount; id++) {
+                countryCodes.add(readString(buffer));
+                countryNames.add(readString(buffer));
+            }
+            List<String> indicatorCodes = new ArrayList<>(indicatorCount);
+            List<String> indicatorNames = new ArrayList<>(indicatorCount);
+            for (int id = 0; id < indicatorCount; id++) {
+                indicatorCodes.add(readString(buffer));
+                indicatorNames.add(readString(buffer));
+            }
+            buffer.position((int) align(buffer.position()));
+            int[] countryIds = new int[rows];
+            int[] indicatorIds = new int[rows];
+            double[] values = new double[rows * WDI.YEARS];
+            buffer.asIntBuffer().get(countryIds);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asIntBuffer().get(indicatorIds);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asDoubleBuffer().get(values);
+            if (buffer.position() + values.length * Double.BYTES != checksumAt) {
+                System.err.println("Dataset file " + file + " has an invalid size, discarded.");
+                return null;
+            }
+            fingerprint = storedFingerprint;
+            return new WdiTable(countryCodes, countryNames, indicatorCodes, indicatorNames, countryIds,
+                    indicatorIds, values);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            // Prüfsumme stimmt, aber das Format nicht: nur möglich bei einem Fehler im Schreiben
+            System.err.println("Dataset file " + file + " could not be parsed: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Gibt den Fingerabdruck des zuletzt gelesenen Datensatzes zurück.
+     *
+     * @return Der beim Schreiben übergebene Fingerabdruck
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Prüft, ob Größe und Änderungszeit der CSV-Datei bekannt sind. Nur dann lässt sich erkennen, ob eine Datei noch
+     * zur CSV-Datei passt.
+     *
+     * @param source Größe und Änderungszeit, siehe {@link DatasetLoader#getSource(String)}
+     * @return false, wenn einer der Werte unbekannt ist
+     */
+    public static boolean isKnown(long[] source) {
+        return source[0] >= 0 && source[1] > 0;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long align(long position) {
+        return (position + Double.BYTES - 1) & -Double.BYTES;
+    }
+}
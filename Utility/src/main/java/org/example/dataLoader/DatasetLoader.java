@@ -3,45 +3,205 @@ package org.example.dataLoader;
 import org.example.wdi.WDI;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
 
 /**
- * Klasse zum Laden von Datensätzen
+ * Klasse zum Laden von Datensätzen in eine {@link WdiTable}. Beim Laden wird ein Fingerabdruck der Datei berechnet,
+ * an dem sich erkennen lässt, ob zwei Läufe denselben Datensatz verwenden (z.B. für den Snapshot des Caches).
+ * <p>
+ * Gibt es eine passende {@link DatasetFile} ({@link Config#DATASET_FILE}), wird sie statt der CSV-Datei gelesen.
+ * Sonst wird die CSV-Datei mit dem {@link CsvParser} parallel geparst und die Datei für den nächsten Start
+ * geschrieben.
  */
 public class DatasetLoader {
+    private long fingerprint;
+    // ob der zuletzt geladene Datensatz ohne Fehler bis zum Ende gelesen wurde
+    private boolean complete;
 
+    /**
+     * Funktion zum Laden von einem Datensatz, aus der {@link DatasetFile}, wenn sie zur CSV-Datei passt
+     *
+     * @param path Pfad zu der CSV-Datei
+     * @return Die Zeilen spaltenweise gespeichert
+     */
+    public WdiTable loadTable(String path) {
+        if (Config.DATASET_FILE.isEmpty()) return loadCsv(path);
+        DatasetFile datasetFile = new DatasetFile(Paths.get(Config.DATASET_FILE));
+        long[] source = getSource(path);
+        try {
+            WdiTable table = datasetFile.read(source);
+            if (table != null) {
+                fingerprint = datasetFile.getFingerprint();
+                System.err.println("Dataset loaded from " + datasetFile.getFile() + ".");
+                return table;
+            }
+        } catch (IOException e) {
+            System.err.println("Dataset file " + datasetFile.getFile() + " could not be read: " + e);
+        }
+        WdiTable table = loadCsv(path);
+        // ein unvollständiger Datensatz würde sonst bei jedem weiteren Start ohne Fehler geladen
+        if (!complete || !DatasetFile.isKnown(source)) {
+            System.err.println("Dataset file " + datasetFile.getFile() + " not written, the CSV file "
+                    + (complete ? "cannot be identified." : "was not loaded completely."));
+            return table;
+        }
+        try {
+            datasetFile.write(table, fingerprint, source);
+            System.err.println("Dataset file " + datasetFile.getFile() + " written.");
+        } catch (IOException e) {
+            System.err.println("Dataset file " + datasetFile.getFile() + " could not be written: " + e);
+        }
+        return table;
+    }
 
     /**
-     * Funktion zum Laden von einem Datensatz
+     * Lädt den Datensatz aus der CSV-Datei mit dem parallelen {@link CsvParser}. Liegt die Datei im Dateisystem,
+     * wird sie über {@link FileChannel#map} gelesen, sonst (z.B. in einem JAR) als Ganzes in den Speicher.
      *
      * @param path Pfad zu der CSV-Datei
-     * @return Liste von WDI-Objekten
+     * @return Die Zeilen spaltenweise gespeichert
      */
-    public List<WDI> loadDataset(String path) {
-        List<WDI> dataSet = new ArrayList<>();
-        Path file = Paths.get(path);
+    public WdiTable loadCsv(String path) {
+        WdiTable table = new WdiTable(1024);
+        CRC32C checksum = new CRC32C();
+        complete = false;
+        try {
+            ByteBuffer input = readCsv(path);
+            if (input == null) return loadCsvLines(path);
+            checksum.update(input.duplicate());
+            complete = new CsvParser(input).parseInto(table);
+        } catch (IOException | URISyntaxException e) {
+            e.printStackTrace();
+        }
+        table.trimToSize();
+        // Prüfsumme aller gelesenen Bytes und Anzahl der Zeilen
+        fingerprint = ((long) table.size() << 32) | checksum.getValue();
+        return table;
+    }
 
-        try (InputStream inStream = getClass().getClassLoader().getResourceAsStream(path);
+    /**
+     * @return Der Inhalt der CSV-Datei oder null, wenn sie für eine Abbildung zu groß ist
+     */
+    private ByteBuffer readCsv(String path) throws IOException, URISyntaxException {
+        URL url = getClass().getClassLoader().getResource(path);
+        if (url == null) throw new IOException("Dataset " + path + " not found");
+        if (!url.getProtocol().equals("file")) {
+            try (InputStream inStream = url.openStream()) {
+                return ByteBuffer.wrap(inStream.readAllBytes());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) return null;
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Lädt den Datensatz zeilenweise über einen {@link BufferedReader} (bisheriger Parser). Wird nur noch für
+     * Dateien über 2 GiB und zum Vergleich im Benchmark verwendet.
+     *
+     * @param path Pfad zu der CSV-Datei
+     * @return Die Zeilen spaltenweise gespeichert
+     */
+    public WdiTable loadCsvLines(String path) {
+        WdiTable table = new WdiTable(1024);
+
+        CRC32C checksum = new CRC32C();
+        complete = false;
+        try (InputStream inStream = new CheckedInputStream(getClass().getClassLoader().getResourceAsStream(path),
+                checksum);
              BufferedReader reader =
                      new BufferedReader(new InputStreamReader(inStream))) {
             String line = null;
             //skip first line with column names
             line = reader.readLine();
             while ((line = reader.readLine()) != null) {
-                String[] data = parse(line);
-                WDI dataObject = new WDI();
-                dataObject.setData(data);
-                dataSet.add(dataObject);
+                addRow(table, parse(line));
             }
+            complete = true;
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return dataSet;
+        table.trimToSize();
+        // Prüfsumme aller gelesenen Bytes und Anzahl der Zeilen
+        fingerprint = ((long) table.size() << 32) | checksum.getValue();
+        return table;
+    }
+
+    /**
+     * Gibt Größe und Änderungszeit der CSV-Datei zurück, ohne sie zu lesen. Daran erkennt eine {@link DatasetFile},
+     * ob sie noch zur CSV-Datei passt.
+     *
+     * @param path Pfad zu der CSV-Datei
+     * @return {Größe in Bytes, Änderungszeit in ms}, -1 wenn unbekannt
+     */
+    public long[] getSource(String path) {
+        URL url = getClass().getClassLoader().getResource(path);
+        if (url == null) return new long[]{-1, -1};
+        try {
+            if (url.getProtocol().equals("file")) {
+                // ohne URLConnection, deren Klassen beim Start allein über 100 ms laden
+                Path file = Paths.get(url.toURI());
+                return new long[]{Files.size(file), Files.getLastModifiedTime(file).toMillis()};
+            }
+            URLConnection connection = url.openConnection();
+            long[] source = {connection.getContentLengthLong(), connection.getLastModified()};
+            connection.getInputStream().close();
+            return source;
+        } catch (IOException | URISyntaxException e) {
+            return new long[]{-1, -1};
+        }
+    }
+
+    /**
+     * Fügt die Zellen einer Zeile in die Tabelle ein: Land, Code, Indikator, Code, danach ein Wert pro Jahr.
+     * Leere Zellen sind fehlende Werte (0.0).
+     *
+     * @throws Exception wenn die Zeile nicht die erwartete Anzahl an Zellen hat
+     */
+    private void addRow(WdiTable table, String[] data) throws Exception {
+        if (data.length != 4 + WDI.YEARS) {
+            throw new Exception("Data length is not correct: " + data.length);
+        }
+        int row = table.addRow(data[0], data[1], data[2], data[3]);
+        for (int i = 0; i < WDI.YEARS; i++) {
+            String cell = data[4 + i];
+            if (!cell.isBlank()) table.setValue(row, i, Double.parseDouble(cell));
+        }
+    }
+
+    /**
+     * Gibt den Fingerabdruck des zuletzt geladenen Datensatzes zurück.
+     *
+     * @return Fingerabdruck aus Prüfsumme (CRC32C) und Anzahl der Zeilen
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gibt zurück, ob der zuletzt geladene Datensatz vollständig ist. Nach einem Lesefehler oder einer ungültigen
+     * Zeile enthält die Tabelle nur die Zeilen davor.
+     *
+     * @return true, wenn die CSV-Datei ohne Fehler bis zum Ende gelesen wurde
+     */
+    public boolean isComplete() {
+        return complete;
     }
 
     /**
@@ -0,0 +1,97 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+
+/**
+ * Invertierter Index von Indikator auf seine Zeilen im Datensatz, zusammen mit den Kennzahlen jeder Zeile, die beim
+ * Laden einmal berechnet werden: Summe, Anzahl der vorhandenen Werte und Mittelwert über alle Jahre. Ein Bericht
+ * durchläuft damit nur noch die Zeilen eines Indikators und liest fertige Mittelwerte.
+ * <p>
+ * Die Zeilen eines Indikators stehen in der Reihenfolge des Datensatzes in einem int-Array, die Kennzahlen in
+ * parallelen primitiven Arrays pro Zeile. Berechnet werden sie in einem Durchlauf über das zusammenhängende Array der
+ * {@link WdiTable}. Fehlende Werte sind im Datensatz 0.0 und zählen wie bisher nicht mit.
+ * Wird nur beim Laden geschrieben, ist also ohne Sperre threadsicher.
+ */
+public final class IndicatorIndex {
+    private static final int[] NO_ROWS = new int[0];
+    // [Indikator-ID] -> Zeilen
+    private final int[][] rowsByIndicator;
+    // [Zeile]
+    private final double[] sums;
+    private final int[] counts;
+    private final double[] means;
+
+    /**
+     * @param dataset Der Datensatz
+     */
+    public IndicatorIndex(WdiTable dataset) {
+        int indicatorCount = dataset.getIndicators().size();
+        int[] sizes = new int[indicatorCount];
+        for (int row = 0; row < dataset.size(); row++) {
+            sizes[dataset.getIndicatorId(row)]++;
+        }
+        rowsByIndicator = new int[indicatorCount][];
+        for (int id = 0; id < indicatorCount; id++) {
+            rowsByIndicator[id] = new int[sizes[id]];
+        }
+        int[] filled = new int[indicatorCount];
+        sums = new double[dataset.size()];
+        counts = new int[dataset.size()];
+        means = new double[dataset.size()];
+        for (int row = 0; row < dataset.size(); row++) {
+            int id = dataset.getIndicatorId(row);
+            rowsByIndicator[id][filled[id]++] = row;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < WDI.YEARS; i++) {
+                double value = dataset.getValue(row, i);
+                sum += value;
+                if (value != 0.0d) count++;
+            }
+            sums[row] = sum;
+            counts[row] = count;
+            // ohne vorhandene Werte NaN, wie bisher
+            means[row] = sum / count;
+        }
+    }
+
+    /**
+     * Gibt die Zeilen eines Indikators zurück. Das Array darf nicht verändert werden.
+     *
+     * @param indicatorId ID des Indikators, negativ für unbekannt
+     * @return Zeilen in der Reihenfolge des Datensatzes, leer für einen unbekannten Indikator
+     */
+    public int[] getRows(int indicatorId) {
+        if (indicatorId < 0 || indicatorId >= rowsByIndicator.length) return NO_ROWS;
+        return rowsByIndicator[indicatorId];
+    }
+
+    public double getSum(int row) {
+        return sums[row];
+    }
+
+    /**
+     * @param row Zeile
+     * @return Anzahl der vorhandenen (von 0 verschiedenen) Werte
+     */
+    public int getCount(int row) {
+        return counts[row];
+    }
+
+    public double getMean(int row) {
+        return means[row];
+    }
+
+    /**
+     * Gibt den Speicher der Arrays zurück.
+     *
+     * @return Größe in Bytes (ohne Objekt-Header)
+     */
+    public long getMemoryBytes() {
+        long bytes = (long) sums.length * (2 * Double.BYTES + Integer.BYTES);
+        for (int[] rows : rowsByIndicator) {
+            bytes += (long) rows.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+}
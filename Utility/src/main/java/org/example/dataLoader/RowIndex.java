@@ -0,0 +1,94 @@
+package org.example.dataLoader;
+
+import java.util.Arrays;
+
+/**
+ * Index von (Land, Indikator) auf die Zeile im Datensatz. Die Codes werden als IDs aus einem {@link CodeDictionary}
+ * übergeben und zu einem long-Schlüssel zusammengesetzt. Gespeichert wird in zwei primitiven Arrays mit offener
+ * Adressierung (lineares Sondieren), es gibt also weder Boxing noch ein Objekt pro Eintrag: ca. 24 Bytes pro Zeile
+ * bei höchstens halb gefüllter Tabelle.
+ * <p>
+ * Wird beim Laden einmal aufgebaut und danach nur gelesen, ist also ohne Sperre threadsicher.
+ */
+public final class RowIndex {
+    private static final long EMPTY = -1L;
+    private final long[] keys;
+    private final int[] rows;
+    private final int mask;
+    private int size;
+
+    /**
+     * @param expectedSize erwartete Anzahl der Einträge
+     */
+    public RowIndex(int expectedSize) {
+        // Füllgrad höchstens 50 %, damit Sondierungsketten kurz bleiben
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        rows = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Fügt eine Zeile ein. Gibt es für Land und Indikator bereits eine Zeile, bleibt die erste erhalten (wie bei
+     * einer Suche in der Reihenfolge des Datensatzes).
+     *
+     * @param countryId   ID des Landes (nicht negativ)
+     * @param indicatorId ID des Indikators (nicht negativ)
+     * @param row         Index der Zeile im Datensatz
+     * @return false, wenn es bereits eine Zeile gab
+     */
+    public boolean put(int countryId, int indicatorId, int row) {
+        long key = key(countryId, indicatorId);
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) return false;
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                rows[i] = row;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sucht die Zeile zu Land und Indikator.
+     *
+     * @param countryId   ID des Landes, negativ für unbekannt
+     * @param indicatorId ID des Indikators, negativ für unbekannt
+     * @return Index der Zeile oder -1
+     */
+    public int get(int countryId, int indicatorId) {
+        if (countryId < 0 || indicatorId < 0) return -1;
+        long key = key(countryId, indicatorId);
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) return rows[i];
+            if (keys[i] == EMPTY) return -1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gibt den Speicher der beiden Arrays zurück.
+     *
+     * @return Größe in Bytes
+     */
+    public long getMemoryBytes() {
+        return (long) keys.length * Long.BYTES + (long) rows.length * Integer.BYTES;
+    }
+
+    private static long key(int countryId, int indicatorId) {
+        return ((long) countryId << 32) | indicatorId;
+    }
+
+    /**
+     * Verteilt die Schlüssel über die Tabelle: aufeinanderfolgende IDs würden sonst in benachbarten Slots landen.
+     */
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Spaltenweise Speicherung des Datensatzes. Statt eines Objekts mit {@code Double[]} pro Zeile liegen die Werte
+ * aller Zeilen hintereinander in einem double-Array mit festem Abstand {@link WDI#YEARS}, Land und Indikator als IDs
+ * zweier {@link CodeDictionary}s in int-Arrays. Namen werden einmal pro Code gespeichert. Pro Zeile bleiben so
+ * 63 * 8 + 2 * 4 Bytes ohne Objekte, ein Durchlauf über die Werte liest zusammenhängenden Speicher.
+ * <p>
+ * {@link WDI} ist nur noch eine Sicht auf eine Zeile, {@link #asList()} erzeugt sie erst beim Zugriff. Die Tabelle
+ * wird beim Laden gefüllt und danach nur gelesen.
+ */
+public final class WdiTable {
+    private final CodeDictionary countries;
+    private final CodeDictionary indicators;
+    // [ID] -> Name, der erste Name, der zum Code gelesen wurde
+    private final List<String> countryNames;
+    private final List<String> indicatorNames;
+    private double[] values;
+    private int[] countryIds;
+    private int[] indicatorIds;
+    private int size;
+
+    /**
+     * @param expectedRows erwartete Anzahl der Zeilen, es wird bei Bedarf vergrößert
+     */
+    public WdiTable(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        countries = new CodeDictionary();
+        indicators = new CodeDictionary();
+        countryNames = new ArrayList<>();
+        indicatorNames = new ArrayList<>();
+        values = new double[capacity * WDI.YEARS];
+        countryIds = new int[capacity];
+        indicatorIds = new int[capacity];
+    }
+
+    /**
+     * Erzeugt eine Tabelle aus fertigen Spalten, z.B. aus einer {@link DatasetFile}. Die Arrays werden übernommen.
+     *
+     * @param countryCodes   [Länder-ID] -> Code, ohne Duplikate
+     * @param countryNames   [Länder-ID] -> Name
+     * @param indicatorCodes [Indikator-ID] -> Code, ohne Duplikate
+     * @param indicatorNames [Indikator-ID] -> Name
+     * @param countryIds     [Zeile] -> Länder-ID
+     * @param indicatorIds   [Zeile] -> Indikator-ID
+     * @param values         {@link WDI#YEARS} Werte pro Zeile
+     */
+    WdiTable(List<String> countryCodes, List<String> countryNames, List<String> indicatorCodes,
+             List<String> indicatorNames, int[] countryIds, int[] indicatorIds, double[] values) {
+        countries = new CodeDictionary();
+        indicators = new CodeDictionary();
+        for (String code : countryCodes) countries.intern(code);
+        for (String code : indicatorCodes) indicators.intern(code);
+        this.countryNames = new ArrayList<>(countryNames);
+        this.indicatorNames = new ArrayList<>(indicatorNames);
+        this.countryIds = countryIds;
+        this.indicatorIds = indicatorIds;
+        this.values = values;
+        this.size = countryIds.length;
+    }
+
+    /**
+     * Fügt eine Zeile ohne Werte (alle 0.0) hinzu, die Werte werden danach mit {@link #setValue(int, int, double)}
+     * gesetzt.
+     *
+     * @return Nummer der neuen Zeile
+     */
+    public int addRow(String countryName, String countryCode, String indicatorName, String indicatorCode) {
+        if (size == countryIds.length) grow();
+        int countryId = countries.intern(countryCode);
+        if (countryId == countryNames.size()) countryNames.add(countryName);
+        int indicatorId = indicators.intern(indicatorCode);
+        if (indicatorId == indicatorNames.size()) indicatorNames.add(indicatorName);
+        countryIds[size] = countryId;
+        indicatorIds[size] = indicatorId;
+        return size++;
+    }
+
+    /**
+     * @param row   Nummer der Zeile
+     * @param index Index des Jahres ab {@link WDI#FIRST_YEAR}
+     * @param value Der Wert, 0.0 für einen fehlenden Wert
+     */
+    public void setValue(int row, int index, double value) {
+        values[row * WDI.YEARS + index] = value;
+    }
+
+    /**
+     * Setzt alle Werte einer Zeile.
+     *
+     * @param row    Nummer der Zeile
+     * @param source Quelle mit {@link WDI#YEARS} Werten ab offset
+     * @param offset Index des ersten Werts in source
+     */
+    public void setValues(int row, double[] source, int offset) {
+        System.arraycopy(source, offset, values, row * WDI.YEARS, WDI.YEARS);
+    }
+
+    /**
+     * Vergrößert die Tabelle, sodass ohne weiteres Kopieren insgesamt rows Zeilen passen.
+     *
+     * @param rows Anzahl der Zeilen
+     */
+    public void ensureCapacity(int rows) {
+        if (rows > countryIds.length) resize(rows);
+    }
+
+    private void grow() {
+        resize(countryIds.length * 2);
+    }
+
+    private void resize(int capacity) {
+        values = Arrays.copyOf(values, capacity * WDI.YEARS);
+        countryIds = Arrays.copyOf(countryIds, capacity);
+        indicatorIds = Arrays.copyOf(indicatorIds, capacity);
+    }
+
+    /**
+     * Gibt den Speicher frei, der beim Laden auf Vorrat angelegt wurde.
+     */
+    public void trimToSize() {
+        if (size == countryIds.length) return;
+        values = Arrays.copyOf(values, size * WDI.YEARS);
+        countryIds = Arrays.copyOf(countryIds, size);
+        indicatorIds = Arrays.copyOf(indicatorIds, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CodeDictionary getCountries() {
+        return countries;
+    }
+
+    public CodeDictionary getIndicators() {
+        return indicators;
+    }
+
+    public int getCountryId(int row) {
+        return countryIds[row];
+    }
+
+    public int getIndicatorId(int row) {
+        return indicatorIds[row];
+    }
+
+    public String getCountryCode(int row) {
+        return countries.getCode(countryIds[row]);
+    }
+
+    /**
+     * @param countryId ID des Landes
+     * @return Der erste Name, der zum Code gelesen wurde
+     */
+    public String getCountryName(int countryId) {
+        return countryNames.get(countryId);
+    }
+
+    /**
+     * @param indicatorId ID des Indikators
+     * @return Der erste Name, der zum Code gelesen wurde
+     */
+    public String getIndicatorName(int indicatorId) {
+        return indicatorNames.get(indicatorId);
+    }
+
+    /**
+     * @param row   Nummer der Zeile
+     * @param index Index des Jahres ab {@link WDI#FIRST_YEAR}
+     * @return Der Wert, 0.0 wenn er fehlt
+     */
+    public double getValue(int row, int index) {
+        return values[row * WDI.YEARS + index];
+    }
+
+    /**
+     * Gibt eine Sicht auf eine Zeile zurück.
+     *
+     * @param row Nummer der Zeile
+     * @return Die Zeile
+     */
+    public WDI getRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        return new WDI(countryNames.get(countryIds[row]), countries.getCode(countryIds[row]),
+                indicatorNames.get(indicatorIds[row]), indicators.getCode(indicatorIds[row]), values,
+                row * WDI.YEARS);
+    }
+
+    /**
+     * Gibt die Zeilen als Liste zurück. Die Sichten werden erst beim Zugriff erzeugt.
+     *
+     * @return Nicht veränderbare Liste der Zeilen
+     */
+    public List<WDI> asList() {
+        return new Rows();
+    }
+
+    /**
+     * Gibt den Speicher der Spalten zurück.
+     *
+     * @return Größe in Bytes (ohne Objekt-Header und Wörterbücher)
+     */
+    public long getMemoryBytes() {
+        return (long) values.length * Double.BYTES + (long) countryIds.length * 2 * Integer.BYTES;
+    }
+
+    // Spalten für DatasetFile, nicht verändern; nach trimToSize() genau size() Zeilen
+    int[] countryIdColumn() {
+        return countryIds;
+    }
+
+    int[] indicatorIdColumn() {
+        return indicatorIds;
+    }
+
+    double[] valueColumn() {
+        return values;
+    }
+
+    private final class Rows extends AbstractList<WDI> implements RandomAccess {
+        @Override
+        public WDI get(int index) {
+            return getRow(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.server;
 
 
+import org.example.command.CacheStatistics;
+
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 
@@ -33,6 +35,13 @@ public interface ServerRemote extends Remote {
      */
     public String getState() throws RemoteException;
 
+    /**
+     * Gibt die Statistik des Server-Caches zurück (Treffer, Misses, Verdrängungen, Dauer der Ausführungen usw.).
+     *
+     * @return Momentaufnahme der Statistik
+     */
+    public CacheStatistics getCacheStatistics() throws RemoteException;
+
     /**
      * Gibt den Namen des Servers zurück
      *
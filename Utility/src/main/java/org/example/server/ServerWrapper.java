@@ -1,5 +1,7 @@
 package org.example.server;
 
+import org.example.command.CacheStatistics;
+
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 
@@ -30,6 +32,11 @@ public class ServerWrapper extends UnicastRemoteObject implements ServerRemote {
         return server.getState();
     }
 
+    @Override
+    public CacheStatistics getCacheStatistics() throws RemoteException {
+        return server.getCacheStatistics();
+    }
+
     @Override
     public String getName() throws RemoteException {
         return server.getName();
@@ -0,0 +1,150 @@
+package org.example.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCommandTest {
+
+    @Test
+    void testEscape() {
+        assertEquals("a\\|b", BatchCommand.escape("a|b"));
+        assertEquals("a\\\\b", BatchCommand.escape("a\\b"));
+        assertEquals("\\\\\\|", BatchCommand.escape("\\|"));
+        String plain = "DEU;SP.POP.TOTL;2000;82211508.0";
+        assertSame(plain, BatchCommand.escape(plain), "Ohne Sonderzeichen sollte nichts kopiert werden");
+    }
+
+    @Test
+    void testResultsInOrderWithCacheHits() {
+        // Given: die zweite Query ist im Cache
+        FakeCache cache = new FakeCache();
+        cache.put(new QueryCommand(new String[]{"q", "FRA", "X"}).getCacheKey(), "cached|FRA");
+        String[] arguments = {"b", "DEU,X", "FRA,X", "ITA,X,2000"};
+
+        // When
+        String result = new BatchCommand(arguments, cache, Runnable::run, 2).execute();
+
+        // Then
+        assertEquals("q;DEU;X|cached\\|FRA|q;ITA;X;2000", result,
+                "Die Ergebnisse sollten in der Reihenfolge der Queries stehen, '|' maskiert");
+        assertEquals(2, cache.executions.get(), "Nur die Misses sollten ausgeführt werden");
+    }
+
+    @Test
+    void testRejectingExecutorRunsQueriesInCallingThread() {
+        // Given
+        FakeCache cache = new FakeCache();
+        AtomicInteger submitted = new AtomicInteger();
+
+        // When
+        String result = new BatchCommand(batch(20), cache, task -> {
+            submitted.incrementAndGet();
+            throw new RejectedExecutionException("busy");
+        }, 4).execute();
+
+        // Then
+        assertEquals(expected(20), result, "Abgelehnte Queries sollten von der Batch selbst ausgeführt werden");
+        assertEquals(20, cache.executions.get());
+        assertTrue(submitted.get() > 0);
+    }
+
+    @Test
+    void testWindowBoundsQueriesOnTheExecutor() {
+        // Given: ein Executor, der nie etwas ausführt (alle Threads belegt)
+        FakeCache cache = new FakeCache();
+        List<Runnable> queued = new ArrayList<>();
+
+        // When
+        String result = new BatchCommand(batch(50), cache, queued::add, 3).execute();
+
+        // Then
+        assertEquals(expected(50), result, "Die Batch sollte nicht übernommene Queries selbst ausführen");
+        assertEquals(3, queued.size(), "Höchstens window Queries sollten gleichzeitig eingereiht sein");
+        queued.forEach(Runnable::run);
+        assertEquals(50, cache.executions.get(), "Bereits ausgeführte Queries sollten nicht erneut laufen");
+    }
+
+    @Test
+    void testFailedQueryDoesNotAbortTheBatch() {
+        // Given
+        FakeCache cache = new FakeCache();
+        cache.failing = "FRA";
+
+        // When
+        String result = new BatchCommand(new String[]{"b", "DEU,X", "FRA,X", "ITA,X"}, cache, Runnable::run, 2)
+                .execute();
+
+        // Then
+        assertEquals("q;DEU;X|Error|q;ITA;X", result);
+    }
+
+    @Test
+    void testBatchSize() {
+        // Given
+        FakeCache cache = new FakeCache();
+
+        // When / Then
+        assertEquals(" Bad arguments", new BatchCommand(new String[]{"b"}, cache, Runnable::run, 1).execute());
+        assertEquals("Batch exceeds " + BatchCommand.MAX_BATCH_SIZE + " queries",
+                new BatchCommand(batch(BatchCommand.MAX_BATCH_SIZE + 1), cache, Runnable::run, 1).execute());
+        assertEquals(0, cache.executions.get());
+        assertFalse(new BatchCommand(batch(1), cache, Runnable::run, 1).isCacheable(),
+                "Die Batch selbst sollte nicht gecacht werden");
+    }
+
+    private static String[] batch(int size) {
+        String[] arguments = new String[size + 1];
+        arguments[0] = "b";
+        for (int i = 1; i <= size; i++) {
+            arguments[i] = "C" + i + ",X";
+        }
+        return arguments;
+    }
+
+    private static String expected(int size) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= size; i++) {
+            if (i > 1) sb.append(BatchCommand.RESULT_SEPARATOR);
+            sb.append("q;C").append(i).append(";X");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Cache, der eine Query nicht ausführt, sondern ihre Argumente als Ergebnis liefert.
+     */
+    private static class FakeCache implements CommandCache {
+        private final Map<CacheKey, String> results = new ConcurrentHashMap<>();
+        private final AtomicInteger executions = new AtomicInteger();
+        // Land, dessen Query fehlschlägt
+        private volatile String failing;
+
+        @Override
+        public String get(CacheKey key) {
+            return results.get(key);
+        }
+
+        @Override
+        public void put(CacheKey key, String result) {
+            results.put(key, result);
+        }
+
+        @Override
+        public String getOrExecute(Command command) throws RemoteException {
+            executions.incrementAndGet();
+            if (command.arguments[1].equals(failing)) throw new RemoteException("failed");
+            String result = String.join(";", command.arguments);
+            put(command.getCacheKey(), result);
+            return result;
+        }
+    }
+}
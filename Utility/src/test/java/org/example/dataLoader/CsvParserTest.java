@@ -0,0 +1,143 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvParserTest {
+    // Zellen, wie sie in der CSV-Datei vorkommen (ohne Anführungszeichen)
+    private static final String[] NUMBERS = {
+            "", " ", "0", "-0", "12", "-12", "1.5", "-0.0938595867742349", "448940.555854", "1e3", "-2.5E-7",
+            "1.0e+22", "3E23", "4.9e-324", "1e-400", "9007199254740993", "123456789012345678901", " 7.25 ",
+            "+3.5", ".5", "5.", "1.7976931348623157E308", "0.1"};
+
+    @Test
+    void testParseNumberMatchesDoubleParseDouble() {
+        // Given
+        List<String> cells = new ArrayList<>(List.of(NUMBERS));
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            double value = switch (i % 4) {
+                case 0 -> random.nextDouble() * Math.pow(10, random.nextInt(40) - 20);
+                case 1 -> -random.nextLong() / 1000.0;
+                case 2 -> random.nextInt(1_000_000);
+                default -> Double.longBitsToDouble(random.nextLong() & 0x7FEF_FFFF_FFFF_FFFFL);
+            };
+            cells.add(Double.toString(value));
+            cells.add(String.format(Locale.ROOT, "%.6f", value));
+            cells.add(String.format(Locale.ROOT, "%.12e", value));
+        }
+
+        // When / Then
+        for (String cell : cells) {
+            byte[] bytes = cell.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(expected(cell), CsvParser.parseNumber(bytes, bytes.length),
+                    "Die Zelle '" + cell + "' sollte wie Double.parseDouble geparst werden");
+        }
+    }
+
+    @Test
+    void testInvalidNumberThrows() {
+        byte[] bytes = "12abc".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(NumberFormatException.class, () -> CsvParser.parseNumber(bytes, bytes.length));
+    }
+
+    @Test
+    void testParseIntoIsIndependentOfChunkBoundaries() {
+        // Given: Namen mit ',' und '"' in Anführungszeichen, leere Zellen, Exponenten, negative Zahlen, CRLF und LF
+        String[][] rows = sampleRows(40);
+        byte[] csv = toCsv(rows);
+
+        // When / Then: bei bis zu 60 Abschnitten liegen Grenzen auch mitten in Zellen in Anführungszeichen
+        for (int chunks = 1; chunks <= 60; chunks++) {
+            WdiTable table = new WdiTable(4);
+            assertTrue(new CsvParser(ByteBuffer.wrap(csv)).parseInto(table, chunks));
+            assertRows(rows, table, "bei " + chunks + " Abschnitten");
+        }
+    }
+
+    @Test
+    void testInvalidRowEndsDataset() {
+        // Given
+        String[][] rows = sampleRows(20);
+        byte[] valid = toCsv(rows);
+        String text = new String(valid, StandardCharsets.UTF_8);
+        // Zeile 13 (nach der Kopfzeile) wird durch eine zu kurze Zeile ersetzt
+        String[] lines = text.split("(?<=\n)");
+        lines[13] = "\"bad\",\"row\"\n";
+        byte[] csv = String.join("", lines).getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        for (int chunks = 1; chunks <= 8; chunks++) {
+            WdiTable table = new WdiTable(4);
+            assertFalse(new CsvParser(ByteBuffer.wrap(csv)).parseInto(table, chunks),
+                    "Eine ungültige Zeile sollte gemeldet werden");
+            assertEquals(12, table.size(), "Der Datensatz sollte vor der ungültigen Zeile enden");
+        }
+    }
+
+    private static String[][] sampleRows(int count) {
+        String[][] rows = new String[count][];
+        Random random = new Random(count);
+        for (int r = 0; r < count; r++) {
+            String[] row = new String[4 + WDI.YEARS + 1];
+            // pro Code immer derselbe Name (die Tabelle speichert den Namen einmal pro Code)
+            row[0] = r % 3 == 0 ? "Korea, Rep." : r % 3 == 1 ? "Côte d'Ivoire" : "Country 2";
+            row[1] = "C" + (r % 3);
+            row[2] = "Indicator, \"\"" + (r % 5) + "\"\" (% of GDP)";
+            row[3] = "IND." + (r % 5);
+            for (int i = 4; i < row.length; i++) {
+                row[i] = NUMBERS[random.nextInt(NUMBERS.length)];
+            }
+            rows[r] = row;
+        }
+        return rows;
+    }
+
+    /**
+     * Schreibt die Zeilen wie die WDI-Datei: jede Zelle in Anführungszeichen, die letzte Spalte (2023) ohne
+     * abschließendes ',', abwechselnd mit CRLF und LF.
+     */
+    private static byte[] toCsv(String[][] rows) {
+        StringBuilder sb = new StringBuilder("\"Country Name\",\"Country Code\",\"Indicator Name\",\"Indicator Code\"");
+        for (int year = WDI.FIRST_YEAR; year <= WDI.LAST_YEAR; year++) {
+            sb.append(",\"").append(year).append('"');
+        }
+        sb.append("\r\n");
+        for (int r = 0; r < rows.length; r++) {
+            for (int i = 0; i < rows[r].length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append('"').append(rows[r][i]).append('"');
+            }
+            sb.append(r % 2 == 0 ? "\r\n" : "\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void assertRows(String[][] rows, WdiTable table, String message) {
+        assertEquals(rows.length, table.size(), message);
+        for (int r = 0; r < rows.length; r++) {
+            WDI wdi = table.getRow(r);
+            assertEquals(rows[r][0], wdi.getCountryName(), message);
+            assertEquals(rows[r][1], wdi.getCountryCode(), message);
+            // "" in Anführungszeichen wird wie bisher zu nichts
+            assertEquals(rows[r][2].replace("\"", ""), wdi.getIndicatorName(), message);
+            assertEquals(rows[r][3], wdi.getIndicatorCode(), message);
+            for (int i = 0; i < WDI.YEARS; i++) {
+                assertEquals(expected(rows[r][4 + i]), wdi.getValueAt(i), message + ", Zeile " + r + ", Jahr " + i);
+            }
+        }
+    }
+
+    private static double expected(String cell) {
+        return cell.isBlank() ? 0.0d : Double.parseDouble(cell);
+    }
+}
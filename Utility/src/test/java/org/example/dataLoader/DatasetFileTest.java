@@ -0,0 +1,158 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetFileTest {
+    private static final long[] SOURCE = {12_345L, 1_700_000_000_000L};
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("dataset-file-test");
+        file = directory.resolve("wdi.bin");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    void testWriteAndReadRoundTrip() throws IOException {
+        // Given
+        WdiTable table = sampleTable();
+
+        // When
+        new DatasetFile(file).write(table, 42L, SOURCE);
+        DatasetFile datasetFile = new DatasetFile(file);
+        WdiTable read = datasetFile.read(SOURCE);
+
+        // Then
+        assertNotNull(read, "Die Datei sollte zur CSV-Datei passen");
+        assertEquals(42L, datasetFile.getFingerprint(), "Der Fingerabdruck sollte erhalten bleiben");
+        assertEquals(table.size(), read.size());
+        for (int row = 0; row < table.size(); row++) {
+            WDI expected = table.getRow(row);
+            WDI actual = read.getRow(row);
+            assertEquals(expected.getCountryName(), actual.getCountryName());
+            assertEquals(expected.getCountryCode(), actual.getCountryCode());
+            assertEquals(expected.getIndicatorName(), actual.getIndicatorName());
+            assertEquals(expected.getIndicatorCode(), actual.getIndicatorCode());
+            assertArrayEquals(expected.getValues(), actual.getValues(), "Werte der Zeile " + row);
+        }
+        assertEquals(table.getCountries().getCodes(), read.getCountries().getCodes(),
+                "Die IDs der Länder sollten erhalten bleiben");
+        assertEquals(table.getIndicators().getCodes(), read.getIndicators().getCodes(),
+                "Die IDs der Indikatoren sollten erhalten bleiben");
+    }
+
+    @Test
+    void testStaleSourceIsDiscarded() throws IOException {
+        // Given
+        new DatasetFile(file).write(sampleTable(), 42L, SOURCE);
+
+        // When / Then
+        assertNull(new DatasetFile(file).read(new long[]{SOURCE[0] + 1, SOURCE[1]}),
+                "Eine Datei zu einer CSV-Datei anderer Größe sollte verworfen werden");
+        assertNull(new DatasetFile(file).read(new long[]{SOURCE[0], SOURCE[1] + 1}),
+                "Eine Datei zu einer geänderten CSV-Datei sollte verworfen werden");
+        assertNotNull(new DatasetFile(file).read(SOURCE));
+    }
+
+    @Test
+    void testUnknownSourceIsNeverUsed() throws IOException {
+        // Given
+        long[] unknown = {-1, -1};
+
+        // When / Then
+        assertThrows(IOException.class, () -> new DatasetFile(file).write(sampleTable(), 42L, unknown),
+                "Zu einer unbekannten CSV-Datei sollte keine Datei geschrieben werden");
+        assertFalse(Files.exists(file));
+        new DatasetFile(file).write(sampleTable(), 42L, SOURCE);
+        assertNull(new DatasetFile(file).read(unknown),
+                "Ist die CSV-Datei unbekannt, sollte jede Datei als veraltet gelten");
+    }
+
+    @Test
+    void testCorruptFileIsDiscarded() throws IOException {
+        // Given
+        long size = new DatasetFile(file).write(sampleTable(), 42L, SOURCE);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(size / 2);
+            int b = raf.read();
+            raf.seek(size / 2);
+            raf.write(b ^ 0xFF);
+        }
+
+        // When / Then
+        assertNull(new DatasetFile(file).read(SOURCE), "Eine Datei mit falscher Prüfsumme sollte verworfen werden");
+    }
+
+    @Test
+    void testConcurrentWritersLeaveValidFile() throws Exception {
+        // Given
+        WdiTable table = sampleTable();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> new DatasetFile(file).write(table, 42L, SOURCE)));
+            }
+            for (Future<Long> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        WdiTable read = new DatasetFile(file).read(SOURCE);
+        assertNotNull(read, "Gleichzeitige Schreiber sollten eine gültige Datei hinterlassen");
+        assertEquals(table.size(), read.size());
+        try (Stream<Path> paths = Files.list(directory)) {
+            assertEquals(List.of(file), paths.toList(), "Es sollten keine temporären Dateien übrig bleiben");
+        }
+    }
+
+    /**
+     * 30 Zeilen (3 Länder x 10 Indikatoren) mit fehlenden Werten, Sonderzeichen und einem leeren Namen.
+     */
+    private static WdiTable sampleTable() {
+        WdiTable table = new WdiTable(4);
+        String[] countries = {"Côte d'Ivoire", "Korea, Rep.", ""};
+        for (int c = 0; c < countries.length; c++) {
+            for (int i = 0; i < 10; i++) {
+                int row = table.addRow(countries[c], "C" + c, "Indicator \"" + i + "\" (%)", "IND." + i);
+                for (int year = 0; year < WDI.YEARS; year++) {
+                    if ((row + year) % 3 != 0) table.setValue(row, year, row * 1000.5 - year / 7.0);
+                }
+            }
+        }
+        table.trimToSize();
+        return table;
+    }
+}
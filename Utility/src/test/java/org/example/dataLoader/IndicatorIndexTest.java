@@ -0,0 +1,113 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndicatorIndexTest {
+    private static final String[] COUNTRIES = {"DEU", "FRA", "USA", "JPN", "BRA"};
+    private static final String[] INDICATORS = {"SP.POP.TOTL", "NY.GDP.MKTP.CD", "EN.ATM.CO2E.KT"};
+
+    @Test
+    void testRowsAndMeansMatchDataset() {
+        // Given
+        WdiTable table = sampleTable();
+
+        // When
+        IndicatorIndex index = new IndicatorIndex(table);
+
+        // Then
+        int indexed = 0;
+        for (int id = 0; id < table.getIndicators().size(); id++) {
+            int previous = -1;
+            for (int row : index.getRows(id)) {
+                assertEquals(id, table.getIndicatorId(row), "Die Zeile sollte zum Indikator gehören");
+                assertTrue(row > previous, "Die Zeilen sollten in der Reihenfolge des Datensatzes stehen");
+                previous = row;
+                indexed++;
+            }
+        }
+        assertEquals(table.size(), indexed, "Jede Zeile sollte genau einmal indiziert sein");
+        for (int row = 0; row < table.size(); row++) {
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < WDI.YEARS; i++) {
+                sum += table.getValue(row, i);
+                if (table.getValue(row, i) != 0.0d) count++;
+            }
+            assertEquals(sum, index.getSum(row), "Summe der Zeile " + row);
+            assertEquals(count, index.getCount(row), "Anzahl der Werte der Zeile " + row);
+            assertEquals(sum / count, index.getMean(row), "Mittelwert der Zeile " + row);
+        }
+        assertEquals(0, index.getRows(-1).length, "Ein unbekannter Indikator sollte keine Zeilen haben");
+        assertEquals(0, index.getRows(INDICATORS.length).length);
+    }
+
+    @Test
+    void testReportMatchesMeansOverAllYears() {
+        // Given
+        WdiTable table = sampleTable();
+        DAO dao = new DAO(table, 1L);
+
+        for (String indicator : INDICATORS) {
+            // When
+            String report = dao.report(indicator);
+
+            // Then: wie der bisherige Bericht über alle Zeilen des Datensatzes
+            StringBuilder expected = new StringBuilder(indicator).append(';');
+            for (int row = 0; row < table.size(); row++) {
+                WDI wdi = table.getRow(row);
+                if (!wdi.getIndicatorCode().equals(indicator)) continue;
+                double sum = 0;
+                int count = 0;
+                for (double value : wdi.getValues()) {
+                    sum += value;
+                    if (value != 0.0d) count++;
+                }
+                expected.append(wdi.getCountryCode()).append(';').append(sum / count).append(';');
+            }
+            assertEquals(expected.toString(), report, "Bericht für " + indicator);
+        }
+    }
+
+    @Test
+    void testStreamedReportMatchesReport() {
+        // Given
+        DAO dao = new DAO(sampleTable(), 1L);
+
+        // When
+        List<String> rows = new ArrayList<>();
+        dao.report(INDICATORS[1], (country, mean) -> rows.add(country + ";" + mean + ";"));
+
+        // Then
+        assertEquals(dao.report(INDICATORS[1]), INDICATORS[1] + ";" + String.join("", rows));
+        assertEquals(DAO.UNKNOWN_INDICATOR + "XXX", dao.report("XXX"));
+        List<String> unknown = new ArrayList<>();
+        dao.report("XXX", (country, mean) -> unknown.add(country));
+        assertTrue(unknown.isEmpty(), "Für einen unbekannten Indikator sollte nichts übergeben werden");
+    }
+
+    /**
+     * Länder und Indikatoren gemischt, mit negativen Werten, fehlenden Werten (0.0) und einer Zeile ganz ohne Werte
+     * (Mittelwert NaN).
+     */
+    private static WdiTable sampleTable() {
+        WdiTable table = new WdiTable(16);
+        Random random = new Random(22);
+        for (String country : COUNTRIES) {
+            for (String indicator : INDICATORS) {
+                int row = table.addRow(country + " name", country, indicator + " name", indicator);
+                if (country.equals("JPN") && indicator.equals(INDICATORS[1])) continue;
+                for (int year = 0; year < WDI.YEARS; year++) {
+                    if (random.nextInt(4) != 0) table.setValue(row, year, random.nextGaussian() * 1e6);
+                }
+            }
+        }
+        return table;
+    }
+}
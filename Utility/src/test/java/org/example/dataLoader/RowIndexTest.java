@@ -0,0 +1,102 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowIndexTest {
+
+    @Test
+    void testPointQueriesFindEveryRow() {
+        // Given: 150 Länder x 200 Indikatoren in zufälliger Reihenfolge
+        List<int[]> keys = new ArrayList<>();
+        for (int country = 0; country < 150; country++) {
+            for (int indicator = 0; indicator < 200; indicator++) {
+                keys.add(new int[]{country, indicator});
+            }
+        }
+        Collections.shuffle(keys, new Random(21));
+        RowIndex index = new RowIndex(keys.size());
+
+        // When
+        for (int row = 0; row < keys.size(); row++) {
+            assertTrue(index.put(keys.get(row)[0], keys.get(row)[1], row), "Der Schlüssel sollte neu sein");
+        }
+
+        // Then
+        assertEquals(keys.size(), index.size());
+        for (int row = 0; row < keys.size(); row++) {
+            assertEquals(row, index.get(keys.get(row)[0], keys.get(row)[1]),
+                    "Land " + keys.get(row)[0] + " und Indikator " + keys.get(row)[1] + " sollten gefunden werden");
+        }
+    }
+
+    @Test
+    void testMissingKeysAreNotFound() {
+        // Given: nur Paare mit gerader Summe
+        RowIndex index = new RowIndex(50);
+        for (int country = 0; country < 10; country++) {
+            for (int indicator = 0; indicator < 10; indicator++) {
+                if ((country + indicator) % 2 == 0) index.put(country, indicator, country * 10 + indicator);
+            }
+        }
+
+        // When / Then
+        for (int country = 0; country < 10; country++) {
+            for (int indicator = 0; indicator < 10; indicator++) {
+                int expected = (country + indicator) % 2 == 0 ? country * 10 + indicator : -1;
+                assertEquals(expected, index.get(country, indicator));
+            }
+        }
+        assertEquals(-1, index.get(-1, 0), "Ein unbekanntes Land sollte nicht gefunden werden");
+        assertEquals(-1, index.get(0, -1), "Ein unbekannter Indikator sollte nicht gefunden werden");
+        assertEquals(-1, index.get(10, 0));
+        assertEquals(-1, index.get(0, Integer.MAX_VALUE));
+        assertEquals(-1, new RowIndex(1).get(0, 0), "Ein leerer Index sollte nichts finden");
+    }
+
+    @Test
+    void testDuplicateRowKeepsFirst() {
+        // Given
+        RowIndex index = new RowIndex(4);
+        index.put(3, 7, 0);
+
+        // When
+        boolean added = index.put(3, 7, 5);
+
+        // Then
+        assertFalse(added, "Eine zweite Zeile zu Land und Indikator sollte gemeldet werden");
+        assertEquals(0, index.get(3, 7), "Die erste Zeile sollte erhalten bleiben");
+        assertEquals(1, index.size());
+        assertTrue(index.put(7, 3, 6), "Vertauschte IDs sind ein anderer Schlüssel");
+        assertEquals(6, index.get(7, 3));
+    }
+
+    @Test
+    void testDaoPointQueriesUseFirstRow() {
+        // Given: DEU/POP doppelt, FRA/GDP fehlt
+        WdiTable table = new WdiTable(4);
+        table.setValue(table.addRow("Germany", "DEU", "Population", "POP"), 0, 1.5);
+        table.setValue(table.addRow("Germany", "DEU", "GDP", "GDP"), 0, 2.5);
+        table.setValue(table.addRow("France", "FRA", "Population", "POP"), 0, 3.5);
+        table.setValue(table.addRow("Germany", "DEU", "Population", "POP"), 0, 9.5);
+        DAO dao = new DAO(table, 1L);
+
+        // When / Then
+        assertEquals(3, dao.getRowIndex().size(), "Die doppelte Zeile sollte nicht indiziert werden");
+        WDI wdi = dao.find("DEU", "POP");
+        assertNotNull(wdi);
+        assertEquals(1.5, wdi.getValueAt(0), "Die erste Zeile im Datensatz sollte gefunden werden");
+        assertEquals("DEU;POP;" + WDI.FIRST_YEAR + ";1.5", dao.query("DEU", "POP", WDI.FIRST_YEAR));
+        assertNull(dao.find("FRA", "GDP"));
+        assertEquals(DAO.NO_DATA + "FRA;GDP", dao.query("FRA", "GDP"));
+        assertEquals(DAO.UNKNOWN_COUNTRY + "XXX", dao.query("XXX", "POP"));
+        assertEquals(DAO.UNKNOWN_INDICATOR + "XXX", dao.query("DEU", "XXX"));
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.dataLoader;
+
+import org.example.wdi.WDI;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WdiTableTest {
+
+    @Test
+    void testColumnarRoundTrip() {
+        // Given: mehr Zeilen als die anfängliche Kapazität
+        WdiTable table = new WdiTable(1);
+
+        // When
+        for (int row = 0; row < 100; row++) {
+            int added = table.addRow("Country " + row % 7, "C" + row % 7, "Indicator " + row / 7, "I" + row / 7);
+            assertEquals(row, added, "Zeilen sollten fortlaufend nummeriert werden");
+            for (int year = 0; year < WDI.YEARS; year++) {
+                table.setValue(row, year, value(row, year));
+            }
+        }
+        table.trimToSize();
+
+        // Then
+        assertEquals(100, table.size());
+        assertEquals(7, table.getCountries().size());
+        assertEquals(15, table.getIndicators().size());
+        List<WDI> rows = table.asList();
+        assertEquals(100, rows.size());
+        for (int row = 0; row < 100; row++) {
+            WDI wdi = rows.get(row);
+            assertEquals("Country " + row % 7, wdi.getCountryName());
+            assertEquals("C" + row % 7, wdi.getCountryCode());
+            assertEquals("Indicator " + row / 7, wdi.getIndicatorName());
+            assertEquals("I" + row / 7, wdi.getIndicatorCode());
+            assertEquals(table.getCountries().getId("C" + row % 7), table.getCountryId(row));
+            double[] values = wdi.getValues();
+            assertEquals(WDI.YEARS, values.length);
+            for (int year = 0; year < WDI.YEARS; year++) {
+                assertEquals(value(row, year), values[year], "Zeile " + row + ", Jahr " + year);
+                assertEquals(value(row, year), wdi.getValueAt(year));
+                assertEquals(value(row, year), table.getValue(row, year));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getRow(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getRow(-1));
+    }
+
+    @Test
+    void testSetValuesAndFirstNamePerCode() {
+        // Given
+        WdiTable table = new WdiTable(2);
+        double[] source = new double[WDI.YEARS + 2];
+        for (int i = 0; i < source.length; i++) {
+            source[i] = i * 1.25;
+        }
+
+        // When
+        table.ensureCapacity(3);
+        int first = table.addRow("Germany", "DEU", "Population", "POP");
+        int second = table.addRow("Deutschland", "DEU", "Bevölkerung", "POP");
+        table.setValues(second, source, 2);
+
+        // Then
+        assertEquals("Germany", table.getRow(second).getCountryName(), "Der erste Name zum Code sollte gelten");
+        assertEquals("Population", table.getRow(second).getIndicatorName());
+        assertArrayEquals(new double[WDI.YEARS], table.getRow(first).getValues(),
+                "Eine Zeile ohne Werte sollte nur fehlende Werte (0.0) haben");
+        for (int year = 0; year < WDI.YEARS; year++) {
+            assertEquals((year + 2) * 1.25, table.getValue(second, year));
+        }
+        // eine Sicht kopiert nichts, getValues() aber schon
+        WDI view = table.getRow(second);
+        table.setValue(second, 0, 42.0);
+        assertEquals(42.0, view.getValueAt(0), "Die Sicht sollte die Werte der Tabelle lesen");
+        view.getValues()[1] = -1.0;
+        assertEquals(3 * 1.25, table.getValue(second, 1), "getValues() sollte eine Kopie liefern");
+    }
+
+    @Test
+    void testMissingAndNaNValues() {
+        // Given
+        WdiTable table = new WdiTable(1);
+        int row = table.addRow("Chad", "TCD", "GDP", "GDP");
+
+        // When
+        table.setValue(row, 0, Double.NaN);
+        table.setValue(row, 2, -0.0);
+        table.setValue(row, WDI.YEARS - 1, Double.NEGATIVE_INFINITY);
+
+        // Then
+        WDI wdi = table.getRow(row);
+        assertTrue(Double.isNaN(wdi.getValueAt(0)), "NaN sollte unverändert gespeichert werden");
+        assertEquals(0.0, wdi.getValueAt(1), "Ein fehlender Wert sollte 0.0 sein");
+        assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(wdi.getValueAt(2)));
+        assertEquals(Double.NEGATIVE_INFINITY, wdi.getValue((short) (WDI.FIRST_YEAR + WDI.YEARS - 1)));
+    }
+
+    @Test
+    void testPerYearAccessStaysInRow() {
+        // Given: zwei Zeilen direkt hintereinander im Array der Werte
+        WdiTable table = new WdiTable(2);
+        int first = table.addRow("A", "A", "X", "X");
+        int second = table.addRow("B", "B", "X", "X");
+        for (int year = 0; year < WDI.YEARS; year++) {
+            table.setValue(first, year, WDI.FIRST_YEAR + year);
+            table.setValue(second, year, -1.0);
+        }
+        WDI wdi = table.getRow(first);
+
+        // When / Then
+        for (int year = 0; year < WDI.YEARS; year++) {
+            short y = (short) (WDI.FIRST_YEAR + year);
+            assertEquals(y, wdi.getValue(y), "Wert für " + y);
+        }
+        // gespeichert sind nur 63 Jahre: 2023 würde sonst den ersten Wert der nächsten Zeile lesen
+        assertThrows(IllegalArgumentException.class, () -> wdi.getValue(WDI.LAST_YEAR));
+        assertThrows(IllegalArgumentException.class, () -> wdi.getValue((short) (WDI.FIRST_YEAR - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> table.getRow(second).getValue((short) (WDI.FIRST_YEAR + WDI.YEARS)));
+    }
+
+    private static double value(int row, int year) {
+        return (row * 31 + year) % 5 == 0 ? 0.0d : row * 1000.5 - year / 3.0;
+    }
+}